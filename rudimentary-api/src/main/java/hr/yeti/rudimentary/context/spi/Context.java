@@ -1,14 +1,24 @@
 package hr.yeti.rudimentary.context.spi;
 
 import hr.yeti.rudimentary.config.spi.Config;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.stream.Collectors;
 
 /**
@@ -39,13 +49,27 @@ public abstract class Context implements Instance {
     /**
      * Map holding already initialized SPI providers.
      */
-    protected static final List<String> INITIALIZED_INSTANCES = new ArrayList<>();
+    protected static final List<String> INITIALIZED_INSTANCES = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * Map containing graph of dependent instances.
      */
     protected Map<String, List<String>> instanceDependencyGraph = new HashMap();
 
+    /**
+     * <pre>
+     * Every class and interface instances from {@link #CONTEXT} extend or implement, mapped to those instances in
+     * context order. Index is immutable, it is built once context is initialized, or on the first lookup after
+     * context has changed, so looking instances up by type costs a single hash lookup instead of a scan over context.
+     * </pre>
+     */
+    private static volatile Map<Class<?>, List<Instance>> typeIndex;
+
+    /**
+     * Lazy instances which are not initialized yet, by class, mapped to lock guarding their initialization.
+     */
+    private static final Map<Class<?>, Object> UNINITIALIZED_LAZY_INSTANCES = new ConcurrentHashMap<>();
+
     /**
      * Initialize application/service logger.
      */
@@ -95,6 +119,7 @@ public abstract class Context implements Instance {
         CONTEXT
             .values()
             .stream()
+            .filter((instance) -> !UNINITIALIZED_LAZY_INSTANCES.containsKey(instance.getClass()))
             .forEach((instance) -> {
                 try {
                     instance.destroy();
@@ -105,6 +130,8 @@ public abstract class Context implements Instance {
         CONTEXT.clear();
         INITIALIZED_INSTANCES.clear();
         instanceDependencyGraph.clear();
+        typeIndex = null;
+        UNINITIALIZED_LAZY_INSTANCES.clear();
     }
 
     /**
@@ -118,7 +145,187 @@ public abstract class Context implements Instance {
     protected void add(Instance instance) {
         if (instance.conditional()) {
             CONTEXT.put(instance.getClass().getCanonicalName(), instance);
+            typeIndex = null;
+        }
+    }
+
+    /**
+     * <pre>
+     * Initializes {@link Instance#lazy()} instance on its first use, together with lazy instances it depends on.
+     * Instance is initialized exactly once, concurrent callers wait until it is done. For instances which are not lazy
+     * or are already initialized this costs a single hash lookup.
+     * </pre>
+     *
+     * @param <T> Inferred class type generics.
+     * @param instance Context instance, may be null.
+     * @return The same instance, initialized.
+     * @throws ContextException if initialization fails, it is retried on the next use.
+     */
+    public static <T> T initializeIfLazy(T instance) {
+        if (Objects.isNull(instance)) {
+            return null;
+        }
+
+        Object lock = UNINITIALIZED_LAZY_INSTANCES.get(instance.getClass());
+
+        if (Objects.isNull(lock)) {
+            return instance;
+        }
+
+        synchronized (lock) {
+            if (UNINITIALIZED_LAZY_INSTANCES.containsKey(instance.getClass())) {
+                Instance lazyInstance = (Instance) instance;
+
+                for (Class<?> dependency : lazyInstance.dependsOn()) {
+                    for (Instance provider : instancesOf(dependency)) {
+                        if (provider != lazyInstance) {
+                            initializeIfLazy(provider);
+                        }
+                    }
+                }
+
+                try {
+                    lazyInstance.initialize();
+                } catch (RuntimeException e) {
+                    throw new ContextException("Could not initialize " + instance.getClass().getName() + ", " + e.getMessage(), e);
+                }
+
+                INITIALIZED_INSTANCES.add(instance.getClass().getCanonicalName());
+                UNINITIALIZED_LAZY_INSTANCES.remove(instance.getClass());
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * <pre>
+     * Builds index of context instances by type used by {@link Instance#of(java.lang.Class)} and
+     * {@link Instance#providersOf(java.lang.Class)}. Should be called once all instances are added to context.
+     * </pre>
+     */
+    protected void buildTypeIndex() {
+        typeIndex = indexByType();
+    }
+
+    /**
+     * @param type Class or interface.
+     * @return Immutable list of context instances which are of the given type, in context order.
+     */
+    static List<Instance> instancesOf(Class<?> type) {
+        Map<Class<?>, List<Instance>> index = typeIndex;
+
+        if (Objects.isNull(index)) {
+            index = indexByType();
+            typeIndex = index;
+        }
+
+        return index.getOrDefault(type, List.of());
+    }
+
+    private static Map<Class<?>, List<Instance>> indexByType() {
+        Map<Class<?>, List<Instance>> index = new HashMap<>();
+
+        for (Instance instance : CONTEXT.values()) {
+            for (Class<?> type : typesOf(instance.getClass())) {
+                index.computeIfAbsent(type, (key) -> new ArrayList<>()).add(instance);
+            }
+        }
+
+        index.replaceAll((type, instances) -> List.copyOf(instances));
+        return Map.copyOf(index);
+    }
+
+    private void initializeIndependentInstance(Instance instance) {
+        try {
+            instance.initialize();
+        } catch (RuntimeException | Error e) {
+            throw new ContextException("Could not initialize " + instance.getClass().getName() + ", " + e.getMessage(), e);
+        }
+
+        setInitialized(instance);
+    }
+
+    // Groups instances not initialized yet so each group depends only on instances from previous groups
+    private List<List<Instance>> initializationLevels() {
+        Map<Instance, Integer> levels = new IdentityHashMap<>();
+        List<List<Instance>> grouped = new ArrayList<>();
+
+        for (Instance instance : CONTEXT.values()) {
+            if (!instance.lazy()) {
+                initializationLevel(instance, levels, new LinkedHashSet<>());
+            }
+        }
+
+        // Lazy instances required by non lazy ones got their level too
+        for (Instance instance : CONTEXT.values()) {
+            int level = levels.getOrDefault(instance, -1);
+
+            if (level >= 0) {
+                while (grouped.size() <= level) {
+                    grouped.add(new ArrayList<>());
+                }
+
+                grouped.get(level).add(instance);
+            }
+        }
+
+        return grouped;
+    }
+
+    private int initializationLevel(Instance instance, Map<Instance, Integer> levels, Set<String> path) {
+        if (isInstanceInitialized(instance.getClass())) {
+            return -1;
         }
+
+        Integer known = levels.get(instance);
+
+        if (Objects.nonNull(known)) {
+            return known;
+        }
+
+        String name = instance.getClass().getName();
+
+        if (!path.add(name)) {
+            throw new ContextException("Circular dependency detected, " + String.join(" -> ", path) + " -> " + name);
+        }
+
+        int level = 0;
+
+        for (Class<?> dependency : instance.dependsOn()) {
+            for (Instance provider : instancesOf(dependency)) {
+                // Lazy providers of a SPI are initialized once they are acquired
+                if (provider != instance && (!provider.lazy() || provider.getClass() == dependency)) {
+                    level = Math.max(level, initializationLevel(provider, levels, path) + 1);
+                }
+            }
+        }
+
+        path.remove(name);
+        levels.put(instance, level);
+
+        return level;
+    }
+
+    // Class itself, all its superclasses and all interfaces implemented directly or through them
+    private static Set<Class<?>> typesOf(Class<?> clazz) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        Deque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(clazz);
+
+        while (!pending.isEmpty()) {
+            Class<?> type = pending.poll();
+
+            if (types.add(type)) {
+                if (Objects.nonNull(type.getSuperclass())) {
+                    pending.add(type.getSuperclass());
+                }
+
+                pending.addAll(List.of(type.getInterfaces()));
+            }
+        }
+
+        return types;
     }
 
     /**
@@ -179,6 +386,68 @@ public abstract class Context implements Instance {
         }
     }
 
+    /**
+     * <pre>
+     * Initializes all instances in context which are not initialized yet, in parallel, level by level of the graph
+     * built from {@link Instance#dependsOn()}. Instances without dependencies are initialized first, all at once, then
+     * instances depending only on them and so on, so initialization takes about as long as the slowest chain of
+     * dependent initializers instead of all initializers together. An instance depending on a SPI waits for all
+     * providers of that SPI found in context.
+     *
+     * Initialization fails fast, as soon as any initializer throws remaining levels are not initialized and
+     * {@link ContextException} naming the failed instance is thrown.
+     *
+     * {@link Instance#lazy()} instances are left to be initialized on first use, unless a non lazy instance depends on
+     * their class.
+     * </pre>
+     */
+    protected void initializeInstancesInParallel() {
+        List<List<Instance>> levels = initializationLevels();
+
+        CONTEXT.values().stream()
+            .filter((instance) -> instance.lazy() && !isInstanceInitialized(instance.getClass()))
+            .filter((instance) -> levels.stream().noneMatch((level) -> level.contains(instance)))
+            .forEach((instance) -> UNINITIALIZED_LAZY_INSTANCES.put(instance.getClass(), new Object()));
+        int parallelism = levels.stream().mapToInt(List::size).max().orElse(1);
+
+        // Initializers often block on I/O, e.g. opening connections, so every instance of a level gets its own worker
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(parallelism, (forkJoinPool) -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("rudimentary-context-initializer-" + thread.getPoolIndex());
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+
+        try {
+            for (List<Instance> level : levels) {
+                CompletableFuture<Void> failure = new CompletableFuture<>();
+                List<CompletableFuture<Void>> initializers = new ArrayList<>();
+
+                for (Instance instance : level) {
+                    CompletableFuture<Void> initializer = CompletableFuture.runAsync(() -> initializeIndependentInstance(instance), pool);
+
+                    initializer.whenComplete((result, e) -> {
+                        if (Objects.nonNull(e)) {
+                            failure.completeExceptionally(e);
+                        }
+                    });
+                    initializers.add(initializer);
+                }
+
+                // Either the whole level is initialized or the first initializer failed
+                CompletableFuture.anyOf(CompletableFuture.allOf(initializers.toArray(CompletableFuture[]::new)), failure).join();
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ContextException) {
+                throw (ContextException) e.getCause();
+            }
+            throw new ContextException("Context initialization failed.", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
     /**
      * Builds graph of dependent instances in form of map.
      */
@@ -1,9 +1,9 @@
 package hr.yeti.rudimentary.context.spi;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * <pre>
@@ -58,7 +58,7 @@ public interface Instance {
         T instance = (T) Context.acquire().get(clazz.getCanonicalName());
 
         if (Objects.isNull(instance)) {
-            List<T> providersOf = providersOf(clazz);
+            List<T> providersOf = (List<T>) Context.instancesOf(clazz);
 
             if (!providersOf.isEmpty()) {
                 Optional<T> provider = providersOf.stream()
@@ -76,7 +76,7 @@ public interface Instance {
             }
         }
 
-        return instance;
+        return Context.initializeIfLazy(instance);
     }
 
     /**
@@ -90,7 +90,7 @@ public interface Instance {
      * @return An instance of given @param class with @param id.
      */
     static <T> T withId(Class<T> clazz, String id) {
-        Optional<T> instanceWithId = providersOf(clazz)
+        Optional<T> instanceWithId = ((List<T>) Context.instancesOf(clazz))
             .stream()
             .filter(instance -> {
                 String instanceId = ((Instance) instance).id();
@@ -98,7 +98,7 @@ public interface Instance {
             })
             .findFirst();
 
-        return instanceWithId.isPresent() ? instanceWithId.get() : null;
+        return instanceWithId.isPresent() ? Context.initializeIfLazy(instanceWithId.get()) : null;
     }
 
     /**
@@ -106,14 +106,10 @@ public interface Instance {
      *
      * @param <T> Inferred class type generics.
      * @param clazz Class type to be returned.
-     * @return A list of instances of given @param class type.
+     * @return A list of instances of given @param class type. List is a copy, it can be freely modified.
      */
     static <T> List<T> providersOf(Class<T> clazz) {
-        return (List<T>) Context.acquire()
-            .values()
-            .stream()
-            .filter(instance -> clazz.isAssignableFrom(instance.getClass()))
-            .collect(Collectors.toList());
+        return new ArrayList<>((List<T>) Context.instancesOf(clazz));
     }
 
     /**
@@ -186,4 +182,24 @@ public interface Instance {
     default boolean conditional() {
         return true;
     }
+
+    /**
+     * <pre>
+     * Lazy instance is not initialized on application startup but on its first use, when it is acquired by
+     * {@link Instance#of(java.lang.Class)} or {@link Instance#withId(java.lang.Class, java.lang.String)} or, if it is
+     * an http endpoint, when it handles its first request. Use it for rarely used instances whose initialization is
+     * slow. Lazy instance is still initialized on startup if a non lazy instance lists its class, not just its SPI, in
+     * {@link Instance#dependsOn()}.
+     *
+     * {@link Instance#providersOf(java.lang.Class)} does not initialize lazy instances it returns.
+     *
+     * Lazy http endpoint is routed on startup, so its path, http method and declared request and response types must
+     * not depend on {@link Instance#initialize()}. Its authorization rules are read only after it is initialized.
+     * </pre>
+     *
+     * @return true if this instance is initialized on first use, otherwise false by default.
+     */
+    default boolean lazy() {
+        return false;
+    }
 }
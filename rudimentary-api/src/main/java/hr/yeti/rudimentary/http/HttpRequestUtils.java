@@ -5,6 +5,7 @@ import com.sun.net.httpserver.HttpExchange;
 import static hr.yeti.rudimentary.http.URIUtils.convertToRegex;
 import hr.yeti.rudimentary.http.content.Model;
 import hr.yeti.rudimentary.http.session.Session;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
 import java.net.HttpCookie;
 import java.net.URI;
 import java.util.ArrayList;
@@ -89,10 +90,12 @@ public class HttpRequestUtils {
 
     public static Optional<Session> extractSession(HttpExchange exchange) {
         Map<String, HttpCookie> cookies = HttpRequestUtils.parseCookies(exchange.getRequestHeaders());
-        if (cookies.isEmpty()) {
+        SessionStore sessionStore = SessionStore.provider();
+
+        if (!cookies.containsKey(Session.COOKIE) || Objects.isNull(sessionStore)) {
             return Optional.empty();
         } else {
-            Session session = (Session) exchange.getAttribute(cookies.get(Session.COOKIE).getValue());
+            Session session = sessionStore.get(cookies.get(Session.COOKIE).getValue());
             return Optional.ofNullable(session);
         }
     }
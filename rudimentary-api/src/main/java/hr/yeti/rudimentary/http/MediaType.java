@@ -16,5 +16,6 @@ public class MediaType {
     public static final String TEXT_HTML = "text/html";
     public static final String TEXT_PLAIN = "text/plain";
     public static final String TEXT_CSS = "text/css";
+    public static final String MULTIPART_BYTERANGES = "multipart/byteranges";
 
 }
@@ -2,7 +2,9 @@ package hr.yeti.rudimentary.http.content;
 
 import hr.yeti.rudimentary.http.spi.HttpEndpoint;
 import java.io.InputStream;
+import hr.yeti.rudimentary.http.stream.RangeStreamOutWriteDef;
 import hr.yeti.rudimentary.http.stream.StreamOutWriteDef;
+import java.util.Objects;
 
 /**
  * <pre>
@@ -16,6 +18,10 @@ import hr.yeti.rudimentary.http.stream.StreamOutWriteDef;
  *  <li>Incoming stream: file upload.</li>
  * </ul>
  *
+ * Outgoing stream of known length which can start writing from any offset should be created
+ * with {@link #ByteStream(long, RangeStreamOutWriteDef)}. Such stream supports http range requests
+ * so clients can resume interrupted downloads.
+ *
  * </pre>
  *
  * @author vedransmid@yeti-it.hr
@@ -34,6 +40,18 @@ public class ByteStream extends Model implements Value<InputStream> {
      */
     private InputStream inputStream;
 
+    /**
+     *
+     * Implementation of how part of seekable data is written to output stream.
+     */
+    private RangeStreamOutWriteDef rangeStreamOutWriteDef;
+
+    /**
+     *
+     * Length of seekable data, -1 if data is not seekable.
+     */
+    private long length = -1;
+
     private ByteStream() {
 
     }
@@ -54,6 +72,18 @@ public class ByteStream extends Model implements Value<InputStream> {
         this.streamOutWriteDef = streamOutWriteDef;
     }
 
+    /**
+     *
+     * @param length Exact length of outgoing data in bytes.
+     * @param rangeStreamOutWriteDef Implementation of how part of data, starting from any offset, is written to output
+     * stream.
+     */
+    public ByteStream(long length, RangeStreamOutWriteDef rangeStreamOutWriteDef) {
+        this.length = length;
+        this.rangeStreamOutWriteDef = rangeStreamOutWriteDef;
+        this.streamOutWriteDef = (outputStream) -> rangeStreamOutWriteDef.startStreaming(outputStream, 0, length);
+    }
+
     /**
      *
      * @return Implementation of how data is written to output stream.
@@ -62,6 +92,30 @@ public class ByteStream extends Model implements Value<InputStream> {
         return streamOutWriteDef;
     }
 
+    /**
+     *
+     * @return Implementation of how part of data is written to output stream or null if data is not seekable.
+     */
+    public RangeStreamOutWriteDef getRangeStreamOutWriteDef() {
+        return rangeStreamOutWriteDef;
+    }
+
+    /**
+     *
+     * @return Length of outgoing data in bytes or -1 if data is not seekable.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     *
+     * @return true if outgoing data can be written starting from any offset.
+     */
+    public boolean isSeekable() {
+        return Objects.nonNull(rangeStreamOutWriteDef);
+    }
+
     /**
      *
      * @return Incoming data stream as {@link InputSteram}.
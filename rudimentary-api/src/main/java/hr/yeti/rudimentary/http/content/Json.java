@@ -1,13 +1,11 @@
 package hr.yeti.rudimentary.http.content;
 
 import hr.yeti.rudimentary.http.spi.HttpEndpoint;
+import hr.yeti.rudimentary.json.spi.JsonCodec;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import javax.json.JsonValue;
-import javax.json.bind.Jsonb;
-import javax.json.bind.JsonbBuilder;
 
 /**
  * <pre>
@@ -38,7 +36,7 @@ public final class Json extends Model implements Value<JsonValue> {
      * @param value A value that will internally be converted to JSON and sent in a response.
      */
     public Json(Map<String, Object> value) {
-        this.value = javax.json.Json.createObjectBuilder(value).build();
+        this.value = JsonCodec.provider().createObject(value);
     }
 
     /**
@@ -47,7 +45,7 @@ public final class Json extends Model implements Value<JsonValue> {
      * @param value A value that will internally be converted to JSON and sent in a response.
      */
     public Json(List<Map<String, Object>> value) {
-        this.value = javax.json.Json.createArrayBuilder(value).build();
+        this.value = JsonCodec.provider().createArray(value);
     }
 
     /**
@@ -56,13 +54,7 @@ public final class Json extends Model implements Value<JsonValue> {
      * @param value A value that will internally be converted to JSON and sent in a response.
      */
     public Json(Object value) {
-        if (Objects.nonNull(value)) {
-            Jsonb jsonb = JsonbBuilder.create();
-            String json = jsonb.toJson(value);
-            this.value = jsonb.fromJson(json, JsonValue.class);
-        } else {
-            this.value = JsonValue.NULL;
-        }
+        this.value = JsonCodec.provider().toJsonValue(value);
     }
 
     @Override
@@ -81,7 +73,7 @@ public final class Json extends Model implements Value<JsonValue> {
         if (isArray()) {
             throw new RuntimeException("Json value is an array and can not be converted to POJO.");
         }
-        return JsonbBuilder.create().fromJson(this.value.toString(), type);
+        return JsonCodec.provider().fromJsonValue(this.value, type);
     }
 
     /**
@@ -96,9 +88,9 @@ public final class Json extends Model implements Value<JsonValue> {
             throw new RuntimeException("Json value is not an array.");
         }
         final List<T> typedList = new ArrayList();
-        Jsonb builder = JsonbBuilder.create();
+        JsonCodec codec = JsonCodec.provider();
         this.value.asJsonArray().forEach((json) -> {
-            T typedJson = builder.fromJson(json.toString(), type);
+            T typedJson = codec.fromJsonValue(json, type);
             typedList.add(typedJson);
         });
         return typedList;
@@ -1,7 +1,13 @@
 package hr.yeti.rudimentary.http.content;
 
 import hr.yeti.rudimentary.http.MediaType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
 
 /**
  * <pre>
@@ -18,7 +24,11 @@ import java.io.InputStream;
  */
 public final class StaticResource extends Model implements Value<InputStream> {
 
+    private static final StaticResource NOT_MODIFIED = new StaticResource((byte[]) null, null);
+
     private InputStream staticResource;
+    private byte[] content;
+    private Path file;
     private String mediaType;
 
     /**
@@ -31,13 +41,72 @@ public final class StaticResource extends Model implements Value<InputStream> {
         this.mediaType = mediaType;
     }
 
+    /**
+     * @param content Already loaded resource, e.g. from cache. Array is sent as it is, without copying.
+     * @param mediaType Type of resource, e.q. for javascript set to {@link MediaType#APPLICATION_JAVASCRIPT}, for
+     * others {@link MediaType#APPLICATION_OCTET_STREAM}
+     */
+    public StaticResource(byte[] content, String mediaType) {
+        this.content = content;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @param file File on filesystem. File is streamed directly to the connection, with Content-Length set to file
+     * size, without being loaded into memory.
+     * @param mediaType Type of resource, e.q. for javascript set to {@link MediaType#APPLICATION_JAVASCRIPT}, for
+     * others {@link MediaType#APPLICATION_OCTET_STREAM}
+     */
+    public StaticResource(Path file, String mediaType) {
+        this.file = file;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @return Response telling client that its cached copy of the resource is still valid, sent with http status 304
+     * and no body.
+     */
+    public static StaticResource notModified() {
+        return NOT_MODIFIED;
+    }
+
     @Override
     public InputStream getValue() {
+        if (Objects.nonNull(content)) {
+            return new ByteArrayInputStream(content);
+        }
+
+        if (Objects.nonNull(file)) {
+            try {
+                return Files.newInputStream(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
         return staticResource;
     }
 
+    /**
+     * @return Already loaded resource or null if resource is given as a stream.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * @return File on filesystem or null if resource is not given as a file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
     public String getMediaType() {
         return mediaType;
     }
 
+    public boolean isNotModified() {
+        return this == NOT_MODIFIED;
+    }
+
 }
@@ -0,0 +1,133 @@
+package hr.yeti.rudimentary.http.executor.spi;
+
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.context.spi.Instance;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Class to extend when you wish to provide your own executor on which incoming http requests are processed.
+ *
+ * <p>
+ * Since this abstract class implements {@link Instance} it means it is loaded automatically via {@link ServiceLoader}
+ * on application startup. Default request executors used by Rudimentary are registered in
+ * <i>rudimentary-server</i> module in file
+ * <i>src/main/resources/META-INF/services/hr.yeti.rudimentary.http.executor.spi.RequestExecutor</i>.
+ * </p>
+ *
+ * Only one request executor is used by the server, the one marked as primary or the first one found. Use
+ * {@link Instance#conditional()} to make the provider eligible only for a certain <i>server.executor</i> value.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public abstract class RequestExecutor implements Executor, Instance {
+
+    private ExecutorService executorService;
+    private Semaphore concurrencyLimit;
+
+    /**
+     * Creates executor service which will be used to process http requests.
+     *
+     * @return An instance of {@link ExecutorService}.
+     */
+    protected abstract ExecutorService executorService();
+
+    /**
+     * Maximum number of http requests allowed to be processed at the same time. Tasks exceeding this limit wait for
+     * a running task to finish, at most {@link #acquireTimeout()} milliseconds. Values less than 1 mean there is no
+     * limit.
+     *
+     * Limit is enforced by the submitted tasks themselves, so waiting tasks still occupy a thread of
+     * {@link #executorService()}. That is cheap only for virtual threads, pools of platform threads should be bounded
+     * to the same limit.
+     *
+     * @return Maximum number of concurrently processed http requests, 0 by default.
+     */
+    protected int maxConcurrency() {
+        return 0;
+    }
+
+    /**
+     * Maximum time a task waits for one of {@link #maxConcurrency()} http requests to finish. Task which waited longer
+     * is rejected, see {@link #execute(Runnable, Runnable)}.
+     *
+     * @return Wait timeout in milliseconds, 30000 by default.
+     */
+    protected long acquireTimeout() {
+        return 30000;
+    }
+
+    @Override
+    public void initialize() {
+        this.executorService = executorService();
+
+        if (maxConcurrency() > 0) {
+            this.concurrencyLimit = new Semaphore(maxConcurrency(), true);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(task, () -> {
+            Logger.getLogger(RequestExecutor.class.getName()).log(Level.WARNING, "Task was rejected after waiting for {0} ms.", acquireTimeout());
+        });
+    }
+
+    /**
+     * Executes task once the number of http requests processed at the same time drops below
+     * {@link #maxConcurrency()}. If that does not happen within {@link #acquireTimeout()} milliseconds, rejection is run
+     * on the waiting thread instead of the task. Http engines use it to answer with <i>503 Service Unavailable</i>.
+     *
+     * @param task Task to execute.
+     * @param rejection Task run instead of the given task when waiting times out.
+     * @throws RejectedExecutionException If {@link #executorService()} does not accept the task.
+     */
+    public void execute(Runnable task, Runnable rejection) {
+        if (Objects.isNull(concurrencyLimit)) {
+            executorService.execute(task);
+            return;
+        }
+
+        executorService.execute(() -> {
+            boolean acquired;
+
+            try {
+                acquired = concurrencyLimit.tryAcquire(acquireTimeout(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+
+            if (!acquired) {
+                rejection.run();
+                return;
+            }
+
+            try {
+                task.run();
+            } finally {
+                concurrencyLimit.release();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(executorService)) {
+            executorService.shutdown();
+        }
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class };
+    }
+
+}
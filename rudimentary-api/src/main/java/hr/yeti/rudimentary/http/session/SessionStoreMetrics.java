@@ -0,0 +1,51 @@
+package hr.yeti.rudimentary.http.session;
+
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
+
+/**
+ * Snapshot of {@link SessionStore} counters. All counters except active sessions are counted since application start.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public final class SessionStoreMetrics {
+
+    private final long active;
+    private final long created;
+    private final long expired;
+    private final long evicted;
+
+    /**
+     * @param active Number of sessions currently held by the store.
+     * @param created Number of sessions stored.
+     * @param expired Number of sessions removed after period of inactivity.
+     * @param evicted Number of sessions removed to make room for new ones.
+     */
+    public SessionStoreMetrics(long active, long created, long expired, long evicted) {
+        this.active = active;
+        this.created = created;
+        this.expired = expired;
+        this.evicted = evicted;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionStoreMetrics{" + "active=" + active + ", created=" + created + ", expired=" + expired + ", evicted=" + evicted + '}';
+    }
+
+}
@@ -0,0 +1,65 @@
+package hr.yeti.rudimentary.http.session.spi;
+
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.context.spi.Instance;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+
+/**
+ * Class to extend when you wish to provide your own way of sending session changes between service instances when
+ * <i>session.store</i> is set to <i>replicated</i>. Messages are opaque batches of encoded session changes, transport
+ * only has to deliver each message to every peer, in order in which they were sent.
+ *
+ * <p>
+ * Since this abstract class implements {@link Instance} it means it is loaded automatically via {@link ServiceLoader}
+ * on application startup. Default transport used by Rudimentary is registered in <i>rudimentary-server</i> module in
+ * file <i>src/main/resources/META-INF/services/hr.yeti.rudimentary.http.session.spi.SessionReplicationTransport</i>.
+ * </p>
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public abstract class SessionReplicationTransport implements Instance {
+
+    private volatile Consumer<byte[]> receiver;
+
+    /**
+     * Sends message to all peers. Message which can not be delivered to some peer may be dropped.
+     *
+     * @param message Batch of encoded session changes.
+     */
+    public abstract void broadcast(byte[] message);
+
+    /**
+     * @param receiver Consumer of messages received from peers, registered by session store.
+     */
+    public void onReceive(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Call this method from your implementation for every message received from a peer.
+     *
+     * @param message Batch of encoded session changes.
+     */
+    protected void deliver(byte[] message) {
+        Consumer<byte[]> currentReceiver = this.receiver;
+
+        if (Objects.nonNull(currentReceiver)) {
+            currentReceiver.accept(message);
+        }
+    }
+
+    /**
+     * @return Session replication transport in use or null if there is none.
+     */
+    public static SessionReplicationTransport provider() {
+        return Instance.of(SessionReplicationTransport.class);
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class };
+    }
+
+}
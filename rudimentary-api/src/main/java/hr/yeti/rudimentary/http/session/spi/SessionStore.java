@@ -0,0 +1,65 @@
+package hr.yeti.rudimentary.http.session.spi;
+
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.session.Session;
+import hr.yeti.rudimentary.http.session.SessionStoreMetrics;
+import java.util.ServiceLoader;
+
+/**
+ * Class to extend when you wish to provide your own storage of http sessions, identified by their RSID.
+ *
+ * <p>
+ * Since this abstract class implements {@link Instance} it means it is loaded automatically via {@link ServiceLoader}
+ * on application startup. Default session store used by Rudimentary is registered in <i>rudimentary-server</i>
+ * module in file <i>src/main/resources/META-INF/services/hr.yeti.rudimentary.http.session.spi.SessionStore</i>.
+ * </p>
+ *
+ * Store is responsible for removing sessions which were inactive for longer than
+ * <i>session.inactivityPeriodAllowed</i> seconds and for keeping at most <i>session.maxConcurrentAllowed</i>
+ * sessions. Implementations are accessed concurrently by all request threads so they must be thread safe.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public abstract class SessionStore implements Instance {
+
+    /**
+     * @param rsid Unique session id.
+     * @return Stored session or null if there is no session with the given id.
+     */
+    public abstract Session get(String rsid);
+
+    /**
+     * Stores new session. If store is full, some other session, usually the least recently used one, is removed to
+     * make room for the new one.
+     *
+     * @param session Session to store.
+     */
+    public abstract void put(Session session);
+
+    /**
+     * Removes session from the store, does nothing if there is no session with the given id.
+     *
+     * @param rsid Unique session id.
+     */
+    public abstract void remove(String rsid);
+
+    /**
+     * @return Current session counts.
+     */
+    public abstract SessionStoreMetrics metrics();
+
+    /**
+     * @return Session store in use or null if there is none. Server does not start if no session store matches
+     * <i>session.store</i>, so this is never null while it is running.
+     */
+    public static SessionStore provider() {
+        return Instance.of(SessionStore.class);
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class };
+    }
+
+}
@@ -0,0 +1,22 @@
+package hr.yeti.rudimentary.http.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Defines writing part of seekable content to output stream as a function. Used for serving http range requests,
+ * e.g. when client resumes interrupted download.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+@FunctionalInterface
+public interface RangeStreamOutWriteDef {
+
+    /**
+     * @param outputStream Stream to write to.
+     * @param offset Index of the first byte to write.
+     * @param length Exact number of bytes to write.
+     * @throws IOException If content could not be written.
+     */
+    void startStreaming(OutputStream outputStream, long offset, long length) throws IOException;
+}
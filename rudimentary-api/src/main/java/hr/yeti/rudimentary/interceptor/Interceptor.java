@@ -17,7 +17,8 @@ public interface Interceptor extends Instance {
     int order();
 
     /**
-     * Set regular expression as string to which this interceptor will be applied to. Defaults to all URIs.
+     * Set regular expression as string to which this interceptor will be applied to. Defaults to all URIs. Expression
+     * is searched for in decoded request path without leading slash and without query string.
      *
      * @return String based regular expression.
      */
@@ -0,0 +1,191 @@
+package hr.yeti.rudimentary.json;
+
+import hr.yeti.rudimentary.json.spi.JsonCodec;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.TimeZone;
+import java.util.UUID;
+import javax.json.JsonArray;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import javax.json.JsonWriterFactory;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbException;
+import javax.json.spi.JsonProvider;
+import org.eclipse.yasson.YassonJsonb;
+
+/**
+ * Default {@link JsonCodec} backed by a single, long-lived {@link Jsonb} instance. Jsonb keeps metadata of every class
+ * it has processed, so sharing one instance means reflection over a class is done only the first time the class is
+ * serialized or deserialized. JSON-P reader, writer and builder factories are created once as well, instead of looking
+ * up {@link JsonProvider} on every call.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class JsonbJsonCodec extends JsonCodec {
+
+    private final Jsonb jsonb;
+    private final JsonReaderFactory readerFactory;
+    private final JsonWriterFactory writerFactory;
+    private final JsonBuilderFactory builderFactory;
+
+    public JsonbJsonCodec() {
+        JsonProvider provider = JsonProvider.provider();
+
+        this.jsonb = JsonbBuilder.newBuilder().withProvider(provider).build();
+        this.readerFactory = provider.createReaderFactory(Map.of());
+        this.writerFactory = provider.createWriterFactory(Map.of());
+        this.builderFactory = provider.createBuilderFactory(Map.of());
+    }
+
+    @Override
+    public <T> T fromJson(InputStream json, Class<T> type) {
+        if (JsonValue.class.isAssignableFrom(type)) {
+            try (JsonReader reader = readerFactory.createReader(json)) {
+                return type.cast(reader.readValue());
+            }
+        }
+        return jsonb.fromJson(json, type);
+    }
+
+    @Override
+    public <T> T fromJson(String json, Class<T> type) {
+        if (JsonValue.class.isAssignableFrom(type)) {
+            try (JsonReader reader = readerFactory.createReader(new StringReader(json))) {
+                return type.cast(reader.readValue());
+            }
+        }
+        return jsonb.fromJson(json, type);
+    }
+
+    @Override
+    public <T> T fromJsonValue(JsonValue json, Class<T> type) {
+        if (type.isInstance(json)) {
+            return type.cast(json);
+        }
+        if (jsonb instanceof YassonJsonb && json instanceof JsonStructure) {
+            return ((YassonJsonb) jsonb).fromJsonStructure((JsonStructure) json, type);
+        }
+        return jsonb.fromJson(json.toString(), type);
+    }
+
+    @Override
+    public String toJson(Object value) {
+        return jsonb.toJson(value);
+    }
+
+    @Override
+    public void toJson(Object value, OutputStream stream) {
+        // Both Jsonb and JsonWriter close the stream they write to
+        OutputStream unclosable = new UnclosableOutputStream(stream);
+
+        if (value instanceof JsonValue) {
+            try (JsonWriter writer = writerFactory.createWriter(unclosable)) {
+                writer.write((JsonValue) value);
+            }
+        } else {
+            jsonb.toJson(value, unclosable);
+        }
+    }
+
+    @Override
+    public JsonValue toJsonValue(Object value) {
+        if (Objects.isNull(value)) {
+            return JsonValue.NULL;
+        }
+
+        if (value instanceof JsonValue) {
+            return (JsonValue) value;
+        }
+
+        if (jsonb instanceof YassonJsonb && !isScalar(value)) {
+            return ((YassonJsonb) jsonb).toJsonStructure(value);
+        }
+        return fromJson(jsonb.toJson(value), JsonValue.class);
+    }
+
+    // Types Yasson serializes to JSON scalars, which can not be built as JSON structures
+    private static boolean isScalar(Object value) {
+        return value instanceof CharSequence
+            || value instanceof Character
+            || value instanceof Number
+            || value instanceof Boolean
+            || value instanceof Enum
+            || value instanceof Optional
+            || value instanceof OptionalInt
+            || value instanceof OptionalLong
+            || value instanceof OptionalDouble
+            || value instanceof TemporalAccessor
+            || value instanceof Date
+            || value instanceof Calendar
+            || value instanceof URI
+            || value instanceof URL
+            || value instanceof UUID
+            || value instanceof TimeZone
+            || value instanceof ZoneId
+            || value instanceof Duration
+            || value instanceof Period;
+    }
+
+    @Override
+    public JsonObject createObject(Map<String, Object> value) {
+        return builderFactory.createObjectBuilder(value).build();
+    }
+
+    @Override
+    public JsonArray createArray(List<?> value) {
+        return builderFactory.createArrayBuilder(value).build();
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            jsonb.close();
+        } catch (Exception e) {
+            throw new JsonbException(e.getMessage(), e);
+        }
+    }
+
+    private static final class UnclosableOutputStream extends FilterOutputStream {
+
+        private UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+
+    }
+
+}
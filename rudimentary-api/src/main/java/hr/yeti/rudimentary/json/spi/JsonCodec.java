@@ -0,0 +1,116 @@
+package hr.yeti.rudimentary.json.spi;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.json.JsonbJsonCodec;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ServiceLoader;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+/**
+ * Class to extend when you wish to provide your own JSON serialization and deserialization. All JSON processed by the
+ * framework, request and response bodies as well as {@link hr.yeti.rudimentary.http.content.Json} conversions, goes
+ * through the codec returned by {@link JsonCodec#provider()}.
+ *
+ * <p>
+ * Since this abstract class implements {@link Instance} it means it is loaded automatically via {@link ServiceLoader}
+ * on application startup. Default JSON codec used by Rudimentary is registered in
+ * <i>rudimentary-server</i> module in file
+ * <i>src/main/resources/META-INF/services/hr.yeti.rudimentary.json.spi.JsonCodec</i>.
+ * </p>
+ *
+ * Implementations are created once and shared between all requests so they must be thread safe.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public abstract class JsonCodec implements Instance {
+
+    /**
+     * Deserializes JSON from the given stream.
+     *
+     * @param <T> Type of result.
+     * @param json Stream of JSON data.
+     * @param type Class to which JSON is converted.
+     * @return Deserialized object.
+     */
+    public abstract <T> T fromJson(InputStream json, Class<T> type);
+
+    /**
+     * Deserializes JSON string.
+     *
+     * @param <T> Type of result.
+     * @param json JSON string.
+     * @param type Class to which JSON is converted.
+     * @return Deserialized object.
+     */
+    public abstract <T> T fromJson(String json, Class<T> type);
+
+    /**
+     * Deserializes already parsed JSON value.
+     *
+     * @param <T> Type of result.
+     * @param json JSON value.
+     * @param type Class to which JSON is converted.
+     * @return Deserialized object.
+     */
+    public abstract <T> T fromJsonValue(JsonValue json, Class<T> type);
+
+    /**
+     * Serializes object to JSON string.
+     *
+     * @param value Object to serialize.
+     * @return JSON string.
+     */
+    public abstract String toJson(Object value);
+
+    /**
+     * Serializes object directly to the given stream.
+     *
+     * @param value Object to serialize.
+     * @param stream Stream to which JSON is written. Stream is not closed.
+     */
+    public abstract void toJson(Object value, OutputStream stream);
+
+    /**
+     * Converts object to JSON value.
+     *
+     * @param value Object to convert.
+     * @return JSON value, {@link JsonValue#NULL} if value is null.
+     */
+    public abstract JsonValue toJsonValue(Object value);
+
+    /**
+     * @param value Map to convert.
+     * @return JSON object built from the given map.
+     */
+    public abstract JsonObject createObject(Map<String, Object> value);
+
+    /**
+     * @param value List to convert.
+     * @return JSON array built from the given list.
+     */
+    public abstract JsonArray createArray(List<?> value);
+
+    /**
+     * Gets JSON codec registered in context. If context is not loaded or it has no JSON codec registered, shared
+     * instance of {@link JsonbJsonCodec} is used.
+     *
+     * @return An instance of JsonCodec class.
+     */
+    public static JsonCodec provider() {
+        JsonCodec codec = Instance.of(JsonCodec.class);
+        return Objects.nonNull(codec) ? codec : DefaultHolder.CODEC;
+    }
+
+    private static final class DefaultHolder {
+
+        private static final JsonCodec CODEC = new JsonbJsonCodec();
+
+    }
+
+}
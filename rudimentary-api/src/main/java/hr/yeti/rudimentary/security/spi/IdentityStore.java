@@ -5,6 +5,7 @@ import hr.yeti.rudimentary.context.spi.Instance;
 import hr.yeti.rudimentary.security.Credential;
 import hr.yeti.rudimentary.security.Identity;
 import hr.yeti.rudimentary.security.UsernamePasswordCredential;
+import java.util.function.Consumer;
 
 /**
  * SPI used to validate incoming user credentials and retrieving basic user information.
@@ -43,4 +44,26 @@ public interface IdentityStore extends Instance {
      */
     Identity getIdentity(HttpPrincipal principal);
 
+    /**
+     * Registers a listener which should be notified whenever a stored identity is changed or removed, e.g. when user's
+     * password is changed or user is deleted. Auth mechanisms use it to drop cached results of
+     * {@link #validate(Credential)}.
+     *
+     * Default implementation does nothing, it should be overridden by stores whose identities can change while
+     * application is running. Until then cached results are dropped only once they expire.
+     *
+     * @param listener Listener to notify with username of the changed identity or with null if any identity might have
+     * changed.
+     */
+    default void addIdentityChangeListener(Consumer<String> listener) {
+    }
+
+    /**
+     * Removes listener previously registered with {@link #addIdentityChangeListener(Consumer)}.
+     *
+     * @param listener Listener to remove.
+     */
+    default void removeIdentityChangeListener(Consumer<String> listener) {
+    }
+
 }
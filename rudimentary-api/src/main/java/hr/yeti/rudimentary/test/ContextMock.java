@@ -44,16 +44,14 @@ public final class ContextMock extends Context {
     @Override
     public void initialize() {
         instances.forEach(super::add);
+        super.buildTypeIndex();
 
         super.buildInstanceDependenciesGraph();
         instanceDependencyGraph.keySet().forEach((instance) -> {
             super.checkForCircularDependencies(instance, null);
         });
 
-        CONTEXT.values()
-            .forEach((instance) -> {
-                super.initializeInstance(instance);
-            });
+        super.initializeInstancesInParallel();
     }
 
     // Method used to test protected Context#isInstanceInitialized method.
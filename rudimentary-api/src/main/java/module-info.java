@@ -16,8 +16,10 @@ module hr.yeti.rudimentary.api {
     exports hr.yeti.rudimentary.http;
     exports hr.yeti.rudimentary.http.filter.spi;
     exports hr.yeti.rudimentary.http.session;
+    exports hr.yeti.rudimentary.http.session.spi;
     exports hr.yeti.rudimentary.http.spi;
     exports hr.yeti.rudimentary.http.content;
+    exports hr.yeti.rudimentary.http.executor.spi;
     exports hr.yeti.rudimentary.http.stream;
 
     exports hr.yeti.rudimentary.health;
@@ -28,6 +30,9 @@ module hr.yeti.rudimentary.api {
 
     exports hr.yeti.rudimentary.interceptor.spi;
 
+    exports hr.yeti.rudimentary.json;
+    exports hr.yeti.rudimentary.json.spi;
+
     exports hr.yeti.rudimentary.pooling;
     exports hr.yeti.rudimentary.pooling.spi;
 
@@ -48,6 +53,7 @@ module hr.yeti.rudimentary.api {
 
     requires transitive java.json.bind;
     requires transitive java.json;
+    requires org.eclipse.yasson;
 
     requires transitive jdk.httpserver; // Maybe this should be removed, not worth having just because of HttpHeaders
 
@@ -1,9 +1,17 @@
 package hr.yeti.rudimentary.test.context;
 
 import hr.yeti.rudimentary.context.spi.ContextException;
+import hr.yeti.rudimentary.context.spi.Instance;
 import hr.yeti.rudimentary.test.ContextMock;
 import hr.yeti.rudimentary.test.context.mock.MockInstance1;
 import hr.yeti.rudimentary.test.context.mock.MockInstance10;
+import hr.yeti.rudimentary.test.context.mock.MockInstance13a;
+import hr.yeti.rudimentary.test.context.mock.MockInstance13b;
+import hr.yeti.rudimentary.test.context.mock.MockInstance13c;
+import hr.yeti.rudimentary.test.context.mock.MockInstance14a;
+import hr.yeti.rudimentary.test.context.mock.MockInstance14b;
+import hr.yeti.rudimentary.test.context.mock.MockInstance15;
+import hr.yeti.rudimentary.test.context.mock.MockInstance16;
 import hr.yeti.rudimentary.test.context.mock.MockInstance2;
 import hr.yeti.rudimentary.test.context.mock.MockInstance5;
 import hr.yeti.rudimentary.test.context.mock.MockInstance6;
@@ -125,6 +133,64 @@ public class ContextTest {
         assertTrue(ex.getMessage().startsWith("Circular dependency detected"));
     }
 
+    @Test
+    public void test_independent_instances_are_initialized_in_parallel() {
+        // setup:
+        ContextMock ctx;
+
+        when:
+        ctx = new ContextMock(Map.of(), MockInstance13c.class, MockInstance13a.class, MockInstance13b.class);
+
+        then:
+        assertEquals(4, ContextMock.getInitializedInstances().size());
+        assertTrue(Instance.of(MockInstance13c.class).isDependenciesInitialized());
+    }
+
+    @Test
+    public void test_exception_on_failed_initialization() {
+        ContextException ex;
+
+        expect:
+        ex = assertThrows(ContextException.class, () -> new ContextMock(Map.of(), MockInstance14b.class, MockInstance14a.class));
+        assertTrue(ex.getMessage().startsWith("Could not initialize " + MockInstance14a.class.getName()));
+        assertFalse(ContextMock.getInitializedInstances().contains(MockInstance14b.class.getCanonicalName()));
+    }
+
+    @Test
+    public void test_lazy_instance_is_initialized_on_first_use() {
+        // setup:
+        MockInstance15.INITIALIZATIONS.set(0);
+        ContextMock ctx = new ContextMock(Map.of(), MockInstance15.class);
+
+        expect:
+        assertEquals(0, MockInstance15.INITIALIZATIONS.get());
+        assertFalse(ctx.initialized(MockInstance15.class));
+        assertEquals(1, Instance.providersOf(MockInstance15.class).size());
+        assertEquals(0, MockInstance15.INITIALIZATIONS.get());
+
+        when:
+        Instance.of(MockInstance15.class);
+        Instance.of(MockInstance15.class);
+
+        then:
+        assertEquals(1, MockInstance15.INITIALIZATIONS.get());
+        assertTrue(ctx.initialized(MockInstance15.class));
+    }
+
+    @Test
+    public void test_lazy_instance_is_initialized_on_startup_when_required() {
+        // setup:
+        MockInstance15.INITIALIZATIONS.set(0);
+        ContextMock ctx;
+
+        when:
+        ctx = new ContextMock(Map.of(), MockInstance16.class, MockInstance15.class);
+
+        then:
+        assertEquals(1, MockInstance15.INITIALIZATIONS.get());
+        assertTrue(ctx.initialized(MockInstance15.class));
+    }
+
     @Test
     public void test_config_to_mock_context_injection() {
         ContextMock ctx;
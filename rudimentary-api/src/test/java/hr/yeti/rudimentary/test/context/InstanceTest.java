@@ -6,9 +6,12 @@ import hr.yeti.rudimentary.context.spi.Instance;
 import hr.yeti.rudimentary.test.ConfigMock;
 import hr.yeti.rudimentary.test.context.mock.MockInstance11a;
 import hr.yeti.rudimentary.test.context.mock.MockInstance11b;
+import hr.yeti.rudimentary.test.context.mock.MockInstance12a;
+import hr.yeti.rudimentary.test.context.mock.MockInstance12b;
 import hr.yeti.rudimentary.test.context.mock.MockInstance2;
 import hr.yeti.rudimentary.test.context.mock.MockInstance3;
 import hr.yeti.rudimentary.test.context.mock.MockInstance4;
+import hr.yeti.rudimentary.test.context.mock.MockService;
 import java.util.List;
 import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -167,4 +170,35 @@ public class InstanceTest {
         assertTrue(fetchedInstance instanceof MockInstance11a);
         assertEquals("lena", fetchedInstance.id());
     }
+
+    @Test
+    public void test_should_return_providers_implementing_spi_indirectly() {
+        // setup:
+        ContextMock ctx = new ContextMock(
+            Map.of(),
+            MockInstance1.class,
+            MockInstance12a.class,
+            MockInstance12b.class
+        );
+
+        List<MockService> fetchedInstances;
+
+        when:
+        fetchedInstances = Instance.providersOf(MockService.class);
+
+        then:
+        assertEquals(2, fetchedInstances.size());
+        assertTrue(fetchedInstances.get(0) instanceof MockInstance12a);
+        assertTrue(fetchedInstances.get(1) instanceof MockInstance12b);
+        assertEquals(2, Instance.providersOf(MockInstance12a.class).size());
+        assertTrue(Instance.of(MockService.class) instanceof MockInstance12a);
+        assertTrue(Instance.providersOf(MockInstance2.class).isEmpty());
+
+        when:
+        fetchedInstances.clear();
+
+        then:
+        assertEquals(2, Instance.providersOf(MockService.class).size());
+    }
+
 }
@@ -0,0 +1,5 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+public class MockInstance12a implements MockService {
+
+}
@@ -0,0 +1,5 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+public class MockInstance12b extends MockInstance12a {
+
+}
@@ -0,0 +1,18 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import java.util.concurrent.TimeUnit;
+
+public class MockInstance13b implements Instance {
+
+    @Override
+    public void initialize() {
+        try {
+            // Passes only if the other independent instance is being initialized at the same time
+            MockInstance13c.BARRIER.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,28 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+import hr.yeti.rudimentary.context.spi.Context;
+import hr.yeti.rudimentary.context.spi.Instance;
+import java.util.concurrent.CyclicBarrier;
+
+public class MockInstance13c implements Instance {
+
+    public static final CyclicBarrier BARRIER = new CyclicBarrier(2);
+
+    private boolean dependenciesInitialized;
+
+    @Override
+    public void initialize() {
+        dependenciesInitialized = Context.getInitializedInstances().contains(MockInstance13a.class.getCanonicalName())
+            && Context.getInitializedInstances().contains(MockInstance13b.class.getCanonicalName());
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ MockInstance13a.class, MockInstance13b.class };
+    }
+
+    public boolean isDependenciesInitialized() {
+        return dependenciesInitialized;
+    }
+
+}
@@ -0,0 +1,12 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+
+public class MockInstance14a implements Instance {
+
+    @Override
+    public void initialize() {
+        throw new IllegalStateException("Pool could not be filled.");
+    }
+
+}
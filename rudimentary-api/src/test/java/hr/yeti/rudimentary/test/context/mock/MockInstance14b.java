@@ -0,0 +1,12 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+
+public class MockInstance14b implements Instance {
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ MockInstance14a.class };
+    }
+
+}
@@ -0,0 +1,20 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MockInstance15 implements Instance {
+
+    public static final AtomicInteger INITIALIZATIONS = new AtomicInteger();
+
+    @Override
+    public void initialize() {
+        INITIALIZATIONS.incrementAndGet();
+    }
+
+    @Override
+    public boolean lazy() {
+        return true;
+    }
+
+}
@@ -0,0 +1,12 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+
+public class MockInstance16 implements Instance {
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ MockInstance15.class };
+    }
+
+}
@@ -0,0 +1,7 @@
+package hr.yeti.rudimentary.test.context.mock;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+
+public interface MockService extends Instance {
+
+}
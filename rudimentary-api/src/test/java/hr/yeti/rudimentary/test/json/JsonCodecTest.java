@@ -0,0 +1,105 @@
+package hr.yeti.rudimentary.test.json;
+
+import hr.yeti.rudimentary.http.content.Json;
+import hr.yeti.rudimentary.json.spi.JsonCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+public class JsonCodecTest {
+
+    @Test
+    public void test_default_codec_is_shared_when_context_is_not_loaded() {
+        expect:
+        assertSame(JsonCodec.provider(), JsonCodec.provider());
+    }
+
+    @Test
+    public void test_serialize_and_deserialize_pojo() {
+        // setup:
+        JsonCodec codec = JsonCodec.provider();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Car car;
+
+        when:
+        codec.toJson(new Car("Mazda"), out);
+        car = codec.fromJson(new ByteArrayInputStream(out.toByteArray()), Car.class);
+
+        then:
+        assertEquals("{\"manufacturer\":\"Mazda\"}", out.toString());
+        assertEquals("Mazda", car.getManufacturer());
+    }
+
+    @Test
+    public void test_convert_between_pojo_and_json_value() {
+        // setup:
+        JsonCodec codec = JsonCodec.provider();
+        JsonValue value;
+
+        when:
+        value = codec.toJsonValue(new Car("Mazda"));
+
+        then:
+        assertEquals("Mazda", ((JsonObject) value).getString("manufacturer"));
+        assertEquals("Mazda", codec.fromJsonValue(value, Car.class).getManufacturer());
+        assertSame(value, codec.fromJsonValue(value, JsonObject.class));
+        assertEquals(JsonValue.NULL, codec.toJsonValue(null));
+    }
+
+    @Test
+    public void test_convert_between_scalar_and_json_value() {
+        // setup:
+        JsonCodec codec = JsonCodec.provider();
+        JsonValue value;
+
+        when:
+        value = codec.toJsonValue("Mazda");
+
+        then:
+        assertEquals("Mazda", ((JsonString) value).getString());
+        assertEquals("Mazda", codec.fromJsonValue(value, String.class));
+        assertEquals(3, ((JsonNumber) codec.toJsonValue(3)).intValue());
+    }
+
+    @Test
+    public void test_json_content_conversions() {
+        // setup:
+        Json object = new Json(new Car("Mazda"));
+        Json array = new Json(List.of(Map.of("manufacturer", "Mazda"), Map.of("manufacturer", "Audi")));
+
+        expect:
+        assertEquals("Mazda", object.as(Car.class).getManufacturer());
+        assertEquals(2, array.asListOf(Car.class).size());
+        assertEquals("Audi", array.asListOf(Car.class).get(1).getManufacturer());
+    }
+
+    public static class Car {
+
+        private String manufacturer;
+
+        public Car() {
+        }
+
+        public Car(String manufacturer) {
+            this.manufacturer = manufacturer;
+        }
+
+        public String getManufacturer() {
+            return manufacturer;
+        }
+
+        public void setManufacturer(String manufacturer) {
+            this.manufacturer = manufacturer;
+        }
+
+    }
+
+}
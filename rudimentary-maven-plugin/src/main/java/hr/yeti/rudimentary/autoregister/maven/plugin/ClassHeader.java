@@ -0,0 +1,208 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Header of a compiled class: access flags, name, superclass, directly implemented interfaces and whether the class is
+ * nested in another class. Fields and methods are skipped without being parsed, only class attributes are looked at to
+ * find the class in its own <i>InnerClasses</i> attribute. Names are in their binary form, e.g.
+ * <i>hr.yeti.rudimentary.demo.Outer$Nested</i>.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public final class ClassHeader {
+
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_INTERFACE = 0x0200;
+    public static final int ACC_ABSTRACT = 0x0400;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private final int access;
+    private final String name;
+    private final String superName;
+    private final List<String> interfaces;
+    private final boolean nested;
+
+    public ClassHeader(int access, String name, String superName, List<String> interfaces, boolean nested) {
+        this.access = access;
+        this.name = name;
+        this.superName = superName;
+        this.interfaces = Collections.unmodifiableList(interfaces);
+        this.nested = nested;
+    }
+
+    /**
+     * @param classFile Class file contents, stream is not closed.
+     * @return Header of the class.
+     * @throws IOException If stream could not be read or it does not contain a class file.
+     */
+    public static ClassHeader read(InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(classFile));
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file.");
+        }
+
+        in.skipBytes(4); // Minor and major version
+
+        int constantPoolCount = in.readUnsignedShort();
+        String[] utf8 = new String[constantPoolCount];
+        int[] classNames = new int[constantPoolCount];
+
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.readUnsignedByte();
+
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    classNames[i] = in.readUnsignedShort();
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.skipBytes(4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.skipBytes(8);
+                    i++; // Takes two entries
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag + ".");
+            }
+        }
+
+        int access = in.readUnsignedShort();
+        String name = className(utf8, classNames, in.readUnsignedShort());
+        String superName = className(utf8, classNames, in.readUnsignedShort());
+
+        int interfacesCount = in.readUnsignedShort();
+        List<String> interfaces = new ArrayList<>(interfacesCount);
+
+        for (int i = 0; i < interfacesCount; i++) {
+            interfaces.add(className(utf8, classNames, in.readUnsignedShort()));
+        }
+
+        skipMembers(in); // Fields
+        skipMembers(in); // Methods
+
+        // Nested, inner, local and anonymous classes list themselves in InnerClasses attribute, top level classes do
+        // not, whatever their name is
+        boolean nested = false;
+        int attributesCount = in.readUnsignedShort();
+
+        for (int i = 0; i < attributesCount; i++) {
+            String attribute = utf8[in.readUnsignedShort()];
+            long length = in.readInt() & 0xFFFFFFFFL;
+
+            if (!"InnerClasses".equals(attribute)) {
+                skip(in, length);
+                continue;
+            }
+
+            int classesCount = in.readUnsignedShort();
+
+            for (int j = 0; j < classesCount; j++) {
+                nested |= name.equals(className(utf8, classNames, in.readUnsignedShort()));
+                in.skipBytes(6); // Outer class, simple name and access flags
+            }
+        }
+
+        return new ClassHeader(access, name, superName, interfaces, nested);
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int membersCount = in.readUnsignedShort();
+
+        for (int i = 0; i < membersCount; i++) {
+            in.skipBytes(6); // Access flags, name and descriptor
+            int attributesCount = in.readUnsignedShort();
+
+            for (int j = 0; j < attributesCount; j++) {
+                in.skipBytes(2); // Name
+                skip(in, in.readInt() & 0xFFFFFFFFL);
+            }
+        }
+    }
+
+    private static void skip(DataInputStream in, long length) throws IOException {
+        while (length > 0) {
+            int skipped = in.skipBytes((int) Math.min(length, Integer.MAX_VALUE));
+
+            if (skipped <= 0) {
+                in.readByte(); // Throws EOFException if class file is truncated
+                skipped = 1;
+            }
+
+            length -= skipped;
+        }
+    }
+
+    private static String className(String[] utf8, int[] classNames, int index) {
+        // java.lang.Object and module-info have no superclass
+        if (index == 0) {
+            return null;
+        }
+
+        return utf8[classNames[index]].replace('/', '.');
+    }
+
+    public int getAccess() {
+        return access;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Superclass name or null if there is none.
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * @return Whether class is declared inside of another class or method, including anonymous classes.
+     */
+    public boolean isNested() {
+        return nested;
+    }
+
+    /**
+     * @return Whether class is a public, concrete, top level class. Nested classes are left for manual registration.
+     */
+    public boolean isInstantiable() {
+        return (access & ACC_PUBLIC) != 0
+            && (access & (ACC_INTERFACE | ACC_ABSTRACT)) == 0
+            && !nested;
+    }
+
+}
@@ -0,0 +1,162 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * Collects service providers registered in META-INF/services of every classpath element and writes them into a single
+ * index, one provider per line, in the order Rudimentary context would load them with {@link java.util.ServiceLoader}.
+ * Service provider interfaces and their order are read from {@link #SPI_LIST} provided by rudimentary-server. Context
+ * instantiates indexed providers directly as long as the index still matches providers registered in
+ * META-INF/services.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class ProviderIndex {
+
+    public static final String INDEX = "META-INF/rudimentary/providers.index";
+
+    // Provided by rudimentary-server, so the index is always ordered the same way as the context loads providers.
+    public static final String SPI_LIST = "META-INF/rudimentary/spis";
+
+    private static final String SERVICES = "META-INF/services/";
+
+    private final Set<String> providers = new LinkedHashSet<>();
+
+    /**
+     * @param classpath Classpath elements, directories or jars, in classpath order.
+     * @throws IOException If a classpath element can not be read or there is no {@link #SPI_LIST} on the classpath.
+     */
+    public ProviderIndex(List<String> classpath) throws IOException {
+        List<Map<String, List<String>>> registered = new ArrayList<>();
+        List<String> spis = null;
+
+        for (String element : classpath) {
+            Map<String, List<String>> resources = readResources(Paths.get(element));
+            registered.add(resources);
+
+            if (Objects.isNull(spis)) {
+                spis = resources.get(SPI_LIST);
+            }
+        }
+
+        if (Objects.isNull(spis)) {
+            throw new IOException(SPI_LIST + " is not on the classpath, is rudimentary-server a dependency?");
+        }
+
+        for (String spi : spis) {
+            registered.forEach((resources) -> providers.addAll(resources.getOrDefault(SERVICES + spi, Collections.emptyList())));
+        }
+    }
+
+    /**
+     * @return Providers in load order, each listed once.
+     */
+    public Set<String> getProviders() {
+        return Collections.unmodifiableSet(providers);
+    }
+
+    /**
+     * Writes index into the given classes directory.
+     *
+     * @param classesDir Directory compiled classes and resources are in.
+     * @return Path of the written index.
+     * @throws IOException If index could not be written.
+     */
+    public Path write(Path classesDir) throws IOException {
+        Path index = classesDir.resolve(INDEX);
+        Files.createDirectories(index.getParent());
+
+        StringBuilder content = new StringBuilder("# Generated by rudimentary-maven-plugin, do not edit.\n");
+        providers.forEach((provider) -> content.append(provider).append('\n'));
+
+        Files.write(index, content.toString().getBytes(StandardCharsets.UTF_8));
+        return index;
+    }
+
+    // Opens every classpath element only once, jars are the slow part. Resources are mapped to their lines.
+    private static Map<String, List<String>> readResources(Path path) throws IOException {
+        Map<String, List<String>> resources = new HashMap<>();
+
+        if (Files.isDirectory(path)) {
+            Path spis = path.resolve(SPI_LIST);
+
+            if (Files.isRegularFile(spis)) {
+                try (InputStream in = Files.newInputStream(spis)) {
+                    resources.put(SPI_LIST, readProviders(in));
+                }
+            }
+
+            Path services = path.resolve(SERVICES);
+
+            if (Files.isDirectory(services)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(services, Files::isRegularFile)) {
+                    for (Path file : files) {
+                        try (InputStream in = Files.newInputStream(file)) {
+                            resources.put(SERVICES + file.getFileName(), readProviders(in));
+                        }
+                    }
+                }
+            }
+        } else if (Files.isRegularFile(path) && path.toString().endsWith(".jar")) {
+            try (JarFile jar = new JarFile(path.toFile())) {
+                Enumeration<JarEntry> entries = jar.entries();
+
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+
+                    if (entry.isDirectory() || !(entry.getName().equals(SPI_LIST) || entry.getName().startsWith(SERVICES))) {
+                        continue;
+                    }
+
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        resources.put(entry.getName(), readProviders(in));
+                    }
+                }
+            }
+        }
+
+        return resources;
+    }
+
+    private static List<String> readProviders(InputStream in) throws IOException {
+        List<String> providers = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+
+        while (Objects.nonNull(line = reader.readLine())) {
+            int comment = line.indexOf('#');
+
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+
+            line = line.trim();
+
+            if (!line.isEmpty()) {
+                providers.add(line);
+            }
+        }
+
+        return providers;
+    }
+
+}
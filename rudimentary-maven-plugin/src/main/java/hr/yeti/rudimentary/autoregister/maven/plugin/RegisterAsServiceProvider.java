@@ -1,17 +1,41 @@
 package hr.yeti.rudimentary.autoregister.maven.plugin;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.jar.JarFile;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
 
+/**
+ * Registers compiled project classes as service providers of every Rudimentary SPI they implement, directly or through
+ * any of their superclasses and interfaces. Supertypes outside of the project are looked up on the compile classpath.
+ *
+ * Class headers are cached in a file together with class file modification time, so only classes changed since the
+ * previous run are read again. Visit classes directory with this visitor and then call {@link #registerProviders()}.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
 public class RegisterAsServiceProvider extends SimpleFileVisitor<Path> {
 
     private static final String HTTP_ENDPOINT_PROVIDERS = "hr.yeti.rudimentary.http.spi.HttpEndpoint";
@@ -29,169 +53,321 @@ public class RegisterAsServiceProvider extends SimpleFileVisitor<Path> {
     private static final String HEALTH_CHECK_PROVIDERS = "hr.yeti.rudimentary.health.spi.HealthCheck";
     private static final String OBJECT_POOL_PROVIDERS = "hr.yeti.rudimentary.pooling.spi.ObjectPool";
     private static final String SHUTDOWN_HOOK_PROVIDERS = "hr.yeti.rudimentary.shutdown.spi.ShutdownHook";
+    private static final String REQUEST_EXECUTOR_PROVIDERS = "hr.yeti.rudimentary.http.executor.spi.RequestExecutor";
+    private static final String JSON_CODEC_PROVIDERS = "hr.yeti.rudimentary.json.spi.JsonCodec";
+    private static final String SESSION_STORE_PROVIDERS = "hr.yeti.rudimentary.http.session.spi.SessionStore";
+    private static final String SESSION_REPLICATION_TRANSPORT_PROVIDERS = "hr.yeti.rudimentary.http.session.spi.SessionReplicationTransport";
+
+    private static final Set<String> SPIS = new HashSet<>(Arrays.asList(
+        HTTP_ENDPOINT_PROVIDERS,
+        HTTP_FILTER_PROVIDERS,
+        VIEW_ENDPOINT_PROVIDERS,
+        INSTANCE_PROVIDERS,
+        DATASOURCE_PROVIDERS,
+        BEFORE_INTERCEPTOR_PROVIDERS,
+        AFTER_INTERCEPTOR_PROVIDERS,
+        EVENT_LISTENER_PROVIDERS,
+        EXCEPTION_HANDLER_PROVIDERS,
+        AUTH_MECHANISM_PROVIDERS,
+        IDENTITY_STORE_PROVIDERS,
+        IDENTITY_DETAILS_PROVIDERS,
+        HEALTH_CHECK_PROVIDERS,
+        OBJECT_POOL_PROVIDERS,
+        SHUTDOWN_HOOK_PROVIDERS,
+        REQUEST_EXECUTOR_PROVIDERS,
+        JSON_CODEC_PROVIDERS,
+        SESSION_STORE_PROVIDERS,
+        SESSION_REPLICATION_TRANSPORT_PROVIDERS
+    ));
+
+    private static final String SEPARATOR = "\t";
+
+    private final Path classesDir;
+    private final Path servicesDir;
+    private final Path cacheFile;
+    private final List<Path> classpath = new ArrayList<>();
+
+    // Class file relative path to its cached header, as loaded from the cache file
+    private final Map<String, CachedHeader> cache = new HashMap<>();
+
+    // Class name to header of every class currently in classes directory, in visit order
+    private final Map<String, CachedHeader> projectClasses = new LinkedHashMap<>();
+
+    // Class name to header of classes found on classpath, null if class was not found
+    private final Map<String, ClassHeader> classpathClasses = new HashMap<>();
+    private final Map<Path, JarFile> jars = new HashMap<>();
+
+    private int examined;
+
+    /**
+     * @param classesDir Directory with compiled project classes.
+     * @param servicesDir Directory service provider registrations are written to.
+     * @param cacheFile File class headers are cached in between runs.
+     * @param classpath Compile classpath elements, directories or jars, used to look up supertypes.
+     */
+    public RegisterAsServiceProvider(Path classesDir, Path servicesDir, Path cacheFile, List<String> classpath) {
+        this.classesDir = classesDir;
+        this.servicesDir = servicesDir;
+        this.cacheFile = cacheFile;
+
+        classpath.stream()
+            .map(Paths::get)
+            .filter((element) -> !element.equals(classesDir))
+            .forEach(this.classpath::add);
 
-    private Path projectRootDir;
-    private Path servicesDir;
-
-    private String httpEndpointProvidersList;
-    private String httpFilterProvidersList;
-    private String viewEndpointProvidersList;
-    private String instanceProvidersList;
-    private String datasourceProvidersList;
-    private String beforeInterceptorProviderList;
-    private String afterInterceptorProviderList;
-    private String eventListenerProviderList;
-    private String exceptionHandlerProviderList;
-    private String authMechanismProviderList;
-    private String identityStoreProviderList;
-    private String identityDetailsProviderList;
-    private String healthCheckProviderList;
-    private String objectPoolProviderList;
-    private String shutdownHookProviderList;
-
-    public RegisterAsServiceProvider() {
         try {
-            this.projectRootDir = new File("").toPath().toAbsolutePath();
-            this.servicesDir = this.projectRootDir.resolve("src").resolve("main").resolve("resources").resolve("META-INF").resolve("services");
-            this.httpEndpointProvidersList = readProviders(servicesDir.resolve(HTTP_ENDPOINT_PROVIDERS));
-            this.httpFilterProvidersList = readProviders(servicesDir.resolve(HTTP_FILTER_PROVIDERS));
-            this.viewEndpointProvidersList = readProviders(servicesDir.resolve(VIEW_ENDPOINT_PROVIDERS));
-            this.instanceProvidersList = readProviders(servicesDir.resolve(INSTANCE_PROVIDERS));
-            this.datasourceProvidersList = readProviders(servicesDir.resolve(DATASOURCE_PROVIDERS));
-            this.beforeInterceptorProviderList = readProviders(servicesDir.resolve(BEFORE_INTERCEPTOR_PROVIDERS));
-            this.afterInterceptorProviderList = readProviders(servicesDir.resolve(AFTER_INTERCEPTOR_PROVIDERS));
-            this.eventListenerProviderList = readProviders(servicesDir.resolve(EVENT_LISTENER_PROVIDERS));
-            this.exceptionHandlerProviderList = readProviders(servicesDir.resolve(EXCEPTION_HANDLER_PROVIDERS));
-            this.authMechanismProviderList = readProviders(servicesDir.resolve(AUTH_MECHANISM_PROVIDERS));
-            this.identityStoreProviderList = readProviders(servicesDir.resolve(IDENTITY_STORE_PROVIDERS));
-            this.identityDetailsProviderList = readProviders(servicesDir.resolve(IDENTITY_DETAILS_PROVIDERS));
-            this.healthCheckProviderList = readProviders(servicesDir.resolve(HEALTH_CHECK_PROVIDERS));
-            this.objectPoolProviderList = readProviders(servicesDir.resolve(OBJECT_POOL_PROVIDERS));
-            this.shutdownHookProviderList = readProviders(servicesDir.resolve(SHUTDOWN_HOOK_PROVIDERS));
-
-        } catch (IOException ex) {
-            Logger.getLogger(RegisterAsServiceProvider.class.getName()).log(Level.SEVERE, null, ex);
+            readCache();
+        } catch (IOException | RuntimeException ex) {
+            // Cache is only an optimization, all classes are read again.
+            Logger.getLogger(RegisterAsServiceProvider.class.getName()).log(Level.WARNING, "Could not read " + cacheFile + ".", ex);
+            cache.clear();
         }
     }
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-        if (file.toString().endsWith(".java") && !file.toString().contains("module-info.java")) {
-
-            byte[] readAllBytes = Files.readAllBytes(file);
-            String content = new String(readAllBytes);
-
-            if (content.contains("implements HttpEndpoint<") && !content.contains("abstract")) {
-                writeProvider(HTTP_ENDPOINT_PROVIDERS, file);
-            } else if (content.contains("extends HttpFilter") && !content.contains("abstract")) {
-                writeProvider(HTTP_FILTER_PROVIDERS, file);
-            } else if (content.contains("implements ViewEndpoint<") && !content.contains("abstract")) {
-                writeProvider(VIEW_ENDPOINT_PROVIDERS, file);
-            } else if (content.contains("implements Instance") && !content.contains("abstract")) {
-                writeProvider(INSTANCE_PROVIDERS, file);
-            } else if (content.contains("extends BasicDataSource") && !content.contains("abstract")) {
-                writeProvider(DATASOURCE_PROVIDERS, file);
-            } else if (content.contains("implements BeforeInterceptor") && !content.contains("abstract")) {
-                writeProvider(BEFORE_INTERCEPTOR_PROVIDERS, file);
-            } else if (content.contains("implements AfterInterceptor") && !content.contains("abstract")) {
-                writeProvider(AFTER_INTERCEPTOR_PROVIDERS, file);
-            } else if (content.contains("implements EventListener") && !content.contains("abstract")) {
-                writeProvider(EVENT_LISTENER_PROVIDERS, file);
-            } else if (content.contains("implements ExceptionHandler") && !content.contains("abstract")) {
-                writeProvider(EXCEPTION_HANDLER_PROVIDERS, file);
-            } else if (content.contains("extends AuthMechanism") && !content.contains("abstract")) {
-                writeProvider(AUTH_MECHANISM_PROVIDERS, file);
-            } else if (content.contains("implements IdentityStore") && !content.contains("abstract")) {
-                writeProvider(IDENTITY_STORE_PROVIDERS, file);
-            } else if (content.contains("implements IdentityDetails") && !content.contains("abstract")) {
-                writeProvider(IDENTITY_DETAILS_PROVIDERS, file);
-            } else if (content.contains("implements HealthCheck") && !content.contains("abstract")) {
-                writeProvider(HEALTH_CHECK_PROVIDERS, file);
-            } else if (content.contains("extends ObjectPool") && !content.contains("abstract")) {
-                writeProvider(OBJECT_POOL_PROVIDERS, file);
-            } else if (content.contains("implements ShutdownHook") && !content.contains("abstract")) {
-                writeProvider(SHUTDOWN_HOOK_PROVIDERS, file);
+        String fileName = file.getFileName().toString();
+
+        if (fileName.endsWith(".class") && !fileName.equals("module-info.class") && !fileName.equals("package-info.class")) {
+            String path = classesDir.relativize(file).toString();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            CachedHeader cached = cache.get(path);
+
+            if (Objects.isNull(cached) || cached.lastModified != lastModified) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    cached = new CachedHeader(path, lastModified, ClassHeader.read(in));
+                }
+                examined++;
             }
+
+            projectClasses.put(cached.header.getName(), cached);
         }
+
         return FileVisitResult.CONTINUE;
     }
 
-    private String readProviders(Path path) throws IOException {
-        if (!Files.exists(path)) {
-            Files.createFile(path);
+    /**
+     * Registers visited classes as providers of SPIs they implement and updates the cache. Providers which are already
+     * registered are left as they are.
+     *
+     * @return Number of newly registered providers.
+     * @throws IOException If registrations or cache could not be written.
+     */
+    public int registerProviders() throws IOException {
+        int registered = 0;
+
+        try {
+            for (CachedHeader projectClass : projectClasses.values()) {
+                if (projectClass.header.isInstantiable()) {
+                    for (String spi : implementedSpis(projectClass.header)) {
+                        if (writeProvider(spi, projectClass.header.getName())) {
+                            registered++;
+                        }
+                    }
+                }
+            }
+        } finally {
+            for (JarFile jar : jars.values()) {
+                jar.close();
+            }
+            jars.clear();
         }
-        return new String(Files.readAllBytes(path));
+
+        writeCache();
+        return registered;
     }
 
-    private String extractProvider(Path file) {
-        String filePath = file.toAbsolutePath().toString();
+    /**
+     * @return Number of class files read in this run, the rest was served from cache.
+     */
+    public int getExamined() {
+        return examined;
+    }
+
+    /**
+     * Walks supertypes of the given class. Since every SPI is an Instance, class implementing a more specific SPI is not
+     * registered as a plain Instance provider too.
+     */
+    private Set<String> implementedSpis(ClassHeader header) throws IOException {
+        Set<String> spis = new LinkedHashSet<>();
+        Set<String> seen = new HashSet<>();
+        Deque<String> supertypes = new ArrayDeque<>();
+
+        supertypes.add(header.getName());
+
+        while (!supertypes.isEmpty()) {
+            String type = supertypes.poll();
+
+            if (!seen.add(type)) {
+                continue;
+            }
+
+            if (SPIS.contains(type)) {
+                spis.add(type);
+                continue;
+            }
+
+            // JDK types can not implement Rudimentary SPIs
+            if (type.startsWith("java.") || type.startsWith("javax.")) {
+                continue;
+            }
+
+            ClassHeader supertype = findClass(type);
 
-        int javaSourcesIndex = filePath.indexOf("java") + ("java" + File.separator).length();
-        String canonicalProviderName = filePath.substring(javaSourcesIndex, filePath.lastIndexOf("."));
+            if (Objects.nonNull(supertype)) {
+                if (Objects.nonNull(supertype.getSuperName())) {
+                    supertypes.add(supertype.getSuperName());
+                }
+                supertypes.addAll(supertype.getInterfaces());
+            }
+        }
+
+        if (spis.size() > 1) {
+            spis.remove(INSTANCE_PROVIDERS);
+        }
 
-        String resolvedProviderName = String.join(".", canonicalProviderName.split(Pattern.quote(File.separator)));
-        return resolvedProviderName;
+        return spis;
     }
 
-    private void writeProvider(String providerType, Path file) throws IOException {
-        Path providers = servicesDir.resolve(providerType);
-        String provider = extractProvider(file);
+    private ClassHeader findClass(String name) throws IOException {
+        CachedHeader projectClass = projectClasses.get(name);
 
-        boolean alreadyRegistered = false;
+        if (Objects.nonNull(projectClass)) {
+            return projectClass.header;
+        }
 
-        switch (providerType) {
-            case HTTP_ENDPOINT_PROVIDERS:
-                alreadyRegistered = httpEndpointProvidersList.contains(provider);
-                break;
-            case HTTP_FILTER_PROVIDERS:
-                alreadyRegistered = httpFilterProvidersList.contains(provider);
-                break;
-            case VIEW_ENDPOINT_PROVIDERS:
-                alreadyRegistered = viewEndpointProvidersList.contains(provider);
-                break;
-            case INSTANCE_PROVIDERS:
-                alreadyRegistered = instanceProvidersList.contains(provider);
-                break;
-            case DATASOURCE_PROVIDERS:
-                alreadyRegistered = datasourceProvidersList.contains(provider);
-                break;
-            case BEFORE_INTERCEPTOR_PROVIDERS:
-                alreadyRegistered = beforeInterceptorProviderList.contains(provider);
-                break;
-            case AFTER_INTERCEPTOR_PROVIDERS:
-                alreadyRegistered = afterInterceptorProviderList.contains(provider);
-                break;
-            case EVENT_LISTENER_PROVIDERS:
-                alreadyRegistered = eventListenerProviderList.contains(provider);
-                break;
-            case EXCEPTION_HANDLER_PROVIDERS:
-                alreadyRegistered = exceptionHandlerProviderList.contains(provider);
-                break;
-            case AUTH_MECHANISM_PROVIDERS:
-                alreadyRegistered = authMechanismProviderList.contains(provider);
-                break;
-            case IDENTITY_STORE_PROVIDERS:
-                alreadyRegistered = identityStoreProviderList.contains(provider);
-                break;
-            case IDENTITY_DETAILS_PROVIDERS:
-                alreadyRegistered = identityDetailsProviderList.contains(provider);
-                break;
-            case HEALTH_CHECK_PROVIDERS:
-                alreadyRegistered = healthCheckProviderList.contains(provider);
-                break;
-            case OBJECT_POOL_PROVIDERS:
-                alreadyRegistered = objectPoolProviderList.contains(provider);
-                break;
-            case SHUTDOWN_HOOK_PROVIDERS:
-                alreadyRegistered = shutdownHookProviderList.contains(provider);
-                break;
-            default:
+        if (classpathClasses.containsKey(name)) {
+            return classpathClasses.get(name);
+        }
+
+        String entry = name.replace('.', '/') + ".class";
+        ClassHeader header = null;
+
+        for (Path element : classpath) {
+            if (Files.isDirectory(element)) {
+                Path classFile = element.resolve(entry);
+
+                if (Files.isRegularFile(classFile)) {
+                    try (InputStream in = Files.newInputStream(classFile)) {
+                        header = ClassHeader.read(in);
+                    }
+                }
+            } else if (Files.isRegularFile(element)) {
+                JarFile jar = jars.get(element);
+
+                if (Objects.isNull(jar)) {
+                    jar = new JarFile(element.toFile());
+                    jars.put(element, jar);
+                }
+
+                ZipEntry classFile = jar.getEntry(entry);
+
+                if (Objects.nonNull(classFile)) {
+                    try (InputStream in = jar.getInputStream(classFile)) {
+                        header = ClassHeader.read(in);
+                    }
+                }
+            }
+
+            if (Objects.nonNull(header)) {
                 break;
+            }
         }
 
-        if (!alreadyRegistered) {
-            Files.write(providers, (provider + System.lineSeparator()).getBytes(), StandardOpenOption.APPEND);
+        classpathClasses.put(name, header);
+        return header;
+    }
+
+    /**
+     * @return Whether provider was not registered before.
+     */
+    private boolean writeProvider(String providerType, String provider) throws IOException {
+        Path providers = servicesDir.resolve(providerType);
+        String content = "";
+
+        if (Files.exists(providers)) {
+            content = new String(Files.readAllBytes(providers), StandardCharsets.UTF_8);
+
+            for (String line : content.split("\\R")) {
+                if (line.trim().equals(provider)) {
+                    return false;
+                }
+            }
+        } else {
+            Files.createDirectories(servicesDir);
+        }
+
+        String registration = provider + System.lineSeparator();
+
+        // Manually edited files often miss the final line separator
+        if (!content.isEmpty() && !content.endsWith("\n")) {
+            registration = System.lineSeparator() + registration;
         }
 
+        Files.write(providers, registration.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return true;
     }
+
+    // Each line holds: path, last modified, access flags, name, superclass name, comma separated interfaces and whether
+    // class is nested. Lines in any other format, e.g. written by an older version, are ignored so classes are read again.
+    private void readCache() throws IOException {
+        if (!Files.exists(cacheFile)) {
+            return;
+        }
+
+        for (String line : Files.readAllLines(cacheFile, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(SEPARATOR, -1);
+
+            if (fields.length != 7) {
+                continue;
+            }
+
+            List<String> interfaces = fields[5].isEmpty() ? new ArrayList<>() : Arrays.asList(fields[5].split(","));
+            ClassHeader header = new ClassHeader(
+                Integer.parseInt(fields[2]),
+                fields[3],
+                fields[4].isEmpty() ? null : fields[4],
+                interfaces,
+                Boolean.parseBoolean(fields[6])
+            );
+
+            cache.put(fields[0], new CachedHeader(fields[0], Long.parseLong(fields[1]), header));
+        }
+    }
+
+    private void writeCache() throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        for (CachedHeader cached : projectClasses.values()) {
+            ClassHeader header = cached.header;
+
+            lines.add(String.join(SEPARATOR,
+                cached.path,
+                String.valueOf(cached.lastModified),
+                String.valueOf(header.getAccess()),
+                header.getName(),
+                Objects.isNull(header.getSuperName()) ? "" : header.getSuperName(),
+                String.join(",", header.getInterfaces()),
+                String.valueOf(header.isNested())
+            ));
+        }
+
+        Files.createDirectories(cacheFile.getParent());
+        Files.write(cacheFile, lines, StandardCharsets.UTF_8);
+    }
+
+    private static final class CachedHeader {
+
+        private final String path;
+        private final long lastModified;
+        private final ClassHeader header;
+
+        private CachedHeader(String path, long lastModified, ClassHeader header) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.header = header;
+        }
+
+    }
+
 }
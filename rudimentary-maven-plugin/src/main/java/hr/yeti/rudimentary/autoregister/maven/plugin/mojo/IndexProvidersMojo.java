@@ -0,0 +1,49 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin.mojo;
+
+import hr.yeti.rudimentary.autoregister.maven.plugin.ProviderIndex;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * Generates index of all service providers on the runtime classpath so application context is created without
+ * scanning the classpath on startup.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+@Mojo(name = "index-providers", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.RUNTIME)
+public class IndexProvidersMojo extends AbstractMojo {
+
+    /**
+     * Runtime classpath of the project, project classes first.
+     */
+    @Parameter(defaultValue = "${project.runtimeClasspathElements}", readonly = true, required = true)
+    List<String> classpath;
+
+    /**
+     * Directory index is written to.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", readonly = true, required = true)
+    File outputDirectory;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            ProviderIndex index = new ProviderIndex(classpath);
+            Path written = index.write(outputDirectory.toPath());
+
+            getLog().info("Indexed " + index.getProviders().size() + " providers in " + written);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Could not index providers.", ex);
+        }
+    }
+
+}
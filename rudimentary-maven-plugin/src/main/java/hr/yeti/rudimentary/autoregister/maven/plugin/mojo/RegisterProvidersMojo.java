@@ -5,31 +5,67 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.List;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
 
 /**
  * Auto registers all Rudimentary service providers.
  *
  * @author vedransmid@yeti-it.hr
  */
-@Mojo(name = "register-providers", defaultPhase = LifecyclePhase.COMPILE)
+@Mojo(name = "register-providers", defaultPhase = LifecyclePhase.COMPILE, requiresDependencyResolution = ResolutionScope.COMPILE)
 public class RegisterProvidersMojo extends AbstractMojo {
 
+    /**
+     * Directory with compiled project classes.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", readonly = true, required = true)
+    File outputDirectory;
+
+    /**
+     * Directory class header cache is kept in.
+     */
+    @Parameter(defaultValue = "${project.build.directory}", readonly = true, required = true)
+    File buildDirectory;
+
+    /**
+     * Project base directory.
+     */
+    @Parameter(defaultValue = "${project.basedir}", readonly = true, required = true)
+    File baseDirectory;
+
+    /**
+     * Compile classpath of the project, used to resolve supertypes of project classes.
+     */
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true, required = true)
+    List<String> classpath;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        Path projectDir = new File("").toPath();
-        Path sourcesDir = projectDir.resolve("src").resolve("main").resolve("java");
+        Path classesDir = outputDirectory.toPath();
+
+        if (!Files.isDirectory(classesDir)) {
+            getLog().info("No compiled classes, skipping provider registration.");
+            return;
+        }
+
+        Path servicesDir = baseDirectory.toPath().resolve("src").resolve("main").resolve("resources").resolve("META-INF").resolve("services");
+        Path cacheFile = buildDirectory.toPath().resolve("rudimentary").resolve("class-headers.cache");
 
         try {
-            Files.walkFileTree(sourcesDir, new RegisterAsServiceProvider());
+            RegisterAsServiceProvider registrar = new RegisterAsServiceProvider(classesDir, servicesDir, cacheFile, classpath);
+            Files.walkFileTree(classesDir, registrar);
+            int registered = registrar.registerProviders();
+
+            getLog().info("Examined " + registrar.getExamined() + " changed classes, registered " + registered + " new providers.");
         } catch (IOException ex) {
-            Logger.getLogger(RegisterProvidersMojo.class.getName()).log(Level.SEVERE, null, ex);
+            throw new MojoExecutionException("Could not register providers.", ex);
         }
     }
 
@@ -0,0 +1,146 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class ClassHeaderTest {
+
+    @Test
+    public void test_read_top_level_class() throws IOException {
+        // setup:
+        ClassHeader header;
+
+        when:
+        header = read(_Classes.class);
+
+        then:
+        assertEquals(_Classes.class.getName(), header.getName());
+        assertEquals(Object.class.getName(), header.getSuperName());
+        assertEquals(Collections.singletonList(Serializable.class.getName()), header.getInterfaces());
+        assertFalse(header.isNested());
+        assertTrue(header.isInstantiable());
+    }
+
+    @Test
+    public void test_top_level_class_with_dollar_in_name_is_instantiable() throws IOException {
+        // setup:
+        ClassHeader header;
+
+        when:
+        header = read(_Top$Level.class);
+
+        then:
+        assertEquals("hr.yeti.rudimentary.autoregister.maven.plugin._Top$Level", header.getName());
+        assertFalse(header.isNested());
+        assertTrue(header.isInstantiable());
+    }
+
+    @Test
+    public void test_nested_classes_are_not_instantiable() throws IOException {
+        expect:
+        for (Class<?> type : Arrays.asList(
+            _Classes.Nested.class,
+            _Classes.Inner.class,
+            _Classes.anonymous().getClass(),
+            _Classes.local().getClass()
+        )) {
+            ClassHeader header = read(type);
+
+            assertEquals(type.getName(), header.getName());
+            assertTrue(header.isNested(), type.getName());
+            assertFalse(header.isInstantiable(), type.getName());
+        }
+    }
+
+    @Test
+    public void test_abstract_classes_and_interfaces_are_not_instantiable() throws IOException {
+        // setup:
+        ClassHeader abstractClass;
+        ClassHeader nestedAbstractClass;
+        ClassHeader topLevelInterface;
+        ClassHeader nestedInterface;
+
+        when:
+        abstractClass = read(_AbstractClass.class);
+        nestedAbstractClass = read(_Classes.AbstractNested.class);
+        topLevelInterface = read(_Interface.class);
+        nestedInterface = read(_Classes.NestedInterface.class);
+
+        then:
+        assertTrue((abstractClass.getAccess() & ClassHeader.ACC_ABSTRACT) != 0);
+        assertFalse(abstractClass.isNested());
+        assertFalse(abstractClass.isInstantiable());
+        assertFalse(nestedAbstractClass.isInstantiable());
+
+        assertTrue((topLevelInterface.getAccess() & ClassHeader.ACC_INTERFACE) != 0);
+        assertEquals(Object.class.getName(), topLevelInterface.getSuperName());
+        assertEquals(Collections.singletonList(Runnable.class.getName()), topLevelInterface.getInterfaces());
+        assertFalse(topLevelInterface.isInstantiable());
+        assertTrue(nestedInterface.isNested());
+        assertFalse(nestedInterface.isInstantiable());
+    }
+
+    @Test
+    public void test_read_erased_generic_supertypes() throws IOException {
+        // setup:
+        ClassHeader header;
+
+        when:
+        header = read(_Classes.GenericSuperclass.class);
+
+        then:
+        assertEquals("java.util.ArrayList", header.getSuperName());
+        assertEquals(Arrays.asList(Callable.class.getName(), Comparable.class.getName()), header.getInterfaces());
+    }
+
+    @Test
+    public void test_read_object_without_superclass() throws IOException {
+        // setup:
+        ClassHeader header;
+
+        when:
+        header = read(Object.class);
+
+        then:
+        assertEquals(Object.class.getName(), header.getName());
+        assertNull(header.getSuperName());
+        assertFalse(header.isNested());
+    }
+
+    @Test
+    public void test_reject_invalid_class_files() throws IOException {
+        // setup:
+        byte[] classFile;
+
+        try (InputStream in = classFile(_Top$Level.class)) {
+            classFile = in.readAllBytes();
+        }
+
+        expect:
+        assertThrows(IOException.class, () -> ClassHeader.read(new ByteArrayInputStream("not a class".getBytes())));
+        assertThrows(EOFException.class, () -> ClassHeader.read(new ByteArrayInputStream(Arrays.copyOf(classFile, classFile.length - 4))));
+    }
+
+    private static ClassHeader read(Class<?> type) throws IOException {
+        try (InputStream in = classFile(type)) {
+            return ClassHeader.read(in);
+        }
+    }
+
+    private static InputStream classFile(Class<?> type) {
+        return type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class");
+    }
+
+}
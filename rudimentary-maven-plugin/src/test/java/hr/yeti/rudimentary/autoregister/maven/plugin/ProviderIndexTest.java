@@ -0,0 +1,117 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProviderIndexTest {
+
+    private static final String INSTANCE = "hr.yeti.rudimentary.context.spi.Instance";
+    private static final String HTTP_ENDPOINT = "hr.yeti.rudimentary.http.spi.HttpEndpoint";
+
+    @TempDir
+    Path temp;
+
+    @Test
+    public void test_index_providers_in_spi_order() throws IOException {
+        // setup:
+        Path classes = temp.resolve("classes");
+        write(classes, ProviderIndex.SPI_LIST, "# Load order\n" + INSTANCE + "\n" + HTTP_ENDPOINT + "\n");
+        write(classes, "META-INF/services/" + HTTP_ENDPOINT, "demo.HelloEndpoint # registered by plugin\n");
+        write(classes, "META-INF/services/" + INSTANCE, "demo.Greeter\n\ndemo.Counter\n");
+
+        Path jar = jar(temp.resolve("lib.jar"),
+            "META-INF/services/" + INSTANCE, "demo.Greeter\nlib.Cache\n",
+            "META-INF/services/" + HTTP_ENDPOINT, "lib.HealthEndpoint\n",
+            "META-INF/services/java.sql.Driver", "lib.Driver\n"
+        );
+
+        ProviderIndex index;
+
+        when:
+        index = new ProviderIndex(Arrays.asList(classes.toString(), jar.toString(), temp.resolve("missing.jar").toString()));
+
+        then:
+        assertEquals(
+            Arrays.asList("demo.Greeter", "demo.Counter", "lib.Cache", "demo.HelloEndpoint", "lib.HealthEndpoint"),
+            new ArrayList<>(index.getProviders())
+        );
+    }
+
+    @Test
+    public void test_read_spi_list_from_jar() throws IOException {
+        // setup:
+        Path classes = temp.resolve("classes");
+        write(classes, "META-INF/services/" + INSTANCE, "demo.Greeter\n");
+        Path server = jar(temp.resolve("rudimentary-server.jar"), ProviderIndex.SPI_LIST, INSTANCE + "\n");
+
+        ProviderIndex index;
+
+        when:
+        index = new ProviderIndex(Arrays.asList(classes.toString(), server.toString()));
+
+        then:
+        assertEquals(Collections.singletonList("demo.Greeter"), new ArrayList<>(index.getProviders()));
+    }
+
+    @Test
+    public void test_fail_without_spi_list() throws IOException {
+        // setup:
+        Path classes = temp.resolve("classes");
+        write(classes, "META-INF/services/" + INSTANCE, "demo.Greeter\n");
+
+        expect:
+        assertThrows(IOException.class, () -> new ProviderIndex(Collections.singletonList(classes.toString())));
+    }
+
+    @Test
+    public void test_write_index() throws IOException {
+        // setup:
+        Path classes = temp.resolve("classes");
+        write(classes, ProviderIndex.SPI_LIST, INSTANCE + "\n");
+        write(classes, "META-INF/services/" + INSTANCE, "demo.Greeter\ndemo.Counter\n");
+
+        Path index;
+
+        when:
+        index = new ProviderIndex(Collections.singletonList(classes.toString())).write(classes);
+
+        then:
+        assertEquals(classes.resolve(ProviderIndex.INDEX), index);
+        assertEquals(
+            Arrays.asList("# Generated by rudimentary-maven-plugin, do not edit.", "demo.Greeter", "demo.Counter"),
+            Files.readAllLines(index, StandardCharsets.UTF_8)
+        );
+    }
+
+    private static void write(Path dir, String resource, String content) throws IOException {
+        Path file = dir.resolve(resource);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Entries are given as resource name followed by its content
+    private static Path jar(Path jar, String... entries) throws IOException {
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                jarOut.putNextEntry(new JarEntry(entries[i]));
+                jarOut.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                jarOut.closeEntry();
+            }
+        }
+
+        return jar;
+    }
+
+}
@@ -0,0 +1,7 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+public abstract class _AbstractClass<T> {
+
+    public abstract T value();
+
+}
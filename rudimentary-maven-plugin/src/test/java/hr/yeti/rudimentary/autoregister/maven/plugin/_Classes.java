@@ -0,0 +1,49 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+public class _Classes implements Serializable {
+
+    public static Object anonymous() {
+        return new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+    }
+
+    public static Object local() {
+        class Local {
+        }
+        return new Local();
+    }
+
+    public static class Nested {
+    }
+
+    public class Inner {
+    }
+
+    public static abstract class AbstractNested {
+    }
+
+    public interface NestedInterface {
+    }
+
+    public static class GenericSuperclass extends ArrayList<String> implements Callable<Long>, Comparable<GenericSuperclass> {
+
+        @Override
+        public Long call() {
+            return 1L;
+        }
+
+        @Override
+        public int compareTo(GenericSuperclass o) {
+            return 0;
+        }
+
+    }
+
+}
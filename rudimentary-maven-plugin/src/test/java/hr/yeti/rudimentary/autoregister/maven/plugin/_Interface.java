@@ -0,0 +1,4 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+public interface _Interface extends Runnable {
+}
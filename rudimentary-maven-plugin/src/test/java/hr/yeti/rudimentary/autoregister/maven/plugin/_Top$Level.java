@@ -0,0 +1,13 @@
+package hr.yeti.rudimentary.autoregister.maven.plugin;
+
+// Top level class whose binary name contains $, which is legal although unusual
+public class _Top$Level {
+
+    private static final long SIZE = 1L;
+    private static final double RATIO = 0.5;
+
+    public long size() {
+        return SIZE + (long) RATIO;
+    }
+
+}
@@ -1,53 +1,41 @@
 package hr.yeti.rudimentary.server;
 
-import com.sun.net.httpserver.HttpContext;
-import com.sun.net.httpserver.HttpServer;
-import com.sun.net.httpserver.HttpsConfigurator;
-import com.sun.net.httpserver.HttpsParameters;
-import com.sun.net.httpserver.HttpsServer;
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
 import hr.yeti.rudimentary.config.spi.Config;
 import hr.yeti.rudimentary.context.spi.Context;
 import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
 import hr.yeti.rudimentary.http.filter.spi.HttpFilter;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
 import hr.yeti.rudimentary.security.spi.AuthMechanism;
 import hr.yeti.rudimentary.server.context.DefaultContextProvider;
+import hr.yeti.rudimentary.server.engine.HttpEngine;
+import hr.yeti.rudimentary.server.engine.JdkHttpEngine;
+import hr.yeti.rudimentary.server.http.executor.FixedThreadPoolRequestExecutor;
 import hr.yeti.rudimentary.server.http.processor.HttpProcessor;
 import hr.yeti.rudimentary.shutdown.spi.ShutdownHook;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.security.GeneralSecurityException;
-import java.security.KeyStore;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.ServiceLoader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLParameters;
-import javax.net.ssl.TrustManagerFactory;
+import java.util.stream.Collectors;
 
 public class Server {
 
     private static final Logger LOGGER = Logger.getLogger(Server.class.getName());
 
-    private HttpServer httpServer;
+    private HttpEngine httpEngine;
+    private RequestExecutor fallbackRequestExecutor; // Not part of the context so it is destroyed by the server
 
     private int stopDelay;
     private int port;
-    private int threadPoolSize;
-
-    private boolean sslEnabled;
-    private String protocol;
-    private boolean clientAuth;
-    private String keyStore;
-    private String keyStorePassword;
-    private String trustStore;
-    private String trustStorePassword;
+    private int backlog;
 
     private Context context;
     private Config config;
@@ -75,40 +63,41 @@ public class Server {
             context.initialize();
 
             port = Config.provider().property("server.port").asInt();
-            threadPoolSize = Config.provider().property("server.threadPoolSize").asInt();
+            backlog = Config.provider().property("server.backlog", "0").asInt();
             stopDelay = Config.provider().property("server.stopDelay").asInt();
-            sslEnabled = Config.provider().property("server.ssl.enabled").asBoolean();
-            protocol = Config.provider().property("server.ssl.protocol").value();
-            keyStore = Config.provider().property("server.ssl.keyStore").value();
-            keyStorePassword = Config.provider().property("server.ssl.keyStorePassword").value();
-            trustStore = Config.provider().property("server.ssl.trustStore").value();
-            trustStorePassword = Config.provider().property("server.ssl.trustStorePassword").value();
-            clientAuth = Config.provider().property("server.ssl.clientAuth").asBoolean();
-
-            // Create server instance
-            if (sslEnabled) {
-                httpServer = createHttpsServer();
-            } else {
-                httpServer = HttpServer.create(new InetSocketAddress(port), threadPoolSize);
+
+            // Requests are processed directly on the request executor threads
+            RequestExecutor requestExecutor = Instance.of(RequestExecutor.class);
+            if (Objects.isNull(requestExecutor)) {
+                fallbackRequestExecutor = new FixedThreadPoolRequestExecutor();
+                fallbackRequestExecutor.initialize();
+                requestExecutor = fallbackRequestExecutor;
             }
 
-            HttpContext context = httpServer.createContext("/", Instance.of(HttpProcessor.class));
+            // Sessions are looked up on every request carrying a session cookie
+            if (Objects.isNull(SessionStore.provider())) {
+                throw new ServerStartupException(
+                    "No session store matches session.store=" + Config.provider().value("session.store") + "."
+                );
+            }
 
             // Load authentication mechanism
-            Instance.providersOf(AuthMechanism.class).stream()
+            Authenticator authenticator = Instance.providersOf(AuthMechanism.class).stream()
                 .filter(AuthMechanism::conditional)
                 .findFirst()
-                .ifPresent((authMechanism) -> {
-                    context.setAuthenticator(authMechanism);
-                });
+                .orElse(null);
 
             // Load filters
-            Instance.providersOf(HttpFilter.class)
+            List<Filter> filters = Instance.providersOf(HttpFilter.class)
                 .stream()
                 .sorted(Comparator.comparingInt(HttpFilter::order))
-                .forEach((filter) -> {
-                    context.getFilters().add(filter);
-                });
+                .collect(Collectors.toList());
+
+            // Load http engine
+            httpEngine = Instance.of(HttpEngine.class);
+            if (Objects.isNull(httpEngine)) {
+                httpEngine = new JdkHttpEngine();
+            }
 
             ShutdownHook shutdownHook = Instance.of(ShutdownHook.class);
             if (Objects.nonNull(shutdownHook)) {
@@ -120,7 +109,14 @@ public class Server {
             }
 
             // Start server
-            httpServer.start();
+            httpEngine.start(
+                new InetSocketAddress(port),
+                backlog,
+                requestExecutor,
+                Instance.of(HttpProcessor.class),
+                authenticator,
+                filters
+            );
 
             // ServerInfoConsolePrinter.printRegisteredUriInfo(LOGGER);
             // ServerInfoConsolePrinter.printConfigProperties(LOGGER);
@@ -137,63 +133,15 @@ public class Server {
     public void stop() {
         LOGGER.log(Level.INFO, "Stopping server...");
 
-        this.httpServer.stop(stopDelay);
-        this.context.destroy();
+        this.httpEngine.stop(stopDelay);
 
-        LOGGER.log(Level.INFO, "Server stopped.");
-    }
-
-    private HttpServer createHttpsServer() throws IOException, NoSuchAlgorithmException, GeneralSecurityException {
-        HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress(port), threadPoolSize);
-
-        SSLContext sslContext = createSslContext();
-
-        httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
-            @Override
-            public void configure(HttpsParameters params) {
-                // TODO Set all ssl parameters which can be configured
-                SSLParameters sslparams = sslContext.getDefaultSSLParameters();
-                sslparams.setNeedClientAuth(clientAuth);
-                params.setSSLParameters(sslparams);
-            }
-        });
-
-        return httpsServer;
-    }
-
-    private SSLContext createSslContext() throws GeneralSecurityException, IOException {
-        KeyStore keystore = null;
-        KeyManagerFactory keyManagerFactory = null;
-        if (keyStore.length() > 0) {
-            keystore = KeyStore.getInstance(KeyStore.getDefaultType());
-            try (InputStream in = new FileInputStream(keyStore)) {
-                keystore.load(in, keyStorePassword.toCharArray());
-            }
-            keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-            keyManagerFactory.init(keystore, keyStorePassword.toCharArray());
-        }
-
-        KeyStore truststore = null;
-        TrustManagerFactory trustManagerFactory = null;
-
-        if (trustStore.length() > 0) {
-            truststore = KeyStore.getInstance(KeyStore.getDefaultType());
-            try (InputStream in = new FileInputStream(trustStore)) {
-                truststore.load(in, trustStorePassword.toCharArray());
-            }
-            trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-
-            trustManagerFactory.init(truststore);
+        if (Objects.nonNull(fallbackRequestExecutor)) {
+            fallbackRequestExecutor.destroy();
         }
 
-        SSLContext sslContext = SSLContext.getInstance(protocol);
-
-        sslContext.init(
-            Objects.isNull(keyManagerFactory) ? null : keyManagerFactory.getKeyManagers(),
-            Objects.isNull(trustManagerFactory) ? null : trustManagerFactory.getTrustManagers(),
-            new SecureRandom());
+        this.context.destroy();
 
-        return sslContext;
+        LOGGER.log(Level.INFO, "Server stopped.");
     }
 
 }
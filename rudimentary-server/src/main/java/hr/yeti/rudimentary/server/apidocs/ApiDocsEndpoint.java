@@ -31,6 +31,11 @@ public class ApiDocsEndpoint implements HttpEndpoint<Empty, Html> {
         }
     }
 
+    @Override
+    public boolean lazy() {
+        return true;
+    }
+
     @Override
     public HttpMethod httpMethod() {
         return HttpMethod.GET;
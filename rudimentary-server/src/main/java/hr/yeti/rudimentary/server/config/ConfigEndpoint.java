@@ -29,6 +29,11 @@ public class ConfigEndpoint implements HttpEndpoint<Empty, Html> {
         }
     }
 
+    @Override
+    public boolean lazy() {
+        return true;
+    }
+
     @Override
     public HttpMethod httpMethod() {
         return HttpMethod.GET;
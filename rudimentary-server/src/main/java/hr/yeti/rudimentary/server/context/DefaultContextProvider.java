@@ -1,57 +1,42 @@
 package hr.yeti.rudimentary.server.context;
 
-import hr.yeti.rudimentary.server.http.HttpEndpointContextProvider;
 import hr.yeti.rudimentary.config.spi.Config;
 import hr.yeti.rudimentary.context.spi.Context;
-import hr.yeti.rudimentary.health.spi.HealthCheck;
-import hr.yeti.rudimentary.http.spi.HttpEndpoint;
-import hr.yeti.rudimentary.mvc.spi.ViewEngine;
-import hr.yeti.rudimentary.security.spi.AuthMechanism;
-import hr.yeti.rudimentary.security.spi.IdentityStore;
 import java.util.ServiceLoader;
 import hr.yeti.rudimentary.context.spi.Instance;
-import hr.yeti.rudimentary.events.spi.EventListener;
-import hr.yeti.rudimentary.exception.spi.ExceptionHandler;
-import hr.yeti.rudimentary.http.filter.spi.HttpFilter;
-import hr.yeti.rudimentary.interceptor.spi.AfterInterceptor;
-import hr.yeti.rudimentary.interceptor.spi.BeforeInterceptor;
-import hr.yeti.rudimentary.mvc.spi.ViewEndpoint;
-import hr.yeti.rudimentary.pooling.spi.ObjectPool;
 import java.util.List;
-import hr.yeti.rudimentary.security.spi.IdentityDetails;
 import hr.yeti.rudimentary.server.resources.ClasspathResource;
-import hr.yeti.rudimentary.shutdown.spi.ShutdownHook;
-import hr.yeti.rudimentary.sql.spi.BasicDataSource;
+import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
 public class DefaultContextProvider extends Context {
 
-    private final List<Class<?>> SPIS = List.of(// Top priorities are Config and Context
-        // Config.class, omitted, has its own loader
-        // Context.class, omitted, has its own loader
-        AfterInterceptor.class,
-        BeforeInterceptor.class,
-        ExceptionHandler.class,
-        EventListener.class,
-        HealthCheck.class,
-        HttpEndpoint.class,
-        HttpEndpointContextProvider.class,
-        HttpFilter.class,
-        IdentityDetails.class,
-        IdentityStore.class,
-        AuthMechanism.class,
-        BasicDataSource.class,
-        ShutdownHook.class,
-        ViewEndpoint.class,
-        ViewEngine.class,
-        ObjectPool.class,
-        Instance.class
-    );
+    /**
+     * Index of all service providers generated at build time by rudimentary-maven-plugin index-providers goal.
+     */
+    public static final String PROVIDER_INDEX = "META-INF/rudimentary/providers.index";
+
+    /**
+     * Service provider interfaces whose providers are added to the context, one per line, in load order. The same list
+     * is read by rudimentary-maven-plugin index-providers goal so both load providers in the same order.
+     */
+    public static final String SPI_LIST = "META-INF/rudimentary/spis";
+
+    private static final String SERVICES = "META-INF/services/";
 
     @Override
     public void initLogger() {
@@ -91,13 +76,22 @@ public class DefaultContextProvider extends Context {
 
     @Override
     public void initialize() {
-        // Create context map.
-        SPIS.forEach((clazz) -> {
-            ServiceLoader.load(clazz).
-                forEach(instance -> {
-                    add((Instance) instance);
-                });
-        });
+        // Create context map, from provider index if there is one. Named modules declare providers in module-info.
+        List<Instance> indexed = getClass().getModule().isNamed() ? null : loadProviderIndex(Thread.currentThread().getContextClassLoader());
+
+        if (Objects.nonNull(indexed)) {
+            indexed.forEach(this::add);
+        } else {
+            readSpiList().forEach((spi) -> {
+                ServiceLoader.load(loadSpi(spi)).
+                    forEach(instance -> {
+                        add((Instance) instance);
+                    });
+            });
+        }
+
+        // Index instances by type for lookups.
+        buildTypeIndex();
 
         // Check for circular dependencies.
         buildInstanceDependenciesGraph();
@@ -106,11 +100,8 @@ public class DefaultContextProvider extends Context {
             checkForCircularDependencies(instance, null);
         });
 
-        // Initialize instances.
-        CONTEXT.values()
-            .forEach((instance) -> {
-                this.initializeInstance(instance);
-            });
+        // Initialize instances, independent ones in parallel.
+        initializeInstancesInParallel();
 
     }
 
@@ -119,4 +110,101 @@ public class DefaultContextProvider extends Context {
         return true;
     }
 
+    /**
+     * Instantiates providers listed in {@link #PROVIDER_INDEX}, in the listed order. Index is used only if it lists
+     * exactly the providers registered in META-INF/services, otherwise it is stale, e.g. a provider was added after the
+     * index was generated.
+     *
+     * @param classLoader Class loader to look up index and providers with.
+     * @return Provider instances or null if there is no index or it could not be used.
+     */
+    static List<Instance> loadProviderIndex(ClassLoader classLoader) {
+        URL index = classLoader.getResource(PROVIDER_INDEX);
+
+        if (Objects.isNull(index)) {
+            return null;
+        }
+
+        List<Instance> providers = new ArrayList<>();
+
+        try {
+            List<String> indexed = readLines(index);
+
+            if (!indexed.equals(readRegisteredProviders(classLoader))) {
+                Logger.getLogger(DefaultContextProvider.class.getName())
+                    .log(Level.WARNING, "Providers listed in {0} do not match providers registered in META-INF/services, falling back to ServiceLoader. Is the index stale?", index);
+                return null;
+            }
+
+            for (String provider : indexed) {
+                providers.add((Instance) Class.forName(provider, false, classLoader).getConstructor().newInstance());
+            }
+        } catch (IOException | ReflectiveOperationException | ClassCastException e) {
+            Logger.getLogger(DefaultContextProvider.class.getName())
+                .log(Level.WARNING, "Could not load providers from " + index + ", falling back to ServiceLoader.", e);
+            return null;
+        }
+
+        return providers;
+    }
+
+    /**
+     * @return Names of service provider interfaces listed in {@link #SPI_LIST}.
+     */
+    static List<String> readSpiList() {
+        try {
+            return readLines(DefaultContextProvider.class.getResource("/" + SPI_LIST));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + SPI_LIST + ".", e);
+        }
+    }
+
+    // Same order as ServiceLoader would load them in, each provider listed once
+    private static List<String> readRegisteredProviders(ClassLoader classLoader) throws IOException {
+        Set<String> providers = new LinkedHashSet<>();
+
+        for (String spi : readSpiList()) {
+            Enumeration<URL> registrations = classLoader.getResources(SERVICES + spi);
+
+            while (registrations.hasMoreElements()) {
+                providers.addAll(readLines(registrations.nextElement()));
+            }
+        }
+
+        return new ArrayList<>(providers);
+    }
+
+    private static Class<?> loadSpi(String spi) {
+        try {
+            return Class.forName(spi);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Service provider interface " + spi + " listed in " + SPI_LIST + " does not exist.", e);
+        }
+    }
+
+    // Lines without comments and surrounding whitespace, empty lines are skipped
+    private static List<String> readLines(URL resource) throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+
+            while (Objects.nonNull(line = reader.readLine())) {
+                int comment = line.indexOf('#');
+
+                if (comment >= 0) {
+                    line = line.substring(0, comment);
+                }
+
+                line = line.trim();
+
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        }
+
+        return lines;
+    }
+
 }
@@ -10,6 +10,11 @@ public class Hash {
 
     private static SecureRandom random = new SecureRandom();
 
+    /**
+     * @return Hex encoded SHA-256 digest of a random int.
+     * @deprecated Carries only 32 bits of entropy, use {@link TokenGenerator#generate()} for random tokens.
+     */
+    @Deprecated
     public static String generateRandomSHA256() {
         try {
             String val = Integer.toString(random.nextInt());
@@ -0,0 +1,25 @@
+package hr.yeti.rudimentary.server.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Implemented by response body streams which are able to send file content straight to the connection, using
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so the content is never copied to the heap.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public interface FileTransfer {
+
+    /**
+     * Sends the given region of the file as part of response body.
+     *
+     * @param file File to send.
+     * @param position Position in the file from which to start sending.
+     * @param count Number of bytes to send.
+     * @throws IOException If file could not be read or connection is closed.
+     */
+    void transferFrom(FileChannel file, long position, long count) throws IOException;
+
+}
@@ -0,0 +1,71 @@
+package hr.yeti.rudimentary.server.engine;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+/**
+ * Class to extend when you wish to provide your own http engine. Http engine accepts connections, parses incoming
+ * http requests and passes them through http filters and authenticator to the http handler.
+ *
+ * Http engines are registered as {@link Instance} providers. The one eligible for the configured
+ * <i>server.engine</i> value is used by the server.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public abstract class HttpEngine implements Instance {
+
+    protected ConfigProperty engine = new ConfigProperty("server.engine", JdkHttpEngine.NAME);
+
+    /**
+     * @return Name of the engine, matched against <i>server.engine</i> configuration property.
+     */
+    public abstract String name();
+
+    /**
+     * Starts accepting http requests.
+     *
+     * @param address Address to bind to.
+     * @param backlog Maximum number of queued incoming connections, 0 means system default.
+     * @param executor Request executor on which http requests are processed.
+     * @param handler Http handler processing http requests.
+     * @param authenticator Authenticator executed after http filters, can be null.
+     * @param filters Ordered list of http filters.
+     * @throws IOException If engine could not bind to the given address.
+     * @throws GeneralSecurityException If SSL could not be set up.
+     */
+    public abstract void start(
+        InetSocketAddress address,
+        int backlog,
+        RequestExecutor executor,
+        HttpHandler handler,
+        Authenticator authenticator,
+        List<Filter> filters
+    ) throws IOException, GeneralSecurityException;
+
+    /**
+     * Stops accepting http requests and closes all connections.
+     *
+     * @param delay Maximum time in seconds to wait for http requests in progress to finish.
+     */
+    public abstract void stop(int delay);
+
+    @Override
+    public boolean conditional() {
+        return engine.value().equalsIgnoreCase(name());
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class };
+    }
+
+}
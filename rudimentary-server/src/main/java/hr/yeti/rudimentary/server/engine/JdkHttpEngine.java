@@ -0,0 +1,190 @@
+package hr.yeti.rudimentary.server.engine;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * Default http engine built on top of JDK's {@link HttpServer}. This is the only engine supporting SSL.
+ *
+ * JDK's http server drops the connection when request executor rejects an exchange. Rejected exchanges are therefore
+ * run on the server's dispatcher thread, or on the request executor's thread if they timed out waiting to be processed,
+ * where they are answered with <i>503 Service Unavailable</i> before any http filter or the handler gets to process
+ * them.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class JdkHttpEngine extends HttpEngine {
+
+    public static final String NAME = "jdk";
+
+    private static final ThreadLocal<Boolean> REJECTED = new ThreadLocal<>();
+
+    private ConfigProperty sslEnabled = new ConfigProperty("server.ssl.enabled", "false");
+    private ConfigProperty protocol = new ConfigProperty("server.ssl.protocol", "TLS");
+    private ConfigProperty clientAuth = new ConfigProperty("server.ssl.clientAuth", "false");
+    private ConfigProperty keyStore = new ConfigProperty("server.ssl.keyStore", "");
+    private ConfigProperty keyStorePassword = new ConfigProperty("server.ssl.keyStorePassword", "");
+    private ConfigProperty trustStore = new ConfigProperty("server.ssl.trustStore", "");
+    private ConfigProperty trustStorePassword = new ConfigProperty("server.ssl.trustStorePassword", "");
+
+    private HttpServer httpServer;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void start(
+        InetSocketAddress address,
+        int backlog,
+        RequestExecutor executor,
+        HttpHandler handler,
+        Authenticator authenticator,
+        List<Filter> filters
+    ) throws IOException, GeneralSecurityException {
+
+        if (sslEnabled.asBoolean()) {
+            httpServer = createHttpsServer(address, backlog);
+        } else {
+            httpServer = HttpServer.create(address, backlog);
+        }
+
+        httpServer.setExecutor((exchange) -> {
+            try {
+                executor.execute(exchange, () -> reject(exchange));
+            } catch (RejectedExecutionException e) {
+                reject(exchange);
+            }
+        });
+
+        HttpContext context = httpServer.createContext("/", handler);
+
+        if (Objects.nonNull(authenticator)) {
+            context.setAuthenticator(authenticator);
+        }
+
+        context.getFilters().add(new ServiceUnavailableFilter());
+        context.getFilters().addAll(filters);
+
+        httpServer.start();
+    }
+
+    @Override
+    public void stop(int delay) {
+        if (Objects.nonNull(httpServer)) {
+            httpServer.stop(delay);
+        }
+    }
+
+    public HttpServer getHttpServer() {
+        return httpServer;
+    }
+
+    private static void reject(Runnable exchange) {
+        REJECTED.set(Boolean.TRUE);
+        try {
+            exchange.run();
+        } finally {
+            REJECTED.remove();
+        }
+    }
+
+    private static final class ServiceUnavailableFilter extends Filter {
+
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            if (Objects.isNull(REJECTED.get())) {
+                chain.doFilter(exchange);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        }
+
+        @Override
+        public String description() {
+            return "Answers requests rejected by request executor with 503.";
+        }
+
+    }
+
+    private HttpServer createHttpsServer(InetSocketAddress address, int backlog) throws IOException, GeneralSecurityException {
+        HttpsServer httpsServer = HttpsServer.create(address, backlog);
+
+        SSLContext sslContext = createSslContext();
+
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
+            @Override
+            public void configure(HttpsParameters params) {
+                // TODO Set all ssl parameters which can be configured
+                SSLParameters sslparams = sslContext.getDefaultSSLParameters();
+                sslparams.setNeedClientAuth(clientAuth.asBoolean());
+                params.setSSLParameters(sslparams);
+            }
+        });
+
+        return httpsServer;
+    }
+
+    private SSLContext createSslContext() throws GeneralSecurityException, IOException {
+        KeyStore keystore = null;
+        KeyManagerFactory keyManagerFactory = null;
+        if (keyStore.value().length() > 0) {
+            keystore = KeyStore.getInstance(KeyStore.getDefaultType());
+            try (InputStream in = new FileInputStream(keyStore.value())) {
+                keystore.load(in, keyStorePassword.value().toCharArray());
+            }
+            keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keystore, keyStorePassword.value().toCharArray());
+        }
+
+        KeyStore truststore = null;
+        TrustManagerFactory trustManagerFactory = null;
+
+        if (trustStore.value().length() > 0) {
+            truststore = KeyStore.getInstance(KeyStore.getDefaultType());
+            try (InputStream in = new FileInputStream(trustStore.value())) {
+                truststore.load(in, trustStorePassword.value().toCharArray());
+            }
+            trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+
+            trustManagerFactory.init(truststore);
+        }
+
+        SSLContext sslContext = SSLContext.getInstance(protocol.value());
+
+        sslContext.init(
+            Objects.isNull(keyManagerFactory) ? null : keyManagerFactory.getKeyManagers(),
+            Objects.isNull(trustManagerFactory) ? null : trustManagerFactory.getTrustManagers(),
+            new SecureRandom());
+
+        return sslContext;
+    }
+
+}
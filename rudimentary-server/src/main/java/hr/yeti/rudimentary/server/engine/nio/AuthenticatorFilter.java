@@ -0,0 +1,41 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+
+/**
+ * Runs context's authenticator after user defined http filters, same as JDK's http server does. Authenticated
+ * principal is set on the exchange, otherwise response is sent with the status code returned by the authenticator.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class AuthenticatorFilter extends Filter {
+
+    private final Authenticator authenticator;
+
+    AuthenticatorFilter(Authenticator authenticator) {
+        this.authenticator = authenticator;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        Authenticator.Result result = authenticator.authenticate(exchange);
+
+        if (result instanceof Authenticator.Success) {
+            ((NioHttpExchange) exchange).setPrincipal(((Authenticator.Success) result).getPrincipal());
+            chain.doFilter(exchange);
+        } else if (result instanceof Authenticator.Retry) {
+            exchange.sendResponseHeaders(((Authenticator.Retry) result).getResponseCode(), -1);
+        } else if (result instanceof Authenticator.Failure) {
+            exchange.sendResponseHeaders(((Authenticator.Failure) result).getResponseCode(), -1);
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Authentication filter";
+    }
+
+}
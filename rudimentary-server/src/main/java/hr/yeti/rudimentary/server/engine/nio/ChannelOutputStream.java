@@ -0,0 +1,90 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Output stream buffering response bytes in a pooled direct buffer and writing them to the connection's channel once
+ * the buffer is full or flushed. Closing this stream only flushes it, connection stays open.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class ChannelOutputStream extends OutputStream {
+
+    private final NioConnection connection;
+    private final ByteBuffer buffer;
+
+    ChannelOutputStream(NioConnection connection, ByteBuffer buffer) {
+        this.connection = connection;
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+
+            int length = Math.min(len, buffer.remaining());
+            buffer.put(b, off, length);
+            off += length;
+            len -= length;
+        }
+    }
+
+    /**
+     * Writes ASCII characters without converting them to a byte array first.
+     *
+     * @param value Value to write.
+     * @throws IOException If writing to the channel fails.
+     */
+    void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            write(value.charAt(i));
+        }
+    }
+
+    /**
+     * Writes buffered bytes and then transfers file region directly to the channel.
+     *
+     * @param file File to transfer.
+     * @param position Position in the file from which to start.
+     * @param count Number of bytes to transfer.
+     * @throws IOException If writing to the channel fails.
+     */
+    void transferFrom(FileChannel file, long position, long count) throws IOException {
+        flush();
+        connection.transferFrom(file, position, count);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        try {
+            connection.write(buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+}
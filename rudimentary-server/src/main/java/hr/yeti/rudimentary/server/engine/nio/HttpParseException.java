@@ -0,0 +1,21 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+/**
+ * Thrown when incoming bytes can not be parsed as a valid http request.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class HttpParseException extends Exception {
+
+    private final int httpStatus;
+
+    HttpParseException(int httpStatus, String message) {
+        super(message, null, false, false);
+        this.httpStatus = httpStatus;
+    }
+
+    int getHttpStatus() {
+        return httpStatus;
+    }
+
+}
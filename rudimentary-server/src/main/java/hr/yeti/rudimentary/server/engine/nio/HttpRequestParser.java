@@ -0,0 +1,432 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import com.sun.net.httpserver.Headers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Incremental HTTP/1.1 request parser working directly on connection's read buffer. Parser is fed with whatever bytes
+ * have arrived so far and reports whether a complete request has been read.
+ *
+ * Methods, protocol versions and well known header names are matched byte by byte against constants so no objects are
+ * created for them. Only request URI and header values are materialized as strings. Request body is copied out of the
+ * read buffer, supporting both fixed length and chunked transfer encoding.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class HttpRequestParser {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte SP = ' ';
+    private static final byte HT = '\t';
+    private static final byte COLON = ':';
+
+    private static final int MAX_CHUNK_LINE = 1024;
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    static final String HTTP_1_0 = "HTTP/1.0";
+    static final String HTTP_1_1 = "HTTP/1.1";
+
+    private static final String[] METHODS = {
+        "GET", "POST", "PUT", "DELETE", "HEAD", "OPTIONS", "PATCH", "TRACE", "CONNECT"
+    };
+
+    private static final String[] VERSIONS = { HTTP_1_1, HTTP_1_0 };
+
+    // Names are stored normalized the same way as Headers does so Headers does not create new strings.
+    private static final String[] HEADER_NAMES = {
+        "Host", "Connection", "Content-length", "Content-type", "Transfer-encoding", "Accept", "Accept-encoding",
+        "Accept-language", "Accept-charset", "User-agent", "Cookie", "Authorization", "Cache-control", "Pragma",
+        "Upgrade", "Http2-settings", "Expect", "Origin", "Referer", "Range", "If-range", "If-none-match",
+        "If-modified-since", "If-match", "If-unmodified-since", "Keep-alive", "Te", "Dnt", "Forwarded",
+        "X-forwarded-for", "X-forwarded-proto", "X-requested-with", "X-csrf-token"
+    };
+
+    private enum State {
+        HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_DATA_END, CHUNK_TRAILER, COMPLETE
+    }
+
+    private final int maxRequestSize;
+    private final byte[] scratch;
+
+    private State state = State.HEADERS;
+    private int scanned;
+
+    private String method;
+    private String uri;
+    private String protocol;
+    private Headers headers;
+    private byte[] body;
+    private int bodyLength;
+    private int bodyLimit;
+    private long chunkRemaining;
+    private boolean expectContinue;
+
+    HttpRequestParser(int bufferSize, int maxRequestSize) {
+        this.maxRequestSize = maxRequestSize;
+        this.scratch = new byte[bufferSize];
+    }
+
+    /**
+     * Parses as much as possible from the given buffer. Buffer must be in read mode and its position is advanced past
+     * consumed bytes. Bytes belonging to a following pipelined request are left untouched.
+     *
+     * @param buffer Connection's read buffer.
+     * @return true if a complete request has been parsed, otherwise false.
+     * @throws HttpParseException If request is malformed or too large.
+     */
+    boolean parse(ByteBuffer buffer) throws HttpParseException {
+        while (true) {
+            switch (state) {
+                case HEADERS:
+                    if (!parseHeaders(buffer)) {
+                        return false;
+                    }
+                    break;
+                case BODY:
+                    int length = Math.min(buffer.remaining(), bodyLimit - bodyLength);
+                    ensureBodyCapacity(bodyLength + length);
+                    buffer.get(body, bodyLength, length);
+                    bodyLength += length;
+
+                    if (bodyLength < bodyLimit) {
+                        return false;
+                    }
+                    state = State.COMPLETE;
+                    break;
+                case CHUNK_SIZE:
+                    if (!parseChunkSize(buffer)) {
+                        return false;
+                    }
+                    break;
+                case CHUNK_DATA:
+                    int chunk = (int) Math.min(buffer.remaining(), chunkRemaining);
+                    ensureBodyCapacity(bodyLength + chunk);
+                    buffer.get(body, bodyLength, chunk);
+                    bodyLength += chunk;
+                    chunkRemaining -= chunk;
+
+                    if (chunkRemaining > 0) {
+                        return false;
+                    }
+                    state = State.CHUNK_DATA_END;
+                    break;
+                case CHUNK_DATA_END:
+                    if (buffer.remaining() < 2) {
+                        return false;
+                    }
+                    if (buffer.get() != CR || buffer.get() != LF) {
+                        throw new HttpParseException(400, "Malformed chunk.");
+                    }
+                    state = State.CHUNK_SIZE;
+                    break;
+                case CHUNK_TRAILER:
+                    int lineEnd = indexOf(buffer, buffer.position(), LF);
+                    if (lineEnd == -1) {
+                        if (buffer.remaining() > MAX_CHUNK_LINE) {
+                            throw new HttpParseException(400, "Malformed chunk trailer.");
+                        }
+                        return false;
+                    }
+                    boolean emptyLine = lineEnd == buffer.position()
+                        || (lineEnd == buffer.position() + 1 && buffer.get(buffer.position()) == CR);
+                    buffer.position(lineEnd + 1);
+
+                    if (emptyLine) {
+                        state = State.COMPLETE;
+                    }
+                    break;
+                case COMPLETE:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Prepares parser for the next request on the same connection.
+     */
+    void reset() {
+        state = State.HEADERS;
+        scanned = 0;
+        method = null;
+        uri = null;
+        protocol = null;
+        headers = null;
+        body = null;
+        bodyLength = 0;
+        bodyLimit = 0;
+        chunkRemaining = 0;
+        expectContinue = false;
+    }
+
+    /**
+     * @return true if client expects 100 Continue before sending the body which has not arrived yet. Calling this
+     * method clears the flag so the interim response is sent only once.
+     */
+    boolean expectsContinue() {
+        boolean expects = expectContinue && state != State.COMPLETE && state != State.HEADERS;
+        expectContinue = false;
+        return expects;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getUri() {
+        return uri;
+    }
+
+    String getProtocol() {
+        return protocol;
+    }
+
+    Headers getHeaders() {
+        return headers;
+    }
+
+    byte[] getBody() {
+        return Objects.isNull(body) ? EMPTY_BODY : body;
+    }
+
+    int getBodyLength() {
+        return bodyLength;
+    }
+
+    private boolean parseHeaders(ByteBuffer buffer) throws HttpParseException {
+        int start = buffer.position();
+        int limit = buffer.limit();
+
+        // Skip empty lines preceding request line.
+        while (start < limit && (buffer.get(start) == CR || buffer.get(start) == LF)) {
+            start++;
+        }
+        buffer.position(start);
+
+        int end = -1;
+        for (int i = Math.max(start, start + scanned - 3); i < limit; i++) {
+            if (buffer.get(i) == LF) {
+                if (i + 1 < limit && buffer.get(i + 1) == LF) {
+                    end = i + 2;
+                    break;
+                }
+                if (i + 2 < limit && buffer.get(i + 1) == CR && buffer.get(i + 2) == LF) {
+                    end = i + 3;
+                    break;
+                }
+            }
+        }
+
+        if (end == -1) {
+            scanned = limit - start;
+            if (scanned >= buffer.capacity()) {
+                throw new HttpParseException(431, "Request header fields too large.");
+            }
+            return false;
+        }
+
+        int lineEnd = indexOf(buffer, start, LF);
+        parseRequestLine(buffer, start, trimCr(buffer, start, lineEnd));
+
+        headers = new Headers();
+        int lineStart = lineEnd + 1;
+
+        while (lineStart < end) {
+            lineEnd = indexOf(buffer, lineStart, LF);
+            int contentEnd = trimCr(buffer, lineStart, lineEnd);
+
+            if (contentEnd > lineStart) {
+                parseHeader(buffer, lineStart, contentEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        buffer.position(end);
+        scanned = 0;
+
+        prepareBody();
+        return true;
+    }
+
+    private void parseRequestLine(ByteBuffer buffer, int start, int end) throws HttpParseException {
+        int methodEnd = indexOf(buffer, start, end, SP);
+        int uriEnd = methodEnd == -1 ? -1 : indexOf(buffer, methodEnd + 1, end, SP);
+
+        if (methodEnd <= start || uriEnd <= methodEnd + 1) {
+            throw new HttpParseException(400, "Malformed request line.");
+        }
+
+        method = match(buffer, start, methodEnd, METHODS, false);
+        uri = string(buffer, methodEnd + 1, uriEnd);
+        protocol = match(buffer, uriEnd + 1, end, VERSIONS, false);
+
+        if (!protocol.equals(HTTP_1_1) && !protocol.equals(HTTP_1_0)) {
+            throw new HttpParseException(505, "Http version not supported.");
+        }
+    }
+
+    private void parseHeader(ByteBuffer buffer, int start, int end) throws HttpParseException {
+        int colon = indexOf(buffer, start, end, COLON);
+
+        if (colon <= start) {
+            throw new HttpParseException(400, "Malformed header.");
+        }
+
+        int valueStart = colon + 1;
+        while (valueStart < end && isWhitespace(buffer.get(valueStart))) {
+            valueStart++;
+        }
+
+        int valueEnd = end;
+        while (valueEnd > valueStart && isWhitespace(buffer.get(valueEnd - 1))) {
+            valueEnd--;
+        }
+
+        headers.add(match(buffer, start, colon, HEADER_NAMES, true), string(buffer, valueStart, valueEnd));
+    }
+
+    private void prepareBody() throws HttpParseException {
+        String transferEncoding = headers.getFirst("Transfer-encoding");
+        String contentLength = headers.getFirst("Content-length");
+
+        expectContinue = "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+
+        if (Objects.nonNull(transferEncoding) && transferEncoding.toLowerCase().endsWith("chunked")) {
+            bodyLimit = maxRequestSize;
+            body = new byte[Math.min(scratch.length, bodyLimit)];
+            state = State.CHUNK_SIZE;
+        } else if (Objects.nonNull(contentLength)) {
+            long length;
+            try {
+                length = Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                throw new HttpParseException(400, "Invalid content length.");
+            }
+
+            if (length < 0) {
+                throw new HttpParseException(400, "Invalid content length.");
+            }
+
+            if (length > maxRequestSize) {
+                throw new HttpParseException(413, "Request entity too large.");
+            }
+
+            if (length == 0) {
+                state = State.COMPLETE;
+            } else {
+                // Declared length is not trusted, body grows only as its bytes arrive
+                bodyLimit = (int) length;
+                body = new byte[Math.min(scratch.length, bodyLimit)];
+                state = State.BODY;
+            }
+        } else {
+            state = State.COMPLETE;
+        }
+    }
+
+    private boolean parseChunkSize(ByteBuffer buffer) throws HttpParseException {
+        int lineEnd = indexOf(buffer, buffer.position(), LF);
+
+        if (lineEnd == -1) {
+            if (buffer.remaining() > MAX_CHUNK_LINE) {
+                throw new HttpParseException(400, "Malformed chunk size.");
+            }
+            return false;
+        }
+
+        long size = 0;
+        int digits = 0;
+        for (int i = buffer.position(); i < lineEnd; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit == -1) {
+                break;
+            }
+            size = size * 16 + digit;
+            digits++;
+
+            if (bodyLength + size > maxRequestSize) {
+                throw new HttpParseException(413, "Request entity too large.");
+            }
+        }
+
+        if (digits == 0) {
+            throw new HttpParseException(400, "Malformed chunk size.");
+        }
+
+        buffer.position(lineEnd + 1);
+
+        if (size == 0) {
+            state = State.CHUNK_TRAILER;
+        } else {
+            chunkRemaining = size;
+            state = State.CHUNK_DATA;
+        }
+        return true;
+    }
+
+    private void ensureBodyCapacity(int capacity) {
+        if (capacity > body.length) {
+            body = Arrays.copyOf(body, Math.min(Math.max(body.length * 2, capacity), bodyLimit));
+        }
+    }
+
+    private String match(ByteBuffer buffer, int start, int end, String[] candidates, boolean ignoreCase) {
+        int length = end - start;
+
+        for (String candidate : candidates) {
+            if (candidate.length() != length) {
+                continue;
+            }
+
+            boolean equal = true;
+            for (int i = 0; i < length && equal; i++) {
+                int b = buffer.get(start + i);
+                int c = candidate.charAt(i);
+                equal = b == c || (ignoreCase && toLowerCase(b) == toLowerCase(c));
+            }
+
+            if (equal) {
+                return candidate;
+            }
+        }
+
+        return string(buffer, start, end);
+    }
+
+    private String string(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, byte value) {
+        return indexOf(buffer, from, buffer.limit(), value);
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int trimCr(ByteBuffer buffer, int start, int lineEnd) {
+        return lineEnd > start && buffer.get(lineEnd - 1) == CR ? lineEnd - 1 : lineEnd;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == SP || b == HT;
+    }
+
+    private static int toLowerCase(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+}
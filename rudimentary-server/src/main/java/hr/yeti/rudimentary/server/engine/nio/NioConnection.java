@@ -0,0 +1,321 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single client connection handled by {@link NioHttpEngine}. Reading and parsing is done on the selector thread, once
+ * the request is complete the connection stops reading and the request is dispatched to the executor. Further
+ * requests on the same connection are read only after the current exchange is completed which keeps responses of
+ * pipelined requests in order.
+ *
+ * Responses are written from the worker thread directly to the channel. If the socket send buffer is full, worker
+ * thread waits until selector reports the channel as writable again.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class NioConnection {
+
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final NioHttpEngine engine;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final HttpRequestParser parser;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    private ByteBuffer readBuffer;
+    private boolean writable;
+    private volatile boolean processing;
+    private volatile long lastActivity = System.nanoTime();
+
+    NioConnection(NioHttpEngine engine, SocketChannel channel, SelectionKey key) {
+        this.engine = engine;
+        this.channel = channel;
+        this.key = key;
+        this.parser = new HttpRequestParser(engine.getBufferPool().bufferSize(), engine.getMaxRequestSize());
+        this.readBuffer = engine.getBufferPool().acquire();
+    }
+
+    /**
+     * Called on the selector thread when channel has bytes to read.
+     */
+    void onReadable() {
+        int read;
+
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+
+        if (read == -1) {
+            close();
+            return;
+        }
+
+        lastActivity = System.nanoTime();
+        process();
+    }
+
+    /**
+     * Called on the selector thread when channel which a worker thread is waiting on becomes writable.
+     */
+    void onWritable() {
+        key.interestOps(0);
+
+        synchronized (writeLock) {
+            writable = true;
+            writeLock.notifyAll();
+        }
+    }
+
+    /**
+     * Writes the whole buffer to the channel, blocking the calling worker thread if socket send buffer is full.
+     *
+     * @param buffer Buffer in read mode.
+     * @throws IOException If connection is closed or write times out.
+     */
+    void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (closed.get()) {
+                throw new IOException("Connection is closed.");
+            }
+
+            if (channel.write(buffer) == 0) {
+                awaitWritable();
+            }
+        }
+        lastActivity = System.nanoTime();
+    }
+
+    /**
+     * Transfers file region directly to the channel, blocking the calling worker thread if socket send buffer is full.
+     *
+     * @param file File to transfer.
+     * @param position Position in the file from which to start.
+     * @param count Number of bytes to transfer.
+     * @throws IOException If connection is closed, write times out or file is shorter than expected.
+     */
+    void transferFrom(FileChannel file, long position, long count) throws IOException {
+        long end = position + count;
+
+        while (position < end) {
+            if (closed.get()) {
+                throw new IOException("Connection is closed.");
+            }
+
+            long transferred = file.transferTo(position, end - position, channel);
+
+            if (transferred == 0) {
+                if (position >= file.size()) {
+                    throw new IOException("File is shorter than expected.");
+                }
+                awaitWritable();
+            }
+
+            position += transferred;
+        }
+        lastActivity = System.nanoTime();
+    }
+
+    /**
+     * Called by the exchange once response has been sent. Connection is either closed or it starts reading the next
+     * request. Bytes of pipelined request which are already read are parsed right away.
+     *
+     * @param keepAlive Whether connection can be reused.
+     */
+    void exchangeCompleted(boolean keepAlive) {
+        if (!keepAlive) {
+            close();
+            return;
+        }
+
+        engine.submit(() -> {
+            if (closed.get()) {
+                return;
+            }
+
+            processing = false;
+            lastActivity = System.nanoTime();
+            parser.reset();
+            process();
+        });
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        key.cancel();
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing to do, connection is being closed anyway.
+        }
+
+        synchronized (writeLock) {
+            writeLock.notifyAll();
+        }
+
+        // Read buffer is touched only on the selector thread so it is released there.
+        engine.submit(() -> {
+            engine.connectionClosed(this);
+
+            if (readBuffer != null) {
+                engine.getBufferPool().release(readBuffer);
+                readBuffer = null;
+            }
+        });
+    }
+
+    boolean isIdle(long now, long idleTimeoutNanos) {
+        return !processing && now - lastActivity > idleTimeoutNanos;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    ByteBuffer acquireWriteBuffer() {
+        return engine.getBufferPool().acquire();
+    }
+
+    void releaseWriteBuffer(ByteBuffer buffer) {
+        engine.getBufferPool().release(buffer);
+    }
+
+    NioHttpEngine getEngine() {
+        return engine;
+    }
+
+    InetSocketAddress getRemoteAddress() {
+        return (InetSocketAddress) channel.socket().getRemoteSocketAddress();
+    }
+
+    InetSocketAddress getLocalAddress() {
+        return (InetSocketAddress) channel.socket().getLocalSocketAddress();
+    }
+
+    private void process() {
+        readBuffer.flip();
+
+        boolean complete;
+
+        try {
+            complete = parser.parse(readBuffer);
+        } catch (HttpParseException e) {
+            readBuffer.clear();
+            reject(e.getHttpStatus());
+            return;
+        }
+
+        readBuffer.compact();
+
+        if (!complete) {
+            if (parser.expectsContinue() && !writeDirectly(ByteBuffer.wrap(CONTINUE))) {
+                return;
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            return;
+        }
+
+        NioHttpExchange exchange;
+
+        try {
+            exchange = new NioHttpExchange(
+                this,
+                engine.getContext(),
+                parser.getMethod(),
+                new URI(parser.getUri()),
+                parser.getProtocol(),
+                parser.getHeaders(),
+                parser.getBody(),
+                parser.getBodyLength()
+            );
+        } catch (Exception e) {
+            reject(400);
+            return;
+        }
+
+        processing = true;
+        key.interestOps(0);
+
+        if (!engine.dispatch(exchange, () -> engine.submit(() -> reject(exchange)))) {
+            reject(exchange);
+        }
+    }
+
+    // Request executor is saturated, connection is closed first so the exchange does not resume reading
+    private void reject(NioHttpExchange exchange) {
+        reject(503);
+        exchange.close();
+    }
+
+    private void reject(int status) {
+        String response = "HTTP/1.1 " + status + " \r\nContent-length: 0\r\nConnection: close\r\n\r\n";
+        writeDirectly(ByteBuffer.wrap(response.getBytes(StandardCharsets.US_ASCII)));
+        close();
+    }
+
+    // Used on the selector thread for tiny interim responses which fit into an empty socket send buffer.
+    private boolean writeDirectly(ByteBuffer buffer) {
+        try {
+            channel.write(buffer);
+            return true;
+        } catch (IOException e) {
+            close();
+            return false;
+        }
+    }
+
+    private void awaitWritable() throws IOException {
+        synchronized (writeLock) {
+            writable = false;
+        }
+
+        engine.submit(() -> {
+            if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+        });
+
+        long timeout = engine.getIdleTimeoutNanos();
+        long deadline = System.nanoTime() + timeout;
+
+        synchronized (writeLock) {
+            while (!writable) {
+                if (closed.get()) {
+                    throw new IOException("Connection is closed.");
+                }
+
+                long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    close();
+                    throw new IOException("Write timed out.");
+                }
+
+                try {
+                    writeLock.wait(TimeUnit.NANOSECONDS.toMillis(remaining) + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Write interrupted.", e);
+                }
+            }
+        }
+    }
+
+}
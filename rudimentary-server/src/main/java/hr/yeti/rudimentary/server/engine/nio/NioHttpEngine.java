@@ -0,0 +1,331 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
+import hr.yeti.rudimentary.server.ServerStartupException;
+import hr.yeti.rudimentary.server.engine.HttpEngine;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Http/1.1 engine built on a single selector thread and non-blocking socket channels. Selector thread accepts
+ * connections, reads and parses requests into pooled direct buffers and dispatches complete requests to the request
+ * executor. Connections are kept alive and pipelined requests are answered in order.
+ *
+ * SSL is not supported by this engine, use {@link hr.yeti.rudimentary.server.engine.JdkHttpEngine} instead.
+ *
+ * Following configuration properties are used:
+ * <ul>
+ * <li>server.nio.bufferSize - size of read and write buffers and maximum size of request headers, default 16384</li>
+ * <li>server.nio.maxPooledBuffers - maximum number of buffers kept in the pool, default 1024</li>
+ * <li>server.nio.maxRequestSize - maximum size of request body in bytes, default 10485760</li>
+ * <li>server.nio.idleTimeout - seconds after which idle connection is closed, default 30</li>
+ * </ul>
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class NioHttpEngine extends HttpEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(NioHttpEngine.class.getName());
+
+    public static final String NAME = "nio";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private ConfigProperty sslEnabled = new ConfigProperty("server.ssl.enabled", "false");
+    private ConfigProperty bufferSize = new ConfigProperty("server.nio.bufferSize", "16384");
+    private ConfigProperty maxPooledBuffers = new ConfigProperty("server.nio.maxPooledBuffers", "1024");
+    private ConfigProperty maxRequestSize = new ConfigProperty("server.nio.maxRequestSize", "10485760");
+    private ConfigProperty idleTimeout = new ConfigProperty("server.nio.idleTimeout", "30");
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Set<NioConnection> connections = ConcurrentHashMap.newKeySet();
+
+    private DirectBufferPool bufferPool;
+    private NioHttpContext context;
+    private List<Filter> chain;
+    private RequestExecutor executor;
+    private long idleTimeoutNanos;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    private volatile long dateSecond;
+    private volatile String date;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void start(
+        InetSocketAddress address,
+        int backlog,
+        RequestExecutor executor,
+        HttpHandler handler,
+        Authenticator authenticator,
+        List<Filter> filters
+    ) throws IOException {
+
+        if (sslEnabled.asBoolean()) {
+            throw new ServerStartupException("SSL is not supported by " + NAME + " http engine.");
+        }
+
+        this.executor = executor;
+        this.bufferPool = new DirectBufferPool(bufferSize.asInt(), maxPooledBuffers.asInt());
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeout.asLong());
+
+        this.context = new NioHttpContext();
+        this.context.setHandler(handler);
+        this.context.setAuthenticator(authenticator);
+        this.context.getFilters().addAll(filters);
+
+        // Authenticator runs after user defined filters
+        this.chain = new ArrayList<>(filters);
+        if (Objects.nonNull(authenticator)) {
+            this.chain.add(new AuthenticatorFilter(authenticator));
+        }
+
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, backlog);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+
+        selectorThread = new Thread(this::run, "nio-http-selector");
+        selectorThread.start();
+    }
+
+    @Override
+    public void stop(int delay) {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not close server channel.", e);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delay);
+        while (System.nanoTime() < deadline && connections.stream().anyMatch((connection) -> !connection.isIdle(System.nanoTime(), 0))) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        connections.forEach(NioConnection::close);
+        selector.wakeup();
+
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            selector.close();
+        } catch (InterruptedException | IOException e) {
+            LOGGER.log(Level.WARNING, "Could not stop selector thread.", e);
+        }
+    }
+
+    /**
+     * @return Address engine is bound to.
+     * @throws IOException If address could not be resolved.
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    void submit(Runnable task) {
+        tasks.offer(task);
+
+        if (Thread.currentThread() != selectorThread) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * @param exchange Exchange to process on the request executor.
+     * @param rejection Run instead of processing the exchange if it timed out waiting to be processed.
+     * @return Whether request executor accepted the exchange.
+     */
+    boolean dispatch(NioHttpExchange exchange, Runnable rejection) {
+        try {
+            executor.execute(() -> handle(exchange), rejection);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    void connectionClosed(NioConnection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * @return Current date formatted for the Date http header, it is formatted only once per second.
+     */
+    String date() {
+        long now = System.currentTimeMillis() / 1000;
+
+        if (now != dateSecond || Objects.isNull(date)) {
+            date = DATE_FORMAT.format(ZonedDateTime.now(ZoneOffset.UTC));
+            dateSecond = now;
+        }
+
+        return date;
+    }
+
+    DirectBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    int getMaxRequestSize() {
+        return maxRequestSize.asInt();
+    }
+
+    long getIdleTimeoutNanos() {
+        return idleTimeoutNanos;
+    }
+
+    NioHttpContext getContext() {
+        return context;
+    }
+
+    private void handle(NioHttpExchange exchange) {
+        try {
+            new Filter.Chain(chain, context.getHandler()).doFilter(exchange);
+        } catch (Throwable e) {
+            LOGGER.log(Level.SEVERE, "Http exchange failed.", e);
+
+            if (exchange.isResponseHeadersSent()) {
+                // Completing the response would make partially sent body look complete
+                exchange.abort();
+                return;
+            }
+
+            try {
+                exchange.sendResponseHeaders(500, -1);
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, null, ex);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void run() {
+        long lastIdleCheck = System.nanoTime();
+
+        while (running) {
+            try {
+                selector.select(1000);
+
+                runTasks();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+
+                    NioConnection connection = (NioConnection) key.attachment();
+
+                    if (key.isWritable()) {
+                        connection.onWritable();
+                    } else if (key.isReadable()) {
+                        connection.onReadable();
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - lastIdleCheck > TimeUnit.SECONDS.toNanos(1)) {
+                    lastIdleCheck = now;
+                    closeIdleConnections(now);
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Selector failed.", e);
+            }
+        }
+
+        runTasks();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Selector task failed.", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            NioConnection connection = new NioConnection(this, channel, key);
+            key.attach(connection);
+            connections.add(connection);
+        }
+    }
+
+    private void closeIdleConnections(long now) {
+        for (NioConnection connection : connections) {
+            if (connection.isIdle(now, idleTimeoutNanos)) {
+                connection.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,366 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import hr.yeti.rudimentary.server.engine.FileTransfer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link HttpExchange} implementation used by {@link NioHttpEngine}. Follows the behaviour of JDK's http server so
+ * http handlers and filters work the same on both engines:
+ * <ul>
+ * <li>response length greater than zero sends fixed length body,</li>
+ * <li>response length of zero sends chunked body,</li>
+ * <li>response length of -1 sends no body,</li>
+ * <li>closing response body stream completes the exchange.</li>
+ * </ul>
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class NioHttpExchange extends HttpExchange {
+
+    private static final String CRLF = "\r\n";
+
+    private final NioConnection connection;
+    private final NioHttpContext context;
+    private final String method;
+    private final URI requestURI;
+    private final String protocol;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final OutputStream originalResponseBody = new ExchangeOutputStream();
+
+    private InputStream requestBody;
+    private OutputStream responseBody = originalResponseBody;
+    private ChannelOutputStream out;
+    private ResponseBodyOutputStream body;
+    private HttpPrincipal principal;
+    private int responseCode = -1;
+    private boolean keepAlive;
+    private boolean closed;
+
+    NioHttpExchange(
+        NioConnection connection,
+        NioHttpContext context,
+        String method,
+        URI requestURI,
+        String protocol,
+        Headers requestHeaders,
+        byte[] requestBody,
+        int requestBodyLength
+    ) {
+        this.connection = connection;
+        this.context = context;
+        this.method = method;
+        this.requestURI = requestURI;
+        this.protocol = protocol;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = new ByteArrayInputStream(requestBody, 0, requestBodyLength);
+        this.keepAlive = isKeepAliveRequested(protocol, requestHeaders.getFirst("Connection"));
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return requestURI;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        boolean reusable = false;
+
+        try {
+            if (Objects.nonNull(body)) {
+                body.close();
+                reusable = keepAlive && body.isComplete();
+            }
+        } catch (IOException e) {
+            reusable = false;
+        } finally {
+            if (Objects.nonNull(out)) {
+                connection.releaseWriteBuffer(out.getBuffer());
+            }
+            connection.exchangeCompleted(reusable);
+        }
+    }
+
+    /**
+     * Closes connection without completing the response so client can tell that response is incomplete. Used when
+     * handler fails after response headers have already been sent.
+     */
+    void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        connection.close();
+
+        if (Objects.nonNull(out)) {
+            connection.releaseWriteBuffer(out.getBuffer());
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (Objects.nonNull(body)) {
+            throw new IOException("Headers already sent.");
+        }
+
+        this.responseCode = rCode;
+
+        boolean noBody = rCode < 200 || rCode == 204 || rCode == 304 || method.equals("HEAD");
+        boolean chunked = false;
+
+        if (noBody) {
+            if (rCode >= 200 && rCode != 204 && rCode != 304) {
+                responseHeaders.set("Content-length", String.valueOf(Math.max(responseLength, 0)));
+            }
+            responseLength = 0;
+        } else if (responseLength == 0) {
+            chunked = true;
+            responseHeaders.set("Transfer-encoding", "chunked");
+        } else {
+            responseLength = Math.max(responseLength, 0);
+            responseHeaders.set("Content-length", String.valueOf(responseLength));
+        }
+
+        if (!keepAlive || "close".equalsIgnoreCase(responseHeaders.getFirst("Connection"))) {
+            keepAlive = false;
+            responseHeaders.set("Connection", "close");
+        }
+
+        if (!responseHeaders.containsKey("Date")) {
+            responseHeaders.set("Date", connection.getEngine().date());
+        }
+
+        out = new ChannelOutputStream(connection, connection.acquireWriteBuffer());
+        out.writeAscii(HttpRequestParser.HTTP_1_1);
+        out.writeAscii(" ");
+        out.writeAscii(String.valueOf(rCode));
+        out.writeAscii(" ");
+        out.writeAscii(reasonPhrase(rCode));
+        out.writeAscii(CRLF);
+
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            for (String value : header.getValue()) {
+                out.writeAscii(header.getKey());
+                out.writeAscii(": ");
+                out.writeAscii(Objects.isNull(value) ? "" : value);
+                out.writeAscii(CRLF);
+            }
+        }
+        out.writeAscii(CRLF);
+
+        body = chunked ? ResponseBodyOutputStream.chunked(out) : ResponseBodyOutputStream.fixed(out, responseLength);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    // Attributes are context wide, same as with JDK's http server.
+    @Override
+    public Object getAttribute(String name) {
+        return context.getAttributes().get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (Objects.isNull(value)) {
+            context.getAttributes().remove(name);
+        } else {
+            context.getAttributes().put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (Objects.nonNull(i)) {
+            this.requestBody = i;
+        }
+        if (Objects.nonNull(o)) {
+            this.responseBody = o;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return principal;
+    }
+
+    void setPrincipal(HttpPrincipal principal) {
+        this.principal = principal;
+    }
+
+    boolean isResponseHeadersSent() {
+        return Objects.nonNull(body);
+    }
+
+    private static boolean isKeepAliveRequested(String protocol, String connection) {
+        if (HttpRequestParser.HTTP_1_1.equals(protocol)) {
+            return !"close".equalsIgnoreCase(connection);
+        }
+        return "keep-alive".equalsIgnoreCase(connection);
+    }
+
+    private static String reasonPhrase(int code) {
+        switch (code) {
+            case 100:
+                return "Continue";
+            case 200:
+                return "OK";
+            case 201:
+                return "Created";
+            case 202:
+                return "Accepted";
+            case 204:
+                return "No Content";
+            case 206:
+                return "Partial Content";
+            case 301:
+                return "Moved Permanently";
+            case 302:
+                return "Found";
+            case 303:
+                return "See Other";
+            case 304:
+                return "Not Modified";
+            case 307:
+                return "Temporary Redirect";
+            case 308:
+                return "Permanent Redirect";
+            case 400:
+                return "Bad Request";
+            case 401:
+                return "Unauthorized";
+            case 403:
+                return "Forbidden";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 411:
+                return "Length Required";
+            case 413:
+                return "Payload Too Large";
+            case 416:
+                return "Range Not Satisfiable";
+            case 431:
+                return "Request Header Fields Too Large";
+            case 500:
+                return "Internal Server Error";
+            case 503:
+                return "Service Unavailable";
+            case 505:
+                return "HTTP Version Not Supported";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * Stream returned by {@link #getResponseBody()}, it is valid only after response headers are sent.
+     */
+    private class ExchangeOutputStream extends OutputStream implements FileTransfer {
+
+        @Override
+        public void write(int b) throws IOException {
+            checkHeadersSent();
+            body.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkHeadersSent();
+            body.write(b, off, len);
+        }
+
+        @Override
+        public void transferFrom(FileChannel file, long position, long count) throws IOException {
+            checkHeadersSent();
+            body.transferFrom(file, position, count);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (Objects.nonNull(body)) {
+                body.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            NioHttpExchange.this.close();
+        }
+
+        private void checkHeadersSent() throws IOException {
+            if (Objects.isNull(body)) {
+                throw new IOException("Response headers not sent yet.");
+            }
+        }
+
+    }
+
+}
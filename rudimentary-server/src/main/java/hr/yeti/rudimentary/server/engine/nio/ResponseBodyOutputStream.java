@@ -0,0 +1,119 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import hr.yeti.rudimentary.server.engine.FileTransfer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Response body stream framing written bytes either by a fixed content length or by chunked transfer encoding.
+ * Closing this stream completes the response, it does not close the connection.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class ResponseBodyOutputStream extends OutputStream implements FileTransfer {
+
+    private static final String CRLF = "\r\n";
+
+    private final ChannelOutputStream out;
+    private final boolean chunked;
+    private long remaining;
+    private boolean closed;
+
+    private ResponseBodyOutputStream(ChannelOutputStream out, boolean chunked, long length) {
+        this.out = out;
+        this.chunked = chunked;
+        this.remaining = length;
+    }
+
+    static ResponseBodyOutputStream fixed(ChannelOutputStream out, long length) {
+        return new ResponseBodyOutputStream(out, false, length);
+    }
+
+    static ResponseBodyOutputStream chunked(ChannelOutputStream out) {
+        return new ResponseBodyOutputStream(out, true, -1);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{ (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed.");
+        }
+
+        if (len == 0) {
+            return;
+        }
+
+        if (chunked) {
+            out.writeAscii(Integer.toHexString(len));
+            out.writeAscii(CRLF);
+            out.write(b, off, len);
+            out.writeAscii(CRLF);
+        } else {
+            if (len > remaining) {
+                throw new IOException("Too many bytes to write to stream.");
+            }
+            out.write(b, off, len);
+            remaining -= len;
+        }
+    }
+
+    @Override
+    public void transferFrom(FileChannel file, long position, long count) throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed.");
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        if (chunked) {
+            out.writeAscii(Long.toHexString(count));
+            out.writeAscii(CRLF);
+            out.transferFrom(file, position, count);
+            out.writeAscii(CRLF);
+        } else {
+            if (count > remaining) {
+                throw new IOException("Too many bytes to write to stream.");
+            }
+            out.transferFrom(file, position, count);
+            remaining -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (!closed) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (chunked) {
+            out.writeAscii("0");
+            out.writeAscii(CRLF);
+            out.writeAscii(CRLF);
+        }
+        out.flush();
+    }
+
+    /**
+     * @return true if response body was fully written so the connection can be reused.
+     */
+    boolean isComplete() {
+        return closed && (chunked || remaining == 0);
+    }
+
+}
@@ -5,36 +5,46 @@ import hr.yeti.rudimentary.context.spi.Instance;
 import hr.yeti.rudimentary.http.HttpMethod;
 import hr.yeti.rudimentary.http.URIUtils;
 import hr.yeti.rudimentary.http.spi.HttpEndpoint;
+import hr.yeti.rudimentary.interceptor.spi.AfterInterceptor;
+import hr.yeti.rudimentary.interceptor.spi.BeforeInterceptor;
+import hr.yeti.rudimentary.json.spi.JsonCodec;
 import hr.yeti.rudimentary.mvc.spi.ViewEngine;
 import java.net.URI;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class HttpEndpointContextProvider implements Instance {
 
     private final Map<String, HttpEndpoint> HTTP_ENDPOINTS = new ConcurrentHashMap<>();
-    private final Map<Pattern, URI> PATTERN_PATHS_MAPPING = new ConcurrentHashMap<>();
+    private volatile HttpEndpointRouter router = new HttpEndpointRouter();
 
     @Override
     public void initialize() {
+        HttpEndpointRouter httpEndpointRouter = new HttpEndpointRouter();
+
+        List<BeforeInterceptor> beforeInterceptors = Instance.providersOf(BeforeInterceptor.class);
+        beforeInterceptors.sort(Comparator.comparing(BeforeInterceptor::order));
+
+        List<AfterInterceptor> afterInterceptors = Instance.providersOf(AfterInterceptor.class);
+        afterInterceptors.sort(Comparator.comparing(AfterInterceptor::order));
 
         Instance.providersOf(HttpEndpoint.class)
             .forEach((httpEndpoint) -> {
+                String path = URIUtils.removeSlashPrefix(httpEndpoint.path()).toString();
+
                 checkForDuplicateMapping(URIUtils.removeSlashPrefix(httpEndpoint.path()), httpEndpoint.httpMethod());
 
-                HTTP_ENDPOINTS.put(httpEndpoint.httpMethod() + "@" + URIUtils.removeSlashPrefix(httpEndpoint.path()).toString(), httpEndpoint);
-                PATTERN_PATHS_MAPPING.put(
-                    URIUtils.convertToRegex(URIUtils.removeSlashPrefix(httpEndpoint.path()).toString(),
-                        "([^/.]+)"), URIUtils.removeSlashPrefix(httpEndpoint.path())
-                );
+                HTTP_ENDPOINTS.put(httpEndpoint.httpMethod() + "@" + path, httpEndpoint);
+                httpEndpointRouter.add(path, HttpEndpointExecutionPlan.of(httpEndpoint, path, beforeInterceptors, afterInterceptors));
             });
+
+        // Router is built completely before it is published
+        router = httpEndpointRouter;
     }
 
     @Override
@@ -42,42 +52,12 @@ public class HttpEndpointContextProvider implements Instance {
         Config.provider().destroy();
 
         HTTP_ENDPOINTS.clear();
-        PATTERN_PATHS_MAPPING.clear();
+        router = new HttpEndpointRouter();
     }
 
     public HttpEndpointMatchInfo matchEndpoint(URI path, HttpMethod httpMethod) {
-        URI resolvedURI = URIUtils.removeSlashPrefix(path);
-
-        boolean pathMatchFound = false;
-        HttpEndpoint httpEndpoint = null;
-
-        List<Map.Entry<Pattern, URI>> match = PATTERN_PATHS_MAPPING.entrySet().stream()
-            .filter(e -> {
-                return e.getKey().asPredicate().test(URIUtils.removeSlashPrefix(path).toString());
-            })
-            .collect(Collectors.toList());
-
-        if (!match.isEmpty()) {
-            pathMatchFound = true;
-
-            Optional<Map.Entry<Pattern, URI>> exactMatch = match.stream()
-                .filter(entry -> {
-                    return entry.getValue().equals(URIUtils.removeSlashPrefix(path));
-                })
-                .findFirst();
-
-            if (exactMatch.isPresent()) {
-                httpEndpoint = HTTP_ENDPOINTS.get(httpMethod + "@" + exactMatch.get().getValue().toString());
-            } else {
-                for (Map.Entry<Pattern, URI> entry : match) {
-                    httpEndpoint = HTTP_ENDPOINTS.get(httpMethod + "@" + entry.getValue().toString());
-                    if (Objects.nonNull(httpEndpoint)) {
-                        break;
-                    }
-                }
-            }
-        }
-        return new HttpEndpointMatchInfo(pathMatchFound, httpEndpoint);
+        HttpEndpointRouter.Match match = router.match(path.getPath(), httpMethod);
+        return new HttpEndpointMatchInfo(match.isPathMatchFound(), match.getExecutionPlan(), match.getPathVariables());
     }
 
     public List<HttpEndpoint> getRegisteredUris() {
@@ -103,17 +83,19 @@ public class HttpEndpointContextProvider implements Instance {
 
     @Override
     public Class[] dependsOn() {
-        return new Class[]{ HttpEndpoint.class, ViewEngine.class };
+        return new Class[]{ HttpEndpoint.class, ViewEngine.class, BeforeInterceptor.class, AfterInterceptor.class, JsonCodec.class };
     }
 
     public static class HttpEndpointMatchInfo {
 
         private boolean pathMatchFound;
-        private HttpEndpoint httpEndpoint;
+        private HttpEndpointExecutionPlan executionPlan;
+        private Map<String, String> pathVariables;
 
-        public HttpEndpointMatchInfo(boolean pathMatchFound, HttpEndpoint httpEndpoint) {
+        public HttpEndpointMatchInfo(boolean pathMatchFound, HttpEndpointExecutionPlan executionPlan, Map<String, String> pathVariables) {
             this.pathMatchFound = pathMatchFound;
-            this.httpEndpoint = httpEndpoint;
+            this.executionPlan = executionPlan;
+            this.pathVariables = pathVariables;
         }
 
         public boolean isPathMatchFound() {
@@ -121,7 +103,21 @@ public class HttpEndpointContextProvider implements Instance {
         }
 
         public HttpEndpoint getHttpEndpoint() {
-            return httpEndpoint;
+            return Objects.isNull(executionPlan) ? null : executionPlan.getHttpEndpoint();
+        }
+
+        /**
+         * @return Execution plan of matched http endpoint, null if no http endpoint supports requested http method.
+         */
+        public HttpEndpointExecutionPlan getExecutionPlan() {
+            return executionPlan;
+        }
+
+        /**
+         * @return Path variables captured while matching request path against http endpoint path.
+         */
+        public Map<String, String> getPathVariables() {
+            return pathVariables;
         }
 
     }
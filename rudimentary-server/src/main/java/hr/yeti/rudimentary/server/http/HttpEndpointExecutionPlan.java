@@ -0,0 +1,309 @@
+package hr.yeti.rudimentary.server.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import hr.yeti.rudimentary.http.HttpRequestUtils;
+import hr.yeti.rudimentary.http.Request;
+import hr.yeti.rudimentary.http.URIUtils;
+import hr.yeti.rudimentary.http.content.ByteStream;
+import hr.yeti.rudimentary.http.content.Empty;
+import hr.yeti.rudimentary.http.content.Form;
+import hr.yeti.rudimentary.http.content.Html;
+import hr.yeti.rudimentary.http.content.Json;
+import hr.yeti.rudimentary.http.content.Model;
+import hr.yeti.rudimentary.http.content.Redirect;
+import hr.yeti.rudimentary.http.content.StaticResource;
+import hr.yeti.rudimentary.http.content.Text;
+import hr.yeti.rudimentary.http.content.View;
+import hr.yeti.rudimentary.http.spi.HttpEndpoint;
+import hr.yeti.rudimentary.interceptor.spi.AfterInterceptor;
+import hr.yeti.rudimentary.interceptor.spi.BeforeInterceptor;
+import hr.yeti.rudimentary.json.spi.JsonCodec;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import javax.json.JsonValue;
+
+/**
+ * Immutable description of everything needed to process a request for a single http endpoint. It is built once on
+ * startup when http endpoint is registered so reflection, interceptor sorting, interceptor pattern compilation and
+ * {@link JsonCodec} lookup are not done per request.
+ *
+ * Interceptors are filtered against http endpoint path up front. Only when path contains path variables or regular
+ * expressions, which means it matches many request paths, interceptors are tested against the request path, using
+ * patterns compiled on startup.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public final class HttpEndpointExecutionPlan {
+
+    private static final ClassValue<ResponseEncoding> RESPONSE_ENCODINGS = new ClassValue<>() {
+        @Override
+        protected ResponseEncoding computeValue(Class<?> type) {
+            return ResponseEncoding.of(type);
+        }
+    };
+
+    private static final Predicate<Request> PERMIT_ALL = (request) -> true;
+
+    private final HttpEndpoint httpEndpoint;
+    private final RequestBodyDecoder requestBodyDecoder;
+    private final boolean pojoRequestBody;
+    private final List<Guarded<BeforeInterceptor>> beforeInterceptors;
+    private final List<Guarded<AfterInterceptor>> afterInterceptors;
+    private volatile Predicate<Request> authorizations;
+    private final ResponseEncoding responseEncoding;
+
+    private HttpEndpointExecutionPlan(
+        HttpEndpoint httpEndpoint,
+        RequestBodyDecoder requestBodyDecoder,
+        boolean pojoRequestBody,
+        List<Guarded<BeforeInterceptor>> beforeInterceptors,
+        List<Guarded<AfterInterceptor>> afterInterceptors,
+        ResponseEncoding responseEncoding
+    ) {
+        this.httpEndpoint = httpEndpoint;
+        this.requestBodyDecoder = requestBodyDecoder;
+        this.pojoRequestBody = pojoRequestBody;
+        this.beforeInterceptors = beforeInterceptors;
+        this.afterInterceptors = afterInterceptors;
+        this.responseEncoding = responseEncoding;
+    }
+
+    /**
+     * Builds execution plan for the given http endpoint.
+     *
+     * @param httpEndpoint Http endpoint.
+     * @param path Http endpoint path without slash prefix.
+     * @param beforeInterceptors All before interceptors, already sorted by order.
+     * @param afterInterceptors All after interceptors, already sorted by order.
+     * @return Execution plan.
+     */
+    public static HttpEndpointExecutionPlan of(
+        HttpEndpoint httpEndpoint,
+        String path,
+        List<BeforeInterceptor> beforeInterceptors,
+        List<AfterInterceptor> afterInterceptors
+    ) {
+        Class<?> requestBodyType = resolveRequestBodyType(httpEndpoint);
+        boolean dynamicPath = URIUtils.PATH_VAR_PATTERN.matcher(path).find() || HttpEndpointRouter.REGEX_SEGMENT.matcher(path).matches();
+
+        return new HttpEndpointExecutionPlan(
+            httpEndpoint,
+            RequestBodyDecoder.of(requestBodyType, JsonCodec.provider()),
+            Objects.nonNull(requestBodyType) && isPojo(requestBodyType),
+            guard(beforeInterceptors, BeforeInterceptor::applyToURI, path, dynamicPath),
+            guard(afterInterceptors, AfterInterceptor::applyToURI, path, dynamicPath),
+            resolveResponseEncoding(httpEndpoint)
+        );
+    }
+
+    public HttpEndpoint getHttpEndpoint() {
+        return httpEndpoint;
+    }
+
+    /**
+     * Reads request body into the model declared by http endpoint.
+     *
+     * @param exchange Current http exchange.
+     * @return Request body model.
+     * @throws IOException If request body could not be read.
+     * @throws IllegalStateException If request body type could not be resolved from http endpoint declaration.
+     */
+    public Model decodeRequestBody(HttpExchange exchange) throws IOException {
+        return requestBodyDecoder.decode(exchange);
+    }
+
+    /**
+     * @return true if request body is a custom model deserialized from JSON.
+     */
+    public boolean isPojoRequestBody() {
+        return pojoRequestBody;
+    }
+
+    /**
+     * Authorization rules are read from http endpoint on the first request, after lazy http endpoint is initialized,
+     * since they may depend on its initialization.
+     *
+     * @param request Current request.
+     * @return true if request satisfies authorization rules of http endpoint.
+     */
+    public boolean isAuthorized(Request request) {
+        Predicate<Request> rules = authorizations;
+
+        if (Objects.isNull(rules)) {
+            rules = Objects.requireNonNullElse(httpEndpoint.authorizations(), PERMIT_ALL);
+            authorizations = rules;
+        }
+
+        return rules.test(request);
+    }
+
+    public void intercept(Request request, String path) {
+        for (Guarded<BeforeInterceptor> interceptor : beforeInterceptors) {
+            if (interceptor.appliesTo(path)) {
+                interceptor.value.intercept(request);
+            }
+        }
+    }
+
+    public void intercept(Request request, Object response, String path) {
+        for (Guarded<AfterInterceptor> interceptor : afterInterceptors) {
+            if (interceptor.appliesTo(path)) {
+                interceptor.value.intercept(request, response);
+            }
+        }
+    }
+
+    /**
+     * @param response Response returned by http endpoint.
+     * @return How the given response should be written.
+     */
+    public ResponseEncoding responseEncoding(Object response) {
+        if (Objects.isNull(response)) {
+            return ResponseEncoding.POJO;
+        }
+        return Objects.nonNull(responseEncoding) ? responseEncoding : RESPONSE_ENCODINGS.get(response.getClass());
+    }
+
+    private static Class<?> resolveRequestBodyType(HttpEndpoint httpEndpoint) {
+        try {
+            return HttpRequestUtils.getRequestBodyType(httpEndpoint.getClass());
+        } catch (ClassNotFoundException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Declared response type is used only if every response it allows is written the same way.
+    private static ResponseEncoding resolveResponseEncoding(HttpEndpoint httpEndpoint) {
+        try {
+            Type type = ((ParameterizedType) httpEndpoint.getClass().getGenericInterfaces()[0]).getActualTypeArguments()[1];
+
+            if (type instanceof ParameterizedType) {
+                type = ((ParameterizedType) type).getRawType();
+            }
+
+            if (!(type instanceof Class) || type == Model.class || type == Object.class) {
+                return null;
+            }
+
+            return ResponseEncoding.of((Class<?>) type);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPojo(Class<?> type) {
+        return !type.isAssignableFrom(Empty.class)
+            && !type.isAssignableFrom(Json.class)
+            && !type.isAssignableFrom(Text.class)
+            && !type.isAssignableFrom(Html.class)
+            && !type.isAssignableFrom(Form.class)
+            && !type.isAssignableFrom(ByteStream.class);
+    }
+
+    private static <T> List<Guarded<T>> guard(
+        List<T> interceptors,
+        Function<T, String> applyToURI,
+        String path,
+        boolean dynamicPath
+    ) {
+        List<Guarded<T>> guarded = new ArrayList<>();
+
+        for (T interceptor : interceptors) {
+            String normalizedApplyToURI = URIUtils.removeSlashPrefix(URI.create(applyToURI.apply(interceptor))).toString();
+            Predicate<String> pattern = Pattern.compile(normalizedApplyToURI).asPredicate();
+
+            if (dynamicPath) {
+                guarded.add(new Guarded<>(interceptor, pattern));
+            } else if (pattern.test(path)) {
+                // Static path always equals the request path so the outcome is known up front
+                guarded.add(new Guarded<>(interceptor, null));
+            }
+        }
+
+        return List.copyOf(guarded);
+    }
+
+    /**
+     * Way of writing http endpoint's response.
+     */
+    public enum ResponseEncoding {
+        EMPTY, JSON, TEXT, HTML, VIEW, STATIC_RESOURCE, BYTE_STREAM, REDIRECT, POJO;
+
+        static ResponseEncoding of(Class<?> type) {
+            if (Empty.class.isAssignableFrom(type)) {
+                return EMPTY;
+            } else if (Json.class.isAssignableFrom(type)) {
+                return JSON;
+            } else if (Text.class.isAssignableFrom(type)) {
+                return TEXT;
+            } else if (Html.class.isAssignableFrom(type)) {
+                return HTML;
+            } else if (View.class.isAssignableFrom(type)) {
+                return VIEW;
+            } else if (StaticResource.class.isAssignableFrom(type)) {
+                return STATIC_RESOURCE;
+            } else if (ByteStream.class.isAssignableFrom(type)) {
+                return BYTE_STREAM;
+            } else if (Redirect.class.isAssignableFrom(type)) {
+                return REDIRECT;
+            }
+            return POJO;
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface RequestBodyDecoder {
+
+        Model decode(HttpExchange exchange) throws IOException;
+
+        static RequestBodyDecoder of(Class<?> type, JsonCodec jsonCodec) {
+            if (Objects.isNull(type)) {
+                return (exchange) -> {
+                    throw new IllegalStateException("Class is not parametrized with generic type.");
+                };
+            } else if (type.isAssignableFrom(Empty.class)) {
+                return (exchange) -> new Empty();
+            } else if (type.isAssignableFrom(Json.class)) {
+                return (exchange) -> new Json(jsonCodec.fromJson(exchange.getRequestBody(), JsonValue.class));
+            } else if (type.isAssignableFrom(Text.class)) {
+                return (exchange) -> new Text(new String(exchange.getRequestBody().readAllBytes()));
+            } else if (type.isAssignableFrom(Html.class)) {
+                return (exchange) -> new Html(new String(exchange.getRequestBody().readAllBytes()));
+            } else if (type.isAssignableFrom(Form.class)) {
+                return (exchange) -> new Form(HttpRequestUtils.parseQueryParameters(new String(exchange.getRequestBody().readAllBytes())));
+            } else if (type.isAssignableFrom(ByteStream.class)) {
+                return (exchange) -> new ByteStream(exchange.getRequestBody());
+            }
+
+            // POJO assumed
+            return (exchange) -> (Model) jsonCodec.fromJson(exchange.getRequestBody(), type);
+        }
+
+    }
+
+    private static final class Guarded<T> {
+
+        private final T value;
+        private final Predicate<String> pattern;
+
+        private Guarded(T value, Predicate<String> pattern) {
+            this.value = value;
+            this.pattern = pattern;
+        }
+
+        private boolean appliesTo(String path) {
+            return Objects.isNull(pattern) || pattern.test(path);
+        }
+
+    }
+
+}
@@ -0,0 +1,292 @@
+package hr.yeti.rudimentary.server.http;
+
+import hr.yeti.rudimentary.http.HttpMethod;
+import hr.yeti.rudimentary.http.URIUtils;
+import hr.yeti.rudimentary.http.spi.HttpEndpoint;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Segment trie of registered http endpoint paths. Each path segment is one trie level so lookup cost depends on the
+ * number of segments in the request path and not on the number of registered http endpoints.
+ *
+ * Segments are matched in the following order:
+ * <ul>
+ * <li>static segment, e.g. <i>users</i>,</li>
+ * <li>segment partially made of path variables, e.g. <i>file-:id</i>,</li>
+ * <li>path variable segment, e.g. <i>:id</i>,</li>
+ * <li>regular expression matching the rest of the path, e.g. <i>static/.*</i>.</li>
+ * </ul>
+ * If a more specific branch does not lead to a http endpoint supporting requested http method, less specific branches
+ * are tried as well. Path variable values are captured during the walk and paired with path variable names which are
+ * resolved once per http endpoint at registration, so no regular expression is compiled while routing. Trie is built
+ * once during startup and is only read afterwards.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class HttpEndpointRouter {
+
+    private static final Pattern PATH_VAR_SEGMENT = Pattern.compile("^" + URIUtils.PATH_VAR_STRING + "$");
+    private static final String PATH_VAR_EXPRESSION = "([^/.]+)";
+    static final Pattern REGEX_SEGMENT = Pattern.compile(".*[*+?\\[\\](){}|\\\\^$].*");
+
+    private final Node root = new Node();
+
+    /**
+     * Registers http endpoint's execution plan under http endpoint's path.
+     *
+     * @param path Http endpoint path without slash prefix.
+     * @param executionPlan Execution plan of http endpoint.
+     */
+    void add(String path, HttpEndpointExecutionPlan executionPlan) {
+        HttpEndpoint httpEndpoint = executionPlan.getHttpEndpoint();
+        Node node = root;
+        List<String> segments = split(path);
+
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+
+            // Regular expression can span multiple segments so it is matched against the rest of the path
+            if (REGEX_SEGMENT.matcher(segment).matches()) {
+                node.tail(String.join("/", segments.subList(i, segments.size())))
+                    .routes.put(httpEndpoint.httpMethod(), new Route(executionPlan, pathVariableNames(path)));
+                return;
+            }
+
+            node = node.child(segment);
+        }
+
+        node.routes.put(httpEndpoint.httpMethod(), new Route(executionPlan, pathVariableNames(path)));
+    }
+
+    /**
+     * Finds http endpoint registered for the given path and http method.
+     *
+     * @param path Request path, with or without slash prefix.
+     * @param httpMethod Request http method.
+     * @return Match info, path match is reported even if no http endpoint supports the given http method.
+     */
+    Match match(String path, HttpMethod httpMethod) {
+        Match match = new Match();
+        walk(root, split(path.startsWith("/") ? path.substring(1) : path), 0, httpMethod, new ArrayList<>(), match);
+        return match;
+    }
+
+    private boolean walk(Node node, List<String> segments, int index, HttpMethod httpMethod, List<String> captured, Match match) {
+        if (index == segments.size()) {
+            if (node.routes.isEmpty()) {
+                return false;
+            }
+
+            match.pathMatchFound = true;
+
+            Route route = node.routes.get(httpMethod);
+
+            if (Objects.nonNull(route)) {
+                match.executionPlan = route.executionPlan;
+                match.pathVariables = route.pathVariables(captured);
+                return true;
+            }
+
+            return false;
+        }
+
+        String segment = segments.get(index);
+
+        Node staticChild = node.staticChildren.get(segment);
+        if (Objects.nonNull(staticChild) && walk(staticChild, segments, index + 1, httpMethod, captured, match)) {
+            return true;
+        }
+
+        for (Node patternChild : node.patternChildren) {
+            Matcher matcher = patternChild.pattern.matcher(segment);
+
+            if (matcher.matches()) {
+                int size = captured.size();
+
+                for (int i = 1; i <= matcher.groupCount(); i++) {
+                    captured.add(matcher.group(i));
+                }
+
+                if (walk(patternChild, segments, index + 1, httpMethod, captured, match)) {
+                    return true;
+                }
+
+                captured.subList(size, captured.size()).clear();
+            }
+        }
+
+        if (Objects.nonNull(node.variableChild) && isVariableValue(segment)) {
+            captured.add(segment);
+
+            if (walk(node.variableChild, segments, index + 1, httpMethod, captured, match)) {
+                return true;
+            }
+
+            captured.remove(captured.size() - 1);
+        }
+
+        if (!node.tails.isEmpty()) {
+            String rest = String.join("/", segments.subList(index, segments.size()));
+
+            for (Node tail : node.tails) {
+                Matcher matcher = tail.pattern.matcher(rest);
+
+                if (matcher.matches()) {
+                    int size = captured.size();
+
+                    for (int i = 1; i <= matcher.groupCount(); i++) {
+                        captured.add(matcher.group(i));
+                    }
+
+                    if (walk(tail, segments, segments.size(), httpMethod, captured, match)) {
+                        return true;
+                    }
+
+                    captured.subList(size, captured.size()).clear();
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // Same as ([^/.]+) used for path variables so far.
+    private static boolean isVariableValue(String segment) {
+        return !segment.isEmpty() && segment.indexOf('.') == -1;
+    }
+
+    private static String[] pathVariableNames(String path) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = URIUtils.PATH_VAR_PATTERN.matcher(path);
+
+        while (matcher.find()) {
+            names.add(matcher.group(1).substring(1));
+        }
+
+        return names.toArray(String[]::new);
+    }
+
+    private static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+
+        if (path.isEmpty()) {
+            return segments;
+        }
+
+        int start = 0;
+        int end;
+
+        while ((end = path.indexOf('/', start)) != -1) {
+            segments.add(path.substring(start, end));
+            start = end + 1;
+        }
+        segments.add(path.substring(start));
+
+        return segments;
+    }
+
+    static final class Match {
+
+        private boolean pathMatchFound;
+        private HttpEndpointExecutionPlan executionPlan;
+        private Map<String, String> pathVariables = Map.of();
+
+        boolean isPathMatchFound() {
+            return pathMatchFound;
+        }
+
+        HttpEndpointExecutionPlan getExecutionPlan() {
+            return executionPlan;
+        }
+
+        Map<String, String> getPathVariables() {
+            return pathVariables;
+        }
+
+    }
+
+    private static final class Route {
+
+        private final HttpEndpointExecutionPlan executionPlan;
+        private final String[] pathVariableNames;
+
+        private Route(HttpEndpointExecutionPlan executionPlan, String[] pathVariableNames) {
+            this.executionPlan = executionPlan;
+            this.pathVariableNames = pathVariableNames;
+        }
+
+        private Map<String, String> pathVariables(List<String> values) {
+            if (pathVariableNames.length == 0) {
+                return new HashMap<>();
+            }
+
+            Map<String, String> pathVariables = new HashMap<>(pathVariableNames.length * 2);
+
+            for (int i = 0; i < pathVariableNames.length && i < values.size(); i++) {
+                pathVariables.put(pathVariableNames[i], values.get(i));
+            }
+
+            return pathVariables;
+        }
+
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> staticChildren = new HashMap<>();
+        private final List<Node> patternChildren = new ArrayList<>();
+        private final List<Node> tails = new ArrayList<>();
+        private final Map<HttpMethod, Route> routes = new EnumMap<>(HttpMethod.class);
+        private Node variableChild;
+        private String template;
+        private Pattern pattern;
+
+        private Node child(String segment) {
+            if (PATH_VAR_SEGMENT.matcher(segment).matches()) {
+                if (Objects.isNull(variableChild)) {
+                    variableChild = new Node();
+                }
+                return variableChild;
+            }
+
+            if (URIUtils.PATH_VAR_PATTERN.matcher(segment).find()) {
+                for (Node patternChild : patternChildren) {
+                    if (patternChild.template.equals(segment)) {
+                        return patternChild;
+                    }
+                }
+
+                Node patternChild = new Node();
+                patternChild.template = segment;
+                patternChild.pattern = URIUtils.convertToRegex(segment, PATH_VAR_EXPRESSION);
+                patternChildren.add(patternChild);
+                return patternChild;
+            }
+
+            return staticChildren.computeIfAbsent(segment, (s) -> new Node());
+        }
+
+        private Node tail(String expression) {
+            for (Node tail : tails) {
+                if (tail.template.equals(expression)) {
+                    return tail;
+                }
+            }
+
+            Node tail = new Node();
+            tail.template = expression;
+            tail.pattern = URIUtils.convertToRegex(expression, PATH_VAR_EXPRESSION);
+            tails.add(tail);
+            return tail;
+        }
+
+    }
+
+}
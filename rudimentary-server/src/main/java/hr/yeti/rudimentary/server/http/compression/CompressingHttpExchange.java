@@ -0,0 +1,234 @@
+package hr.yeti.rudimentary.server.http.compression;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import hr.yeti.rudimentary.server.http.processor.BufferedResponseStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exchange which decides whether to compress response body once response headers are sent, since only then content
+ * type and length of the response are known. Compressed body is written to a {@link BufferedResponseStream} so small
+ * compressed responses still get Content-Length while large and streamed ones are sent chunked.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class CompressingHttpExchange extends HttpExchange {
+
+    private static final int DEFLATER_BUFFER_SIZE = 8192;
+
+    private final HttpExchange exchange;
+    private final CompressionFilter compressionFilter;
+    private final String encoding;
+    private final OutputStream body = new ResponseBody();
+    private OutputStream target;
+    private boolean closed;
+
+    /**
+     * @param exchange Exchange to wrap.
+     * @param compressionFilter Filter deciding whether response is compressible.
+     * @param encoding Negotiated encoding or null if client does not accept any supported encoding, in which case
+     * response is only marked as varying by <i>Accept-Encoding</i>.
+     */
+    CompressingHttpExchange(HttpExchange exchange, CompressionFilter compressionFilter, String encoding) {
+        this.exchange = exchange;
+        this.compressionFilter = compressionFilter;
+        this.encoding = encoding;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+
+        boolean compressible = responseLength >= 0
+            && rCode >= 200 && rCode != 204 && rCode != 206 && rCode != 304
+            && !headers.containsKey("Content-Encoding")
+            && compressionFilter.isCompressible(headers.getFirst("Content-Type"), responseLength);
+
+        if (compressible) {
+            CompressionFilter.varyByAcceptEncoding(headers);
+        }
+
+        if (!compressible || Objects.isNull(encoding)) {
+            exchange.sendResponseHeaders(rCode, responseLength);
+            target = exchange.getResponseBody();
+            return;
+        }
+
+        headers.remove("Content-Length");
+        headers.set("Content-Encoding", encoding);
+
+        String etag = headers.getFirst("ETag");
+
+        if (Objects.nonNull(etag) && !etag.startsWith("W/")) {
+            headers.set("ETag", "W/" + etag);
+        }
+
+        BufferedResponseStream compressed = new BufferedResponseStream(exchange, rCode, compressionFilter.bufferSize());
+
+        target = CompressionFilter.GZIP.equals(encoding)
+            ? new LeveledGZIPOutputStream(compressed, compressionFilter.level())
+            : new EndingDeflaterOutputStream(compressed, new Deflater(compressionFilter.level()));
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return body;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (Objects.nonNull(target)) {
+                target.close();
+            }
+        } catch (IOException e) {
+            System.getLogger(this.getClass().getName()).log(System.Logger.Level.ERROR, e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return exchange.getRequestHeaders();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return exchange.getResponseHeaders();
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return exchange.getRequestURI();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return exchange.getHttpContext();
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return exchange.getRequestBody();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return exchange.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return exchange.getResponseCode();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return exchange.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return exchange.getProtocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return exchange.getAttribute(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        exchange.setAttribute(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        exchange.setStreams(i, o);
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return exchange.getPrincipal();
+    }
+
+    private final class ResponseBody extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            CompressingHttpExchange.this.close();
+        }
+
+        private OutputStream target() throws IOException {
+            if (Objects.isNull(target)) {
+                throw new IOException("Response headers not sent yet.");
+            }
+            return target;
+        }
+
+    }
+
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        private LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, DEFLATER_BUFFER_SIZE);
+            def.setLevel(level);
+        }
+
+    }
+
+    // Deflater passed to DeflaterOutputStream is not released on close
+    private static final class EndingDeflaterOutputStream extends DeflaterOutputStream {
+
+        private EndingDeflaterOutputStream(OutputStream out, Deflater deflater) {
+            super(out, deflater, DEFLATER_BUFFER_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,211 @@
+package hr.yeti.rudimentary.server.http.compression;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.http.filter.spi.HttpFilter;
+import hr.yeti.rudimentary.server.http.processor.HttpExchangeDecorators;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Filter which compresses http responses with gzip or deflate, whichever is preferred by client's
+ * <i>Accept-Encoding</i> http header. Responses with known length smaller than <i>server.compression.minSize</i>
+ * bytes and responses whose content type starts with any of <i>server.compression.excludedMediaTypes</i> are sent
+ * uncompressed.
+ *
+ * Http filters run before authentication mechanism, which on JDK's http server requires the original exchange, so the
+ * exchange is not wrapped in the filter chain. Instead, {@link #compress(HttpExchange)} is registered with
+ * {@link HttpExchangeDecorators} and applied by http processor.
+ *
+ * Compressed response is a different representation than the uncompressed one, so its strong ETag is made weak. Range
+ * requests then never mix bytes of the two, while conditional requests, which compare ETags weakly, still match.
+ * Responses which could be compressed get <i>Vary: Accept-Encoding</i> http header regardless of whether client
+ * accepts compression, while responses which are never compressed, because of their status, size or content type,
+ * stay cacheable for all clients.
+ *
+ * Configuration properties:
+ * <ul>
+ * <li>server.compression.enabled - whether compression is enabled, default false</li>
+ * <li>server.compression.minSize - minimum size of response in bytes to be compressed, default 1024</li>
+ * <li>server.compression.level - deflate compression level from 1 to 9, default 6</li>
+ * <li>server.compression.bufferSize - maximum size of compressed response sent with Content-Length, default 8192</li>
+ * <li>server.compression.excludedMediaTypes - comma separated media type prefixes which are never compressed</li>
+ * </ul>
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class CompressionFilter extends HttpFilter {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String BROTLI = "br";
+
+    private ConfigProperty enabled = new ConfigProperty("server.compression.enabled", "false");
+    private ConfigProperty minSize = new ConfigProperty("server.compression.minSize", "1024");
+    private ConfigProperty level = new ConfigProperty("server.compression.level", "6");
+    private ConfigProperty bufferSize = new ConfigProperty("server.compression.bufferSize", "8192");
+    private ConfigProperty excludedMediaTypes = new ConfigProperty(
+        "server.compression.excludedMediaTypes",
+        "image/,video/,audio/,font/woff,application/zip,application/gzip,application/x-gzip,application/x-7z-compressed"
+    );
+
+    private String[] excludedMediaTypePrefixes;
+
+    @Override
+    public void initialize() {
+        this.excludedMediaTypePrefixes = excludedMediaTypes.asArray();
+    }
+
+    @Override
+    public boolean conditional() {
+        return enabled.asBoolean();
+    }
+
+    @Override
+    public int order() {
+        return 5;
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        HttpExchangeDecorators.doFilter(exchange, chain, this::compress);
+    }
+
+    /**
+     * Wraps exchange so its response body is compressed with encoding negotiated by <i>Accept-Encoding</i> http
+     * header. Exchange is wrapped even if client does not accept any supported encoding, since responses which could
+     * have been compressed still need <i>Vary: Accept-Encoding</i> http header.
+     *
+     * @param exchange Current http exchange.
+     * @return Exchange compressing response body or the given exchange for HEAD requests.
+     */
+    public HttpExchange compress(HttpExchange exchange) {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            return exchange;
+        }
+
+        return new CompressingHttpExchange(
+            exchange, this, negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"))
+        );
+    }
+
+    /**
+     * Adds <i>Accept-Encoding</i> to <i>Vary</i> http header unless it is already listed there, so caches never serve
+     * response to clients which do not support its encoding.
+     *
+     * @param headers Response headers.
+     */
+    public static void varyByAcceptEncoding(Headers headers) {
+        List<String> vary = headers.get("Vary");
+
+        if (Objects.nonNull(vary)) {
+            for (String value : vary) {
+                for (String name : value.split(",")) {
+                    if (name.trim().equalsIgnoreCase("Accept-Encoding") || name.trim().equals("*")) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        headers.add("Vary", "Accept-Encoding");
+    }
+
+    boolean isCompressible(String contentType, long length) {
+        if (length > 0 && length < minSize.asLong()) {
+            return false;
+        }
+
+        if (Objects.nonNull(contentType)) {
+            for (String prefix : excludedMediaTypePrefixes) {
+                if (contentType.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    int level() {
+        return level.asInt();
+    }
+
+    int bufferSize() {
+        return bufferSize.asInt();
+    }
+
+    /**
+     * Picks supported encoding with the highest quality value, gzip wins ties.
+     *
+     * @param acceptEncoding Value of <i>Accept-Encoding</i> http header.
+     * @return Negotiated encoding or null if none of the supported encodings is acceptable.
+     */
+    public static String negotiate(String acceptEncoding) {
+        float gzip = quality(acceptEncoding, GZIP);
+        float deflate = quality(acceptEncoding, DEFLATE);
+
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        } else if (deflate > 0) {
+            return DEFLATE;
+        }
+
+        return null;
+    }
+
+    /**
+     * @param acceptEncoding Value of <i>Accept-Encoding</i> http header.
+     * @param coding Content coding, e.g. {@link #GZIP}.
+     * @return Quality value of the given coding, quality value of <i>*</i> if coding is not listed or -1 if neither is
+     * listed. Coding is acceptable only if its quality value is greater than 0.
+     */
+    public static float quality(String acceptEncoding, String coding) {
+        if (Objects.isNull(acceptEncoding) || acceptEncoding.isBlank()) {
+            return -1;
+        }
+
+        float quality = -1;
+        float any = -1;
+
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String name = parts[0].trim().toLowerCase();
+            float value = 1;
+
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+
+                if (parameter.startsWith("q=")) {
+                    try {
+                        value = Float.parseFloat(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        value = 0;
+                    }
+                }
+            }
+
+            if (name.equals(coding) || (coding.equals(GZIP) && name.equals("x-gzip"))) {
+                quality = value;
+            } else if (name.equals("*")) {
+                any = value;
+            }
+        }
+
+        return quality < 0 ? any : quality;
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class };
+    }
+
+    @Override
+    public String description() {
+        return "Filter which compresses http responses.";
+    }
+
+}
@@ -0,0 +1,46 @@
+package hr.yeti.rudimentary.server.http.executor;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request executor backed by a fixed pool of <i>server.threadPoolSize</i> platform threads. This is the default
+ * request executor, used when <i>server.executor</i> is set to <i>fixed</i>.
+ *
+ * At most <i>server.threadPoolQueueSize</i> requests wait for a free thread. Requests over that are rejected with
+ * {@link RejectedExecutionException}, which http engines answer with <i>503 Service Unavailable</i>, so an overloaded
+ * server sheds load instead of queuing requests until it runs out of memory.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class FixedThreadPoolRequestExecutor extends RequestExecutor {
+
+    public static final String NAME = "fixed";
+
+    private ConfigProperty executor = new ConfigProperty("server.executor", NAME);
+    private ConfigProperty threadPoolSize = new ConfigProperty("server.threadPoolSize");
+    private ConfigProperty threadPoolQueueSize = new ConfigProperty("server.threadPoolQueueSize", "100");
+
+    @Override
+    protected ExecutorService executorService() {
+        return new ThreadPoolExecutor(
+            threadPoolSize.asInt(),
+            threadPoolSize.asInt(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(threadPoolQueueSize.asInt()),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public boolean conditional() {
+        return executor.value().equalsIgnoreCase(NAME);
+    }
+
+}
@@ -0,0 +1,82 @@
+package hr.yeti.rudimentary.server.http.executor;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Request executor which runs each http request on its own virtual thread, used when <i>server.executor</i> is set to
+ * <i>virtual</i>. The number of http requests processed at the same time is capped by
+ * <i>server.executor.maxConcurrency</i> so blocking endpoints can not overload downstream resources such as database
+ * connection pools. Requests which wait for longer than <i>server.executor.acquireTimeout</i> milliseconds are answered
+ * with <i>503 Service Unavailable</i>.
+ *
+ * Virtual threads are looked up at runtime since Rudimentary targets Java 11. When running on a JVM without virtual
+ * thread support, a pool of at most <i>server.executor.maxConcurrency</i> platform threads is used instead. Just like
+ * with {@link FixedThreadPoolRequestExecutor}, at most <i>server.threadPoolQueueSize</i> requests wait in the pool
+ * queue and requests over that are answered with <i>503 Service Unavailable</i>.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class VirtualThreadRequestExecutor extends RequestExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadRequestExecutor.class.getName());
+
+    public static final String NAME = "virtual";
+
+    private static final long IDLE_THREAD_TIMEOUT = 60;
+
+    private ConfigProperty executor = new ConfigProperty("server.executor", FixedThreadPoolRequestExecutor.NAME);
+    private ConfigProperty maxConcurrency = new ConfigProperty("server.executor.maxConcurrency", "1000");
+    private ConfigProperty acquireTimeout = new ConfigProperty("server.executor.acquireTimeout", "30000");
+    private ConfigProperty threadPoolQueueSize = new ConfigProperty("server.threadPoolQueueSize", "100");
+
+    @Override
+    protected ExecutorService executorService() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            LOGGER.log(Level.WARNING, "Virtual threads are not supported by this JVM, falling back to platform threads.");
+
+            int limit = maxConcurrency();
+
+            if (limit < 1) {
+                return Executors.newCachedThreadPool();
+            }
+
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                limit,
+                limit,
+                IDLE_THREAD_TIMEOUT,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threadPoolQueueSize.asInt()),
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    @Override
+    protected int maxConcurrency() {
+        return maxConcurrency.asInt();
+    }
+
+    @Override
+    protected long acquireTimeout() {
+        return acquireTimeout.asLong();
+    }
+
+    @Override
+    public boolean conditional() {
+        return executor.value().equalsIgnoreCase(NAME);
+    }
+
+}
@@ -0,0 +1,131 @@
+package hr.yeti.rudimentary.server.http.processor;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Response body stream which holds back response headers until either the whole payload fits into its buffer or the
+ * buffer overflows. Small payloads are therefore sent with exact Content-Length while large payloads are sent chunked,
+ * as they are produced, without ever being held in memory as a whole.
+ *
+ * Buffers are pooled and reused across requests. Pool only grows up to the number of concurrently written responses.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public final class BufferedResponseStream extends OutputStream {
+
+    private static final Queue<byte[]> BUFFERS = new ConcurrentLinkedQueue<>();
+
+    private final HttpExchange exchange;
+    private final int httpStatus;
+    private byte[] buffer;
+    private int count;
+    private OutputStream body;
+
+    /**
+     * @param exchange Current http exchange.
+     * @param httpStatus Http status to send.
+     * @param bufferSize Maximum payload size sent with Content-Length.
+     */
+    public BufferedResponseStream(HttpExchange exchange, int httpStatus, int bufferSize) {
+        this.exchange = exchange;
+        this.httpStatus = httpStatus;
+        this.buffer = acquire(bufferSize);
+    }
+
+    /**
+     * @return true if response headers have already been sent, which means http status can no longer be changed.
+     */
+    public boolean isCommitted() {
+        return Objects.nonNull(body);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (count + len > buffer.length) {
+            drain();
+
+            if (len >= buffer.length) {
+                body.write(b, off, len);
+                return;
+            }
+        }
+
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    // Headers are not committed on flush, otherwise every payload would be sent chunked
+    @Override
+    public void flush() throws IOException {
+        if (isCommitted()) {
+            drain();
+            body.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (Objects.isNull(buffer)) {
+            return;
+        }
+
+        try {
+            if (!isCommitted()) {
+                exchange.sendResponseHeaders(httpStatus, count == 0 ? -1 : count);
+                body = exchange.getResponseBody();
+            }
+
+            body.write(buffer, 0, count);
+            body.close();
+        } finally {
+            release();
+            exchange.close();
+        }
+    }
+
+    /**
+     * Releases buffer without writing anything.
+     */
+    public void discard() {
+        if (Objects.nonNull(buffer)) {
+            release();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (!isCommitted()) {
+            exchange.sendResponseHeaders(httpStatus, 0);
+            body = exchange.getResponseBody();
+        }
+
+        body.write(buffer, 0, count);
+        count = 0;
+    }
+
+    private void release() {
+        BUFFERS.offer(buffer);
+        buffer = null;
+    }
+
+    private static byte[] acquire(int bufferSize) {
+        bufferSize = Math.max(bufferSize, 1);
+        byte[] pooled = BUFFERS.poll();
+
+        // Buffer size can differ only if configuration was reloaded, e.g. in tests
+        return Objects.nonNull(pooled) && pooled.length == bufferSize ? pooled : new byte[bufferSize];
+    }
+
+}
@@ -0,0 +1,220 @@
+package hr.yeti.rudimentary.server.http.processor;
+
+import com.sun.net.httpserver.Headers;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Parsing and formatting of http byte range requests as described in RFC 7233. Requested ranges are sorted and
+ * overlapping or adjacent ones are merged so the same bytes are never sent twice. Requests asking for more than
+ * {@link #MAX_RANGES} ranges are answered with the whole content.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class ByteRanges {
+
+    static final int MAX_RANGES = 16;
+
+    private static final String UNIT = "bytes=";
+    private static final String CRLF = "\r\n";
+
+    private ByteRanges() {
+    }
+
+    /**
+     * @param range Value of Range http header.
+     * @param length Length of the whole content.
+     * @return Ranges to send, empty list if none of the ranges is satisfiable or null if Range http header should be
+     * ignored and the whole content sent.
+     */
+    static List<Range> parse(String range, long length) {
+        if (Objects.isNull(range) || !range.regionMatches(true, 0, UNIT, 0, UNIT.length())) {
+            return null;
+        }
+
+        String[] specs = range.substring(UNIT.length()).split(",");
+
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<Range> ranges = new ArrayList<>(specs.length);
+
+        for (String spec : specs) {
+            spec = spec.trim();
+
+            if (spec.isEmpty()) {
+                continue;
+            }
+
+            int dash = spec.indexOf('-');
+
+            if (dash == -1) {
+                return null;
+            }
+
+            long first = number(spec.substring(0, dash).trim());
+            long last = number(spec.substring(dash + 1).trim());
+
+            if (dash == 0) {
+                // Suffix range, last N bytes
+                if (last == -1) {
+                    return null;
+                }
+                if (last > 0 && length > 0) {
+                    ranges.add(new Range(Math.max(0, length - last), length - 1));
+                }
+                continue;
+            }
+
+            if (first == -1 || (dash < spec.length() - 1 && last == -1) || (last != -1 && last < first)) {
+                return null;
+            }
+
+            if (first < length) {
+                ranges.add(new Range(first, last == -1 ? length - 1 : Math.min(last, length - 1)));
+            }
+        }
+
+        ranges.sort(Comparator.comparingLong(Range::getFirst));
+
+        List<Range> merged = new ArrayList<>(ranges.size());
+
+        for (Range current : ranges) {
+            Range previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+            if (Objects.nonNull(previous) && current.first <= previous.last + 1) {
+                merged.set(merged.size() - 1, new Range(previous.first, Math.max(previous.last, current.last)));
+            } else {
+                merged.add(current);
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * If-Range holds either entity tag or date. Range is applied only if it still matches the content, otherwise the
+     * whole, changed content is sent. Weak entity tags never match.
+     *
+     * @param ifRange Value of If-Range http header.
+     * @param responseHeaders Response http headers already set by http endpoint.
+     * @return true if Range http header should be applied.
+     */
+    static boolean ifRangeMatches(String ifRange, Headers responseHeaders) {
+        if (Objects.isNull(ifRange)) {
+            return true;
+        }
+
+        ifRange = ifRange.trim();
+
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(responseHeaders.getFirst("ETag"));
+        }
+
+        String lastModified = responseHeaders.getFirst("Last-Modified");
+
+        if (Objects.isNull(lastModified)) {
+            return false;
+        }
+
+        try {
+            return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+                .equals(ZonedDateTime.parse(lastModified, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param boundary Multipart boundary.
+     * @param contentType Content type of the whole content, may be null.
+     * @param range Range which follows the header.
+     * @param length Length of the whole content.
+     * @return Boundary and headers preceding range data in multipart/byteranges body.
+     */
+    static byte[] partHeader(String boundary, String contentType, Range range, long length) {
+        StringBuilder header = new StringBuilder()
+            .append("--").append(boundary).append(CRLF);
+
+        if (Objects.nonNull(contentType)) {
+            header.append("Content-Type: ").append(contentType).append(CRLF);
+        }
+
+        return header.append("Content-Range: ").append(range.contentRange(length)).append(CRLF)
+            .append(CRLF)
+            .toString()
+            .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return Line ending range data in multipart/byteranges body.
+     */
+    static byte[] partEnd() {
+        return CRLF.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @param boundary Multipart boundary.
+     * @return Closing boundary of multipart/byteranges body.
+     */
+    static byte[] end(String boundary) {
+        return ("--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Only plain digits are allowed, -1 if value is missing or invalid
+    private static long number(String value) {
+        if (value.isEmpty() || value.length() > 18) {
+            return -1;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+
+        return Long.parseLong(value);
+    }
+
+    static final class Range {
+
+        private final long first;
+        private final long last;
+
+        Range(long first, long last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        long getFirst() {
+            return first;
+        }
+
+        long getLast() {
+            return last;
+        }
+
+        long length() {
+            return last - first + 1;
+        }
+
+        String contentRange(long length) {
+            return "bytes " + first + "-" + last + "/" + length;
+        }
+
+    }
+
+}
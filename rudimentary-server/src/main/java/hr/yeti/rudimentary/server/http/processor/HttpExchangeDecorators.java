@@ -0,0 +1,53 @@
+package hr.yeti.rudimentary.server.http.processor;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lets http filters wrap the exchange handed to {@link HttpProcessor} without passing the wrapper down the filter
+ * chain. Authentication mechanism runs after http filters and on JDK's http server it requires the original exchange,
+ * so a filter registers its decorator for the rest of the chain instead and http processor applies it. Filter chain
+ * runs on a single thread, so decorators are kept per thread. Exchange attributes are not used since JDK's http server
+ * shares them across all exchanges of a context.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public final class HttpExchangeDecorators {
+
+    private static final ThreadLocal<List<UnaryOperator<HttpExchange>>> DECORATORS = ThreadLocal.withInitial(ArrayList::new);
+
+    private HttpExchangeDecorators() {
+    }
+
+    /**
+     * Continues the filter chain with the given decorator applied to the exchange handed to http processor.
+     *
+     * @param exchange Current http exchange.
+     * @param chain Rest of the filter chain.
+     * @param decorator Wraps exchange, decorators of earlier filters are applied first.
+     * @throws IOException If the rest of the chain fails.
+     */
+    public static void doFilter(HttpExchange exchange, Filter.Chain chain, UnaryOperator<HttpExchange> decorator) throws IOException {
+        List<UnaryOperator<HttpExchange>> decorators = DECORATORS.get();
+        decorators.add(decorator);
+
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            decorators.remove(decorators.size() - 1);
+        }
+    }
+
+    static HttpExchange decorate(HttpExchange exchange) {
+        for (UnaryOperator<HttpExchange> decorator : DECORATORS.get()) {
+            exchange = decorator.apply(exchange);
+        }
+
+        return exchange;
+    }
+
+}
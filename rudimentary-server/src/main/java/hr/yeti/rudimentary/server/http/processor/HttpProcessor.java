@@ -1,8 +1,11 @@
 package hr.yeti.rudimentary.server.http.processor;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import hr.yeti.rudimentary.config.ConfigProperty;
 import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.context.spi.Context;
 import hr.yeti.rudimentary.context.spi.Instance;
 import hr.yeti.rudimentary.exception.ExceptionInfo;
 import hr.yeti.rudimentary.exception.spi.ExceptionHandler;
@@ -10,9 +13,6 @@ import hr.yeti.rudimentary.http.HttpMethod;
 import hr.yeti.rudimentary.http.HttpRequestUtils;
 import hr.yeti.rudimentary.http.MediaType;
 import hr.yeti.rudimentary.http.Request;
-import hr.yeti.rudimentary.http.URIUtils;
-import hr.yeti.rudimentary.http.content.Empty;
-import hr.yeti.rudimentary.http.content.Form;
 import hr.yeti.rudimentary.http.content.Html;
 import hr.yeti.rudimentary.http.content.Json;
 import hr.yeti.rudimentary.http.content.Model;
@@ -22,232 +22,189 @@ import hr.yeti.rudimentary.http.content.Redirect;
 import hr.yeti.rudimentary.http.content.Text;
 import hr.yeti.rudimentary.http.content.View;
 import hr.yeti.rudimentary.http.spi.HttpEndpoint;
-import hr.yeti.rudimentary.interceptor.spi.AfterInterceptor;
-import hr.yeti.rudimentary.interceptor.spi.BeforeInterceptor;
+import hr.yeti.rudimentary.http.stream.RangeStreamOutWriteDef;
+import hr.yeti.rudimentary.json.spi.JsonCodec;
 import hr.yeti.rudimentary.mvc.spi.ViewEngine;
 import hr.yeti.rudimentary.security.Identity;
+import hr.yeti.rudimentary.server.engine.FileTransfer;
 import hr.yeti.rudimentary.server.http.HttpEndpointContextProvider;
+import hr.yeti.rudimentary.server.http.HttpEndpointExecutionPlan;
 import hr.yeti.rudimentary.validation.ConstraintViolations;
 import hr.yeti.rudimentary.validation.Constraints;
 import hr.yeti.rudimentary.validation.Validator;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.function.Predicate;
-import java.util.regex.Pattern;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import javax.json.JsonValue;
-import javax.json.bind.JsonbBuilder;
+import javax.json.JsonException;
 import javax.json.bind.JsonbException;
 import javax.json.stream.JsonParsingException;
 
 public class HttpProcessor implements HttpHandler, Instance {
 
-    private ExecutorService executorService;
+    private ConfigProperty jsonBufferSize = new ConfigProperty("server.jsonBufferSize", "8192");
+
     private ExceptionHandler globalExceptionHandler;
+    private JsonCodec jsonCodec;
 
     @Override
     public void initialize() {
-        this.executorService = Executors.newFixedThreadPool(
-            Config.provider().property("server.threadPoolSize").asInt()
-        );
         this.globalExceptionHandler = Instance.of(ExceptionHandler.class);
+        this.jsonCodec = JsonCodec.provider();
     }
 
     @Override
     public void handle(HttpExchange exchange) {
+        process(HttpExchangeDecorators.decorate(exchange));
+    }
 
-        executorService.execute(() -> {
-
-            try {
-
-                URI path = exchange.getRequestURI();
-                HttpMethod httpMethod = HttpMethod.valueOf(exchange.getRequestMethod());
-
-                HttpEndpointContextProvider.HttpEndpointMatchInfo httpEndpointMatchInfo = Instance.of(HttpEndpointContextProvider.class).matchEndpoint(path, httpMethod);
-
-                try {
-                    if (httpEndpointMatchInfo.isPathMatchFound()) {
-
-                        if (Objects.isNull(httpEndpointMatchInfo.getHttpEndpoint())) {
-                            respond(405, ("Http method " + httpMethod + " is not supported.").getBytes(), exchange);
-                            return;
-                        }
-
-                        HttpEndpoint httpEndpoint = httpEndpointMatchInfo.getHttpEndpoint();
-
-                        // Request body
-                        Object value = null;
-                        Class requestBodyModelType;
-                        try {
-                            requestBodyModelType = HttpRequestUtils.getRequestBodyType(httpEndpoint.getClass());
-                        } catch (ClassNotFoundException e) {
-                            respond(500, "Internal server error.".getBytes(), exchange);
-                            return;
-                        }
-
-                        // Path & query parsing
-                        Map<String, String> pathVariables = HttpRequestUtils.parsePathVariables(
-                            httpEndpoint.path(), path
-                        );
-                        Map<String, Object> queryParameters = HttpRequestUtils.parseQueryParameters(path.getQuery());
-
-                        List<Constraints> constraintsList = new ArrayList<>();
-
-                        try {
-
-                            if (requestBodyModelType.isAssignableFrom(Empty.class)) {
-                                value = new Empty();
-                            } else if (requestBodyModelType.isAssignableFrom(Json.class)) {
-                                value = new Json(JsonbBuilder.create().fromJson(exchange.getRequestBody(), JsonValue.class));
-                            } else if (requestBodyModelType.isAssignableFrom(Text.class)) {
-                                value = new Text(new String(exchange.getRequestBody().readAllBytes()));
-                            } else if (requestBodyModelType.isAssignableFrom(Html.class)) {
-                                value = new Html(new String(exchange.getRequestBody().readAllBytes()));
-                            } else if (requestBodyModelType.isAssignableFrom(Form.class)) {
-                                String form = new String(exchange.getRequestBody().readAllBytes());
-                                value = new Form(HttpRequestUtils.parseQueryParameters(form));
-                            } else if (requestBodyModelType.isAssignableFrom(ByteStream.class)) {
-                                value = new ByteStream(exchange.getRequestBody());
-                            } else {
-                                // POJO assumed
-                                try {
-                                    value = JsonbBuilder.create().fromJson(exchange.getRequestBody(), requestBodyModelType);
-                                } catch (JsonbException | JsonParsingException | NoSuchElementException ex) {
-                                    respond(400, "Bad request".getBytes(), exchange);
-                                    return;
-                                }
-                                constraintsList.add(((Model) value).constraints());
-                            }
-
-                        } catch (JsonbException e) {
-                            respond(400, "Bad request.".getBytes(), exchange);
-                            return;
-                        }
-
-                        // Construct request object
-                        Request request = new Request(
-                            (Identity) exchange.getPrincipal(),
-                            exchange.getRequestHeaders(),
-                            (Model) value,
-                            pathVariables,
-                            queryParameters,
-                            exchange.getRequestURI(),
-                            exchange
-                        );
+    private void process(HttpExchange exchange) {
+        try {
 
-                        constraintsList.add(httpEndpoint.constraints(request));
+            URI path = exchange.getRequestURI();
+            HttpMethod httpMethod = HttpMethod.valueOf(exchange.getRequestMethod());
 
-                        Constraints[] constraints = constraintsList.stream().toArray(Constraints[]::new);
+            HttpEndpointContextProvider.HttpEndpointMatchInfo httpEndpointMatchInfo = Instance.of(HttpEndpointContextProvider.class).matchEndpoint(path, httpMethod);
 
-                        ConstraintViolations violations = Validator.validate(constraints);
-                        if (!violations.getList().isEmpty()) {
+            try {
+                if (httpEndpointMatchInfo.isPathMatchFound()) {
 
-                            String message = violations.getList()
-                                .stream()
-                                .filter(vr -> vr.getReason().isPresent())
-                                .map(vr -> vr.getReason().get())
-                                .collect(Collectors.joining("." + System.lineSeparator()));
+                    if (Objects.isNull(httpEndpointMatchInfo.getHttpEndpoint())) {
+                        respond(405, ("Http method " + httpMethod + " is not supported.").getBytes(), exchange);
+                        return;
+                    }
 
-                            exchange.getResponseHeaders().add("Reason", message);
-                            respond(400, "Bad request".getBytes(), exchange);
-                            return;
-                        }
+                    HttpEndpointExecutionPlan executionPlan = httpEndpointMatchInfo.getExecutionPlan();
+                    // Lazy endpoints are initialized by their first request
+                    HttpEndpoint httpEndpoint = Context.initializeIfLazy(executionPlan.getHttpEndpoint());
+
+                    // Path & query parsing
+                    Map<String, String> pathVariables = httpEndpointMatchInfo.getPathVariables();
+                    Map<String, Object> queryParameters = HttpRequestUtils.parseQueryParameters(path.getQuery());
+
+                    List<Constraints> constraintsList = new ArrayList<>();
+
+                    // Request body
+                    Model value;
+                    try {
+                        value = executionPlan.decodeRequestBody(exchange);
+                    } catch (IllegalStateException e) {
+                        respond(500, "Internal server error.".getBytes(), exchange);
+                        return;
+                    } catch (JsonbException | JsonParsingException | NoSuchElementException e) {
+                        respond(400, "Bad request".getBytes(), exchange);
+                        return;
+                    }
 
-                        // Check authorizations
-                        Predicate<Request> authorizations = httpEndpoint.authorizations();
-                        Optional<Predicate<Request>> authorizationChain = Stream.of(authorizations).reduce(Predicate::and);
-                        if (authorizationChain.isPresent()) {
-                            boolean authorized = authorizationChain.get().test(request);
-                            if (!authorized) {
-                                respond(403, ("Not authorized.").getBytes(), exchange);
-                                return;
-                            }
-                        }
+                    if (executionPlan.isPojoRequestBody()) {
+                        constraintsList.add(value.constraints());
+                    }
 
-                        // Before interceptor
-                        List<BeforeInterceptor> beforeInterceptors = Instance.providersOf(BeforeInterceptor.class);
-                        beforeInterceptors.sort(Comparator.comparing(BeforeInterceptor::order));
+                    // Construct request object
+                    Request request = new Request(
+                        (Identity) exchange.getPrincipal(),
+                        exchange.getRequestHeaders(),
+                        value,
+                        pathVariables,
+                        queryParameters,
+                        exchange.getRequestURI(),
+                        exchange
+                    );
+
+                    constraintsList.add(httpEndpoint.constraints(request));
+
+                    Constraints[] constraints = constraintsList.stream().toArray(Constraints[]::new);
+
+                    ConstraintViolations violations = Validator.validate(constraints);
+                    if (!violations.getList().isEmpty()) {
+
+                        String message = violations.getList()
+                            .stream()
+                            .filter(vr -> vr.getReason().isPresent())
+                            .map(vr -> vr.getReason().get())
+                            .collect(Collectors.joining("." + System.lineSeparator()));
+
+                        exchange.getResponseHeaders().add("Reason", message);
+                        respond(400, "Bad request".getBytes(), exchange);
+                        return;
+                    }
 
-                        beforeInterceptors.forEach((interceptor) -> {
-                            String normalizedApplyToURI = URIUtils.removeSlashPrefix(URI.create(interceptor.applyToURI())).toString();
+                    // Check authorizations
+                    if (!executionPlan.isAuthorized(request)) {
+                        respond(403, ("Not authorized.").getBytes(), exchange);
+                        return;
+                    }
 
-                            //TODO Cache compiled patterns
-                            if (Pattern.compile(normalizedApplyToURI).asPredicate().test(URIUtils.removeSlashPrefix(path).toString())) {
-                                interceptor.intercept(request);
-                            }
-                        });
-
-                        // Local http endpoint before interceptor
-                        httpEndpoint.before(request);
-
-                        // Creating response
-                        Object response = null;
-                        try {
-                            response = httpEndpoint.response(request);
-                        } catch (Exception e) {
-                            ExceptionInfo exceptionInfo = httpEndpoint.onException(e);
-
-                            if (!exceptionInfo.isOverride()) {
-                                // Activate global exception handler if provided and http endpoint does not override
-                                // default onException.
-                                if (Objects.nonNull(globalExceptionHandler)) {
-                                    exceptionInfo = globalExceptionHandler.onException(e);
-                                } else if (Objects.isNull(globalExceptionHandler)) {
-                                    // Print stack trace if no custom exception handler is provided.
-                                    e.printStackTrace();
-                                }
+                    // Before interceptor
+                    String requestPath = path.getPath().startsWith("/") ? path.getPath().substring(1) : path.getPath();
+                    executionPlan.intercept(request, requestPath);
+
+                    // Local http endpoint before interceptor
+                    httpEndpoint.before(request);
+
+                    // Creating response
+                    Object response = null;
+                    try {
+                        response = httpEndpoint.response(request);
+                    } catch (Exception e) {
+                        ExceptionInfo exceptionInfo = httpEndpoint.onException(e);
+
+                        if (!exceptionInfo.isOverride()) {
+                            // Activate global exception handler if provided and http endpoint does not override
+                            // default onException.
+                            if (Objects.nonNull(globalExceptionHandler)) {
+                                exceptionInfo = globalExceptionHandler.onException(e);
+                            } else if (Objects.isNull(globalExceptionHandler)) {
+                                // Print stack trace if no custom exception handler is provided.
+                                e.printStackTrace();
                             }
-
-                            respond(exceptionInfo.getHttpStatus(), exceptionInfo.getDescription().getBytes(), exchange);
-                            return;
                         }
 
-                        // Local http endpoint after interceptor
-                        httpEndpoint.after(request, (Model) response);
-
-                        // After interceptor
-                        List<AfterInterceptor> afterInterceptors = Instance.providersOf(AfterInterceptor.class);
-                        afterInterceptors.sort(Comparator.comparing(AfterInterceptor::order));
-
-                        for (AfterInterceptor interceptor : afterInterceptors) {
-                            String normalizedApplyToURI = URIUtils.removeSlashPrefix(URI.create(interceptor.applyToURI())).toString();
+                        respond(exceptionInfo.getHttpStatus(), exceptionInfo.getDescription().getBytes(), exchange);
+                        return;
+                    }
 
-                            //TODO Cache compiled patterns
-                            if (Pattern.compile(normalizedApplyToURI).asPredicate().test(URIUtils.removeSlashPrefix(path).toString())) {
-                                interceptor.intercept(request, response);
-                            }
+                    // Local http endpoint after interceptor
+                    httpEndpoint.after(request, (Model) response);
 
-                        }
+                    // After interceptor
+                    executionPlan.intercept(request, response, requestPath);
 
-                        byte[] responseTransformed = null;
+                    byte[] responseTransformed = null;
 
-                        // Set http endpoint defined http headers
-                        exchange.getResponseHeaders().putAll(httpEndpoint.responseHttpHeaders(request, (Model) response));
+                    // Set http endpoint defined http headers
+                    exchange.getResponseHeaders().putAll(httpEndpoint.responseHttpHeaders(request, (Model) response));
 
-                        if (response instanceof Empty) {
+                    switch (executionPlan.responseEncoding(response)) {
+                        case EMPTY:
                             exchange.getResponseHeaders().put("Content-Type", List.of(MediaType.ALL));
                             responseTransformed = "".getBytes();
-                        } else if (response instanceof Json) {
+                            break;
+                        case JSON:
                             exchange.getResponseHeaders().put("Content-Type", List.of(MediaType.APPLICATION_JSON));
-                            responseTransformed = ((Json) response).getValue().toString().getBytes();
-                        } else if (response instanceof Text) {
+                            respondWithJson(httpEndpoint.httpStatus(), ((Json) response).getValue(), exchange);
+                            return;
+                        case TEXT:
                             exchange.getResponseHeaders().put("Content-Type", List.of(MediaType.TEXT_PLAIN));
                             responseTransformed = ((Text) response).getValue().getBytes();
-                        } else if (response instanceof Html) {
+                            break;
+                        case HTML:
                             exchange.getResponseHeaders().put("Content-Type", List.of(MediaType.TEXT_HTML));
                             responseTransformed = ((Html) response).getValue().getBytes();
-                        } else if (response instanceof View) {
+                            break;
+                        case VIEW:
                             exchange.getResponseHeaders().put("Content-Type", List.of(MediaType.TEXT_HTML));
 
                             View view = (View) response;
@@ -258,45 +215,65 @@ public class HttpProcessor implements HttpHandler, Instance {
                                 respond(500, "Could not resolve view.".getBytes(), exchange);
                                 return;
                             }
-
-                        } else if (response instanceof StaticResource) {
+                            break;
+                        case STATIC_RESOURCE:
                             StaticResource staticResource = (StaticResource) response;
 
+                            if (staticResource.isNotModified()) {
+                                exchange.sendResponseHeaders(304, -1);
+                                exchange.close();
+                                return;
+                            }
+
                             exchange.getResponseHeaders().put("Content-Type", List.of(staticResource.getMediaType()));
 
-                            try ( InputStream is = staticResource.getValue()) {
-                                responseTransformed = is.readAllBytes();
-                            }
+                            if (Objects.nonNull(staticResource.getFile())) {
+                                respondWithFile(httpEndpoint.httpStatus(), staticResource.getFile(), exchange);
+                            } else {
+                                byte[] content = staticResource.getContent();
+
+                                if (Objects.isNull(content)) {
+                                    try ( InputStream is = staticResource.getValue()) {
+                                        content = is.readAllBytes();
+                                    }
+                                }
 
-                        } else if (response instanceof ByteStream) {
+                                byte[] bytes = content;
+                                respondWithRanges(httpEndpoint.httpStatus(), bytes.length, (out, offset, length) -> out.write(bytes, (int) offset, (int) length), exchange);
+                            }
+                            return;
+                        case BYTE_STREAM:
                             ByteStream streamOut = (ByteStream) response;
-                            respondWithStream(httpEndpoint.httpStatus(), streamOut, exchange);
+
+                            if (Objects.nonNull(streamOut) && streamOut.isSeekable()) {
+                                respondWithRanges(httpEndpoint.httpStatus(), streamOut.getLength(), streamOut.getRangeStreamOutWriteDef(), exchange);
+                            } else {
+                                respondWithStream(httpEndpoint.httpStatus(), streamOut, exchange);
+                            }
                             return;
-                        } else if (response instanceof Redirect) {
+                        case REDIRECT:
                             Redirect redirect = (Redirect) response;
-                            if (Objects.nonNull(redirect)) {
-                                exchange.getResponseHeaders().add("location", redirect.getValue().toString());
-                                respond(redirect.getHttpStatus(), null, exchange);
-                                return;
-                            }
-                        } else {
+                            exchange.getResponseHeaders().add("location", redirect.getValue().toString());
+                            respond(redirect.getHttpStatus(), null, exchange);
+                            return;
+                        default:
                             // POJO assumed
                             exchange.getResponseHeaders().put("Content-Type", List.of(MediaType.APPLICATION_JSON));
-                            responseTransformed = JsonbBuilder.create().toJson((response)).getBytes();
-                        }
+                            respondWithJson(httpEndpoint.httpStatus(), response, exchange);
+                            return;
+                    }
 
-                        respond(httpEndpoint.httpStatus(), responseTransformed, exchange);
+                    respond(httpEndpoint.httpStatus(), responseTransformed, exchange);
 
-                    } else {
-                        respond(404, null, exchange);
-                    }
-                } catch (NullPointerException e) {
-                    respond(500, null, exchange);
+                } else {
+                    respond(404, null, exchange);
                 }
-            } catch (IOException e) {
-                System.getLogger(this.getClass().getName()).log(System.Logger.Level.ERROR, e);
+            } catch (NullPointerException e) {
+                respond(500, null, exchange);
             }
-        });
+        } catch (IOException e) {
+            System.getLogger(this.getClass().getName()).log(System.Logger.Level.ERROR, e);
+        }
     }
 
     private void respond(int httpStatus, byte[] message, HttpExchange httpExchange) throws IOException {
@@ -308,6 +285,129 @@ public class HttpProcessor implements HttpHandler, Instance {
         httpExchange.close();
     }
 
+    // Serializes straight into response body, see BufferedResponseStream
+    private void respondWithJson(int httpStatus, Object value, HttpExchange httpExchange) throws IOException {
+        BufferedResponseStream stream = new BufferedResponseStream(httpExchange, httpStatus, jsonBufferSize.asInt());
+
+        try {
+            jsonCodec.toJson(value, stream);
+        } catch (JsonbException | JsonException e) {
+            System.getLogger(this.getClass().getName()).log(System.Logger.Level.ERROR, e);
+            stream.discard();
+
+            if (stream.isCommitted()) {
+                // Part of the response is already sent. Closing the exchange would terminate it as if it were complete
+                // so exception is propagated to the engine which closes the connection without terminating it.
+                throw e;
+            }
+
+            respond(500, null, httpExchange);
+            return;
+        }
+
+        stream.close();
+    }
+
+    // Content-Length is always known so file is streamed with fixed length, never chunked
+    private void respondWithFile(int httpStatus, Path file, HttpExchange httpExchange) throws IOException {
+        try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            respondWithRanges(httpStatus, channel.size(), (out, offset, length) -> transfer(channel, offset, length, out), httpExchange);
+        }
+    }
+
+    private static void transfer(FileChannel file, long position, long count, OutputStream body) throws IOException {
+        if (body instanceof FileTransfer) {
+            ((FileTransfer) body).transferFrom(file, position, count);
+            return;
+        }
+
+        // JDK's http server exposes only the stream, file is copied through a small transfer buffer
+        WritableByteChannel target = Channels.newChannel(body);
+        long end = position + count;
+
+        while (position < end) {
+            long transferred = file.transferTo(position, end - position, target);
+
+            if (transferred <= 0) {
+                throw new IOException("File is shorter than expected.");
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Sends content of known length, honoring Range and If-Range request http headers. Single range is sent as it is
+     * with http status 206, multiple ranges are sent as multipart/byteranges body. Content-Length is known up front in
+     * both cases so response is never chunked.
+     */
+    private void respondWithRanges(int httpStatus, long length, RangeStreamOutWriteDef content, HttpExchange httpExchange) throws IOException {
+        Headers requestHeaders = httpExchange.getRequestHeaders();
+        Headers responseHeaders = httpExchange.getResponseHeaders();
+        boolean head = "HEAD".equals(httpExchange.getRequestMethod());
+
+        responseHeaders.set("Accept-Ranges", "bytes");
+
+        List<ByteRanges.Range> ranges = null;
+
+        if (httpStatus == 200
+            && "GET".equals(httpExchange.getRequestMethod())
+            && ByteRanges.ifRangeMatches(requestHeaders.getFirst("If-Range"), responseHeaders)) {
+            ranges = ByteRanges.parse(requestHeaders.getFirst("Range"), length);
+        }
+
+        try {
+            if (Objects.isNull(ranges)) {
+                httpExchange.sendResponseHeaders(httpStatus, length == 0 ? -1 : length);
+
+                if (length > 0 && !head) {
+                    OutputStream body = httpExchange.getResponseBody();
+                    content.startStreaming(body, 0, length);
+                    body.close();
+                }
+            } else if (ranges.isEmpty()) {
+                responseHeaders.set("Content-Range", "bytes */" + length);
+                httpExchange.sendResponseHeaders(416, -1);
+            } else if (ranges.size() == 1) {
+                ByteRanges.Range range = ranges.get(0);
+
+                responseHeaders.set("Content-Range", range.contentRange(length));
+                httpExchange.sendResponseHeaders(206, range.length());
+
+                OutputStream body = httpExchange.getResponseBody();
+                content.startStreaming(body, range.getFirst(), range.length());
+                body.close();
+            } else {
+                String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(System.nanoTime());
+                String contentType = responseHeaders.getFirst("Content-Type");
+                byte[][] partHeaders = new byte[ranges.size()][];
+                byte[] partEnd = ByteRanges.partEnd();
+                byte[] end = ByteRanges.end(boundary);
+                long multipartLength = end.length;
+
+                for (int i = 0; i < ranges.size(); i++) {
+                    partHeaders[i] = ByteRanges.partHeader(boundary, contentType, ranges.get(i), length);
+                    multipartLength += partHeaders[i].length + ranges.get(i).length() + partEnd.length;
+                }
+
+                responseHeaders.set("Content-Type", MediaType.MULTIPART_BYTERANGES + "; boundary=" + boundary);
+                httpExchange.sendResponseHeaders(206, multipartLength);
+
+                OutputStream body = httpExchange.getResponseBody();
+
+                for (int i = 0; i < ranges.size(); i++) {
+                    body.write(partHeaders[i]);
+                    content.startStreaming(body, ranges.get(i).getFirst(), ranges.get(i).length());
+                    body.write(partEnd);
+                }
+
+                body.write(end);
+                body.close();
+            }
+        } finally {
+            httpExchange.close();
+        }
+    }
+
     private void respondWithStream(int httpStatus, ByteStream stream, HttpExchange httpExchange) throws IOException {
         if (Objects.nonNull(stream)) {
             httpExchange.sendResponseHeaders(httpStatus, 0);
@@ -320,7 +420,7 @@ public class HttpProcessor implements HttpHandler, Instance {
 
     @Override
     public Class[] dependsOn() {
-        return new Class[]{ Config.class };
+        return new Class[]{ Config.class, JsonCodec.class };
     }
 
 }
@@ -0,0 +1,393 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.http.session.Session;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Session store which keeps sessions in memory, just like {@link TimingWheelSessionStore}, and additionally persists
+ * them to a local, memory mapped, append only log so they survive application restarts. Used when
+ * <i>session.store</i> is set to <i>disk</i>.
+ *
+ * New sessions and removals, including removals of expired and evicted sessions, are appended immediately. Attributes
+ * are changed in place by request threads so sessions accessed since the previous flush are appended every
+ * <i>session.disk.flushInterval</i> milliseconds. Sessions are encoded with {@link SessionCodec}, each record is
+ * prefixed with its length and CRC32 checksum so a record torn by a crash is detected and replay stops there.
+ *
+ * Log is mapped in <i>session.disk.logSize</i> bytes. Once it is full it is compacted by writing only the currently
+ * stored sessions to a new log which atomically replaces the old one. If live sessions still take more than half of
+ * the log its size is doubled. On startup log is replayed, the latest record of every session wins, sessions which
+ * expired in the meantime are skipped and log is compacted right away.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class DiskSessionStore extends TimingWheelSessionStore {
+
+    private static final Logger LOGGER = Logger.getLogger(DiskSessionStore.class.getName());
+
+    public static final String NAME = "disk";
+
+    static final String LOG_FILE = "sessions.log";
+
+    private static final int MAGIC = 0x52534C32; // RSL2, RSL1 logs contained identity passwords
+    private static final int HEADER_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte SESSION = 1;
+    private static final byte REMOVAL = 2;
+
+    private ConfigProperty store = new ConfigProperty("session.store", TimingWheelSessionStore.NAME);
+    private ConfigProperty dir = new ConfigProperty("session.disk.dir", "sessions");
+    private ConfigProperty logSize = new ConfigProperty("session.disk.logSize", "67108864");
+    private ConfigProperty flushInterval = new ConfigProperty("session.disk.flushInterval", "1000");
+
+    // Guarded by this
+    private Path logFile;
+    private FileChannel channel;
+    private MappedByteBuffer log;
+    private long lastFlush;
+    private long previousFlush;
+    private Set<String> pending;
+
+    private ScheduledExecutorService flusher;
+
+    @Override
+    public boolean conditional() {
+        return store.value().equalsIgnoreCase(NAME);
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+
+        synchronized (this) {
+            this.pending = new HashSet<>();
+            this.lastFlush = System.currentTimeMillis();
+            this.previousFlush = lastFlush;
+
+            try {
+                Path directory = dir.asPath();
+                Files.createDirectories(directory);
+                this.logFile = directory.resolve(LOG_FILE);
+
+                replay();
+                compact(logSize.asLong());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open session log in " + dir.value() + ".", e);
+            }
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor((task) -> {
+            Thread thread = new Thread(task, "rudimentary-session-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Could not persist http sessions.", e);
+            }
+        }, flushInterval.asLong(), flushInterval.asLong(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(flusher)) {
+            flusher.shutdownNow();
+        }
+
+        synchronized (this) {
+            if (Objects.nonNull(channel)) {
+                flush();
+
+                try {
+                    log.force();
+                    channel.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.SEVERE, "Could not close session log.", e);
+                }
+
+                channel = null;
+                log = null;
+            }
+        }
+
+        super.destroy();
+    }
+
+    @Override
+    public synchronized void put(Session session) {
+        super.put(session);
+        append(session);
+    }
+
+    @Override
+    public synchronized void remove(String rsid) {
+        super.remove(rsid);
+        appendRemoval(rsid);
+    }
+
+    // Without removal record expired and evicted sessions would be restored on next startup
+    @Override
+    void discarded(Session session) {
+        if (Objects.nonNull(channel)) {
+            appendRemoval(session.getRsid());
+        }
+    }
+
+    private void appendRemoval(String rsid) {
+        pending.remove(rsid);
+
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(record);
+            out.writeByte(REMOVAL);
+            SessionCodec.writeString(out, rsid);
+            append(record.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends sessions accessed since the previous flush. Sessions accessed right before the previous flush are written
+     * once more since requests which accessed them might have still been changing them.
+     */
+    synchronized void flush() {
+        if (Objects.isNull(channel)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long since = previousFlush;
+        List<Session> dirty = new ArrayList<>();
+
+        forEach((session) -> {
+            if (session.getLastAccessedTime() >= since || pending.contains(session.getRsid())) {
+                dirty.add(session);
+            }
+        });
+
+        pending.clear();
+        previousFlush = lastFlush;
+        lastFlush = now;
+
+        dirty.forEach(this::append);
+    }
+
+    private void append(Session session) {
+        if (!(session instanceof HttpSession)) {
+            return;
+        }
+
+        byte[] record;
+
+        try {
+            record = encode((HttpSession) session);
+        } catch (ConcurrentModificationException e) {
+            // Attributes were being changed by request thread, try again on next flush
+            pending.add(session.getRsid());
+            return;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Session with RSID=" + session.getRsid() + " could not be persisted.", e);
+            return;
+        }
+
+        append(record);
+    }
+
+    private void append(byte[] record) {
+        if (Objects.isNull(channel)) {
+            return;
+        }
+
+        try {
+            if (log.remaining() < RECORD_HEADER_SIZE + record.length) {
+                compact(log.capacity());
+            }
+
+            if (log.remaining() < RECORD_HEADER_SIZE + record.length) {
+                compact(Math.max(2L * log.capacity(), log.position() + RECORD_HEADER_SIZE + record.length));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact session log.", e);
+        }
+
+        write(log, record);
+    }
+
+    /**
+     * Writes all stored sessions to a new log which then replaces the current one.
+     *
+     * @param size Minimal size of the new log.
+     */
+    private void compact(long size) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        long live = HEADER_SIZE;
+
+        List<Session> sessions = new ArrayList<>();
+        forEach(sessions::add);
+
+        for (Session session : sessions) {
+            try {
+                byte[] record = encode((HttpSession) session);
+                records.add(record);
+                live += RECORD_HEADER_SIZE + record.length;
+            } catch (ConcurrentModificationException e) {
+                pending.add(session.getRsid());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Session with RSID=" + session.getRsid() + " could not be persisted.", e);
+            }
+        }
+
+        long capacity = Math.max(size, logSize.asLong());
+
+        while (capacity < 2 * live) {
+            capacity *= 2;
+        }
+
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Session log can not be larger than 2GB.");
+        }
+
+        Path compacted = logFile.resolveSibling(LOG_FILE + ".compact");
+
+        try (FileChannel compactedChannel = FileChannel.open(compacted,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer compactedLog = compactedChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            compactedLog.putInt(MAGIC);
+
+            for (byte[] record : records) {
+                write(compactedLog, record);
+            }
+
+            compactedLog.force();
+        }
+
+        if (Objects.nonNull(channel)) {
+            channel.close();
+        }
+
+        Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        this.channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.log.position((int) live);
+
+        LOGGER.log(Level.FINE, "Session log compacted to {0} sessions.", records.size());
+    }
+
+    /**
+     * Restores sessions from the log, skipping the ones which expired in the meantime.
+     */
+    private void replay() throws IOException {
+        if (!Files.exists(logFile) || Files.size(logFile) < HEADER_SIZE) {
+            return;
+        }
+
+        Map<String, HttpSession> sessions = new LinkedHashMap<>();
+
+        try (FileChannel replayChannel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = replayChannel.map(FileChannel.MapMode.READ_ONLY, 0, replayChannel.size());
+
+            if (buffer.getInt() != MAGIC) {
+                LOGGER.log(Level.WARNING, "{0} is not a session log, sessions are not restored.", logFile);
+                return;
+            }
+
+            CRC32 crc = new CRC32();
+
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+
+                byte[] record = new byte[length];
+                buffer.get(record);
+
+                crc.reset();
+                crc.update(record);
+
+                if ((int) crc.getValue() != checksum) {
+                    LOGGER.log(Level.WARNING, "Session log is corrupted at position {0}, remaining records are skipped.", buffer.position() - length);
+                    break;
+                }
+
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+
+                try {
+                    if (in.readByte() == SESSION) {
+                        HttpSession session = SessionCodec.readSession(in);
+                        sessions.put(session.getRsid(), session);
+                    } else {
+                        sessions.remove(SessionCodec.readString(in));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Session log record at position {0} could not be restored, {1}", new Object[]{ buffer.position() - length, e.getMessage() });
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+
+        // Oldest first so session limit evicts the same sessions as it would have before restart
+        sessions.values().stream()
+            .filter((session) -> session.getLastAccessedTime() + getTimeoutMillis() > now)
+            .sorted(Comparator.comparingLong(HttpSession::getLastAccessedTime))
+            .forEach(super::put);
+
+        LOGGER.log(Level.INFO, "Restored {0} http sessions from {1}.", new Object[]{ metrics().getActive(), logFile });
+    }
+
+    private static byte[] encode(HttpSession session) {
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(record);
+            out.writeByte(SESSION);
+            SessionCodec.writeSession(out, session);
+            return record.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(MappedByteBuffer buffer, byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        buffer.putInt(record.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(record);
+    }
+
+}
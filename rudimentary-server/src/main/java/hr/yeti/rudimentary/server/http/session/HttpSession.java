@@ -3,8 +3,9 @@ package hr.yeti.rudimentary.server.http.session;
 import com.sun.net.httpserver.HttpExchange;
 import hr.yeti.rudimentary.http.Cookie;
 import hr.yeti.rudimentary.http.session.Session;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
 import hr.yeti.rudimentary.security.Identity;
-import hr.yeti.rudimentary.server.crypto.Hash;
+import hr.yeti.rudimentary.server.crypto.TokenGenerator;
 import hr.yeti.rudimentary.server.security.csrf.CsrfToken;
 import java.net.HttpCookie;
 import java.util.HashMap;
@@ -16,20 +17,35 @@ public class HttpSession implements Session {
 
     private String rsid;
     private long creationTime;
-    private long lastAccessedTime;
+    private volatile long lastAccessedTime;
     private Map<String, Object> attributes;
     private CsrfToken csrfToken;
     private boolean authenticated;
     private Identity identity;
 
     public HttpSession() {
-        this.rsid = Hash.generateRandomSHA256();
+        this.rsid = TokenGenerator.generate();
         this.creationTime = System.currentTimeMillis();
         this.lastAccessedTime = this.creationTime;
         this.attributes = new HashMap<>();
         this.authenticated = false;
     }
 
+    /**
+     * Recreates previously stored session.
+     *
+     * @param rsid Unique session id.
+     * @param creationTime Time of session creation.
+     * @param lastAccessedTime Time of last session access.
+     */
+    HttpSession(String rsid, long creationTime, long lastAccessedTime) {
+        this.rsid = rsid;
+        this.creationTime = creationTime;
+        this.lastAccessedTime = lastAccessedTime;
+        this.attributes = new HashMap<>();
+        this.authenticated = false;
+    }
+
     @Override
     public String getRsid() {
         return rsid;
@@ -67,19 +83,23 @@ public class HttpSession implements Session {
 
     @Override
     public void invalidate(HttpExchange exchange) {
-        this.attributes = null;
+        this.attributes.clear();
         this.csrfToken = null;
         this.creationTime = 0;
         this.lastAccessedTime = 0;
         this.authenticated = false;
         this.identity = null;
-        this.attributes.clear();
 
         HttpCookie rsidCookie = new HttpCookie(Session.COOKIE, this.rsid);
         rsidCookie.setMaxAge(0);
 
         exchange.getResponseHeaders().add("Set-Cookie", new Cookie(rsidCookie).toString());
-        exchange.setAttribute(rsid, null);
+
+        SessionStore sessionStore = SessionStore.provider();
+
+        if (Objects.nonNull(sessionStore)) {
+            sessionStore.remove(rsid);
+        }
     }
 
     @Override
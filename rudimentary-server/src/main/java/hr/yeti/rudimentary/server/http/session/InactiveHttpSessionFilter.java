@@ -5,6 +5,7 @@ import hr.yeti.rudimentary.config.ConfigProperty;
 import hr.yeti.rudimentary.http.HttpRequestUtils;
 import hr.yeti.rudimentary.http.filter.spi.HttpFilter;
 import hr.yeti.rudimentary.http.session.Session;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
 import java.io.IOException;
 import java.net.HttpCookie;
 import java.util.Map;
@@ -34,8 +35,9 @@ public class InactiveHttpSessionFilter extends HttpFilter {
 
         if (!cookies.isEmpty() && cookies.containsKey(Session.COOKIE)) {
             String RSID = cookies.get(Session.COOKIE).getValue();
-            Session session = (Session) exchange.getAttribute(RSID);
+            Session session = SessionStore.provider().get(RSID);
 
+            // Session store removes idle sessions in the background, this catches the ones it has not reached yet
             if (Objects.nonNull(session)) {
                 long lastAccessedTime = session.getLastAccessedTime();
                 long currentTime = System.currentTimeMillis();
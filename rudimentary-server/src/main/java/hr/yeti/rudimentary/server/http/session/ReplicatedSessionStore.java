@@ -0,0 +1,278 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.http.session.Session;
+import hr.yeti.rudimentary.http.session.spi.SessionReplicationTransport;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Session store which keeps sessions in memory, just like {@link TimingWheelSessionStore}, and replicates them to all
+ * other service instances through {@link SessionReplicationTransport} so any instance can serve any user without
+ * sticky sessions. Used when <i>session.store</i> is set to <i>replicated</i>.
+ *
+ * Changes are not sent one by one. Every <i>session.replication.batchInterval</i> milliseconds all sessions created,
+ * accessed or removed since the previous batch are encoded with {@link SessionCodec} and broadcast as a single
+ * message, so a session accessed many times within one interval is sent only once. Sessions accessed right before the
+ * previous batch are sent once more since requests which accessed them might have still been changing them.
+ *
+ * Conflicts are resolved by last write wins on {@link Session#getLastAccessedTime()}, received session replaces the
+ * local one only if it was accessed later. Removed sessions are remembered for <i>session.inactivityPeriodAllowed</i>
+ * seconds so a late update can not bring them back.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class ReplicatedSessionStore extends TimingWheelSessionStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicatedSessionStore.class.getName());
+
+    public static final String NAME = "replicated";
+
+    private static final byte SESSION = 1;
+    private static final byte REMOVAL = 2;
+
+    private ConfigProperty store = new ConfigProperty("session.store", TimingWheelSessionStore.NAME);
+    private ConfigProperty batchInterval = new ConfigProperty("session.replication.batchInterval", "100");
+
+    private SessionReplicationTransport transport;
+
+    // Guarded by this
+    private Set<String> pending = new HashSet<>();
+    private Map<String, Long> pendingRemovals = new LinkedHashMap<>();
+    private Map<String, Long> removed = new HashMap<>();
+    private Map<String, Long> received = new HashMap<>();
+    private long lastBatch;
+    private long previousBatch;
+
+    private ScheduledExecutorService batcher;
+
+    public ReplicatedSessionStore() {
+    }
+
+    /**
+     * @param transport Transport to use instead of the registered one.
+     */
+    ReplicatedSessionStore(SessionReplicationTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public boolean conditional() {
+        return store.value().equalsIgnoreCase(NAME);
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+
+        if (Objects.isNull(transport)) {
+            transport = SessionReplicationTransport.provider();
+        }
+
+        if (Objects.isNull(transport)) {
+            throw new IllegalStateException("Replicated session store requires SessionReplicationTransport provider.");
+        }
+
+        synchronized (this) {
+            this.lastBatch = System.currentTimeMillis();
+            this.previousBatch = lastBatch;
+        }
+
+        transport.onReceive(this::receive);
+
+        this.batcher = Executors.newSingleThreadScheduledExecutor((task) -> {
+            Thread thread = new Thread(task, "rudimentary-session-replication-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batcher.scheduleWithFixedDelay(() -> {
+            try {
+                replicate();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Could not replicate http sessions.", e);
+            }
+        }, batchInterval.asLong(), batchInterval.asLong(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(batcher)) {
+            batcher.shutdownNow();
+            batcher = null;
+            replicate();
+        }
+
+        if (Objects.nonNull(transport)) {
+            transport.onReceive(null);
+        }
+
+        super.destroy();
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class, SessionReplicationTransport.class };
+    }
+
+    @Override
+    public synchronized void put(Session session) {
+        super.put(session);
+        pending.add(session.getRsid());
+    }
+
+    @Override
+    public synchronized void remove(String rsid) {
+        long now = System.currentTimeMillis();
+
+        super.remove(rsid);
+        pending.remove(rsid);
+        received.remove(rsid);
+        pendingRemovals.put(rsid, now);
+        removed.put(rsid, now);
+    }
+
+    /**
+     * Broadcasts all changes since the previous batch as a single message. Message is built while holding the store
+     * lock but broadcast after it is released, so a slow transport never stalls sessions being created or removed.
+     */
+    void replicate() {
+        byte[] message = nextBatch();
+
+        if (Objects.nonNull(message)) {
+            transport.broadcast(message);
+        }
+    }
+
+    /**
+     * @return All changes since the previous batch or null if there were none.
+     */
+    private synchronized byte[] nextBatch() {
+        long now = System.currentTimeMillis();
+        long since = previousBatch;
+        Map<String, Session> changed = new LinkedHashMap<>();
+
+        forEach((session) -> {
+            String rsid = session.getRsid();
+            long lastAccessedTime = session.getLastAccessedTime();
+
+            // Sessions received from peers are not sent back unless they were accessed here in the meantime
+            boolean accessed = lastAccessedTime >= since && !Objects.equals(received.get(rsid), lastAccessedTime);
+
+            if (accessed || pending.contains(rsid)) {
+                changed.put(rsid, session);
+            }
+        });
+
+        long expiredBefore = now - getTimeoutMillis();
+        removed.values().removeIf((removedAt) -> removedAt < expiredBefore);
+        received.keySet().removeIf((rsid) -> Objects.isNull(get(rsid)));
+
+        previousBatch = lastBatch;
+        lastBatch = now;
+
+        if (changed.isEmpty() && pendingRemovals.isEmpty()) {
+            return null;
+        }
+
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(message);
+        Set<String> failed = new HashSet<>();
+
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream recordOut = new DataOutputStream(record);
+
+            for (Session session : changed.values()) {
+                record.reset();
+
+                try {
+                    recordOut.writeByte(SESSION);
+                    SessionCodec.writeSession(recordOut, (HttpSession) session);
+                } catch (ConcurrentModificationException e) {
+                    // Attributes were being changed by request thread, try again in the next batch
+                    failed.add(session.getRsid());
+                    continue;
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Session with RSID=" + session.getRsid() + " could not be replicated.", e);
+                    continue;
+                }
+
+                record.writeTo(message);
+            }
+
+            for (Map.Entry<String, Long> removal : pendingRemovals.entrySet()) {
+                out.writeByte(REMOVAL);
+                SessionCodec.writeString(out, removal.getKey());
+                out.writeLong(removal.getValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        pending.clear();
+        pending.addAll(failed);
+        pendingRemovals.clear();
+
+        return message.size() > 0 ? message.toByteArray() : null;
+    }
+
+    /**
+     * Applies changes received from a peer.
+     *
+     * @param message Batch of session changes.
+     */
+    synchronized void receive(byte[] message) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+        long expiredBefore = System.currentTimeMillis() - getTimeoutMillis();
+
+        try {
+            while (in.available() > 0) {
+                if (in.readByte() == SESSION) {
+                    HttpSession remote = SessionCodec.readSession(in);
+                    String rsid = remote.getRsid();
+                    Session local = get(rsid);
+
+                    if (remote.getLastAccessedTime() < expiredBefore
+                        || removed.getOrDefault(rsid, Long.MIN_VALUE) >= remote.getLastAccessedTime()
+                        || (Objects.nonNull(local) && local.getLastAccessedTime() >= remote.getLastAccessedTime())) {
+                        continue;
+                    }
+
+                    super.put(remote);
+                    received.put(rsid, remote.getLastAccessedTime());
+                } else {
+                    String rsid = SessionCodec.readString(in);
+                    long removedAt = in.readLong();
+                    Session local = get(rsid);
+
+                    removed.merge(rsid, removedAt, Math::max);
+
+                    if (Objects.nonNull(local) && local.getLastAccessedTime() <= removedAt) {
+                        super.remove(rsid);
+                        pending.remove(rsid);
+                        received.remove(rsid);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not apply all replicated session changes.", e);
+        }
+    }
+
+}
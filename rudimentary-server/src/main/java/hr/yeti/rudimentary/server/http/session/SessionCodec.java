@@ -0,0 +1,433 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.json.spi.JsonCodec;
+import hr.yeti.rudimentary.security.Identity;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compact binary encoding of {@link HttpSession} used by persistent session stores. Numbers are written as variable
+ * length integers and every value is preceded by a single byte tag. Strings, numbers, booleans, byte arrays, enums,
+ * dates and lists, sets or maps of those are supported natively. Values of classes listed in
+ * <i>session.jsonTypes</i> are written as JSON with {@link JsonCodec} and recreated from their class name, values of
+ * other classes are not written at all. Records come from disk and from peers, so class names read from them are
+ * checked against the same list before a class is loaded.
+ *
+ * Each attribute is prefixed with its length so an attribute which can not be read back, e.g. because its class was
+ * removed in the meantime, is skipped without losing the rest of the session.
+ *
+ * Identity password is never written since sessions end up on disk and on the network, restored identity has none.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class SessionCodec {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionCodec.class.getName());
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte TRUE = 2;
+    private static final byte FALSE = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte SHORT = 8;
+    private static final byte BYTE = 9;
+    private static final byte CHAR = 10;
+    private static final byte BYTES = 11;
+    private static final byte LIST = 12;
+    private static final byte SET = 13;
+    private static final byte MAP = 14;
+    private static final byte ENUM = 15;
+    private static final byte INSTANT = 16;
+    private static final byte BIG_DECIMAL = 17;
+    private static final byte BIG_INTEGER = 18;
+    private static final byte JSON = 19;
+
+    private SessionCodec() {
+    }
+
+    /**
+     * @param out Output to write session to.
+     * @param session Session to write.
+     * @throws IOException If writing fails.
+     */
+    static void writeSession(DataOutput out, HttpSession session) throws IOException {
+        writeString(out, session.getRsid());
+        writeVarLong(out, session.getCreationTime());
+        writeVarLong(out, session.getLastAccessedTime());
+        out.writeBoolean(session.isAuthenticated());
+
+        Identity<?> identity = session.getIdentity();
+        out.writeBoolean(Objects.nonNull(identity));
+
+        ByteArrayOutputStream value = new ByteArrayOutputStream();
+        DataOutputStream valueOut = new DataOutputStream(value);
+
+        if (Objects.nonNull(identity)) {
+            writeString(out, identity.getUsername());
+            writeString(out, identity.getRealm());
+            writeValue(out, identity.getGroups());
+            writeValue(out, identity.getRoles());
+
+            try {
+                writeValue(valueOut, identity.getDetails());
+                out.write(value.toByteArray());
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Identity details of {0} can not be persisted, {1}", new Object[]{ identity.getUsername(), e.getMessage() });
+                out.writeByte(NULL);
+            }
+        }
+
+        ByteArrayOutputStream attributes = new ByteArrayOutputStream();
+        DataOutputStream attributesOut = new DataOutputStream(attributes);
+        int count = 0;
+
+        for (Map.Entry<String, Object> attribute : session.getAttributes().entrySet()) {
+            value.reset();
+
+            try {
+                writeValue(valueOut, attribute.getValue());
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Session attribute {0} can not be persisted, {1}", new Object[]{ attribute.getKey(), e.getMessage() });
+                continue;
+            }
+
+            writeString(attributesOut, attribute.getKey());
+            writeVarLong(attributesOut, value.size());
+            value.writeTo(attributes);
+            count++;
+        }
+
+        writeVarLong(out, count);
+        out.write(attributes.toByteArray());
+    }
+
+    /**
+     * @param in Input to read session from.
+     * @return Session as it was written.
+     * @throws IOException If reading fails.
+     */
+    static HttpSession readSession(DataInput in) throws IOException {
+        HttpSession session = new HttpSession(readString(in), readVarLong(in), readVarLong(in));
+        session.setAuthenticated(in.readBoolean());
+
+        if (in.readBoolean()) {
+            String username = readString(in);
+            String realm = readString(in);
+            List<String> groups = (List<String>) readValue(in);
+            List<String> roles = (List<String>) readValue(in);
+            Object details = null;
+
+            try {
+                details = readValue(in);
+            } catch (IllegalStateException e) {
+                LOGGER.log(Level.WARNING, "Identity details of {0} could not be restored, {1}", new Object[]{ username, e.getMessage() });
+            }
+
+            session.setIdentity(new Identity<>(groups, roles, details, username, null, realm));
+        }
+
+        long count = readVarLong(in);
+
+        for (long i = 0; i < count; i++) {
+            String name = readString(in);
+            byte[] value = new byte[(int) readVarLong(in)];
+            in.readFully(value);
+
+            try {
+                session.getAttributes().put(name, readValue(new DataInputStream(new ByteArrayInputStream(value))));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Session attribute {0} could not be restored, {1}", new Object[]{ name, e.getMessage() });
+            }
+        }
+
+        return session;
+    }
+
+    /**
+     * @param out Output to write value to.
+     * @param value Value to write.
+     * @throws IOException If writing fails.
+     * @throws IllegalArgumentException If value can not be encoded.
+     */
+    static void writeValue(DataOutput out, Object value) throws IOException {
+        if (Objects.isNull(value)) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            writeVarLong(out, (Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            writeVarLong(out, (Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(SHORT);
+            writeVarLong(out, (Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            out.writeByte(BYTES);
+            writeVarLong(out, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof List) {
+            out.writeByte(LIST);
+            writeValues(out, (List<?>) value);
+        } else if (value instanceof Set) {
+            out.writeByte(SET);
+            writeValues(out, (Set<?>) value);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            writeVarLong(out, map.size());
+
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            writeString(out, ((Enum<?>) value).getDeclaringClass().getName());
+            writeString(out, ((Enum<?>) value).name());
+        } else if (value instanceof Instant) {
+            out.writeByte(INSTANT);
+            writeVarLong(out, ((Instant) value).getEpochSecond());
+            writeVarLong(out, ((Instant) value).getNano());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, value.toString());
+        } else {
+            if (!isJsonType(value.getClass().getName())) {
+                throw new IllegalArgumentException(value.getClass().getName() + " is not listed in session.jsonTypes.");
+            }
+
+            JsonCodec jsonCodec = JsonCodec.provider();
+
+            if (Objects.isNull(jsonCodec)) {
+                throw new IllegalArgumentException("no JsonCodec is available to encode " + value.getClass().getName() + ".");
+            }
+
+            String json;
+
+            try {
+                json = jsonCodec.toJson(value);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(value.getClass().getName() + " could not be encoded as json, " + e.getMessage(), e);
+            }
+
+            out.writeByte(JSON);
+            writeString(out, value.getClass().getName());
+            writeString(out, json);
+        }
+    }
+
+    /**
+     * @param in Input to read value from.
+     * @return Value as it was written.
+     * @throws IOException If reading fails.
+     * @throws IllegalStateException If value can not be recreated.
+     */
+    static Object readValue(DataInput in) throws IOException {
+        byte tag = in.readByte();
+
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            case INT:
+                return (int) readVarLong(in);
+            case LONG:
+                return readVarLong(in);
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case SHORT:
+                return (short) readVarLong(in);
+            case BYTE:
+                return in.readByte();
+            case CHAR:
+                return in.readChar();
+            case BYTES:
+                byte[] bytes = new byte[(int) readVarLong(in)];
+                in.readFully(bytes);
+                return bytes;
+            case LIST:
+                return readValues(in, new ArrayList<>());
+            case SET:
+                return readValues(in, new HashSet<>());
+            case MAP:
+                long size = readVarLong(in);
+                Map<Object, Object> map = new HashMap<>();
+
+                for (long i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+
+                return map;
+            case ENUM:
+                return Enum.valueOf((Class) load(readString(in)), readString(in));
+            case INSTANT:
+                return Instant.ofEpochSecond(readVarLong(in), readVarLong(in));
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case JSON:
+                String className = readString(in);
+                String json = readString(in);
+
+                if (!isJsonType(className)) {
+                    throw new IllegalStateException(className + " is not listed in session.jsonTypes.");
+                }
+
+                Class<?> type = load(className);
+                JsonCodec jsonCodec = JsonCodec.provider();
+
+                if (Objects.isNull(jsonCodec)) {
+                    throw new IllegalStateException("No JsonCodec is available to decode " + type.getName() + ".");
+                }
+
+                return jsonCodec.fromJson(json, type);
+            default:
+                throw new IOException("Unknown value tag " + tag + ".");
+        }
+    }
+
+    /**
+     * @param out Output to write string to.
+     * @param value String to write, may be null.
+     * @throws IOException If writing fails.
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (Objects.isNull(value)) {
+            writeVarLong(out, -1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @param in Input to read string from.
+     * @return String as it was written, possibly null.
+     * @throws IOException If reading fails.
+     */
+    static String readString(DataInput in) throws IOException {
+        long length = readVarLong(in);
+
+        if (length == -1) {
+            return null;
+        }
+
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Zig-zag encoded so small negative numbers stay short as well
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+
+        while ((zigZag & ~0x7FL) != 0) {
+            out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+
+        out.writeByte((int) zigZag);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long zigZag = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+
+        throw new IOException("Malformed variable length number.");
+    }
+
+    private static void writeValues(DataOutput out, Collection<?> values) throws IOException {
+        writeVarLong(out, values.size());
+
+        for (Object value : values) {
+            writeValue(out, value);
+        }
+    }
+
+    private static <C extends Collection<Object>> C readValues(DataInput in, C values) throws IOException {
+        long size = readVarLong(in);
+
+        for (long i = 0; i < size; i++) {
+            values.add(readValue(in));
+        }
+
+        return values;
+    }
+
+    private static boolean isJsonType(String className) {
+        return Arrays.asList(new ConfigProperty("session.jsonTypes", "").asArray()).contains(className);
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            return Class.forName(className, false, Objects.nonNull(classLoader) ? classLoader : SessionCodec.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Class " + className + " not found.", e);
+        }
+    }
+
+}
@@ -0,0 +1,335 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.http.session.spi.SessionReplicationTransport;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Default {@link SessionReplicationTransport} which sends messages to peers over plain TCP. Each instance listens on
+ * <i>session.replication.port</i> of <i>session.replication.bindAddress</i>, loopback unless set, and keeps one outgoing connection to every peer listed in
+ * <i>session.replication.peers</i>, e.g. <i>node2:4445,node3:4445</i>. Messages are handed to a sender thread per peer
+ * through a queue of {@link #PEER_QUEUE_SIZE} messages, so a peer which is down or slow never blocks the caller. Once a
+ * peer's queue is full further messages are dropped for that peer. Connection to a peer which is down is retried with
+ * the next message, messages sent in the meantime are dropped for that peer.
+ *
+ * Every message is framed with its length and signed with HmacSHA256 using <i>session.replication.secret</i>,
+ * connections sending frames with invalid signature are closed. Anyone able to send a valid frame can inject an
+ * authenticated session, so replication does not start without the secret.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class TcpSessionReplicationTransport extends SessionReplicationTransport {
+
+    private static final Logger LOGGER = Logger.getLogger(TcpSessionReplicationTransport.class.getName());
+
+    static final int MAX_MESSAGE_SIZE = 64 * 1024 * 1024;
+    static final int PEER_QUEUE_SIZE = 64;
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int HMAC_SIZE = 32;
+    private static final int CONNECT_TIMEOUT = 1_000;
+
+    private ConfigProperty store = new ConfigProperty("session.store", TimingWheelSessionStore.NAME);
+    private ConfigProperty bindAddress = new ConfigProperty("session.replication.bindAddress", "");
+    private ConfigProperty port = new ConfigProperty("session.replication.port", "4445");
+    private ConfigProperty peers = new ConfigProperty("session.replication.peers", "");
+    private ConfigProperty secret = new ConfigProperty("session.replication.secret", "");
+
+    private InetAddress listenAddress;
+    private int listenPort;
+    private List<InetSocketAddress> peerAddresses;
+    private SecretKeySpec key;
+
+    private ServerSocket serverSocket;
+    private final Set<Socket> incoming = ConcurrentHashMap.newKeySet();
+
+    // Guarded by this
+    private final Map<InetSocketAddress, Peer> outgoing = new LinkedHashMap<>();
+
+    public TcpSessionReplicationTransport() {
+    }
+
+    /**
+     * Listens on loopback address.
+     *
+     * @param listenPort Port to listen on, 0 to pick a free one.
+     * @param peerAddresses Addresses of peers.
+     * @param secret Secret frames are signed with.
+     */
+    TcpSessionReplicationTransport(int listenPort, List<InetSocketAddress> peerAddresses, String secret) {
+        this.listenAddress = InetAddress.getLoopbackAddress();
+        this.listenPort = listenPort;
+        this.peerAddresses = peerAddresses;
+        this.key = createKey(secret);
+    }
+
+    @Override
+    public boolean conditional() {
+        return store.value().equalsIgnoreCase(ReplicatedSessionStore.NAME);
+    }
+
+    @Override
+    public void initialize() {
+        if (Objects.isNull(peerAddresses)) {
+            this.key = createKey(secret.value());
+
+            try {
+                this.listenAddress = bindAddress.isBlank(true) ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress.value().trim());
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException("Unknown session.replication.bindAddress " + bindAddress.value() + ".", e);
+            }
+
+            this.listenPort = port.asInt();
+            this.peerAddresses = new ArrayList<>();
+
+            for (String peer : peers.asArray()) {
+                peer = peer.trim();
+
+                if (!peer.isEmpty()) {
+                    int colon = peer.lastIndexOf(':');
+                    peerAddresses.add(InetSocketAddress.createUnresolved(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+                }
+            }
+        }
+
+        try {
+            this.serverSocket = new ServerSocket(listenPort, 0, listenAddress);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not listen for replicated sessions on " + listenAddress + ":" + listenPort + ".", e);
+        }
+
+        Thread acceptor = new Thread(this::accept, "rudimentary-session-replication");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            if (Objects.nonNull(serverSocket)) {
+                serverSocket.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, null, e);
+        }
+
+        incoming.forEach(TcpSessionReplicationTransport::close);
+        incoming.clear();
+
+        synchronized (this) {
+            outgoing.values().forEach(Peer::stop);
+            outgoing.clear();
+        }
+    }
+
+    @Override
+    public synchronized void broadcast(byte[] message) {
+        if (Objects.isNull(serverSocket) || serverSocket.isClosed()) {
+            return;
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(4 + message.length + HMAC_SIZE);
+        frame.putInt(message.length).put(message).put(sign(message));
+
+        for (InetSocketAddress address : peerAddresses) {
+            Peer peer = outgoing.computeIfAbsent(address, Peer::new);
+
+            if (!peer.queue.offer(frame.array())) {
+                LOGGER.log(Level.WARNING, "Replication to {0} is falling behind, message is dropped.", address);
+            }
+        }
+    }
+
+    /**
+     * @return Port this transport listens on.
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                incoming.add(socket);
+
+                Thread reader = new Thread(() -> read(socket), "rudimentary-session-replication-" + socket.getRemoteSocketAddress());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOGGER.log(Level.WARNING, "Could not accept replication connection.", e);
+                }
+            }
+        }
+    }
+
+    private void read(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                int length = in.readInt();
+
+                if (length < 0 || length > MAX_MESSAGE_SIZE) {
+                    throw new IOException("Invalid message length " + length + ".");
+                }
+
+                byte[] message = new byte[length];
+                in.readFully(message);
+
+                byte[] signature = new byte[HMAC_SIZE];
+                in.readFully(signature);
+
+                if (!MessageDigest.isEqual(signature, sign(message))) {
+                    throw new IOException("Invalid message signature.");
+                }
+
+                deliver(message);
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed() && !(e instanceof EOFException)) {
+                LOGGER.log(Level.WARNING, "Closing replication connection from {0}, {1}", new Object[]{ socket.getRemoteSocketAddress(), e.getMessage() });
+            }
+        } finally {
+            close(socket);
+            incoming.remove(socket);
+        }
+    }
+
+    private static SecretKeySpec createKey(String secret) {
+        if (Objects.isNull(secret) || secret.isBlank()) {
+            throw new IllegalStateException("Session replication requires session.replication.secret to be set.");
+        }
+
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC);
+    }
+
+    private byte[] sign(byte[] message) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            return mac.doFinal(message);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, null, e);
+        }
+    }
+
+    private static final class Peer implements Runnable {
+
+        private final InetSocketAddress address;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(PEER_QUEUE_SIZE);
+        private final Thread sender;
+
+        private volatile boolean stopped;
+        private volatile Socket socket;
+        private OutputStream out;
+
+        private Peer(InetSocketAddress address) {
+            this.address = address;
+            this.sender = new Thread(this, "rudimentary-session-replication-" + address);
+            this.sender.setDaemon(true);
+            this.sender.start();
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                byte[] frame;
+
+                try {
+                    frame = queue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+
+                try {
+                    if (Objects.isNull(socket)) {
+                        connect();
+                    }
+
+                    out.write(frame);
+
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    if (!stopped) {
+                        LOGGER.log(Level.WARNING, "Could not replicate sessions to {0}, {1}", new Object[]{ address, e.getMessage() });
+                    }
+                    disconnect();
+                }
+            }
+
+            disconnect();
+        }
+
+        private void connect() throws IOException {
+            Socket connecting = new Socket();
+            this.socket = connecting;
+
+            connecting.connect(new InetSocketAddress(address.getHostString(), address.getPort()), CONNECT_TIMEOUT);
+            connecting.setTcpNoDelay(true);
+            this.out = new BufferedOutputStream(connecting.getOutputStream());
+        }
+
+        private void disconnect() {
+            Socket connected = socket;
+
+            if (Objects.nonNull(connected)) {
+                close(connected);
+            }
+
+            this.socket = null;
+            this.out = null;
+        }
+
+        // Closing the socket unblocks sender stuck writing to a peer which stopped reading
+        private void stop() {
+            stopped = true;
+            sender.interrupt();
+
+            Socket connected = socket;
+
+            if (Objects.nonNull(connected)) {
+                close(connected);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,252 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.http.session.Session;
+import hr.yeti.rudimentary.http.session.SessionStoreMetrics;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Default {@link SessionStore}. Sessions are looked up in a concurrent map, so reading a session and marking it as
+ * accessed never takes a lock. Expiry is tracked by a hashed timing wheel: each session sits in the wheel bucket of
+ * the tick in which it would expire if it was not accessed again. Wheel has {@link #WHEEL_SIZE} buckets and its tick
+ * is long enough for one revolution to cover <i>session.inactivityPeriodAllowed</i>, so there is never more than one
+ * round per bucket.
+ *
+ * Accessing a session does not move it in the wheel. When a bucket's tick comes, sessions accessed in the meantime are
+ * rescheduled to the bucket of their new deadline and only really idle sessions are removed. The same walk over the
+ * wheel, starting from the closest deadline, finds the least recently used session which is evicted when
+ * <i>session.maxConcurrentAllowed</i> is reached, values less than 1 mean there is no limit. Both are precise to one
+ * tick.
+ *
+ * This is the default session store, used when <i>session.store</i> is set to <i>memory</i>.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class TimingWheelSessionStore extends SessionStore {
+
+    private static final Logger LOGGER = Logger.getLogger(TimingWheelSessionStore.class.getName());
+
+    public static final String NAME = "memory";
+
+    static final int WHEEL_SIZE = 512;
+
+    private ConfigProperty store = new ConfigProperty("session.store", NAME);
+    private ConfigProperty maxConcurrentAllowed = new ConfigProperty("session.maxConcurrentAllowed", "0");
+    private ConfigProperty inactivityPeriodAllowed = new ConfigProperty("session.inactivityPeriodAllowed", "1800");
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    // Guarded by this
+    private List<Set<Entry>> wheel;
+    private long cursor;
+
+    private long maxSessions;
+    private long timeoutMillis;
+    private long tickMillis;
+    private ScheduledExecutorService ticker;
+
+    @Override
+    public void initialize() {
+        this.maxSessions = maxConcurrentAllowed.asLong();
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(inactivityPeriodAllowed.asLong());
+        // Two buckets are spare, deadline may fall into the tick being processed or the one after the last
+        this.tickMillis = Math.max(1, (timeoutMillis + WHEEL_SIZE - 3) / (WHEEL_SIZE - 2));
+        this.wheel = new ArrayList<>(WHEEL_SIZE);
+
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new HashSet<>());
+        }
+
+        this.cursor = System.currentTimeMillis() / tickMillis;
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor((task) -> {
+            Thread thread = new Thread(task, "rudimentary-session-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.ticker.scheduleAtFixedRate(() -> {
+            try {
+                expire(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Could not expire http sessions.", e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(ticker)) {
+            ticker.shutdownNow();
+        }
+        sessions.clear();
+    }
+
+    @Override
+    public boolean conditional() {
+        return store.value().equalsIgnoreCase(NAME);
+    }
+
+    @Override
+    public Session get(String rsid) {
+        Entry entry = sessions.get(rsid);
+        return Objects.nonNull(entry) ? entry.session : null;
+    }
+
+    @Override
+    public synchronized void put(Session session) {
+        Entry previous = sessions.get(session.getRsid());
+
+        if (Objects.nonNull(previous)) {
+            unschedule(previous);
+        } else if (maxSessions > 0 && sessions.size() >= maxSessions) {
+            evictLeastRecentlyUsed();
+        }
+
+        Entry entry = new Entry(session);
+        sessions.put(session.getRsid(), entry);
+        schedule(entry, cursor);
+
+        if (Objects.isNull(previous)) {
+            created.incrementAndGet();
+        }
+    }
+
+    @Override
+    public synchronized void remove(String rsid) {
+        Entry entry = sessions.remove(rsid);
+
+        if (Objects.nonNull(entry)) {
+            unschedule(entry);
+        }
+    }
+
+    @Override
+    public SessionStoreMetrics metrics() {
+        return new SessionStoreMetrics(sessions.size(), created.get(), expired.get(), evicted.get());
+    }
+
+    /**
+     * @param action Action performed for each stored session, sessions added or removed concurrently may or may not be
+     * visited.
+     */
+    void forEach(Consumer<Session> action) {
+        sessions.values().forEach((entry) -> action.accept(entry.session));
+    }
+
+    /**
+     * Called while holding this store's lock whenever session is removed because it expired or was evicted.
+     *
+     * @param session Removed session.
+     */
+    void discarded(Session session) {
+    }
+
+    long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Processes all wheel buckets whose tick has passed, removing sessions idle for longer than allowed.
+     *
+     * @param now Current time in milliseconds.
+     */
+    synchronized void expire(long now) {
+        long nowTick = now / tickMillis;
+
+        // Every bucket is visited at most once even if ticker was late for more than a revolution
+        cursor = Math.max(cursor, nowTick - WHEEL_SIZE + 1);
+
+        while (cursor <= nowTick) {
+            Set<Entry> bucket = wheel.get(index(cursor));
+            cursor++;
+
+            for (Entry entry : List.copyOf(bucket)) {
+                bucket.remove(entry);
+
+                if (deadline(entry) <= now) {
+                    sessions.remove(entry.session.getRsid(), entry);
+                    expired.incrementAndGet();
+                    discarded(entry.session);
+
+                    LOGGER.log(Level.FINE, "Session with RSID={0} has expired after period of inactivity.", entry.session.getRsid());
+                } else {
+                    schedule(entry, cursor);
+                }
+            }
+        }
+    }
+
+    // Walks buckets from the closest deadline, sessions accessed since they were scheduled are moved on the way
+    private boolean evictLeastRecentlyUsed() {
+        for (long tick = cursor; tick < cursor + 2 * WHEEL_SIZE; tick++) {
+            Set<Entry> bucket = wheel.get(index(tick));
+            Entry leastRecentlyUsed = null;
+
+            for (Entry entry : List.copyOf(bucket)) {
+                if (deadline(entry) / tickMillis > tick) {
+                    bucket.remove(entry);
+                    schedule(entry, cursor);
+                } else if (Objects.isNull(leastRecentlyUsed)
+                    || entry.session.getLastAccessedTime() < leastRecentlyUsed.session.getLastAccessedTime()) {
+                    leastRecentlyUsed = entry;
+                }
+            }
+
+            if (Objects.nonNull(leastRecentlyUsed)) {
+                bucket.remove(leastRecentlyUsed);
+                sessions.remove(leastRecentlyUsed.session.getRsid(), leastRecentlyUsed);
+                evicted.incrementAndGet();
+                discarded(leastRecentlyUsed.session);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void schedule(Entry entry, long earliestTick) {
+        entry.tick = Math.max(deadline(entry) / tickMillis, earliestTick);
+        wheel.get(index(entry.tick)).add(entry);
+    }
+
+    private void unschedule(Entry entry) {
+        wheel.get(index(entry.tick)).remove(entry);
+    }
+
+    private long deadline(Entry entry) {
+        return entry.session.getLastAccessedTime() + timeoutMillis;
+    }
+
+    private static int index(long tick) {
+        return (int) (tick % WHEEL_SIZE);
+    }
+
+    private static final class Entry {
+
+        private final Session session;
+        private long tick;
+
+        private Entry(Session session) {
+            this.session = session;
+        }
+
+    }
+
+}
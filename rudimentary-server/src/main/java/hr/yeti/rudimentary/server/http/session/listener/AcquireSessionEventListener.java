@@ -5,6 +5,7 @@ import hr.yeti.rudimentary.http.Cookie;
 import hr.yeti.rudimentary.http.HttpRequestUtils;
 import hr.yeti.rudimentary.http.session.AcquireSessionEvent;
 import hr.yeti.rudimentary.http.session.Session;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
 import hr.yeti.rudimentary.server.http.session.HttpSession;
 import java.net.HttpCookie;
 import java.util.List;
@@ -15,15 +16,16 @@ public class AcquireSessionEventListener implements EventListener<AcquireSession
 
     @Override
     public void onEvent(AcquireSessionEvent event) {
+        SessionStore sessionStore = SessionStore.provider();
         Session session = null;
         Map<String, HttpCookie> cookies = HttpRequestUtils.parseCookies(event.getExchange().getRequestHeaders());
 
-        // This part handles RSID tokens which are not stored in server's memory
+        // This part handles RSID tokens which are not stored in session store
         // by creating new session and overwriting unknown RSID cookie.
         boolean overwriteRsidCookie = false;
         if (cookies.containsKey(Session.COOKIE)) {
 
-            session = (Session) event.getExchange().getAttribute(cookies.get(Session.COOKIE).getValue());
+            session = sessionStore.get(cookies.get(Session.COOKIE).getValue());
 
             if (Objects.isNull(session)) {
                 overwriteRsidCookie = true;
@@ -33,7 +35,7 @@ public class AcquireSessionEventListener implements EventListener<AcquireSession
         if (event.isCreateIfAbsent()) {
             if (Objects.isNull(session)) {
                 HttpSession newSession = new HttpSession();
-                event.getExchange().setAttribute(newSession.getRsid(), newSession);
+                sessionStore.put(newSession);
 
                 String rsid = newSession.getRsid();
 
@@ -0,0 +1,94 @@
+package hr.yeti.rudimentary.server.http.staticresources;
+
+import hr.yeti.rudimentary.http.MediaType;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps static resource file extensions to media types. Built-in table covers common web assets and can be extended or
+ * overridden with <i>mvc.staticResourcesMimeTypes</i> configuration property, e.g. <i>md=text/markdown,map=application/json</i>.
+ * Files with unknown extension are sent as {@link MediaType#APPLICATION_OCTET_STREAM}.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class MimeTypes {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+        // Text
+        Map.entry("html", MediaType.TEXT_HTML),
+        Map.entry("htm", MediaType.TEXT_HTML),
+        Map.entry("css", MediaType.TEXT_CSS),
+        Map.entry("txt", MediaType.TEXT_PLAIN),
+        Map.entry("csv", "text/csv"),
+        Map.entry("md", "text/markdown"),
+        Map.entry("xml", "application/xml"),
+        Map.entry("js", MediaType.APPLICATION_JAVASCRIPT),
+        Map.entry("mjs", MediaType.APPLICATION_JAVASCRIPT),
+        Map.entry("json", MediaType.APPLICATION_JSON),
+        Map.entry("map", MediaType.APPLICATION_JSON),
+        Map.entry("webmanifest", "application/manifest+json"),
+        Map.entry("wasm", "application/wasm"),
+        // Images
+        Map.entry("png", "image/png"),
+        Map.entry("jpg", "image/jpeg"),
+        Map.entry("jpeg", "image/jpeg"),
+        Map.entry("gif", "image/gif"),
+        Map.entry("svg", "image/svg+xml"),
+        Map.entry("ico", "image/x-icon"),
+        Map.entry("webp", "image/webp"),
+        Map.entry("avif", "image/avif"),
+        Map.entry("bmp", "image/bmp"),
+        Map.entry("tif", "image/tiff"),
+        Map.entry("tiff", "image/tiff"),
+        // Fonts
+        Map.entry("woff", "font/woff"),
+        Map.entry("woff2", "font/woff2"),
+        Map.entry("ttf", "font/ttf"),
+        Map.entry("otf", "font/otf"),
+        Map.entry("eot", "application/vnd.ms-fontobject"),
+        // Audio & video
+        Map.entry("mp3", "audio/mpeg"),
+        Map.entry("ogg", "audio/ogg"),
+        Map.entry("wav", "audio/wav"),
+        Map.entry("weba", "audio/webm"),
+        Map.entry("mp4", "video/mp4"),
+        Map.entry("webm", "video/webm"),
+        Map.entry("ogv", "video/ogg"),
+        // Documents & archives
+        Map.entry("pdf", "application/pdf"),
+        Map.entry("zip", "application/zip"),
+        Map.entry("gz", "application/gzip"),
+        Map.entry("tar", "application/x-tar"),
+        Map.entry("7z", "application/x-7z-compressed"),
+        Map.entry("bin", MediaType.APPLICATION_OCTET_STREAM)
+    );
+
+    private final Map<String, String> mimeTypes;
+
+    /**
+     * @param overrides Extensions, without dot, mapped to media types which extend or replace built-in ones.
+     */
+    MimeTypes(Map<String, String> overrides) {
+        this.mimeTypes = new HashMap<>(DEFAULTS);
+
+        overrides.forEach((extension, mediaType) -> {
+            mimeTypes.put(extension.toLowerCase(), mediaType);
+        });
+    }
+
+    /**
+     * @param path Path of static resource.
+     * @return Media type resolved by path extension.
+     */
+    String of(String path) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+
+        if (dot <= slash) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+
+        return mimeTypes.getOrDefault(path.substring(dot + 1).toLowerCase(), MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+}
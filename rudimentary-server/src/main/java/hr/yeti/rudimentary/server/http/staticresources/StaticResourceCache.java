@@ -0,0 +1,248 @@
+package hr.yeti.rudimentary.server.http.staticresources;
+
+import hr.yeti.rudimentary.server.http.compression.CompressionFilter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory cache of static resources keyed by resource path. Total size of cached resources, gzip variants included,
+ * is limited and least recently used resources are evicted first. Resources larger than the whole cache are not
+ * cached at all.
+ *
+ * ETag, Last-Modified value and compressed variants of each resource are computed once, when resource is loaded into
+ * cache. Precompressed siblings, e.g. <i>app.js.br</i> and <i>app.js.gz</i> next to <i>app.js</i>, are looked up at the
+ * same time and, if found, kept as variants of the resource. Gzip variant is generated if there is no <i>.gz</i>
+ * sibling.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class StaticResourceCache {
+
+    static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    private final long maxSize;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * @param maxSize Maximum number of bytes held by the cache.
+     */
+    StaticResourceCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets cached resource or loads it from the given URL.
+     *
+     * @param path Resource path.
+     * @param resource URL of the resource.
+     * @param mediaType Media type of the resource.
+     * @return Cached resource entry.
+     * @throws IOException If resource could not be read.
+     */
+    Entry get(String path, URL resource, String mediaType) throws IOException {
+        Entry entry;
+
+        synchronized (this) {
+            entry = entries.get(path);
+        }
+
+        if (Objects.nonNull(entry)) {
+            return entry;
+        }
+
+        // Loading is done outside of lock, resource loaded concurrently by other thread is simply replaced
+        entry = load(resource, mediaType);
+
+        if (entry.size() <= maxSize) {
+            put(path, entry);
+        }
+
+        return entry;
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    private synchronized void put(String path, Entry entry) {
+        Entry previous = entries.put(path, entry);
+
+        if (Objects.nonNull(previous)) {
+            size -= previous.size();
+        }
+
+        size += entry.size();
+
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+
+        while (size > maxSize && leastRecentlyUsed.hasNext()) {
+            size -= leastRecentlyUsed.next().size();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private static Entry load(URL resource, String mediaType) throws IOException {
+        URLConnection connection = resource.openConnection();
+        byte[] content;
+
+        try ( InputStream is = connection.getInputStream()) {
+            content = is.readAllBytes();
+        }
+
+        long lastModified = connection.getLastModified();
+        Instant modified = (lastModified > 0 ? Instant.ofEpochMilli(lastModified) : Instant.now()).truncatedTo(ChronoUnit.SECONDS);
+
+        // Insertion order is order of preference when client accepts multiple encodings equally
+        Map<String, byte[]> encoded = new LinkedHashMap<>();
+        byte[] brotli = sibling(resource, ".br");
+        byte[] gzip = sibling(resource, ".gz");
+
+        if (Objects.nonNull(brotli)) {
+            encoded.put(CompressionFilter.BROTLI, brotli);
+        }
+
+        if (Objects.isNull(gzip)) {
+            gzip = gzip(content);
+        }
+
+        if (Objects.nonNull(gzip)) {
+            encoded.put(CompressionFilter.GZIP, gzip);
+        }
+
+        return new Entry(content, encoded, mediaType, etag(content), modified);
+    }
+
+    // Sibling is resolved relative to resource URL so it works for both directories and jars
+    private static byte[] sibling(URL resource, String extension) {
+        String path = resource.getPath();
+
+        try ( InputStream is = new URL(resource, path.substring(path.lastIndexOf('/') + 1) + extension).openStream()) {
+            return is.readAllBytes();
+        } catch (MalformedURLException e) {
+            return null;
+        } catch (IOException e) {
+            // Sibling does not exist
+            return null;
+        }
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Gzip variant is kept only if it is noticeably smaller, already compressed formats are not worth it
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 32);
+
+        try ( GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content);
+        }
+
+        return compressed.size() < content.length * 0.9 ? compressed.toByteArray() : null;
+    }
+
+    static final class Entry {
+
+        private final byte[] content;
+        private final Map<String, byte[]> encoded;
+        private final Map<String, String> encodedEtags;
+        private final String mediaType;
+        private final String etag;
+        private final Instant lastModified;
+        private final String lastModifiedHttpDate;
+
+        private Entry(byte[] content, Map<String, byte[]> encoded, String mediaType, String etag, Instant lastModified) {
+            this.content = content;
+            this.encoded = encoded;
+            this.encodedEtags = new LinkedHashMap<>();
+            this.mediaType = mediaType;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.lastModifiedHttpDate = HTTP_DATE.format(lastModified);
+
+            // Each encoding is a different representation so it needs its own strong ETag
+            for (String encoding : encoded.keySet()) {
+                encodedEtags.put(encoding, etag.substring(0, etag.length() - 1) + "-" + encoding + "\"");
+            }
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * @param encoding Content coding, e.g. gzip.
+         * @return Content compressed with the given encoding or null if there is no such variant.
+         */
+        byte[] getContent(String encoding) {
+            return encoded.get(encoding);
+        }
+
+        /**
+         * @return Encodings of available compressed variants, in order of preference.
+         */
+        Set<String> getEncodings() {
+            return Collections.unmodifiableSet(encoded.keySet());
+        }
+
+        String getMediaType() {
+            return mediaType;
+        }
+
+        String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @param encoding Content coding or null for uncompressed content.
+         * @return ETag of the variant.
+         */
+        String getEtag(String encoding) {
+            return Objects.isNull(encoding) ? etag : encodedEtags.get(encoding);
+        }
+
+        Instant getLastModified() {
+            return lastModified;
+        }
+
+        String getLastModifiedHttpDate() {
+            return lastModifiedHttpDate;
+        }
+
+        private long size() {
+            long size = content.length;
+
+            for (byte[] variant : encoded.values()) {
+                size += variant.length;
+            }
+
+            return size;
+        }
+
+    }
+
+}
@@ -1,21 +1,64 @@
 package hr.yeti.rudimentary.server.http.staticresources;
 
+import com.sun.net.httpserver.Headers;
 import hr.yeti.rudimentary.config.ConfigProperty;
 import hr.yeti.rudimentary.exception.ExceptionInfo;
-import hr.yeti.rudimentary.http.MediaType;
 import hr.yeti.rudimentary.http.Request;
 import hr.yeti.rudimentary.http.ResourceNotFoundException;
+import hr.yeti.rudimentary.http.URIUtils;
 import hr.yeti.rudimentary.http.content.Empty;
 import hr.yeti.rudimentary.http.content.StaticResource;
 import hr.yeti.rudimentary.http.spi.HttpEndpoint;
+import hr.yeti.rudimentary.server.http.compression.CompressionFilter;
 import hr.yeti.rudimentary.server.resources.ClasspathResource;
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StaticResourcesEndpoint implements HttpEndpoint<Empty, StaticResource> {
 
     private ConfigProperty staticResourcesDir = new ConfigProperty("mvc.staticResourcesDir");
+    private ConfigProperty staticResourcesCacheSize = new ConfigProperty("mvc.staticResourcesCacheSize", "10485760");
+    private ConfigProperty staticResourcesMaxAge = new ConfigProperty("mvc.staticResourcesMaxAge", "3600");
+    private ConfigProperty staticResourcesPath = new ConfigProperty("mvc.staticResourcesPath", "");
+    private ConfigProperty staticResourcesMimeTypes = new ConfigProperty("mvc.staticResourcesMimeTypes", "");
+
+    private StaticResourceCache cache;
+    private String cacheControl;
+    private Path root;
+    private MimeTypes mimeTypes;
+    private final Map<Path, Precompressed> precompressed = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize() {
+        this.cache = new StaticResourceCache(staticResourcesCacheSize.asLong());
+        this.cacheControl = "public, max-age=" + staticResourcesMaxAge.asInt();
+        this.mimeTypes = new MimeTypes(staticResourcesMimeTypes.value().isBlank() ? Map.of() : staticResourcesMimeTypes.asMap());
+
+        if (Objects.nonNull(staticResourcesPath.value()) && !staticResourcesPath.value().isBlank()) {
+            this.root = Paths.get(staticResourcesPath.value()).toAbsolutePath().normalize();
+
+            try {
+                this.root = root.toRealPath();
+            } catch (IOException e) {
+                // Directory does not exist yet, requests are answered with 404 until it is created
+            }
+        }
+    }
 
     @Override
     public URI path() {
@@ -24,29 +67,163 @@ public class StaticResourcesEndpoint implements HttpEndpoint<Empty, StaticResour
 
     @Override
     public StaticResource response(Request<Empty> request) {
-        InputStream staticResource = new ClasspathResource(request.getUri().toString()).get();
+        if (Objects.nonNull(root)) {
+            return fileResponse(request);
+        }
+
+        String path = request.getUri().toString();
+        URL resource = new ClasspathResource(path).getURL();
+
+        if (Objects.isNull(resource)) {
+            throw new ResourceNotFoundException(path);
+        }
+
+        StaticResourceCache.Entry entry;
+
+        try {
+            entry = cache.get(path, resource, mimeTypes.of(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(path, e);
+        }
+
+        Headers requestHeaders = request.getHttpExchange().getRequestHeaders();
+        Headers responseHeaders = request.getHttpExchange().getResponseHeaders();
+        String encoding = preferredEncoding(requestHeaders, entry.getEncodings());
+        String etag = entry.getEtag(encoding);
+
+        responseHeaders.set("ETag", etag);
+        responseHeaders.set("Last-Modified", entry.getLastModifiedHttpDate());
+        responseHeaders.set("Cache-Control", cacheControl);
+
+        if (!entry.getEncodings().isEmpty()) {
+            CompressionFilter.varyByAcceptEncoding(responseHeaders);
+        }
 
-        if (Objects.isNull(staticResource)) {
-            throw new ResourceNotFoundException(request.getUri().toString());
+        if (isNotModified(requestHeaders, etag, entry.getLastModified())) {
+            return StaticResource.notModified();
         }
 
-        int extensionIndex = request.getUri().toString().lastIndexOf(".");
-        String extension = request.getUri().toString().substring(extensionIndex + 1).toLowerCase();
+        if (Objects.nonNull(encoding)) {
+            responseHeaders.set("Content-Encoding", encoding);
+            return new StaticResource(entry.getContent(encoding), entry.getMediaType());
+        }
 
-        String mediaType = MediaType.APPLICATION_OCTET_STREAM;
+        return new StaticResource(entry.getContent(), entry.getMediaType());
+    }
 
-        switch (extension) {
-            case "js":
-                mediaType = MediaType.APPLICATION_JAVASCRIPT;
-                break;
-            case "css":
-                mediaType = MediaType.TEXT_CSS;
-                break;
-            default:
-                break;
+    // Files are streamed from filesystem as they are, only their metadata is read per request
+    private StaticResource fileResponse(Request<Empty> request) {
+        String path = URIUtils.removeSlashPrefix(request.getUri()).getPath();
+        String prefix = staticResourcesDir.value() + "/";
+        Path file = root.resolve(path.startsWith(prefix) ? path.substring(prefix.length()) : path).normalize();
+
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException(path);
         }
 
-        return new StaticResource(staticResource, mediaType);
+        Headers requestHeaders = request.getHttpExchange().getRequestHeaders();
+        Headers responseHeaders = request.getHttpExchange().getResponseHeaders();
+
+        try {
+            // Symbolic links are followed only as long as they point inside of the directory
+            file = file.toRealPath();
+
+            if (!file.startsWith(root)) {
+                throw new ResourceNotFoundException(path);
+            }
+
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            Map<String, Path> siblings = precompressed(file, attributes.lastModifiedTime());
+            String encoding = preferredEncoding(requestHeaders, siblings.keySet());
+
+            if (Objects.nonNull(encoding)) {
+                // Compressed variant is a different representation, validators are taken from the sibling
+                file = siblings.get(encoding);
+                attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            }
+
+            Instant lastModified = attributes.lastModifiedTime().toInstant().truncatedTo(ChronoUnit.SECONDS);
+            String etag = "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis())
+                + (Objects.nonNull(encoding) ? "-" + encoding : "") + "\"";
+
+            responseHeaders.set("ETag", etag);
+            responseHeaders.set("Last-Modified", StaticResourceCache.HTTP_DATE.format(lastModified));
+            responseHeaders.set("Cache-Control", cacheControl);
+
+            if (!siblings.isEmpty()) {
+                CompressionFilter.varyByAcceptEncoding(responseHeaders);
+            }
+
+            if (isNotModified(requestHeaders, etag, lastModified)) {
+                return StaticResource.notModified();
+            }
+
+            if (Objects.nonNull(encoding)) {
+                responseHeaders.set("Content-Encoding", encoding);
+            }
+
+            return new StaticResource(file, mimeTypes.of(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(path, e);
+        }
+    }
+
+    // Siblings are looked up once per file and again only after the file changes
+    private Map<String, Path> precompressed(Path file, FileTime lastModified) throws IOException {
+        Precompressed siblings = precompressed.get(file);
+
+        if (Objects.isNull(siblings) || !siblings.lastModified.equals(lastModified)) {
+            Map<String, Path> files = new LinkedHashMap<>();
+
+            Path brotli = file.resolveSibling(file.getFileName() + ".br");
+            Path gzip = file.resolveSibling(file.getFileName() + ".gz");
+
+            if (isUpToDate(brotli, lastModified)) {
+                files.put(CompressionFilter.BROTLI, brotli);
+            }
+
+            if (isUpToDate(gzip, lastModified)) {
+                files.put(CompressionFilter.GZIP, gzip);
+            }
+
+            siblings = new Precompressed(lastModified, files);
+            precompressed.put(file, siblings);
+        }
+
+        return siblings.files;
+    }
+
+    // Sibling older than the file was compressed from its previous content and must not be served instead of it
+    private boolean isUpToDate(Path sibling, FileTime lastModified) throws IOException {
+        return Files.isRegularFile(sibling)
+            && sibling.toRealPath().startsWith(root)
+            && Files.getLastModifiedTime(sibling).compareTo(lastModified) >= 0;
+    }
+
+    /**
+     * Picks compressed variant with the highest quality value in client's <i>Accept-Encoding</i> http header, ties
+     * are resolved by the order of given encodings. Ranges always refer to uncompressed content so no variant is
+     * picked for range requests.
+     */
+    private static String preferredEncoding(Headers requestHeaders, Set<String> encodings) {
+        if (encodings.isEmpty() || requestHeaders.containsKey("Range")) {
+            return null;
+        }
+
+        String acceptEncoding = requestHeaders.getFirst("Accept-Encoding");
+        String preferred = null;
+        float quality = 0;
+
+        for (String encoding : encodings) {
+            float encodingQuality = CompressionFilter.quality(acceptEncoding, encoding);
+
+            if (encodingQuality > quality) {
+                preferred = encoding;
+                quality = encodingQuality;
+            }
+        }
+
+        return preferred;
     }
 
     @Override
@@ -59,4 +236,49 @@ public class StaticResourcesEndpoint implements HttpEndpoint<Empty, StaticResour
         return new ExceptionInfo(404, "Could not load resource " + e.getMessage() + ".");
     }
 
+    // If-None-Match takes precedence over If-Modified-Since
+    private static boolean isNotModified(Headers requestHeaders, String resourceEtag, Instant lastModified) {
+        String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+
+        if (Objects.nonNull(ifNoneMatch)) {
+            for (String etag : ifNoneMatch.split(",")) {
+                etag = etag.trim();
+
+                if (etag.startsWith("W/")) {
+                    etag = etag.substring(2);
+                }
+
+                if (etag.equals("*") || etag.equals(resourceEtag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+
+        if (Objects.nonNull(ifModifiedSince)) {
+            try {
+                Instant since = Instant.from(StaticResourceCache.HTTP_DATE.parse(ifModifiedSince));
+                return !lastModified.isAfter(since);
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    private static final class Precompressed {
+
+        private final FileTime lastModified;
+        private final Map<String, Path> files;
+
+        private Precompressed(FileTime lastModified, Map<String, Path> files) {
+            this.lastModified = lastModified;
+            this.files = files;
+        }
+
+    }
+
 }
@@ -1,6 +1,7 @@
 package hr.yeti.rudimentary.server.resources;
 
 import java.io.InputStream;
+import java.net.URL;
 import java.util.Objects;
 
 public class ClasspathResource {
@@ -18,4 +19,9 @@ public class ClasspathResource {
             getResourceAsStream(path);
     }
 
+    public URL getURL() {
+        return this.getClass().
+            getResource(path);
+    }
+
 }
@@ -6,16 +6,55 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpPrincipal;
 import hr.yeti.rudimentary.config.ConfigProperty;
 import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.security.Identity;
 import hr.yeti.rudimentary.security.UsernamePasswordCredential;
 import hr.yeti.rudimentary.security.spi.AuthMechanism;
 import hr.yeti.rudimentary.security.spi.IdentityStore;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Base64;
-
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Authenticates requests carrying HTTP Basic Authorization header against registered {@link IdentityStore}.
+ *
+ * Identity stores usually keep only password hashes which are deliberately expensive to check, so successful
+ * verifications are cached for <i>security.basic.cacheTtl</i> seconds and repeated requests with the same header are
+ * authenticated by a single map lookup. Cache is keyed by HmacSHA256 of the header computed with a random, per process
+ * key, so plain credentials are never kept in memory. At most <i>security.basic.cacheSize</i> verifications are cached,
+ * the oldest one is dropped to make room for a new one. Failed verifications are never cached.
+ *
+ * Cached verifications of a user are dropped as soon as {@link IdentityStore} reports the user's identity changed,
+ * otherwise password change or removal of a user takes effect once the cached verification expires. Setting
+ * <i>security.basic.cacheTtl</i> to 0 disables the cache.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
 public final class BasicAuthMechanism extends AuthMechanism {
 
+    private static final String HMAC = "HmacSHA256";
+
     private ConfigProperty enabled = new ConfigProperty("security.basic.enabled");
+    private ConfigProperty cacheTtl = new ConfigProperty("security.basic.cacheTtl", "60");
+    private ConfigProperty cacheSize = new ConfigProperty("security.basic.cacheSize", "10000");
 
     private IdentityStore identityStore;
+    private Consumer<String> identityChangeListener;
+
+    // Guarded by this, keyed hash of Authorization header mapped to verification, oldest first
+    private Map<String, Verification> cache;
+    private long invalidations;
+
+    private long ttlMillis;
+    private ThreadLocal<Mac> mac;
 
     @Override
     public Result doAuth(HttpExchange exchange) {
@@ -35,22 +74,10 @@ public final class BasicAuthMechanism extends AuthMechanism {
             return new Authenticator.Failure(401);
         }
 
-        byte[] credentials = Base64.getDecoder().decode(auth.substring(spaceSeparatorIndex + 1));
-        String usernamePassword = new String(credentials);
-
-        int colonIndex = usernamePassword.indexOf(':');
-
-        String username = usernamePassword.substring(0, colonIndex);
-        String password = usernamePassword.substring(colonIndex + 1);
+        Identity identity = verify(auth.substring(spaceSeparatorIndex + 1));
 
-        if (identityStore.validate(new UsernamePasswordCredential(username, password))) {
-            return new Authenticator.Success(
-                identityStore.getIdentity(
-                    new HttpPrincipal(
-                        username, realm.value()
-                    )
-                )
-            );
+        if (Objects.nonNull(identity)) {
+            return new Authenticator.Success(identity);
         } else {
             Headers map = exchange.getResponseHeaders();
             map.set("WWW-Authenticate", "Basic realm=" + "\"" + realm.value() + "\"");
@@ -73,10 +100,149 @@ public final class BasicAuthMechanism extends AuthMechanism {
     public void initialize() {
         super.initialize();
         this.identityStore = Instance.of(IdentityStore.class);
+
+        int maxSize = cacheSize.asInt();
+
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(cacheTtl.asLong());
+        this.cache = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verification> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        SecretKeySpec keySpec = new SecretKeySpec(key, HMAC);
+
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        this.identityChangeListener = this::invalidate;
+        this.identityStore.addIdentityChangeListener(identityChangeListener);
     }
 
     @Override
     public void destroy() {
+        if (Objects.nonNull(identityStore) && Objects.nonNull(identityChangeListener)) {
+            identityStore.removeIdentityChangeListener(identityChangeListener);
+        }
+
+        synchronized (this) {
+            if (Objects.nonNull(cache)) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Verifies Basic credentials, from cache if they were successfully verified recently.
+     *
+     * @param encodedCredentials Base64 encoded <i>username:password</i> from Authorization header.
+     * @return Identity of the user or null if credentials are invalid.
+     */
+    Identity verify(String encodedCredentials) {
+        String key = null;
+        long generation = 0;
+
+        if (ttlMillis > 0) {
+            key = hash(encodedCredentials);
+
+            synchronized (this) {
+                removeExpired(System.currentTimeMillis());
+
+                Verification verification = cache.get(key);
+
+                if (Objects.nonNull(verification)) {
+                    return verification.identity;
+                }
+
+                generation = invalidations;
+            }
+        }
+
+        byte[] credentials = Base64.getDecoder().decode(encodedCredentials);
+        String usernamePassword = new String(credentials);
+
+        int colonIndex = usernamePassword.indexOf(':');
+
+        String username = usernamePassword.substring(0, colonIndex);
+        String password = usernamePassword.substring(colonIndex + 1);
+
+        if (!identityStore.validate(new UsernamePasswordCredential(username, password))) {
+            return null;
+        }
+
+        Identity identity = identityStore.getIdentity(new HttpPrincipal(username, realm.value()));
+
+        if (Objects.nonNull(key) && Objects.nonNull(identity)) {
+            synchronized (this) {
+                // Identity might have changed while it was being verified
+                if (generation == invalidations) {
+                    cache.remove(key);
+                    cache.put(key, new Verification(username, identity, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+        }
+
+        return identity;
+    }
+
+    /**
+     * Drops cached verifications.
+     *
+     * @param username Username whose verifications are dropped, null to drop all of them.
+     */
+    synchronized void invalidate(String username) {
+        invalidations++;
+
+        if (Objects.isNull(username)) {
+            cache.clear();
+        } else {
+            cache.values().removeIf((verification) -> verification.username.equals(username));
+        }
+    }
+
+    /**
+     * @return Number of cached verifications.
+     */
+    synchronized int cached() {
+        removeExpired(System.currentTimeMillis());
+        return cache.size();
+    }
+
+    // All verifications live equally long so the ones expiring first are at the head
+    private void removeExpired(long now) {
+        Iterator<Verification> verifications = cache.values().iterator();
+
+        while (verifications.hasNext() && verifications.next().expiry <= now) {
+            verifications.remove();
+        }
+    }
+
+    private String hash(String encodedCredentials) {
+        byte[] digest = mac.get().doFinal(encodedCredentials.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(digest);
+    }
+
+    private static final class Verification {
+
+        private final String username;
+        private final Identity identity;
+        private final long expiry;
+
+        private Verification(String username, Identity identity, long expiry) {
+            this.username = username;
+            this.identity = identity;
+            this.expiry = expiry;
+        }
 
     }
 
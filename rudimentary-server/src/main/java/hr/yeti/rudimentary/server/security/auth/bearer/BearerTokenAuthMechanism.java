@@ -0,0 +1,340 @@
+package hr.yeti.rudimentary.server.security.auth.bearer;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.json.spi.JsonCodec;
+import hr.yeti.rudimentary.security.Identity;
+import hr.yeti.rudimentary.security.spi.AuthMechanism;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.crypto.spec.SecretKeySpec;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * Authenticates requests carrying <i>Authorization: Bearer</i> header with JSON Web Token signed with HS256, RS256 or
+ * ES256. Tokens are verified locally, no session is needed and no identity store is involved, so any service instance
+ * can authenticate any request.
+ *
+ * Keys are never fetched over network. HS256 tokens are verified with <i>security.bearer.secret</i>, RS256 and ES256
+ * tokens with public keys from JWK set set in <i>security.bearer.jwks</i>, either path to a local JWKS file or JWKS
+ * JSON itself. If token has <i>kid</i> header only the key with that id is used.
+ *
+ * Token must have <i>exp</i> claim and, if set, <i>nbf</i>, <i>iss</i> and <i>aud</i> claims are checked against
+ * current time, <i>security.bearer.issuer</i> and <i>security.bearer.audience</i>, allowing
+ * <i>security.bearer.clockSkew</i> seconds of clock difference. {@link Identity} is built from claims, username from
+ * <i>security.bearer.usernameClaim</i>, groups and roles from <i>security.bearer.groupsClaim</i> and
+ * <i>security.bearer.rolesClaim</i> which can be arrays or space separated strings, all claims are set as details.
+ *
+ * Verified tokens are cached until they expire so repeated requests with the same token are authenticated by a single
+ * map lookup. At most <i>security.bearer.cacheSize</i> tokens are cached, the oldest one is dropped to make room for a
+ * new one. Invalid tokens are never cached.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public final class BearerTokenAuthMechanism extends AuthMechanism {
+
+    private static final Logger LOGGER = Logger.getLogger(BearerTokenAuthMechanism.class.getName());
+
+    private static final String BEARER = "Bearer ";
+    private static final int MIN_SECRET_SIZE = 32;
+
+    private ConfigProperty enabled = new ConfigProperty("security.bearer.enabled", "false");
+    private ConfigProperty secret = new ConfigProperty("security.bearer.secret", "");
+    private ConfigProperty jwks = new ConfigProperty("security.bearer.jwks", "");
+    private ConfigProperty issuer = new ConfigProperty("security.bearer.issuer", "");
+    private ConfigProperty audience = new ConfigProperty("security.bearer.audience", "");
+    private ConfigProperty usernameClaim = new ConfigProperty("security.bearer.usernameClaim", "sub");
+    private ConfigProperty groupsClaim = new ConfigProperty("security.bearer.groupsClaim", "groups");
+    private ConfigProperty rolesClaim = new ConfigProperty("security.bearer.rolesClaim", "roles");
+    private ConfigProperty clockSkew = new ConfigProperty("security.bearer.clockSkew", "30");
+    private ConfigProperty cacheSize = new ConfigProperty("security.bearer.cacheSize", "10000");
+
+    private List<JsonWebKey> keys;
+    private long clockSkewMillis;
+
+    // Guarded by this, token mapped to its verification, oldest first
+    private Map<String, Verification> cache;
+
+    @Override
+    public Result doAuth(HttpExchange exchange) {
+        String auth = exchange.getRequestHeaders().getFirst("Authorization");
+
+        if (Objects.isNull(auth)) {
+            challenge(exchange, null);
+            return new Authenticator.Retry(401);
+        }
+
+        if (!auth.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return new Authenticator.Failure(401);
+        }
+
+        Identity identity = verify(auth.substring(BEARER.length()).trim(), System.currentTimeMillis());
+
+        if (Objects.nonNull(identity)) {
+            return new Authenticator.Success(identity);
+        } else {
+            challenge(exchange, "invalid_token");
+            return new Authenticator.Failure(401);
+        }
+    }
+
+    @Override
+    public boolean conditional() {
+        return enabled.asBoolean();
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class, JsonCodec.class };
+    }
+
+    @Override
+    public void initialize() {
+        super.initialize();
+
+        this.keys = new ArrayList<>();
+        this.clockSkewMillis = TimeUnit.SECONDS.toMillis(clockSkew.asLong());
+
+        if (!secret.isBlank(true)) {
+            byte[] secretBytes = secret.value().getBytes(StandardCharsets.UTF_8);
+
+            if (secretBytes.length < MIN_SECRET_SIZE) {
+                LOGGER.log(Level.WARNING, "security.bearer.secret is shorter than {0} bytes, HS256 tokens can be brute forced.", MIN_SECRET_SIZE);
+            }
+
+            keys.add(new JsonWebKey(null, JwsAlgorithm.HS256, new SecretKeySpec(secretBytes, "HmacSHA256")));
+        }
+
+        if (!jwks.isBlank(true)) {
+            keys.addAll(JsonWebKey.parseSet(JsonCodec.provider().fromJson(readJwks(), JsonObject.class)));
+        }
+
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("Bearer token auth mechanism requires security.bearer.secret or security.bearer.jwks to be set.");
+        }
+
+        int maxSize = cacheSize.asInt();
+
+        this.cache = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verification> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (Objects.nonNull(cache)) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Verifies token, from cache if it was already verified and has not expired since.
+     *
+     * @param token Compact serialized JWT.
+     * @param now Current time in milliseconds.
+     * @return Identity built from token claims or null if token is invalid or expired.
+     */
+    Identity verify(String token, long now) {
+        synchronized (this) {
+            Verification verification = cache.get(token);
+
+            if (Objects.nonNull(verification)) {
+                if (verification.expiry > now) {
+                    return verification.identity;
+                }
+
+                cache.remove(token);
+                return null;
+            }
+        }
+
+        int payloadStart = token.indexOf('.') + 1;
+        int signatureStart = token.indexOf('.', payloadStart) + 1;
+
+        if (payloadStart == 0 || signatureStart == 0 || token.indexOf('.', signatureStart) != -1) {
+            return null;
+        }
+
+        try {
+            JsonObject header = decode(token.substring(0, payloadStart - 1));
+            JwsAlgorithm algorithm = JwsAlgorithm.of(header.getString("alg", null));
+            String kid = header.getString("kid", null);
+
+            if (Objects.isNull(algorithm)) {
+                return null;
+            }
+
+            byte[] content = token.substring(0, signatureStart - 1).getBytes(StandardCharsets.US_ASCII);
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(signatureStart));
+
+            if (!verifySignature(algorithm, kid, content, signature)) {
+                return null;
+            }
+
+            JsonObject claims = decode(token.substring(payloadStart, signatureStart - 1));
+            long expiry = validateClaims(claims, now);
+
+            if (expiry <= now) {
+                return null;
+            }
+
+            Identity identity = identity(claims);
+
+            if (Objects.nonNull(identity)) {
+                synchronized (this) {
+                    cache.put(token, new Verification(identity, expiry));
+                }
+            }
+
+            return identity;
+        } catch (RuntimeException e) {
+            // Malformed token, e.g. invalid Base64 or JSON or claims of unexpected type
+            LOGGER.log(Level.FINE, "Rejecting malformed bearer token, {0}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return Number of cached tokens.
+     */
+    synchronized int cached() {
+        return cache.size();
+    }
+
+    private boolean verifySignature(JwsAlgorithm algorithm, String kid, byte[] content, byte[] signature) {
+        for (JsonWebKey key : keys) {
+            if ((Objects.isNull(kid) || kid.equals(key.getKid())) && key.accepts(algorithm)) {
+                if (algorithm.verify(key.getKey(), content, signature)) {
+                    return true;
+                }
+
+                if (Objects.nonNull(kid)) {
+                    return false;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param claims Token claims.
+     * @param now Current time in milliseconds.
+     * @return Time until which token is valid, in milliseconds, or {@link Long#MIN_VALUE} if any claim is not valid.
+     */
+    private long validateClaims(JsonObject claims, long now) {
+        JsonNumber exp = claims.getJsonNumber("exp");
+        JsonNumber nbf = claims.getJsonNumber("nbf");
+
+        if (Objects.isNull(exp)) {
+            return Long.MIN_VALUE;
+        }
+
+        if (Objects.nonNull(nbf) && TimeUnit.SECONDS.toMillis(nbf.longValue()) - clockSkewMillis > now) {
+            return Long.MIN_VALUE;
+        }
+
+        if (!issuer.isBlank(true) && !issuer.value().equals(claims.getString("iss", null))) {
+            return Long.MIN_VALUE;
+        }
+
+        if (!audience.isBlank(true) && !strings(claims.get("aud")).contains(audience.value())) {
+            return Long.MIN_VALUE;
+        }
+
+        return TimeUnit.SECONDS.toMillis(exp.longValue()) + clockSkewMillis;
+    }
+
+    private Identity identity(JsonObject claims) {
+        String username = claims.getString(usernameClaim.value(), null);
+
+        if (Objects.isNull(username)) {
+            return null;
+        }
+
+        return new Identity<>(
+            strings(claims.get(groupsClaim.value())),
+            strings(claims.get(rolesClaim.value())),
+            claims,
+            username,
+            null,
+            realm.value()
+        );
+    }
+
+    private void challenge(HttpExchange exchange, String error) {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("WWW-Authenticate", "Bearer realm=\"" + realm.value() + "\"" + (Objects.nonNull(error) ? ", error=\"" + error + "\"" : ""));
+    }
+
+    private String readJwks() {
+        String value = jwks.value().trim();
+
+        if (value.startsWith("{")) {
+            return value;
+        }
+
+        try {
+            return Files.readString(jwks.asPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read JWKS from " + value + ".", e);
+        }
+    }
+
+    private static JsonObject decode(String part) {
+        return JsonCodec.provider().fromJson(new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8), JsonObject.class);
+    }
+
+    // Claim which is either an array of strings or a space separated string, e.g. OAuth scope
+    private static List<String> strings(JsonValue claim) {
+        if (claim instanceof JsonArray) {
+            return ((JsonArray) claim).getValuesAs(JsonString.class).stream()
+                .map(JsonString::getString)
+                .collect(Collectors.toUnmodifiableList());
+        }
+
+        if (claim instanceof JsonString) {
+            return Stream.of(((JsonString) claim).getString().split(" "))
+                .filter((value) -> !value.isEmpty())
+                .collect(Collectors.toUnmodifiableList());
+        }
+
+        return List.of();
+    }
+
+    private static final class Verification {
+
+        private final Identity identity;
+        private final long expiry;
+
+        private Verification(Identity identity, long expiry) {
+            this.identity = identity;
+            this.expiry = expiry;
+        }
+
+    }
+
+}
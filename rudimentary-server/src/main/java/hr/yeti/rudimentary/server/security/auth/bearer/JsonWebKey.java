@@ -0,0 +1,139 @@
+package hr.yeti.rudimentary.server.security.auth.bearer;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.crypto.spec.SecretKeySpec;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+
+/**
+ * Verification key parsed from JSON Web Key as defined by RFC 7517. Supported are symmetric <i>oct</i> keys for HS256,
+ * <i>RSA</i> public keys for RS256 and <i>EC</i> public keys on P-256 curve for ES256.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+final class JsonWebKey {
+
+    private static final Logger LOGGER = Logger.getLogger(JsonWebKey.class.getName());
+
+    private final String kid;
+    private final JwsAlgorithm algorithm;
+    private final Key key;
+
+    /**
+     * @param kid Key id, null if key has no id.
+     * @param algorithm Only algorithm key may be used with, null if it can be used with any algorithm accepting it.
+     * @param key Verification key.
+     */
+    JsonWebKey(String kid, JwsAlgorithm algorithm, Key key) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.key = key;
+    }
+
+    /**
+     * Parses JWK set. Keys which are not meant for signature verification or are not supported are skipped.
+     *
+     * @param jwks JWK set, object with <i>keys</i> array.
+     * @return Parsed keys.
+     */
+    static List<JsonWebKey> parseSet(JsonObject jwks) {
+        List<JsonWebKey> keys = new ArrayList<>();
+
+        for (JsonValue jwk : jwks.getJsonArray("keys")) {
+            JsonWebKey key = parse((JsonObject) jwk);
+
+            if (Objects.nonNull(key)) {
+                keys.add(key);
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * @param jwk JSON Web Key.
+     * @return Parsed key or null if it is not meant for signature verification or is not supported.
+     */
+    static JsonWebKey parse(JsonObject jwk) {
+        String kid = jwk.getString("kid", null);
+        String kty = jwk.getString("kty", "");
+        String alg = jwk.getString("alg", null);
+        JwsAlgorithm algorithm = JwsAlgorithm.of(alg);
+
+        if (!jwk.getString("use", "sig").equals("sig") || (Objects.nonNull(alg) && Objects.isNull(algorithm))) {
+            LOGGER.log(Level.FINE, "Skipping JWK {0}, it is not a supported signature verification key.", kid);
+            return null;
+        }
+
+        try {
+            switch (kty) {
+                case "oct":
+                    return new JsonWebKey(kid, algorithm, new SecretKeySpec(decode(jwk, "k"), "HmacSHA256"));
+                case "RSA":
+                    RSAPublicKeySpec rsa = new RSAPublicKeySpec(unsigned(jwk, "n"), unsigned(jwk, "e"));
+                    return new JsonWebKey(kid, algorithm, KeyFactory.getInstance("RSA").generatePublic(rsa));
+                case "EC":
+                    if (!jwk.getString("crv", "").equals("P-256")) {
+                        break;
+                    }
+
+                    AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                    parameters.init(new ECGenParameterSpec("secp256r1"));
+
+                    ECPublicKeySpec ec = new ECPublicKeySpec(
+                        new ECPoint(unsigned(jwk, "x"), unsigned(jwk, "y")),
+                        parameters.getParameterSpec(ECParameterSpec.class)
+                    );
+                    return new JsonWebKey(kid, algorithm, KeyFactory.getInstance("EC").generatePublic(ec));
+                default:
+                    break;
+            }
+        } catch (GeneralSecurityException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Skipping invalid JWK {0}, {1}", new Object[]{ kid, e.getMessage() });
+            return null;
+        }
+
+        LOGGER.log(Level.FINE, "Skipping JWK {0}, it is not a supported signature verification key.", kid);
+        return null;
+    }
+
+    String getKid() {
+        return kid;
+    }
+
+    Key getKey() {
+        return key;
+    }
+
+    /**
+     * @param algorithm Algorithm token was signed with.
+     * @return true if this key can verify tokens signed with the algorithm.
+     */
+    boolean accepts(JwsAlgorithm algorithm) {
+        return (Objects.isNull(this.algorithm) || this.algorithm == algorithm) && algorithm.accepts(key);
+    }
+
+    private static byte[] decode(JsonObject jwk, String member) {
+        return Base64.getUrlDecoder().decode(jwk.getString(member));
+    }
+
+    private static BigInteger unsigned(JsonObject jwk, String member) {
+        return new BigInteger(1, decode(jwk, member));
+    }
+
+}
@@ -0,0 +1,104 @@
+package hr.yeti.rudimentary.server.security.auth.bearer;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Objects;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+/**
+ * JWS signature algorithms supported by {@link BearerTokenAuthMechanism}. Each algorithm accepts only keys of its own
+ * type so a token can not switch verification to a different algorithm, e.g. HS256 with RSA public key as the secret.
+ *
+ * {@link Mac} and {@link Signature} are not thread safe and looking them up is not cheap, so every thread keeps its own
+ * instance per algorithm and only initializes it with the key of the token being verified.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+enum JwsAlgorithm {
+
+    HS256("HmacSHA256"),
+    RS256("SHA256withRSA"),
+    // JWS carries ECDSA signature as R and S concatenated, not DER encoded
+    ES256("SHA256withECDSAinP1363Format");
+
+    private final String jcaName;
+    private final ThreadLocal<Object> engine;
+
+    JwsAlgorithm(String jcaName) {
+        this.jcaName = jcaName;
+        this.engine = ThreadLocal.withInitial(this::createEngine);
+    }
+
+    /**
+     * @param name Value of JWS <i>alg</i> header.
+     * @return Algorithm or null if it is not supported.
+     */
+    static JwsAlgorithm of(String name) {
+        for (JwsAlgorithm algorithm : values()) {
+            if (algorithm.name().equals(name)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param key Key to check.
+     * @return true if key can be used to verify signatures created with this algorithm.
+     */
+    boolean accepts(Key key) {
+        switch (this) {
+            case HS256:
+                return key instanceof SecretKey;
+            case RS256:
+                return key instanceof RSAPublicKey;
+            case ES256:
+                return key instanceof ECPublicKey && ((ECPublicKey) key).getParams().getCurve().getField().getFieldSize() == 256;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param key Verification key, must be accepted by this algorithm.
+     * @param content Signed content, JWS header and payload.
+     * @param signature Signature to verify.
+     * @return true if signature is valid.
+     */
+    boolean verify(Key key, byte[] content, byte[] signature) {
+        if (!accepts(key) || Objects.isNull(signature)) {
+            return false;
+        }
+
+        try {
+            if (this == HS256) {
+                Mac mac = (Mac) engine.get();
+                mac.init(key);
+                return MessageDigest.isEqual(mac.doFinal(content), signature);
+            }
+
+            Signature verifier = (Signature) engine.get();
+            verifier.initVerify((PublicKey) key);
+            verifier.update(content);
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            // Malformed signature
+            return false;
+        }
+    }
+
+    private Object createEngine() {
+        try {
+            return this == HS256 ? Mac.getInstance(jcaName) : Signature.getInstance(jcaName);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(jcaName + " is not supported by this JVM.", e);
+        }
+    }
+
+}
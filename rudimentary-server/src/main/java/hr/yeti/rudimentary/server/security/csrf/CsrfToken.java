@@ -1,6 +1,6 @@
 package hr.yeti.rudimentary.server.security.csrf;
 
-import hr.yeti.rudimentary.server.crypto.Hash;
+import hr.yeti.rudimentary.server.crypto.TokenGenerator;
 import java.time.Instant;
 
 public class CsrfToken {
@@ -9,7 +9,12 @@ public class CsrfToken {
     private Instant created;
 
     public CsrfToken() {
-        this.value = Hash.generateRandomSHA256();
+        this.value = TokenGenerator.generate();
+        this.created = Instant.now();
+    }
+
+    public CsrfToken(String value) {
+        this.value = value;
         this.created = Instant.now();
     }
 
@@ -0,0 +1,136 @@
+package hr.yeti.rudimentary.server.security.csrf;
+
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.server.crypto.TokenGenerator;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Issues and verifies stateless CSRF tokens when <i>security.csrf.mode</i> is set to <i>signed</i>. Token carries
+ * time of issue and a random nonce signed with HmacSHA256 using <i>security.csrf.secret</i>, so server does not have
+ * to keep any tokens. Token is valid for <i>security.csrf.tokenTtl</i> seconds after it was issued.
+ *
+ * Signature also covers id of the session token was issued for, so token leaked or planted from another session is
+ * not accepted. Session id itself is not part of the token.
+ *
+ * If secret is not set, random one is generated on startup which means tokens are not valid after restart nor on
+ * other service instances.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
+public class CsrfTokenSigner implements Instance {
+
+    private static final Logger LOGGER = Logger.getLogger(CsrfTokenSigner.class.getName());
+
+    public static final String MODE = "signed";
+
+    private static final String HMAC = "HmacSHA256";
+    private static final int NONCE_SIZE = 16;
+
+    private ConfigProperty csrfEnabled = new ConfigProperty("security.csrf.enabled", "false");
+    private ConfigProperty csrfMode = new ConfigProperty("security.csrf.mode", CsrfTokenStore.MODE);
+    private ConfigProperty tokenTtl = new ConfigProperty("security.csrf.tokenTtl", "3600");
+    private ConfigProperty secret = new ConfigProperty("security.csrf.secret", "");
+
+    private SecretKeySpec key;
+    private long ttlSeconds;
+
+    @Override
+    public boolean conditional() {
+        return csrfEnabled.asBoolean() && csrfMode.value().equalsIgnoreCase(MODE);
+    }
+
+    @Override
+    public void initialize() {
+        String keyValue = secret.value();
+
+        if (secret.isBlank(true)) {
+            LOGGER.log(Level.WARNING, "security.csrf.secret is not set, CSRF tokens will not be valid after restart.");
+            keyValue = TokenGenerator.generate();
+        }
+
+        this.key = new SecretKeySpec(keyValue.getBytes(StandardCharsets.UTF_8), HMAC);
+        this.ttlSeconds = tokenTtl.asLong();
+    }
+
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class };
+    }
+
+    /**
+     * @param sessionId Id of the session token is issued for, null if request has no session.
+     * @return New signed token in form of <i>issuedAt.nonce.signature</i>.
+     */
+    public CsrfToken create(String sessionId) {
+        return create(sessionId, System.currentTimeMillis());
+    }
+
+    CsrfToken create(String sessionId, long now) {
+        String payload = TimeUnit.MILLISECONDS.toSeconds(now) + "." + TokenGenerator.generate(NONCE_SIZE);
+        return new CsrfToken(payload + "." + sign(payload, sessionId));
+    }
+
+    /**
+     * @param csrfToken CSRF token value.
+     * @param sessionId Id of the session request belongs to, null if request has no session.
+     * @return true if token was signed with the same secret for the same session and has not expired yet.
+     */
+    public boolean verify(String csrfToken, String sessionId) {
+        return verify(csrfToken, sessionId, System.currentTimeMillis());
+    }
+
+    boolean verify(String csrfToken, String sessionId, long now) {
+        if (Objects.isNull(csrfToken)) {
+            return false;
+        }
+
+        int signatureStart = csrfToken.lastIndexOf('.');
+        int nonceStart = csrfToken.indexOf('.');
+
+        if (nonceStart <= 0 || signatureStart == nonceStart) {
+            return false;
+        }
+
+        String payload = csrfToken.substring(0, signatureStart);
+        byte[] signature = csrfToken.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+
+        if (!MessageDigest.isEqual(signature, sign(payload, sessionId).getBytes(StandardCharsets.US_ASCII))) {
+            return false;
+        }
+
+        try {
+            long issuedAt = Long.parseLong(csrfToken.substring(0, nonceStart));
+            return TimeUnit.MILLISECONDS.toSeconds(now) - issuedAt < ttlSeconds;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private String sign(String payload, String sessionId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            byte[] session = Objects.toString(sessionId, "").getBytes(StandardCharsets.UTF_8);
+
+            // Session id is length prefixed so different session id and payload pairs never sign the same bytes
+            mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(session.length).array());
+            mac.update(session);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
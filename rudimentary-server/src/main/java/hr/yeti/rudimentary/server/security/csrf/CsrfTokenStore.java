@@ -1,34 +1,128 @@
 package hr.yeti.rudimentary.server.security.csrf;
 
+import hr.yeti.rudimentary.config.ConfigProperty;
+import hr.yeti.rudimentary.config.spi.Config;
 import hr.yeti.rudimentary.context.spi.Instance;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Keeps issued CSRF tokens when <i>security.csrf.mode</i> is set to <i>store</i>. Token expires once it was not used
+ * for <i>security.csrf.tokenTtl</i> seconds and at most <i>security.csrf.maxTokens</i> tokens are kept, least
+ * recently used token is dropped to make room for a new one.
+ *
+ * Tokens are kept in access order so the least recently used one, which is also the first to expire, is always at the
+ * head. Expired tokens are dropped lazily whenever a token is created or checked and by a background sweep, both stop at
+ * the first token which is still valid.
+ *
+ * @author vedransmid@yeti-it.hr
+ */
 public class CsrfTokenStore implements Instance {
 
-    private Map<String, CsrfToken> store;
+    public static final String MODE = "store";
+
+    private ConfigProperty csrfEnabled = new ConfigProperty("security.csrf.enabled", "false");
+    private ConfigProperty csrfMode = new ConfigProperty("security.csrf.mode", MODE);
+    private ConfigProperty tokenTtl = new ConfigProperty("security.csrf.tokenTtl", "3600");
+    private ConfigProperty maxTokens = new ConfigProperty("security.csrf.maxTokens", "100000");
+
+    // Guarded by this, token mapped to its expiry time
+    private Map<String, Long> store;
+
+    private long ttlMillis;
+    private ScheduledExecutorService sweeper;
+
+    @Override
+    public boolean conditional() {
+        return csrfEnabled.asBoolean() && csrfMode.value().equalsIgnoreCase(MODE);
+    }
 
     @Override
     public void initialize() {
-        this.store = new ConcurrentHashMap();
+        int max = maxTokens.asInt();
+
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(tokenTtl.asLong());
+        this.store = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > max;
+            }
+        };
+
+        long sweepInterval = Math.max(1_000, ttlMillis / 4);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor((task) -> {
+            Thread thread = new Thread(task, "rudimentary-csrf-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(() -> removeExpired(System.currentTimeMillis()), sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
     }
 
     @Override
-    public void destroy() {
+    public synchronized void destroy() {
+        if (Objects.nonNull(sweeper)) {
+            sweeper.shutdownNow();
+        }
+
         this.store.clear();
     }
 
-    public void remove(String csrfToken) {
+    @Override
+    public Class[] dependsOn() {
+        return new Class[]{ Config.class };
+    }
+
+    public synchronized void remove(String csrfToken) {
         store.remove(csrfToken);
     }
 
-    public CsrfToken create() {
+    public synchronized CsrfToken create() {
+        long now = System.currentTimeMillis();
+        removeExpired(now);
+
         CsrfToken csrfToken = new CsrfToken();
-        store.put(csrfToken.getValue(), csrfToken);
+        store.put(csrfToken.getValue(), now + ttlMillis);
         return csrfToken;
     }
 
-    public boolean contains(String csrfToken) {
-        return store.containsKey(csrfToken);
+    /**
+     * Checks whether token was issued and has not expired yet, valid token's expiry is extended.
+     *
+     * @param csrfToken CSRF token value.
+     * @return true if token is valid.
+     */
+    public synchronized boolean contains(String csrfToken) {
+        long now = System.currentTimeMillis();
+        removeExpired(now);
+
+        if (Objects.isNull(csrfToken) || !store.containsKey(csrfToken)) {
+            return false;
+        }
+
+        store.put(csrfToken, now + ttlMillis);
+        return true;
     }
+
+    /**
+     * @return Number of currently valid tokens.
+     */
+    public synchronized int size() {
+        removeExpired(System.currentTimeMillis());
+        return store.size();
+    }
+
+    synchronized void removeExpired(long now) {
+        Iterator<Long> expiries = store.values().iterator();
+
+        while (expiries.hasNext() && expiries.next() <= now) {
+            expiries.remove();
+        }
+    }
+
 }
@@ -7,16 +7,19 @@ import hr.yeti.rudimentary.http.Cookie;
 import hr.yeti.rudimentary.http.HttpMethod;
 import hr.yeti.rudimentary.http.HttpRequestUtils;
 import hr.yeti.rudimentary.http.filter.spi.HttpFilter;
+import hr.yeti.rudimentary.http.session.Session;
 import java.io.IOException;
 import java.net.HttpCookie;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.EnumSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 public class CsrfTokenValidationFilter extends HttpFilter {
 
     private ConfigProperty csrfEnabled = new ConfigProperty("security.csrf.enabled");
+    private ConfigProperty csrfMode = new ConfigProperty("security.csrf.mode", CsrfTokenStore.MODE);
     private ConfigProperty csrfTokenHttpHeaderName = new ConfigProperty("security.csrf.tokenHttpHeaderName");
     private ConfigProperty csrfTokenCookieName = new ConfigProperty("security.csrf.tokenCookieName");
 
@@ -30,47 +33,85 @@ public class CsrfTokenValidationFilter extends HttpFilter {
         return 30;
     }
 
+    @Override
+    public void initialize() {
+        // Otherwise neither token store nor signer is loaded and every request fails
+        if (!csrfMode.value().equalsIgnoreCase(CsrfTokenStore.MODE) && !csrfMode.value().equalsIgnoreCase(CsrfTokenSigner.MODE)) {
+            throw new IllegalStateException(
+                "security.csrf.mode must be either " + CsrfTokenStore.MODE + " or " + CsrfTokenSigner.MODE + ", was " + csrfMode.value() + "."
+            );
+        }
+    }
+
     @Override
     public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
-        boolean csrfValid = false;
         Map<String, HttpCookie> cookies = HttpRequestUtils.parseCookies(exchange.getRequestHeaders());
+        String sessionId = cookies.containsKey(Session.COOKIE) ? cookies.get(Session.COOKIE).getValue() : null;
 
         // If CSRF token cookie is absent from the request then we provide one 
         // in response but we stop the process at this stage.
         if (!cookies.containsKey(csrfTokenCookieName.value())) {
-            CsrfToken csrfToken = Instance.of(CsrfTokenStore.class).create();
-
-            HttpCookie cookie = new HttpCookie(csrfTokenCookieName.value(), csrfToken.getValue());
-            cookie.setHttpOnly(false);
-            cookie.setMaxAge(-1);
-
-            exchange.getResponseHeaders().add("Set-Cookie", new Cookie(cookie).toString());
+            issueToken(exchange, sessionId);
             //clearly identify an initial response providing the initial CSRF token.
-            exchange.sendResponseHeaders(204, 0);
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
             return;
         }
 
+        String cookieToken = cookies.get(csrfTokenCookieName.value()).getValue();
+        boolean safeMethod = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE)
+            .contains(HttpMethod.valueOf(exchange.getRequestMethod()));
+
+        // Expired, unknown or other session's token is replaced, state changing request has to be repeated with the new
+        // one.
+        if (!isValid(cookieToken, sessionId)) {
+            issueToken(exchange, sessionId);
+
+            if (!safeMethod) {
+                exchange.sendResponseHeaders(403, -1);
+                exchange.close();
+                return;
+            }
+        }
+
         // Skip for non state changing requests.
-        if (EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE)
-            .contains(HttpMethod.valueOf(exchange.getRequestMethod()))) {
+        if (safeMethod) {
             chain.doFilter(exchange);
             return;
         }
 
-        List<String> csrfHttpHeader = exchange.getRequestHeaders().get(csrfTokenHttpHeaderName.value());
+        String headerToken = exchange.getRequestHeaders().getFirst(csrfTokenHttpHeaderName.value());
 
-        if (Objects.nonNull(csrfHttpHeader) || !csrfHttpHeader.isEmpty()) {
-            csrfValid = csrfHttpHeader.get(0).equals(cookies.get(csrfTokenCookieName.value()).getValue());
-        }
+        boolean csrfValid = Objects.nonNull(headerToken) && MessageDigest.isEqual(
+            headerToken.getBytes(StandardCharsets.UTF_8),
+            cookieToken.getBytes(StandardCharsets.UTF_8)
+        );
 
         if (!csrfValid) {
-            exchange.sendResponseHeaders(403, 0);
+            exchange.sendResponseHeaders(403, -1);
+            exchange.close();
             return;
         }
 
         chain.doFilter(exchange);
     }
 
+    private void issueToken(HttpExchange exchange, String sessionId) {
+        CsrfTokenSigner csrfTokenSigner = Instance.of(CsrfTokenSigner.class);
+        CsrfToken csrfToken = Objects.nonNull(csrfTokenSigner) ? csrfTokenSigner.create(sessionId) : Instance.of(CsrfTokenStore.class).create();
+
+        HttpCookie cookie = new HttpCookie(csrfTokenCookieName.value(), csrfToken.getValue());
+        cookie.setHttpOnly(false);
+        cookie.setMaxAge(-1);
+
+        exchange.getResponseHeaders().add("Set-Cookie", new Cookie(cookie).toString());
+    }
+
+    private boolean isValid(String csrfToken, String sessionId) {
+        CsrfTokenSigner csrfTokenSigner = Instance.of(CsrfTokenSigner.class);
+        return Objects.nonNull(csrfTokenSigner) ? csrfTokenSigner.verify(csrfToken, sessionId) : Instance.of(CsrfTokenStore.class).contains(csrfToken);
+    }
+
     @Override
     public String description() {
         return "Filter which validates CSRF token.";
@@ -78,7 +119,7 @@ public class CsrfTokenValidationFilter extends HttpFilter {
 
     @Override
     public Class[] dependsOn() {
-        return new Class[]{ CsrfTokenStore.class };
+        return new Class[]{ CsrfTokenStore.class, CsrfTokenSigner.class };
     }
 
 }
@@ -1,7 +1,6 @@
 package hr.yeti.rudimentary.server.test;
 
-import com.sun.net.httpserver.HttpContext;
-import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.Filter;
 import hr.yeti.rudimentary.config.spi.Config;
 import hr.yeti.rudimentary.context.spi.Context;
 import hr.yeti.rudimentary.context.spi.Instance;
@@ -9,17 +8,26 @@ import hr.yeti.rudimentary.events.EventPublisher;
 import hr.yeti.rudimentary.events.spi.EventListener;
 import hr.yeti.rudimentary.exception.spi.ExceptionHandler;
 import hr.yeti.rudimentary.http.URIUtils;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
 import hr.yeti.rudimentary.http.filter.spi.HttpFilter;
 import hr.yeti.rudimentary.http.spi.HttpEndpoint;
 import hr.yeti.rudimentary.interceptor.spi.AfterInterceptor;
 import hr.yeti.rudimentary.interceptor.spi.BeforeInterceptor;
+import hr.yeti.rudimentary.json.JsonbJsonCodec;
 import hr.yeti.rudimentary.mvc.spi.ViewEndpoint;
 import hr.yeti.rudimentary.mvc.spi.ViewEngine;
 import hr.yeti.rudimentary.security.spi.AuthMechanism;
 import hr.yeti.rudimentary.security.spi.IdentityDetails;
 import hr.yeti.rudimentary.security.spi.IdentityStore;
+import hr.yeti.rudimentary.server.ServerStartupException;
+import hr.yeti.rudimentary.server.engine.HttpEngine;
+import hr.yeti.rudimentary.server.engine.JdkHttpEngine;
+import hr.yeti.rudimentary.server.engine.nio.NioHttpEngine;
 import hr.yeti.rudimentary.server.http.HttpEndpointContextProvider;
+import hr.yeti.rudimentary.server.http.executor.FixedThreadPoolRequestExecutor;
+import hr.yeti.rudimentary.server.http.executor.VirtualThreadRequestExecutor;
 import hr.yeti.rudimentary.server.http.processor.HttpProcessor;
+import hr.yeti.rudimentary.server.http.session.TimingWheelSessionStore;
 import hr.yeti.rudimentary.server.mvc.DefaultStaticHTMLViewEngine;
 import hr.yeti.rudimentary.shutdown.spi.ShutdownHook;
 import hr.yeti.rudimentary.sql.spi.BasicDataSource;
@@ -27,8 +35,10 @@ import hr.yeti.rudimentary.test.ContextMock;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.security.GeneralSecurityException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -36,6 +46,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class TestServer {
 
@@ -52,14 +63,36 @@ public class TestServer {
     }
 
     public void start() {
-        builder.server.start();
+        try {
+            builder.httpEngine.start(
+                new InetSocketAddress(Config.provider().property("server.port").asInt()),
+                Config.provider().property("server.backlog").asInt(),
+                Instance.of(RequestExecutor.class),
+                Instance.of(HttpProcessor.class),
+                Objects.nonNull(builder.authMechanism) ? Instance.of(AuthMechanism.class) : null,
+                builder.chainHttpFilters ? httpFilters() : List.of()
+            );
+        } catch (IOException | GeneralSecurityException e) {
+            throw new ServerStartupException(e.getMessage(), e);
+        }
+    }
+
+    private List<Filter> httpFilters() {
+        return Instance.providersOf(HttpFilter.class)
+            .stream()
+            .sorted(Comparator.comparingInt(HttpFilter::order))
+            .collect(Collectors.toList());
     }
 
     public void stop() {
-        builder.getServer().stop(Config.provider().property("server.stopDelay").asInt());
+        builder.getHttpEngine().stop(Config.provider().property("server.stopDelay").asInt());
         portsBound.remove(Config.provider().property("server.port").asInt());
     }
 
+    public HttpEngine getHttpEngine() {
+        return builder.getHttpEngine();
+    }
+
     public URI buildUri(String uri) {
         URI resolvedUri = URIUtils.removeSlashPrefix(URI.create(uri));
         return URI.create("http://localhost:" + Config.provider().value("server.port") + "/" + resolvedUri.toString());
@@ -73,6 +106,7 @@ public class TestServer {
         private Map<String, String> config = new HashMap<>() {
             {
                 put("server.threadPoolSize", "10");
+                put("server.backlog", "0");
                 put("server.stopDelay", "0");
                 put("mvc.templatesDir", "view");
                 put("mvc.staticResourcesDir", "static");
@@ -83,6 +117,12 @@ public class TestServer {
             {
                 add(HttpProcessor.class);
                 add(HttpEndpointContextProvider.class);
+                add(FixedThreadPoolRequestExecutor.class);
+                add(VirtualThreadRequestExecutor.class);
+                add(JdkHttpEngine.class);
+                add(NioHttpEngine.class);
+                add(JsonbJsonCodec.class);
+                add(TimingWheelSessionStore.class);
             }
         };
         private List<Class<? extends HttpEndpoint>> httpEndpoints = new ArrayList<>();
@@ -99,9 +139,9 @@ public class TestServer {
         private Class<? extends ViewEngine> viewEngine;
         private Class<? extends ExceptionHandler> exceptionHandler;
         private Class<? extends ShutdownHook> shutdownHook;
+        private boolean chainHttpFilters;
 
-        private HttpServer server;
-        private HttpContext httpContext;
+        private HttpEngine httpEngine;
 
         public Builder config(Map<String, String> config) {
             this.config.putAll(config);
@@ -158,6 +198,12 @@ public class TestServer {
             return this;
         }
 
+        // Registered http filters are only available in context unless they are chained in front of http processor.
+        public Builder chainHttpFilters(boolean chainHttpFilters) {
+            this.chainHttpFilters = chainHttpFilters;
+            return this;
+        }
+
         public Builder afterInterceptors(Class<? extends ExceptionHandler> exceptionHandler) {
             this.exceptionHandler = exceptionHandler;
             return this;
@@ -289,19 +335,7 @@ public class TestServer {
                 );
             }
 
-            try {
-                server = HttpServer.create(
-                    new InetSocketAddress(Config.provider().property("server.port").asInt()),
-                    Config.provider().property("server.threadPoolSize").asInt()
-                );
-            } catch (IOException e) {
-
-            }
-
-            httpContext = server.createContext("/", Instance.of(HttpProcessor.class));
-            if (Objects.nonNull(authMechanism)) {
-                httpContext.setAuthenticator(Instance.of(AuthMechanism.class));
-            }
+            httpEngine = Instance.of(HttpEngine.class);
 
             return new TestServer(this);
         }
@@ -324,8 +358,8 @@ public class TestServer {
             return context;
         }
 
-        public HttpServer getServer() {
-            return server;
+        public HttpEngine getHttpEngine() {
+            return httpEngine;
         }
 
     }
@@ -8,8 +8,12 @@ module hr.yeti.rudimentary.server {
     exports hr.yeti.rudimentary.server;
     exports hr.yeti.rudimentary.server.crypto;
     exports hr.yeti.rudimentary.server.test;    
+    exports hr.yeti.rudimentary.server.engine;
+    exports hr.yeti.rudimentary.server.engine.nio;
     exports hr.yeti.rudimentary.server.http to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.http.processor to hr.yeti.rudimentary.api;
+    exports hr.yeti.rudimentary.server.http.executor to hr.yeti.rudimentary.api;
+    exports hr.yeti.rudimentary.server.http.compression to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.http.staticresources to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.sql to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.security.csrf to hr.yeti.rudimentary.api;
@@ -17,6 +21,7 @@ module hr.yeti.rudimentary.server {
     exports hr.yeti.rudimentary.server.security.identitystore.embedded to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.security.auth.basic to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.security.auth.loginform to hr.yeti.rudimentary.api;
+    exports hr.yeti.rudimentary.server.security.auth.bearer to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.http.session to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.http.session.listener to hr.yeti.rudimentary.api;
     exports hr.yeti.rudimentary.server.mvc to hr.yeti.rudimentary.api;
@@ -23,7 +23,9 @@ import hr.yeti.rudimentary.validation.Constraint;
 import hr.yeti.rudimentary.validation.Constraints;
 import java.net.URI;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import javax.json.JsonArrayBuilder;
 
 public class _HttpEndpoints {
 
@@ -102,6 +104,20 @@ public class _HttpEndpoints {
 
     }
 
+    public static class UnserializablePojoResponseEndpoint implements HttpEndpoint<Empty, _Models._UnserializableModel> {
+
+        @Override
+        public URI path() {
+            return URI.create("unserializablepojoresponse");
+        }
+
+        @Override
+        public _Models._UnserializableModel response(Request<Empty> request) {
+            return new _Models._UnserializableModel();
+        }
+
+    }
+
     public static class PojoRequestEndpoint implements HttpEndpoint<_Models._CarModel, Empty> {
 
         @Override
@@ -340,6 +356,47 @@ public class _HttpEndpoints {
 
     }
 
+    public static class LargeJsonArrayResponseEndpoint implements HttpEndpoint<Empty, Json> {
+
+        @Override
+        public URI path() {
+            return URI.create("largejsonarrayresponse");
+        }
+
+        @Override
+        public Json response(Request<Empty> request) {
+            request.getHttpExchange().getResponseHeaders().set("ETag", "\"cars\"");
+            JsonArrayBuilder cars = javax.json.Json.createArrayBuilder();
+
+            for (int i = 0; i < 1000; i++) {
+                cars.add(javax.json.Json.createObjectBuilder().add("manufacturer", "Mazda" + i));
+            }
+
+            return new Json(cars.build());
+        }
+
+    }
+
+    public static class SeekableByteStreamResponseEndpoint implements HttpEndpoint<Empty, ByteStream> {
+
+        public static final byte[] ALPHABET = "abcdefghijklmnopqrstuvwxyz".getBytes();
+
+        @Override
+        public URI path() {
+            return URI.create("seekablebytestreamresponse");
+        }
+
+        @Override
+        public ByteStream response(Request<Empty> request) {
+            request.getHttpExchange().getResponseHeaders().set("ETag", "\"alphabet\"");
+
+            return new ByteStream(ALPHABET.length, (outputStream, offset, length) -> {
+                outputStream.write(ALPHABET, (int) offset, (int) length);
+            });
+        }
+
+    }
+
     public static class GlobalExceptionHandlerEndpoint implements HttpEndpoint<Empty, Empty> {
 
         @Override
@@ -570,4 +627,82 @@ public class _HttpEndpoints {
 
     }
 
+    public static class StaticRoutingEndpoint implements HttpEndpoint<Empty, Text> {
+
+        @Override
+        public URI path() {
+            return URI.create("routing/static");
+        }
+
+        @Override
+        public Text response(Request<Empty> request) {
+            return new Text("static");
+        }
+
+    }
+
+    public static class LazyAuthorizedEndpoint implements HttpEndpoint<Empty, Text> {
+
+        private Predicate<Request> rules = (request) -> false;
+
+        @Override
+        public void initialize() {
+            rules = (request) -> true;
+        }
+
+        @Override
+        public boolean lazy() {
+            return true;
+        }
+
+        @Override
+        public URI path() {
+            return URI.create("lazyauthorized");
+        }
+
+        @Override
+        public Predicate<Request> authorizations() {
+            return rules;
+        }
+
+        @Override
+        public Text response(Request<Empty> request) {
+            return new Text("authorized");
+        }
+
+    }
+
+    public static class PathVariableRoutingEndpoint implements HttpEndpoint<Empty, Text> {
+
+        @Override
+        public URI path() {
+            return URI.create("routing/:id");
+        }
+
+        @Override
+        public Text response(Request<Empty> request) {
+            return new Text(String.valueOf(request.getPathVariables().get("id")));
+        }
+
+    }
+
+    public static class PathVariablePostRoutingEndpoint implements HttpEndpoint<Empty, Text> {
+
+        @Override
+        public URI path() {
+            return URI.create("routing/:name");
+        }
+
+        @Override
+        public HttpMethod httpMethod() {
+            return HttpMethod.POST;
+        }
+
+        @Override
+        public Text response(Request<Empty> request) {
+            return new Text(String.valueOf(request.getPathVariables().get("name")));
+        }
+
+    }
+
 }
@@ -98,4 +98,23 @@ public class _Interceptors {
         }
 
     }
+
+    public static class BeforeInterceptorForQuery implements BeforeInterceptor {
+
+        @Override
+        public int order() {
+            return 3;
+        }
+
+        @Override
+        public String applyToURI() {
+            return "debug=true";
+        }
+
+        @Override
+        public void intercept(Request request) {
+            System.out.print("query");
+        }
+
+    }
 }
@@ -54,6 +54,18 @@ public class _Models {
 
     }
 
+    public static class _UnserializableModel extends Model {
+
+        public String getDescription() {
+            return "a".repeat(65536);
+        }
+
+        public String getOwner() {
+            throw new IllegalStateException("Owner is not available.");
+        }
+
+    }
+
     public static class BlogPost extends Model implements Event {
 
         public String text;
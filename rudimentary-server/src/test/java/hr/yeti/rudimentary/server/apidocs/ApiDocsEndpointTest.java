@@ -1,5 +1,6 @@
 package hr.yeti.rudimentary.server.apidocs;
 
+import hr.yeti.rudimentary.context.spi.Context;
 import hr.yeti.rudimentary.http.MediaType;
 import hr.yeti.rudimentary.server.test.TestServer;
 import java.io.IOException;
@@ -9,6 +10,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import org.junit.jupiter.api.AfterAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -37,6 +39,9 @@ public class ApiDocsEndpointTest {
         HttpRequest GET = HttpRequest.newBuilder(uri).build();
         HttpResponse<String> response;
 
+        expect: // Endpoint is lazy
+        assertFalse(Context.getInitializedInstances().contains(ApiDocsEndpoint.class.getCanonicalName()));
+
         when:
         response = HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofString());
 
@@ -44,6 +49,7 @@ public class ApiDocsEndpointTest {
         assertEquals(200, response.statusCode());
         assertEquals(MediaType.TEXT_HTML, response.headers().firstValue("content-type").get());
         assertTrue(response.body().contains("<tr><td>GET</td><td>/_apidocs</td><td>200</td><td>Shows API documentation in HTML format.</td></tr>"));
+        assertTrue(Context.getInitializedInstances().contains(ApiDocsEndpoint.class.getCanonicalName()));
     }
 
 }
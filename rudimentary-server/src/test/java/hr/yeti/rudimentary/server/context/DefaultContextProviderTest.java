@@ -0,0 +1,115 @@
+package hr.yeti.rudimentary.server.context;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.server._Instances;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DefaultContextProviderTest {
+
+    Path dir;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        dir = Files.createTempDirectory("rudimentary-index");
+    }
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach((file) -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_should_instantiate_indexed_providers() throws IOException {
+        List<Instance> providers;
+
+        // setup:
+        writeIndex("# Generated\n\n" + _Instances.SimpleInstance.class.getName() + "\n");
+        register(_Instances.SimpleInstance.class.getName() + "\n");
+
+        when:
+        providers = DefaultContextProvider.loadProviderIndex(classLoader(DefaultContextProviderTest.class.getClassLoader()));
+
+        then:
+        assertEquals(1, providers.size());
+        assertTrue(providers.get(0) instanceof _Instances.SimpleInstance);
+    }
+
+    @Test
+    public void test_should_return_null_if_there_is_no_index() throws IOException {
+        expect:
+        assertNull(DefaultContextProvider.loadProviderIndex(classLoader(null)));
+    }
+
+    @Test
+    public void test_should_return_null_if_index_is_stale() throws IOException {
+        // setup:
+        writeIndex(_Instances.SimpleInstance.class.getName() + "\nhr.yeti.rudimentary.server.Removed\n");
+        register(_Instances.SimpleInstance.class.getName() + "\n");
+
+        expect:
+        assertNull(DefaultContextProvider.loadProviderIndex(classLoader(DefaultContextProviderTest.class.getClassLoader())));
+    }
+
+    @Test
+    public void test_should_return_null_if_registered_provider_is_not_indexed() throws IOException {
+        // setup:
+        writeIndex(_Instances.SimpleInstance.class.getName() + "\n");
+        register(_Instances.SimpleInstance.class.getName() + "\nhr.yeti.rudimentary.server.Added # Added later\n");
+
+        expect:
+        assertNull(DefaultContextProvider.loadProviderIndex(classLoader(DefaultContextProviderTest.class.getClassLoader())));
+    }
+
+    @Test
+    public void test_should_read_spi_list() {
+        // setup:
+        List<String> spis;
+
+        when:
+        spis = DefaultContextProvider.readSpiList();
+
+        then:
+        assertEquals("hr.yeti.rudimentary.interceptor.spi.AfterInterceptor", spis.get(0));
+        assertEquals(Instance.class.getName(), spis.get(spis.size() - 1));
+    }
+
+    private void writeIndex(String content) throws IOException {
+        Path index = dir.resolve(DefaultContextProvider.PROVIDER_INDEX);
+        Files.createDirectories(index.getParent());
+        Files.write(index, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void register(String content) throws IOException {
+        Path services = dir.resolve("META-INF/services/" + Instance.class.getName());
+        Files.createDirectories(services.getParent());
+        Files.write(services, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Only providers registered in the test directory are visible, classes are still loaded by the parent
+    private ClassLoader classLoader(ClassLoader parent) throws IOException {
+        return new URLClassLoader(new URL[]{ dir.toUri().toURL() }, parent) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                return findResources(name);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,62 @@
+package hr.yeti.rudimentary.server.crypto;
+
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenGeneratorTest {
+
+    @Test
+    public void test_generate_url_safe_token() {
+        // setup:
+        String token;
+
+        when:
+        token = TokenGenerator.generate();
+
+        then:
+        assertEquals(43, token.length());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(TokenGenerator.DEFAULT_SIZE, Base64.getUrlDecoder().decode(token).length);
+    }
+
+    @Test
+    public void test_generate_token_of_given_size() {
+        expect:
+        assertEquals(16, Base64.getUrlDecoder().decode(TokenGenerator.generate(16)).length);
+        assertThrows(IllegalArgumentException.class, () -> TokenGenerator.generate(8));
+    }
+
+    @Test
+    public void test_generate_unique_tokens() throws InterruptedException {
+        // setup:
+        Set<String> tokens = new HashSet<>();
+        Thread[] threads = new Thread[4];
+
+        when:
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    String token = TokenGenerator.generate();
+
+                    synchronized (tokens) {
+                        tokens.add(token);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        then:
+        assertEquals(40_000, tokens.size());
+    }
+
+}
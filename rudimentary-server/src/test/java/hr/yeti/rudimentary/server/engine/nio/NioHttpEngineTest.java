@@ -0,0 +1,280 @@
+package hr.yeti.rudimentary.server.engine.nio;
+
+import hr.yeti.rudimentary.config.spi.Config;
+import hr.yeti.rudimentary.server._HttpEndpoints;
+import hr.yeti.rudimentary.server.http.staticresources.StaticResourcesEndpoint;
+import hr.yeti.rudimentary.server.security.auth.basic.BasicAuthMechanism;
+import hr.yeti.rudimentary.server.security.identitystore.embedded.EmbeddedIdentityStore;
+import hr.yeti.rudimentary.server.test.TestServer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class NioHttpEngineTest {
+
+    static TestServer testServer;
+    static HttpClient httpClient;
+
+    @BeforeAll
+    public static void beforeAll() {
+        testServer = TestServer.newBuilder()
+            .config(
+                Map.of(
+                    "server.engine", "nio",
+                    "security.basic.enabled", "true",
+                    "security.realm", "embedded",
+                    "security.identityStore.embedded.identities", "vsmid:pass:admins:rookie:email=vsmid@gmail.com,city=Zagreb;",
+                    "security.urisRequiringAuthentication", "auth",
+                    "security.urisNotRequiringAuthentication", "",
+                    "mvc.staticResourcesPath", "src/test/resources/static"
+                )
+            )
+            .authMechanism(BasicAuthMechanism.class, EmbeddedIdentityStore.class, null)
+            .httpEndpoints(
+                _HttpEndpoints.TextResponseEndpoint.class,
+                _HttpEndpoints.JsonResponseEndpoint.class,
+                _HttpEndpoints.UnserializablePojoResponseEndpoint.class,
+                _HttpEndpoints.PojoRequestEndpoint.class,
+                _HttpEndpoints.ByteStreamResponseEndpoint.class,
+                _HttpEndpoints.AuthMechanismEndpoint.class,
+                StaticResourcesEndpoint.class
+            )
+            .build();
+        testServer.start();
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        testServer.stop();
+    }
+
+    @Test
+    public void test_nio_engine_is_used() {
+        expect:
+        assertTrue(testServer.getHttpEngine() instanceof NioHttpEngine);
+    }
+
+    @Test
+    public void test_text_response() throws IOException, InterruptedException {
+        // setup:
+        HttpRequest GET = HttpRequest.newBuilder(testServer.buildUri("textresponse")).GET().build();
+        HttpResponse<String> response;
+
+        when:
+        response = httpClient.send(GET, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("hello world.", response.body());
+        assertTrue(response.headers().firstValue("Date").isPresent());
+    }
+
+    @Test
+    public void test_json_response() throws IOException, InterruptedException {
+        // setup:
+        HttpRequest GET = HttpRequest.newBuilder(testServer.buildUri("jsonresponse")).GET().build();
+        HttpResponse<String> response;
+
+        when:
+        response = httpClient.send(GET, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"name\":\"lena\"}", response.body());
+    }
+
+    @Test
+    public void test_json_response_failing_after_headers_are_sent_is_incomplete() {
+        // setup:
+        HttpRequest GET = HttpRequest.newBuilder(testServer.buildUri("unserializablepojoresponse")).build();
+
+        expect:
+        assertThrows(IOException.class, () -> httpClient.send(GET, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    @Test
+    public void test_pojo_request() throws IOException, InterruptedException {
+        // setup:
+        HttpRequest POST = HttpRequest.newBuilder(testServer.buildUri("pojorequest"))
+            .POST(HttpRequest.BodyPublishers.ofString("{\"manufacturer\":\"Mazda\"}"))
+            .header("Content-Type", "application/json")
+            .build();
+        HttpResponse<String> response;
+
+        when:
+        response = httpClient.send(POST, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+    }
+
+    @Test
+    public void test_chunked_request_and_response() throws IOException, InterruptedException {
+        // setup:
+        HttpRequest POST = HttpRequest.newBuilder(testServer.buildUri("bytestreamresponse"))
+            .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream("streamed".getBytes())))
+            .build();
+        HttpResponse<String> response;
+
+        when:
+        response = httpClient.send(POST, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("streamed", response.body());
+    }
+
+    @Test
+    public void test_fixed_length_request_larger_than_read_buffer() throws IOException, InterruptedException {
+        // setup:
+        String content = "a".repeat(20000);
+        HttpRequest POST = HttpRequest.newBuilder(testServer.buildUri("bytestreamresponse"))
+            .POST(HttpRequest.BodyPublishers.ofString(content))
+            .build();
+        HttpResponse<String> response;
+
+        when:
+        response = httpClient.send(POST, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals(content, response.body());
+    }
+
+    @Test
+    public void test_report_http_status_404_and_405() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> notFound;
+        HttpResponse<String> methodNotAllowed;
+
+        when:
+        notFound = httpClient.send(
+            HttpRequest.newBuilder(testServer.buildUri("unknown")).GET().build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        methodNotAllowed = httpClient.send(
+            HttpRequest.newBuilder(testServer.buildUri("textresponse")).DELETE().build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+
+        then:
+        assertEquals(404, notFound.statusCode());
+        assertEquals(405, methodNotAllowed.statusCode());
+    }
+
+    @Test
+    public void test_basic_auth() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("auth");
+        HttpResponse<String> authenticated;
+        HttpResponse<String> unauthenticated;
+
+        when:
+        authenticated = httpClient.send(
+            HttpRequest.newBuilder(uri).GET().header("Authorization", "Basic " + Base64.getEncoder().encodeToString("vsmid:pass".getBytes())).build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        unauthenticated = httpClient.send(
+            HttpRequest.newBuilder(uri).GET().header("Authorization", "Basic " + Base64.getEncoder().encodeToString("vsmid:wrong".getBytes())).build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+
+        then:
+        assertEquals(200, authenticated.statusCode());
+        assertTrue(authenticated.body().startsWith("Identity{username=vsmid"));
+        assertEquals(401, unauthenticated.statusCode());
+    }
+
+    @Test
+    public void test_file_transfer() throws IOException, InterruptedException {
+        // setup:
+        HttpRequest GET = HttpRequest.newBuilder(testServer.buildUri("static/yeti.png")).GET().build();
+        HttpResponse<byte[]> response;
+
+        when:
+        response = httpClient.send(GET, HttpResponse.BodyHandlers.ofByteArray());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(Files.readAllBytes(Paths.get("src/test/resources/static/yeti.png")), response.body());
+    }
+
+    @Test
+    public void test_keep_alive_and_pipelining() throws IOException {
+        // setup:
+        String request = "GET /textresponse HTTP/1.1\r\nHost: localhost\r\n\r\n";
+        String lastRequest = "GET /textresponse HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+        String response;
+
+        when:
+        try (Socket socket = new Socket("localhost", Config.provider().property("server.port").asInt())) {
+            OutputStream out = socket.getOutputStream();
+
+            // Two requests in a single write followed by another one on the same connection.
+            out.write((request + request).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            out.write(lastRequest.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            response = readAll(socket.getInputStream());
+        }
+
+        then:
+        assertEquals(3, count(response, "HTTP/1.1 200 OK"));
+        assertEquals(3, count(response, "hello world."));
+        assertTrue(response.contains("Connection: close"));
+    }
+
+    @Test
+    public void test_reject_malformed_request() throws IOException {
+        // setup:
+        String response;
+
+        when:
+        try (Socket socket = new Socket("localhost", Config.provider().property("server.port").asInt())) {
+            socket.getOutputStream().write("GARBAGE\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            response = readAll(socket.getInputStream());
+        }
+
+        then:
+        assertTrue(response.startsWith("HTTP/1.1 400"));
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        in.transferTo(bytes);
+        return bytes.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static int count(String value, String token) {
+        int count = 0;
+        int index = 0;
+        while ((index = value.indexOf(token, index)) != -1) {
+            count++;
+            index += token.length();
+        }
+        return count;
+    }
+
+}
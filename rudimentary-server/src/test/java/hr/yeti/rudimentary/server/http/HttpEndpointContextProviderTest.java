@@ -0,0 +1,137 @@
+package hr.yeti.rudimentary.server.http;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.HttpMethod;
+import hr.yeti.rudimentary.http.content.Text;
+import hr.yeti.rudimentary.server._HttpEndpoints;
+import hr.yeti.rudimentary.server.test.TestServer;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class HttpEndpointContextProviderTest {
+
+    static TestServer testServer;
+
+    @BeforeAll
+    public static void beforeAll() {
+        testServer = TestServer.newBuilder()
+            .httpEndpoints(
+                _HttpEndpoints.StaticRoutingEndpoint.class,
+                _HttpEndpoints.PathVariableRoutingEndpoint.class,
+                _HttpEndpoints.PathVariablePostRoutingEndpoint.class,
+                _HttpEndpoints.TextResponseEndpoint.class,
+                _HttpEndpoints.LazyAuthorizedEndpoint.class
+            )
+            .build();
+        testServer.start();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        testServer.stop();
+    }
+
+    @Test
+    public void test_static_segment_wins_over_path_variable() {
+        HttpEndpointContextProvider.HttpEndpointMatchInfo matchInfo;
+
+        when:
+        matchInfo = match("/routing/static", HttpMethod.GET);
+
+        then:
+        assertTrue(matchInfo.isPathMatchFound());
+        assertTrue(matchInfo.getHttpEndpoint() instanceof _HttpEndpoints.StaticRoutingEndpoint);
+        assertTrue(matchInfo.getPathVariables().isEmpty());
+    }
+
+    @Test
+    public void test_path_variable_segment_match() {
+        HttpEndpointContextProvider.HttpEndpointMatchInfo matchInfo;
+
+        when:
+        matchInfo = match("/routing/123", HttpMethod.GET);
+
+        then:
+        assertTrue(matchInfo.isPathMatchFound());
+        assertTrue(matchInfo.getHttpEndpoint() instanceof _HttpEndpoints.PathVariableRoutingEndpoint);
+        assertEquals(Map.of("id", "123"), matchInfo.getPathVariables());
+    }
+
+    @Test
+    public void test_fall_back_to_path_variable_if_static_segment_does_not_support_http_method() {
+        HttpEndpointContextProvider.HttpEndpointMatchInfo matchInfo;
+
+        when:
+        matchInfo = match("/routing/static", HttpMethod.POST);
+
+        then:
+        assertTrue(matchInfo.isPathMatchFound());
+        assertTrue(matchInfo.getHttpEndpoint() instanceof _HttpEndpoints.PathVariablePostRoutingEndpoint);
+        assertEquals(Map.of("name", "static"), matchInfo.getPathVariables());
+    }
+
+    @Test
+    public void test_path_match_without_http_method_match() {
+        HttpEndpointContextProvider.HttpEndpointMatchInfo matchInfo;
+
+        when:
+        matchInfo = match("/routing/123", HttpMethod.DELETE);
+
+        then:
+        assertTrue(matchInfo.isPathMatchFound());
+        assertNull(matchInfo.getHttpEndpoint());
+    }
+
+    @Test
+    public void test_no_path_match() {
+        expect:
+        assertFalse(match("/routing/123/details", HttpMethod.GET).isPathMatchFound());
+        assertFalse(match("/routing/yeti.js", HttpMethod.GET).isPathMatchFound());
+        assertFalse(match("/routing/", HttpMethod.GET).isPathMatchFound());
+        assertFalse(match("/routing", HttpMethod.GET).isPathMatchFound());
+        assertFalse(match("/", HttpMethod.GET).isPathMatchFound());
+    }
+
+    @Test
+    public void test_execution_plan_is_precomputed_for_matched_http_endpoint() {
+        HttpEndpointExecutionPlan executionPlan;
+
+        when:
+        executionPlan = match("/routing/static", HttpMethod.GET).getExecutionPlan();
+
+        then:
+        assertTrue(executionPlan.getHttpEndpoint() instanceof _HttpEndpoints.StaticRoutingEndpoint);
+        assertFalse(executionPlan.isPojoRequestBody());
+        assertEquals(HttpEndpointExecutionPlan.ResponseEncoding.TEXT, executionPlan.responseEncoding(new Text("static")));
+    }
+
+    @Test
+    public void test_lazy_http_endpoint_authorizations_are_read_after_initialization() throws IOException, InterruptedException {
+        // setup:
+        HttpRequest GET = HttpRequest.newBuilder(testServer.buildUri("lazyauthorized")).build();
+        HttpResponse<String> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("authorized", response.body());
+    }
+
+    private HttpEndpointContextProvider.HttpEndpointMatchInfo match(String path, HttpMethod httpMethod) {
+        return Instance.of(HttpEndpointContextProvider.class).matchEndpoint(URI.create(path), httpMethod);
+    }
+
+}
@@ -0,0 +1,156 @@
+package hr.yeti.rudimentary.server.http.compression;
+
+import com.sun.net.httpserver.Headers;
+import hr.yeti.rudimentary.server._HttpEndpoints;
+import hr.yeti.rudimentary.server.test.TestServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.AfterAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class CompressionFilterTest {
+
+    static TestServer testServer;
+
+    @BeforeAll
+    public static void beforeAll() {
+        testServer = TestServer.newBuilder()
+            .config(Map.of("server.compression.enabled", "true"))
+            .httpFilters(CompressionFilter.class)
+            .chainHttpFilters(true)
+            .httpEndpoints(
+                _HttpEndpoints.TextResponseEndpoint.class,
+                _HttpEndpoints.LargeJsonArrayResponseEndpoint.class,
+                _HttpEndpoints.ByteStreamResponseEndpoint.class
+            )
+            .build();
+        testServer.start();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        testServer.stop();
+    }
+
+    @Test
+    public void test_negotiate_encoding() {
+        expect:
+        assertEquals("gzip", CompressionFilter.negotiate("gzip, deflate, br"));
+        assertEquals("gzip", CompressionFilter.negotiate("deflate, gzip"));
+        assertEquals("deflate", CompressionFilter.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("deflate", CompressionFilter.negotiate("gzip;q=0, *"));
+        assertEquals("gzip", CompressionFilter.negotiate("*"));
+        assertNull(CompressionFilter.negotiate("br, identity"));
+        assertNull(CompressionFilter.negotiate(""));
+        assertNull(CompressionFilter.negotiate(null));
+    }
+
+    @Test
+    public void test_vary_by_accept_encoding_once() {
+        // setup:
+        Headers headers = new Headers();
+        Headers starred = new Headers();
+
+        when:
+        headers.add("Vary", "Origin");
+        CompressionFilter.varyByAcceptEncoding(headers);
+        CompressionFilter.varyByAcceptEncoding(headers);
+        starred.add("Vary", "*");
+        CompressionFilter.varyByAcceptEncoding(starred);
+
+        then:
+        assertEquals(List.of("Origin", "Accept-Encoding"), headers.get("Vary"));
+        assertEquals(List.of("*"), starred.get("Vary"));
+    }
+
+    @Test
+    public void test_gzip_response() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("largejsonarrayresponse");
+        HttpRequest GET = HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build();
+        HttpResponse<byte[]> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofByteArray());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("content-encoding").get());
+        assertTrue(response.headers().firstValue("content-length").isPresent());
+        assertEquals("W/\"cars\"", response.headers().firstValue("etag").get());
+        assertEquals(List.of("Accept-Encoding"), response.headers().allValues("vary"));
+        assertTrue(gunzip(response.body()).endsWith("{\"manufacturer\":\"Mazda999\"}]"));
+    }
+
+    @Test
+    public void test_deflate_streamed_response() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("bytestreamresponse");
+        HttpRequest POST = HttpRequest.newBuilder(uri)
+            .header("Accept-Encoding", "deflate")
+            .POST(HttpRequest.BodyPublishers.ofString("streamed"))
+            .build();
+        HttpResponse<byte[]> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(POST, HttpResponse.BodyHandlers.ofByteArray());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("deflate", response.headers().firstValue("content-encoding").get());
+        assertEquals("streamed", new String(new InflaterInputStream(new ByteArrayInputStream(response.body())).readAllBytes()));
+    }
+
+    @Test
+    public void test_do_not_compress_small_response() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("textresponse");
+        HttpRequest GET = HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build();
+        HttpResponse<String> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertFalse(response.headers().firstValue("content-encoding").isPresent());
+        assertFalse(response.headers().firstValue("vary").isPresent());
+        assertEquals("hello world.", response.body());
+    }
+
+    @Test
+    public void test_do_not_compress_if_not_accepted() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("largejsonarrayresponse");
+        HttpRequest GET = HttpRequest.newBuilder(uri).build();
+        HttpResponse<String> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertFalse(response.headers().firstValue("content-encoding").isPresent());
+        assertEquals("\"cars\"", response.headers().firstValue("etag").get());
+        assertEquals(List.of("Accept-Encoding"), response.headers().allValues("vary"));
+        assertTrue(response.body().startsWith("[{\"manufacturer\":\"Mazda0\"}"));
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        return new String(new GZIPInputStream(new ByteArrayInputStream(bytes)).readAllBytes());
+    }
+
+}
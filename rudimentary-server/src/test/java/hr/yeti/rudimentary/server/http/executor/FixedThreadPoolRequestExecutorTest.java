@@ -0,0 +1,98 @@
+package hr.yeti.rudimentary.server.http.executor;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
+import hr.yeti.rudimentary.server._HttpEndpoints;
+import hr.yeti.rudimentary.server.test.TestServer;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class FixedThreadPoolRequestExecutorTest {
+
+    @Test
+    public void test_should_reject_tasks_over_queue_size() throws InterruptedException {
+        // setup:
+        new ContextMock(Map.of("server.threadPoolSize", "1", "server.threadPoolQueueSize", "1"));
+
+        FixedThreadPoolRequestExecutor executor = new FixedThreadPoolRequestExecutor();
+        executor.initialize();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            when:
+            executor.execute(() -> block(started, release));
+            executor.execute(() -> {});
+
+            then:
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+        } finally {
+            release.countDown();
+            executor.destroy();
+        }
+    }
+
+    @Test
+    public void test_jdk_engine_should_respond_with_503_when_executor_is_saturated() throws IOException, InterruptedException {
+        expect:
+        assertEquals(503, requestSaturatedServer("jdk"));
+    }
+
+    @Test
+    public void test_nio_engine_should_respond_with_503_when_executor_is_saturated() throws IOException, InterruptedException {
+        expect:
+        assertEquals(503, requestSaturatedServer("nio"));
+    }
+
+    private static int requestSaturatedServer(String engine) throws IOException, InterruptedException {
+        TestServer testServer = TestServer.newBuilder()
+            .config(Map.of("server.engine", engine, "server.threadPoolSize", "1", "server.threadPoolQueueSize", "1"))
+            .httpEndpoints(_HttpEndpoints.TextResponseEndpoint.class)
+            .build();
+        testServer.start();
+
+        RequestExecutor executor = Instance.of(RequestExecutor.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Occupy the only thread and the only queue slot
+            executor.execute(() -> block(started, release));
+            executor.execute(() -> {});
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            URI uri = testServer.buildUri("textresponse");
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            return httpClient.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } finally {
+            release.countDown();
+            testServer.stop();
+        }
+    }
+
+    private static void block(CountDownLatch started, CountDownLatch release) {
+        started.countDown();
+
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
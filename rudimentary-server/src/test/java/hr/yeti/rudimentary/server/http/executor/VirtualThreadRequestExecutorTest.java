@@ -0,0 +1,201 @@
+package hr.yeti.rudimentary.server.http.executor;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.executor.spi.RequestExecutor;
+import hr.yeti.rudimentary.server._HttpEndpoints;
+import hr.yeti.rudimentary.server.test.TestServer;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadRequestExecutorTest {
+
+    private static final int MAX_CONCURRENCY = 2;
+    private static final int TASKS = 10;
+    private static final int QUEUE_SIZE = TASKS;
+
+    VirtualThreadRequestExecutor executor;
+
+    @BeforeEach
+    public void beforeEach() {
+        new ContextMock(
+            Map.of(
+                "server.executor", "virtual",
+                "server.executor.maxConcurrency", String.valueOf(MAX_CONCURRENCY),
+                "server.threadPoolQueueSize", String.valueOf(QUEUE_SIZE)
+            )
+        );
+
+        executor = new VirtualThreadRequestExecutor();
+        executor.initialize();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        executor.destroy();
+    }
+
+    @Test
+    public void test_should_not_process_more_tasks_than_max_concurrency() throws InterruptedException {
+        // setup:
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch limitReached = new CountDownLatch(MAX_CONCURRENCY);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(TASKS);
+
+        when:
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                limitReached.countDown();
+
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(limitReached.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        then:
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(MAX_CONCURRENCY, peak.get());
+    }
+
+    @Test
+    public void test_should_bound_platform_threads_when_virtual_threads_are_not_supported() {
+        // setup:
+        ExecutorService executorService = executor.executorService();
+
+        try {
+            expect:
+            if (executorService instanceof ThreadPoolExecutor) {
+                assertEquals(MAX_CONCURRENCY, ((ThreadPoolExecutor) executorService).getMaximumPoolSize());
+                assertEquals(QUEUE_SIZE, ((ThreadPoolExecutor) executorService).getQueue().remainingCapacity());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void test_should_reject_task_waiting_longer_than_acquire_timeout() throws InterruptedException {
+        // setup:
+        RequestExecutor limited = new RequestExecutor() {
+            @Override
+            protected ExecutorService executorService() {
+                return Executors.newCachedThreadPool();
+            }
+
+            @Override
+            protected int maxConcurrency() {
+                return 1;
+            }
+
+            @Override
+            protected long acquireTimeout() {
+                return 100;
+            }
+        };
+        limited.initialize();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch rejected = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+
+        try {
+            when:
+            limited.execute(() -> block(started, release));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            limited.execute(executed::incrementAndGet, rejected::countDown);
+
+            then:
+            assertTrue(rejected.await(5, TimeUnit.SECONDS));
+            assertEquals(0, executed.get());
+        } finally {
+            release.countDown();
+            limited.destroy();
+        }
+    }
+
+    @Test
+    public void test_jdk_engine_should_respond_with_503_when_executor_is_saturated() throws IOException, InterruptedException {
+        expect:
+        assertEquals(503, requestSaturatedServer("jdk"));
+    }
+
+    @Test
+    public void test_nio_engine_should_respond_with_503_when_executor_is_saturated() throws IOException, InterruptedException {
+        expect:
+        assertEquals(503, requestSaturatedServer("nio"));
+    }
+
+    private static int requestSaturatedServer(String engine) throws IOException, InterruptedException {
+        TestServer testServer = TestServer.newBuilder()
+            .config(
+                Map.of(
+                    "server.engine", engine,
+                    "server.executor", "virtual",
+                    "server.executor.maxConcurrency", "1",
+                    "server.executor.acquireTimeout", "100",
+                    "server.threadPoolQueueSize", "1"
+                )
+            )
+            .httpEndpoints(_HttpEndpoints.TextResponseEndpoint.class)
+            .build();
+        testServer.start();
+
+        RequestExecutor executor = Instance.of(RequestExecutor.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Occupy the only permit, and the only queue slot when platform threads are used
+            executor.execute(() -> block(started, release));
+            executor.execute(() -> {});
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            URI uri = testServer.buildUri("textresponse");
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            return httpClient.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } finally {
+            release.countDown();
+            testServer.stop();
+        }
+    }
+
+    private static void block(CountDownLatch started, CountDownLatch release) {
+        started.countDown();
+
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -164,6 +164,35 @@ public class HttpProcessorInterceptorsTest {
         testServer.stop();
     }
 
+    @Test
+    public void test_apply_to_uri_does_not_match_query_string() throws IOException, InterruptedException {
+        // setup:
+        TestServer testServer = TestServer.newBuilder()
+            .beforeInterceptors(
+                _Interceptors.BeforeInterceptorForURI.class,
+                _Interceptors.BeforeInterceptorForQuery.class
+            )
+            .httpEndpoints(_HttpEndpoints.BeforeInterceptorForURIEndpoint.class)
+            .build();
+        testServer.start();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(baos));
+
+        URI uri = URI.create(testServer.buildUri("uriinterceptbefore") + "?debug=true");
+        HttpRequest GET = HttpRequest.newBuilder(uri).GET().build();
+        HttpResponse<String> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("before", new String(baos.toByteArray()));
+
+        testServer.stop();
+    }
+
     @Test
     public void test_after_for_uri_interceptor() throws IOException, InterruptedException {
         // setup:
@@ -0,0 +1,181 @@
+package hr.yeti.rudimentary.server.http.processor;
+
+import hr.yeti.rudimentary.server._HttpEndpoints;
+import hr.yeti.rudimentary.server.test.TestServer;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.jupiter.api.AfterAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class HttpProcessorRangeRequestTest {
+
+    static TestServer testServer;
+    static URI uri;
+
+    @BeforeAll
+    public static void beforeAll() {
+        testServer = TestServer.newBuilder()
+            .httpEndpoints(
+                _HttpEndpoints.SeekableByteStreamResponseEndpoint.class,
+                _HttpEndpoints.ByteStreamResponseEndpoint.class
+            )
+            .build();
+        testServer.start();
+
+        uri = testServer.buildUri("seekablebytestreamresponse");
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        testServer.stop();
+    }
+
+    @Test
+    public void test_whole_content_advertises_range_support() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> response;
+
+        when:
+        response = send(HttpRequest.newBuilder(uri).build());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("bytes", response.headers().firstValue("accept-ranges").get());
+        assertEquals("26", response.headers().firstValue("content-length").get());
+        assertEquals("abcdefghijklmnopqrstuvwxyz", response.body());
+    }
+
+    @Test
+    public void test_single_range() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> range;
+        HttpResponse<String> open;
+        HttpResponse<String> suffix;
+
+        when:
+        range = send(HttpRequest.newBuilder(uri).header("Range", "bytes=2-4").build());
+        open = send(HttpRequest.newBuilder(uri).header("Range", "bytes=20-").build());
+        suffix = send(HttpRequest.newBuilder(uri).header("Range", "bytes=-3").build());
+
+        then:
+        assertEquals(206, range.statusCode());
+        assertEquals("bytes 2-4/26", range.headers().firstValue("content-range").get());
+        assertEquals("3", range.headers().firstValue("content-length").get());
+        assertEquals("cde", range.body());
+
+        assertEquals(206, open.statusCode());
+        assertEquals("bytes 20-25/26", open.headers().firstValue("content-range").get());
+        assertEquals("uvwxyz", open.body());
+
+        assertEquals(206, suffix.statusCode());
+        assertEquals("bytes 23-25/26", suffix.headers().firstValue("content-range").get());
+        assertEquals("xyz", suffix.body());
+    }
+
+    @Test
+    public void test_multiple_ranges() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> response;
+        String contentType;
+        String boundary;
+
+        when:
+        response = send(HttpRequest.newBuilder(uri).header("Range", "bytes=0-1, 24-, 1-2").build());
+
+        then:
+        assertEquals(206, response.statusCode());
+
+        contentType = response.headers().firstValue("content-type").get();
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+
+        boundary = contentType.substring(contentType.indexOf('=') + 1);
+        assertEquals(String.valueOf(response.body().length()), response.headers().firstValue("content-length").get());
+        assertEquals(
+            "--" + boundary + "\r\n"
+            + "Content-Range: bytes 0-2/26\r\n"
+            + "\r\n"
+            + "abc\r\n"
+            + "--" + boundary + "\r\n"
+            + "Content-Range: bytes 24-25/26\r\n"
+            + "\r\n"
+            + "yz\r\n"
+            + "--" + boundary + "--\r\n",
+            response.body()
+        );
+    }
+
+    @Test
+    public void test_unsatisfiable_range() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> response;
+
+        when:
+        response = send(HttpRequest.newBuilder(uri).header("Range", "bytes=26-30").build());
+
+        then:
+        assertEquals(416, response.statusCode());
+        assertEquals("bytes */26", response.headers().firstValue("content-range").get());
+    }
+
+    @Test
+    public void test_invalid_range_is_ignored() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> response;
+
+        when:
+        response = send(HttpRequest.newBuilder(uri).header("Range", "bytes=5-1").build());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("abcdefghijklmnopqrstuvwxyz", response.body());
+    }
+
+    @Test
+    public void test_if_range() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> matching;
+        HttpResponse<String> changed;
+
+        when:
+        matching = send(HttpRequest.newBuilder(uri).header("Range", "bytes=0-0").header("If-Range", "\"alphabet\"").build());
+        changed = send(HttpRequest.newBuilder(uri).header("Range", "bytes=0-0").header("If-Range", "\"numbers\"").build());
+
+        then:
+        assertEquals(206, matching.statusCode());
+        assertEquals("a", matching.body());
+
+        assertEquals(200, changed.statusCode());
+        assertEquals("abcdefghijklmnopqrstuvwxyz", changed.body());
+    }
+
+    @Test
+    public void test_not_seekable_stream_ignores_range() throws IOException, InterruptedException {
+        // setup:
+        HttpResponse<String> response;
+
+        when:
+        response = send(
+            HttpRequest.newBuilder(testServer.buildUri("bytestreamresponse"))
+                .POST(HttpRequest.BodyPublishers.ofString("streamed"))
+                .header("Range", "bytes=0-1")
+                .build()
+        );
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertFalse(response.headers().firstValue("accept-ranges").isPresent());
+        assertEquals("streamed", response.body());
+    }
+
+    private static HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+}
@@ -11,6 +11,8 @@ import java.net.http.HttpResponse;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -28,8 +30,10 @@ public class HttpProcessorResponseContentTypeTest {
                 _HttpEndpoints.HtmlResponseEndpoint.class,
                 _HttpEndpoints.JsonResponseEndpoint.class,
                 _HttpEndpoints.JsonArrayResponseEndpoint.class,
+                _HttpEndpoints.LargeJsonArrayResponseEndpoint.class,
                 _HttpEndpoints.RedirectResponseEndpoint.class,
                 _HttpEndpoints.PojoResponseEndpoint.class,
+                _HttpEndpoints.UnserializablePojoResponseEndpoint.class,
                 _HttpEndpoints.StaticResourceResponseEndpoint.class
             )
             .viewEndpoints(_HttpEndpoints.ViewStaticResponseEndpoint.class)
@@ -142,6 +146,34 @@ public class HttpProcessorResponseContentTypeTest {
         assertEquals(200, response.statusCode());
         assertEquals(MediaType.APPLICATION_JSON, response.headers().firstValue("content-type").get());
         assertEquals("[\"a\"]", response.body());
+        assertEquals("5", response.headers().firstValue("content-length").get());
+    }
+
+    @Test
+    public void test_large_json_response_is_streamed() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("largejsonarrayresponse");
+        HttpRequest GET = HttpRequest.newBuilder(uri).build();
+        HttpResponse<String> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.headers().firstValue("content-type").get());
+        assertEquals("chunked", response.headers().firstValue("transfer-encoding").get());
+        assertTrue(response.body().startsWith("[{\"manufacturer\":\"Mazda0\"}"));
+        assertTrue(response.body().endsWith("{\"manufacturer\":\"Mazda999\"}]"));
+    }
+
+    @Test
+    public void test_json_response_failing_after_headers_are_sent_is_incomplete() {
+        // setup:
+        HttpRequest GET = HttpRequest.newBuilder(testServer.buildUri("unserializablepojoresponse")).build();
+
+        expect:
+        assertThrows(IOException.class, () -> HttpClient.newHttpClient().send(GET, HttpResponse.BodyHandlers.ofString()));
     }
 
     @Test
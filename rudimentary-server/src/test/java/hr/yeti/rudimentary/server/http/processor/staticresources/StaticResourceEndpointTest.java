@@ -3,13 +3,21 @@ package hr.yeti.rudimentary.server.http.processor.staticresources;
 import hr.yeti.rudimentary.http.MediaType;
 import hr.yeti.rudimentary.server.http.staticresources.StaticResourcesEndpoint;
 import hr.yeti.rudimentary.server.test.TestServer;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.AfterAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -72,6 +80,126 @@ public class StaticResourceEndpointTest {
 
         then:
         assertEquals(200, response.statusCode());
-        assertEquals(MediaType.APPLICATION_OCTET_STREAM, response.headers().firstValue("content-type").get());
+        assertEquals("image/png", response.headers().firstValue("content-type").get());
     }
+
+    @Test
+    public void test_staticresource_caching_headers() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/yeti.js");
+        HttpResponse<String> response;
+        HttpResponse<String> notModifiedByEtag;
+        HttpResponse<String> notModifiedByDate;
+        HttpResponse<String> modified;
+
+        when:
+        response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+        notModifiedByEtag = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("If-None-Match", response.headers().firstValue("etag").get()).build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        notModifiedByDate = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("If-Modified-Since", response.headers().firstValue("last-modified").get()).build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        modified = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("If-None-Match", "\"outdated\"").build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("public, max-age=3600", response.headers().firstValue("cache-control").get());
+        assertEquals(304, notModifiedByEtag.statusCode());
+        assertEquals("", notModifiedByEtag.body());
+        assertEquals(response.headers().firstValue("etag").get(), notModifiedByEtag.headers().firstValue("etag").get());
+        assertEquals(304, notModifiedByDate.statusCode());
+        assertEquals(200, modified.statusCode());
+        assertEquals(response.body(), modified.body());
+    }
+
+    @Test
+    public void test_staticresource_gzip_variant() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/yeti-theme.css");
+        HttpResponse<byte[]> gzipped;
+        HttpResponse<byte[]> plain;
+
+        when:
+        gzipped = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+        plain = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        then:
+        assertEquals(200, gzipped.statusCode());
+        assertEquals("gzip", gzipped.headers().firstValue("content-encoding").get());
+        assertTrue(gzipped.body().length < plain.body().length);
+        assertArrayEquals(plain.body(), new GZIPInputStream(new ByteArrayInputStream(gzipped.body())).readAllBytes());
+        assertFalse(plain.headers().firstValue("content-encoding").isPresent());
+    }
+
+    @Test
+    public void test_staticresource_range_if_range() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/yeti-theme.css");
+        HttpResponse<byte[]> plain;
+        HttpResponse<byte[]> range;
+
+        when:
+        plain = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+        range = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri)
+                .header("Accept-Encoding", "gzip")
+                .header("Range", "bytes=100-199")
+                .header("If-Range", plain.headers().firstValue("etag").get())
+                .build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+
+        then:
+        assertEquals("bytes", plain.headers().firstValue("accept-ranges").get());
+        assertEquals(206, range.statusCode());
+        assertFalse(range.headers().firstValue("content-encoding").isPresent());
+        assertEquals("bytes 100-199/" + plain.body().length, range.headers().firstValue("content-range").get());
+        assertArrayEquals(Arrays.copyOfRange(plain.body(), 100, 200), range.body());
+    }
+
+    @Test
+    public void test_staticresource_precompressed_siblings() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/precompressed.js");
+        HttpResponse<byte[]> brotli;
+        HttpResponse<byte[]> gzipped;
+        HttpResponse<byte[]> plain;
+
+        when:
+        brotli = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip, br").build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+        gzipped = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip, br;q=0.5").build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+        plain = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        then:
+        assertEquals(200, brotli.statusCode());
+        assertEquals("br", brotli.headers().firstValue("content-encoding").get());
+        assertEquals("Accept-Encoding", brotli.headers().firstValue("vary").get());
+        assertEquals(MediaType.APPLICATION_JAVASCRIPT, brotli.headers().firstValue("content-type").get());
+        assertArrayEquals(Files.readAllBytes(Paths.get("src/test/resources/static/precompressed.js.br")), brotli.body());
+
+        assertEquals("gzip", gzipped.headers().firstValue("content-encoding").get());
+        assertArrayEquals(Files.readAllBytes(Paths.get("src/test/resources/static/precompressed.js.gz")), gzipped.body());
+        assertArrayEquals(plain.body(), new GZIPInputStream(new ByteArrayInputStream(gzipped.body())).readAllBytes());
+
+        assertFalse(plain.headers().firstValue("content-encoding").isPresent());
+        assertTrue(plain.headers().firstValue("etag").get().endsWith("\""));
+        assertFalse(plain.headers().firstValue("etag").get().equals(brotli.headers().firstValue("etag").get()));
+        assertFalse(plain.headers().firstValue("etag").get().equals(gzipped.headers().firstValue("etag").get()));
+    }
+
 }
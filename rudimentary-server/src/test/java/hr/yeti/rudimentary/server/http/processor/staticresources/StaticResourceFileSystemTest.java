@@ -0,0 +1,226 @@
+package hr.yeti.rudimentary.server.http.processor.staticresources;
+
+import hr.yeti.rudimentary.server.http.staticresources.StaticResourcesEndpoint;
+import hr.yeti.rudimentary.server.test.TestServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.AfterAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class StaticResourceFileSystemTest {
+
+    static TestServer testServer;
+    static Path root;
+    static byte[] download;
+
+    @BeforeAll
+    public static void beforeAll() throws IOException {
+        root = Files.createTempDirectory("rudimentary-static");
+        download = new byte[3 * 1024 * 1024 + 7];
+        new Random(7).nextBytes(download);
+
+        Files.createDirectories(root.resolve("files"));
+        Files.write(root.resolve("files").resolve("download.bin"), download);
+        Files.writeString(root.resolve("app.js"), "let i = 0;");
+        try ( OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(root.resolve("app.js.gz")))) {
+            gzip.write("let i = 0;".getBytes());
+        }
+        Files.writeString(root.resolve("stale.js"), "let j = 1;");
+        try ( OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(root.resolve("stale.js.gz")))) {
+            gzip.write("let j = 0;".getBytes());
+        }
+        Files.setLastModifiedTime(
+            root.resolve("stale.js.gz"),
+            FileTime.fromMillis(Files.getLastModifiedTime(root.resolve("stale.js")).toMillis() - 60000)
+        );
+        Files.writeString(root.resolve("data.yeti"), "yeti");
+        Files.writeString(root.getParent().resolve("secret.txt"), "secret");
+        Files.createSymbolicLink(root.resolve("secret.txt"), root.getParent().resolve("secret.txt"));
+        Files.createSymbolicLink(root.resolve("files").resolve("app.js"), root.resolve("app.js"));
+
+        testServer = TestServer.newBuilder()
+            .config(
+                Map.of(
+                    "mvc.staticResourcesPath", root.toString(),
+                    "mvc.staticResourcesMimeTypes", "yeti=application/x-yeti, JS=text/javascript"
+                )
+            )
+            .httpEndpoints(StaticResourcesEndpoint.class)
+            .build();
+        testServer.start();
+    }
+
+    @AfterAll
+    public static void afterAll() throws IOException {
+        testServer.stop();
+
+        Files.deleteIfExists(root.getParent().resolve("secret.txt"));
+        try ( var paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach((path) -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_serve_large_file_with_content_length() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/files/download.bin");
+        HttpResponse<byte[]> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals(String.valueOf(download.length), response.headers().firstValue("content-length").get());
+        assertFalse(response.headers().firstValue("transfer-encoding").isPresent());
+        assertArrayEquals(download, response.body());
+    }
+
+    @Test
+    public void test_resume_download_with_range() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/files/download.bin");
+        int offset = 1024 * 1024 + 3;
+        HttpResponse<byte[]> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("Range", "bytes=" + offset + "-").build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+
+        then:
+        assertEquals(206, response.statusCode());
+        assertEquals("bytes " + offset + "-" + (download.length - 1) + "/" + download.length, response.headers().firstValue("content-range").get());
+        assertArrayEquals(Arrays.copyOfRange(download, offset, download.length), response.body());
+    }
+
+    @Test
+    public void test_serve_precompressed_sibling() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/app.js");
+        HttpResponse<byte[]> gzipped;
+        HttpResponse<byte[]> plain;
+
+        when:
+        gzipped = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+        plain = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("Accept-Encoding", "br").build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+
+        then:
+        assertEquals(200, gzipped.statusCode());
+        assertEquals("gzip", gzipped.headers().firstValue("content-encoding").get());
+        assertEquals(List.of("Accept-Encoding"), gzipped.headers().allValues("vary"));
+        assertEquals("text/javascript", gzipped.headers().firstValue("content-type").get());
+        assertArrayEquals(Files.readAllBytes(root.resolve("app.js.gz")), gzipped.body());
+
+        assertFalse(plain.headers().firstValue("content-encoding").isPresent());
+        assertEquals("let i = 0;", new String(plain.body()));
+    }
+
+    @Test
+    public void test_do_not_serve_precompressed_sibling_older_than_file() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/stale.js");
+        HttpResponse<byte[]> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("Accept-Encoding", "gzip").build(),
+            HttpResponse.BodyHandlers.ofByteArray()
+        );
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertFalse(response.headers().firstValue("content-encoding").isPresent());
+        assertEquals("let j = 1;", new String(response.body()));
+    }
+
+    @Test
+    public void test_configured_mime_type() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/data.yeti");
+        HttpResponse<String> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("application/x-yeti", response.headers().firstValue("content-type").get());
+    }
+
+    @Test
+    public void test_file_not_modified() throws IOException, InterruptedException {
+        // setup:
+        URI uri = testServer.buildUri("static/app.js");
+        HttpResponse<String> response;
+        HttpResponse<String> notModified;
+
+        when:
+        response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+        notModified = HttpClient.newHttpClient().send(
+            HttpRequest.newBuilder(uri).header("If-None-Match", response.headers().firstValue("etag").get()).build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+
+        then:
+        assertEquals(200, response.statusCode());
+        assertEquals("let i = 0;", response.body());
+        assertEquals(304, notModified.statusCode());
+    }
+
+    @Test
+    public void test_files_outside_of_root_are_not_served() throws IOException, InterruptedException {
+        // setup:
+        URI uri = URI.create(testServer.buildUri("static/").toString() + "%2E%2E/secret.txt");
+        HttpResponse<String> response;
+
+        when:
+        response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    public void test_symbolic_links_pointing_outside_of_root_are_not_followed() throws IOException, InterruptedException {
+        // setup:
+        URI outside = testServer.buildUri("static/secret.txt");
+        URI inside = testServer.buildUri("static/files/app.js");
+        HttpResponse<String> outsideResponse;
+        HttpResponse<String> insideResponse;
+
+        when:
+        outsideResponse = HttpClient.newHttpClient().send(HttpRequest.newBuilder(outside).build(), HttpResponse.BodyHandlers.ofString());
+        insideResponse = HttpClient.newHttpClient().send(HttpRequest.newBuilder(inside).build(), HttpResponse.BodyHandlers.ofString());
+
+        then:
+        assertEquals(404, outsideResponse.statusCode());
+        assertEquals(200, insideResponse.statusCode());
+        assertEquals("let i = 0;", insideResponse.body());
+    }
+
+}
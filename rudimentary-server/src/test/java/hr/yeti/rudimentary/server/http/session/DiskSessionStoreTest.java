@@ -0,0 +1,241 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
+import hr.yeti.rudimentary.security.Identity;
+import hr.yeti.rudimentary.server._Models;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DiskSessionStoreTest {
+
+    Path dir;
+
+    DiskSessionStore sessionStore;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        dir = Files.createTempDirectory("rudimentary-sessions");
+        sessionStore = start("67108864");
+    }
+
+    @AfterEach
+    public void afterEach() throws IOException {
+        sessionStore.destroy();
+
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach((path) -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void test_disk_session_store_is_used() {
+        expect:
+        assertTrue(SessionStore.provider() instanceof DiskSessionStore);
+    }
+
+    @Test
+    public void test_restore_sessions_after_restart() {
+        // setup:
+        HttpSession session = new HttpSession();
+        HttpSession removed = new HttpSession();
+        HttpSession restored;
+
+        when:
+        sessionStore.put(session);
+        sessionStore.put(removed);
+        sessionStore.remove(removed.getRsid());
+
+        session.setAuthenticated(true);
+        session.setIdentity(new Identity<>(List.of("admins"), List.of("rookie"), Map.of("city", "Zagreb"), "vsmid", "secret", "embedded"));
+        session.getAttributes().put("text", "hello");
+        session.getAttributes().put("number", 42);
+        session.getAttributes().put("amount", new BigDecimal("-10.25"));
+        session.getAttributes().put("created", Instant.ofEpochSecond(1_000, 5));
+        session.getAttributes().put("bytes", new byte[]{ 1, 2, 3 });
+        session.getAttributes().put("list", List.of(1L, "two", true));
+        session.getAttributes().put("set", Set.of("a"));
+        session.getAttributes().put("unit", TimeUnit.SECONDS);
+        session.getAttributes().put("empty", null);
+        session.setLastAccessedTime(System.currentTimeMillis());
+
+        sessionStore.flush();
+        sessionStore.destroy();
+        sessionStore = start("67108864");
+        restored = (HttpSession) sessionStore.get(session.getRsid());
+
+        then:
+        assertNotNull(restored);
+        assertNull(sessionStore.get(removed.getRsid()));
+        assertEquals(session.getCreationTime(), restored.getCreationTime());
+        assertEquals(session.getLastAccessedTime(), restored.getLastAccessedTime());
+        assertTrue(restored.isAuthenticated());
+        assertEquals("vsmid", restored.getIdentity().getUsername());
+        assertEquals("embedded", restored.getIdentity().getRealm());
+        assertNull(restored.getIdentity().getPassword());
+        assertEquals(List.of("admins"), restored.getIdentity().getGroups());
+        assertEquals(Map.of("city", "Zagreb"), restored.getIdentity().getDetails());
+        assertEquals("hello", restored.getAttributes().get("text"));
+        assertEquals(42, restored.getAttributes().get("number"));
+        assertEquals(new BigDecimal("-10.25"), restored.getAttributes().get("amount"));
+        assertEquals(Instant.ofEpochSecond(1_000, 5), restored.getAttributes().get("created"));
+        assertArrayEquals(new byte[]{ 1, 2, 3 }, (byte[]) restored.getAttributes().get("bytes"));
+        assertEquals(List.of(1L, "two", true), restored.getAttributes().get("list"));
+        assertEquals(Set.of("a"), restored.getAttributes().get("set"));
+        assertEquals(TimeUnit.SECONDS, restored.getAttributes().get("unit"));
+        assertTrue(restored.getAttributes().containsKey("empty"));
+    }
+
+    @Test
+    public void test_restore_only_json_attributes_of_listed_types() {
+        // setup:
+        HttpSession session = new HttpSession();
+        HttpSession restored;
+
+        when:
+        sessionStore.put(session);
+        session.getAttributes().put("car", new _Models._CarModel("Mazda"));
+        session.getAttributes().put("post", new _Models.BlogPost("hello"));
+        session.setLastAccessedTime(System.currentTimeMillis());
+
+        sessionStore.flush();
+        sessionStore.destroy();
+        sessionStore = start("67108864");
+        restored = (HttpSession) sessionStore.get(session.getRsid());
+
+        then:
+        assertEquals("Mazda", ((_Models._CarModel) restored.getAttributes().get("car")).getManufacturer());
+        assertFalse(restored.getAttributes().containsKey("post"));
+    }
+
+    @Test
+    public void test_drop_attribute_which_can_not_be_encoded() {
+        // setup:
+        HttpSession session = new HttpSession();
+        HttpSession restored;
+
+        when:
+        sessionStore.put(session);
+        session.getAttributes().put("text", "hello");
+        session.getAttributes().put("broken", new _Models._UnserializableModel());
+        session.setLastAccessedTime(System.currentTimeMillis());
+
+        sessionStore.flush();
+        sessionStore.destroy();
+        sessionStore = start("67108864");
+        restored = (HttpSession) sessionStore.get(session.getRsid());
+
+        then:
+        assertNotNull(restored);
+        assertEquals("hello", restored.getAttributes().get("text"));
+        assertFalse(restored.getAttributes().containsKey("broken"));
+    }
+
+    @Test
+    public void test_skip_evicted_sessions_on_restart() {
+        // setup:
+        HttpSession leastRecentlyUsed = new HttpSession();
+        HttpSession removed = new HttpSession();
+
+        when:
+        leastRecentlyUsed.setLastAccessedTime(System.currentTimeMillis() - 30_000);
+        sessionStore.put(leastRecentlyUsed);
+
+        for (int i = 0; i < 9; i++) {
+            sessionStore.put(new HttpSession());
+        }
+
+        sessionStore.put(removed);
+        sessionStore.remove(removed.getRsid());
+
+        sessionStore.destroy();
+        sessionStore = start("67108864");
+
+        then:
+        assertNull(sessionStore.get(leastRecentlyUsed.getRsid()));
+        assertEquals(9, sessionStore.metrics().getActive());
+    }
+
+    @Test
+    public void test_skip_expired_sessions_on_restart() {
+        // setup:
+        HttpSession active = new HttpSession();
+        HttpSession expired = new HttpSession();
+
+        when:
+        expired.setLastAccessedTime(System.currentTimeMillis() - 61_000);
+        sessionStore.put(active);
+        sessionStore.put(expired);
+
+        sessionStore.destroy();
+        sessionStore = start("67108864");
+
+        then:
+        assertNotNull(sessionStore.get(active.getRsid()));
+        assertNull(sessionStore.get(expired.getRsid()));
+        assertEquals(1, sessionStore.metrics().getActive());
+    }
+
+    @Test
+    public void test_compact_full_log() throws IOException {
+        // setup:
+        HttpSession session = new HttpSession();
+        Path log = dir.resolve(DiskSessionStore.LOG_FILE);
+
+        sessionStore.destroy();
+        sessionStore = start("4096");
+
+        when:
+        sessionStore.put(session);
+
+        for (int i = 0; i < 1_000; i++) {
+            session.getAttributes().put("counter", i);
+            session.setLastAccessedTime(System.currentTimeMillis());
+            sessionStore.flush();
+        }
+
+        sessionStore.destroy();
+        sessionStore = start("4096");
+
+        then:
+        assertEquals(4096, Files.size(log));
+        assertEquals(999, sessionStore.get(session.getRsid()).getAttributes().get("counter"));
+    }
+
+    private DiskSessionStore start(String logSize) {
+        new ContextMock(
+            Map.of(
+                "session.store", "disk",
+                "session.disk.dir", dir.toString(),
+                "session.disk.logSize", logSize,
+                "session.disk.flushInterval", "60000",
+                "session.maxConcurrentAllowed", "10",
+                "session.inactivityPeriodAllowed", "60",
+                "session.jsonTypes", _Models._CarModel.class.getName() + "," + _Models._UnserializableModel.class.getName()
+            ),
+            DiskSessionStore.class
+        );
+
+        return Instance.of(DiskSessionStore.class);
+    }
+
+}
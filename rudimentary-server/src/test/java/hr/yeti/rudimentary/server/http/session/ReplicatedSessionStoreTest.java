@@ -0,0 +1,228 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.test.ContextMock;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReplicatedSessionStoreTest {
+
+    static final String SECRET = "replication-secret";
+
+    List<TcpSessionReplicationTransport> transports;
+    List<ReplicatedSessionStore> nodes;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        new ContextMock(
+            Map.of(
+                "session.maxConcurrentAllowed", "100",
+                "session.inactivityPeriodAllowed", "60",
+                "session.replication.batchInterval", "20"
+            )
+        );
+
+        transports = new ArrayList<>();
+        nodes = new ArrayList<>();
+
+        List<InetSocketAddress> addresses = List.of(freeAddress(), freeAddress(), freeAddress());
+
+        for (InetSocketAddress address : addresses) {
+            List<InetSocketAddress> peers = new ArrayList<>(addresses);
+            peers.remove(address);
+
+            start(address.getPort(), peers, SECRET);
+        }
+    }
+
+    @AfterEach
+    public void afterEach() {
+        nodes.forEach(ReplicatedSessionStore::destroy);
+        transports.forEach(TcpSessionReplicationTransport::destroy);
+    }
+
+    @Test
+    public void test_replicate_new_session_to_all_nodes() {
+        // setup:
+        HttpSession session = new HttpSession();
+
+        when:
+        session.getAttributes().put("cart", List.of("book"));
+        nodes.get(0).put(session);
+
+        then:
+        await(() -> Objects.nonNull(nodes.get(1).get(session.getRsid())) && Objects.nonNull(nodes.get(2).get(session.getRsid())));
+        assertEquals(List.of("book"), nodes.get(1).get(session.getRsid()).getAttributes().get("cart"));
+        assertEquals(List.of("book"), nodes.get(2).get(session.getRsid()).getAttributes().get("cart"));
+    }
+
+    @Test
+    public void test_replicate_changes_made_on_other_node() {
+        // setup:
+        HttpSession session = new HttpSession();
+        HttpSession replica;
+
+        nodes.get(0).put(session);
+        await(() -> Objects.nonNull(nodes.get(1).get(session.getRsid())));
+
+        when:
+        replica = (HttpSession) nodes.get(1).get(session.getRsid());
+        replica.getAttributes().put("step", 2);
+        replica.setLastAccessedTime(System.currentTimeMillis() + 1);
+
+        then:
+        await(() -> Objects.equals(2, nodes.get(0).get(session.getRsid()).getAttributes().get("step"))
+            && Objects.equals(2, nodes.get(2).get(session.getRsid()).getAttributes().get("step")));
+    }
+
+    @Test
+    public void test_replicate_removal() {
+        // setup:
+        HttpSession session = new HttpSession();
+
+        nodes.get(0).put(session);
+        await(() -> Objects.nonNull(nodes.get(2).get(session.getRsid())));
+
+        when:
+        nodes.get(2).remove(session.getRsid());
+
+        then:
+        await(() -> Objects.isNull(nodes.get(0).get(session.getRsid())) && Objects.isNull(nodes.get(1).get(session.getRsid())));
+    }
+
+    @Test
+    public void test_last_write_wins() {
+        // setup:
+        long now = System.currentTimeMillis();
+        HttpSession session = new HttpSession();
+        HttpSession first;
+        HttpSession second;
+
+        nodes.get(0).put(session);
+        await(() -> Objects.nonNull(nodes.get(1).get(session.getRsid())) && Objects.nonNull(nodes.get(2).get(session.getRsid())));
+
+        when:
+        first = (HttpSession) nodes.get(0).get(session.getRsid());
+        second = (HttpSession) nodes.get(1).get(session.getRsid());
+
+        first.getAttributes().put("winner", "first");
+        second.getAttributes().put("winner", "second");
+
+        second.setLastAccessedTime(now + 2_000);
+        first.setLastAccessedTime(now + 1_000);
+
+        then:
+        await(() -> nodes.stream().allMatch((node) -> "second".equals(node.get(session.getRsid()).getAttributes().get("winner"))));
+        assertEquals(now + 2_000, nodes.get(2).get(session.getRsid()).getLastAccessedTime());
+    }
+
+    @Test
+    public void test_reject_unsigned_messages() throws IOException {
+        // setup:
+        TcpSessionReplicationTransport intruder = new TcpSessionReplicationTransport(
+            0,
+            List.of(new InetSocketAddress("localhost", transports.get(0).getPort())),
+            "wrong-secret"
+        );
+        ReplicatedSessionStore intruderNode = new ReplicatedSessionStore(intruder);
+        HttpSession session = new HttpSession();
+
+        intruder.initialize();
+        intruderNode.initialize();
+
+        when:
+        intruderNode.put(session);
+        intruderNode.replicate();
+        nodes.get(0).put(new HttpSession());
+
+        then:
+        try {
+            await(() -> nodes.get(1).metrics().getActive() == 1);
+            assertNull(nodes.get(0).get(session.getRsid()));
+        } finally {
+            intruderNode.destroy();
+            intruder.destroy();
+        }
+    }
+
+    @Test
+    public void test_replication_requires_secret() {
+        expect:
+        assertThrows(IllegalStateException.class, () -> new TcpSessionReplicationTransport(0, List.of(), " "));
+        assertThrows(IllegalStateException.class, () -> new TcpSessionReplicationTransport(0, List.of(), null));
+    }
+
+    @Test
+    public void test_broadcast_does_not_block_on_peer_which_stopped_reading() throws IOException {
+        // setup:
+        ServerSocket stuckPeer = new ServerSocket(0);
+        TcpSessionReplicationTransport transport = new TcpSessionReplicationTransport(
+            0,
+            List.of(new InetSocketAddress("localhost", stuckPeer.getLocalPort())),
+            SECRET
+        );
+        byte[] message = new byte[1024 * 1024];
+
+        transport.initialize();
+
+        expect:
+        try {
+            // Far more than socket buffers can take, stuck peer never accepts nor reads
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 4 * TcpSessionReplicationTransport.PEER_QUEUE_SIZE; i++) {
+                    transport.broadcast(message);
+                }
+            });
+        } finally {
+            transport.destroy();
+            stuckPeer.close();
+        }
+    }
+
+    private void start(int port, List<InetSocketAddress> peers, String secret) {
+        TcpSessionReplicationTransport transport = new TcpSessionReplicationTransport(port, peers, secret);
+        ReplicatedSessionStore node = new ReplicatedSessionStore(transport);
+
+        transport.initialize();
+        node.initialize();
+
+        transports.add(transport);
+        nodes.add(node);
+    }
+
+    private static InetSocketAddress freeAddress() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return new InetSocketAddress("localhost", socket.getLocalPort());
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Sessions were not replicated in time.");
+
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package hr.yeti.rudimentary.server.http.session;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.http.session.SessionStoreMetrics;
+import hr.yeti.rudimentary.http.session.spi.SessionStore;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelSessionStoreTest {
+
+    TimingWheelSessionStore sessionStore;
+
+    @BeforeEach
+    public void beforeEach() {
+        new ContextMock(
+            Map.of(
+                "session.maxConcurrentAllowed", "3",
+                "session.inactivityPeriodAllowed", "60"
+            ),
+            TimingWheelSessionStore.class
+        );
+        sessionStore = Instance.of(TimingWheelSessionStore.class);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        sessionStore.destroy();
+    }
+
+    @Test
+    public void test_default_session_store() {
+        expect:
+        assertSame(sessionStore, SessionStore.provider());
+    }
+
+    @Test
+    public void test_put_get_remove() {
+        // setup:
+        HttpSession session = new HttpSession();
+
+        when:
+        sessionStore.put(session);
+
+        then:
+        assertSame(session, sessionStore.get(session.getRsid()));
+
+        when:
+        sessionStore.remove(session.getRsid());
+
+        then:
+        assertNull(sessionStore.get(session.getRsid()));
+        assertEquals(0, sessionStore.metrics().getActive());
+    }
+
+    @Test
+    public void test_expire_inactive_sessions() {
+        // setup:
+        long now = System.currentTimeMillis();
+        HttpSession inactive = session(now - 50_000);
+        HttpSession active = session(now - 50_000);
+
+        when:
+        active.setLastAccessedTime(now);
+        sessionStore.expire(now + 20_000);
+
+        then:
+        assertNull(sessionStore.get(inactive.getRsid()));
+        assertNotNull(sessionStore.get(active.getRsid()));
+
+        when:
+        sessionStore.expire(now + 61_000);
+
+        then:
+        assertNull(sessionStore.get(active.getRsid()));
+        assertEquals(2, sessionStore.metrics().getExpired());
+        assertEquals(0, sessionStore.metrics().getActive());
+    }
+
+    @Test
+    public void test_evict_least_recently_used_session() {
+        // setup:
+        long now = System.currentTimeMillis();
+        HttpSession first = session(now - 30_000);
+        HttpSession second = session(now - 20_000);
+        HttpSession third = session(now - 10_000);
+        HttpSession fourth;
+        SessionStoreMetrics metrics;
+
+        when:
+        first.setLastAccessedTime(now);
+        fourth = session(now);
+        metrics = sessionStore.metrics();
+
+        then:
+        assertNotNull(sessionStore.get(first.getRsid()));
+        assertNull(sessionStore.get(second.getRsid()));
+        assertNotNull(sessionStore.get(third.getRsid()));
+        assertNotNull(sessionStore.get(fourth.getRsid()));
+        assertEquals(3, metrics.getActive());
+        assertEquals(4, metrics.getCreated());
+        assertEquals(1, metrics.getEvicted());
+    }
+
+    private HttpSession session(long lastAccessedTime) {
+        HttpSession session = new HttpSession();
+        session.setLastAccessedTime(lastAccessedTime);
+        sessionStore.put(session);
+        return session;
+    }
+
+}
@@ -0,0 +1,165 @@
+package hr.yeti.rudimentary.server.security.auth.basic;
+
+import com.sun.net.httpserver.HttpPrincipal;
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.security.Credential;
+import hr.yeti.rudimentary.security.Identity;
+import hr.yeti.rudimentary.security.UsernamePasswordCredential;
+import hr.yeti.rudimentary.security.spi.IdentityStore;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BasicAuthMechanismTest {
+
+    BasicAuthMechanism basicAuthMechanism;
+    CountingIdentityStore identityStore;
+
+    @BeforeEach
+    public void beforeEach() {
+        new ContextMock(
+            Map.of(
+                "security.basic.enabled", "true",
+                "security.realm", "test",
+                "security.urisRequiringAuthentication", "",
+                "security.urisNotRequiringAuthentication", "",
+                "security.basic.cacheTtl", "60",
+                "security.basic.cacheSize", "2"
+            ),
+            CountingIdentityStore.class,
+            BasicAuthMechanism.class
+        );
+        basicAuthMechanism = Instance.of(BasicAuthMechanism.class);
+        identityStore = (CountingIdentityStore) Instance.of(IdentityStore.class);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        basicAuthMechanism.destroy();
+    }
+
+    @Test
+    public void test_repeated_verification_is_cached() {
+        // setup:
+        Identity identity;
+
+        when:
+        basicAuthMechanism.verify(encode("john:secret"));
+        identity = basicAuthMechanism.verify(encode("john:secret"));
+
+        then:
+        assertNotNull(identity);
+        assertEquals("john", identity.getUsername());
+        assertEquals(1, identityStore.validations);
+        assertEquals(1, basicAuthMechanism.cached());
+    }
+
+    @Test
+    public void test_failed_verification_is_not_cached() {
+        when:
+        basicAuthMechanism.verify(encode("john:wrong"));
+
+        then:
+        assertNull(basicAuthMechanism.verify(encode("john:wrong")));
+        assertEquals(2, identityStore.validations);
+        assertEquals(0, basicAuthMechanism.cached());
+    }
+
+    @Test
+    public void test_cache_is_bounded() {
+        when:
+        basicAuthMechanism.verify(encode("john:secret"));
+        basicAuthMechanism.verify(encode("jane:secret"));
+        basicAuthMechanism.verify(encode("jack:secret"));
+        basicAuthMechanism.verify(encode("jack:secret"));
+
+        then:
+        assertEquals(2, basicAuthMechanism.cached());
+        assertEquals(3, identityStore.validations);
+
+        when:
+        basicAuthMechanism.verify(encode("john:secret"));
+
+        then:
+        assertEquals(4, identityStore.validations);
+    }
+
+    @Test
+    public void test_identity_change_drops_cached_verifications() {
+        // setup:
+        basicAuthMechanism.verify(encode("john:secret"));
+        basicAuthMechanism.verify(encode("jane:secret"));
+
+        when:
+        identityStore.changed("john");
+
+        then:
+        assertEquals(1, basicAuthMechanism.cached());
+
+        when:
+        basicAuthMechanism.verify(encode("john:secret"));
+        basicAuthMechanism.verify(encode("jane:secret"));
+
+        then:
+        assertEquals(3, identityStore.validations);
+
+        when:
+        identityStore.changed(null);
+
+        then:
+        assertEquals(0, basicAuthMechanism.cached());
+
+        when:
+        basicAuthMechanism.destroy();
+
+        then:
+        assertEquals(0, identityStore.listeners.size());
+    }
+
+    private static String encode(String usernamePassword) {
+        return Base64.getEncoder().encodeToString(usernamePassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static class CountingIdentityStore implements IdentityStore {
+
+        int validations;
+        List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public boolean validate(Credential credential) {
+            validations++;
+            return ((UsernamePasswordCredential) credential).getPassword().equals("secret");
+        }
+
+        @Override
+        public Identity getIdentity(HttpPrincipal principal) {
+            return new Identity(principal.getUsername(), principal.getRealm());
+        }
+
+        @Override
+        public void addIdentityChangeListener(Consumer<String> listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeIdentityChangeListener(Consumer<String> listener) {
+            listeners.remove(listener);
+        }
+
+        void changed(String username) {
+            listeners.forEach((listener) -> listener.accept(username));
+        }
+
+    }
+
+}
@@ -0,0 +1,184 @@
+package hr.yeti.rudimentary.server.security.auth.bearer;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.security.Identity;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BearerTokenAuthMechanismTest {
+
+    static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    static KeyPair rsa;
+    static KeyPair ec;
+
+    BearerTokenAuthMechanism bearerTokenAuthMechanism;
+    long now;
+
+    @BeforeAll
+    public static void beforeAll() throws GeneralSecurityException {
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        rsa = rsaGenerator.generateKeyPair();
+
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        ec = ecGenerator.generateKeyPair();
+    }
+
+    @BeforeEach
+    public void beforeEach() {
+        RSAPublicKey rsaKey = (RSAPublicKey) rsa.getPublic();
+        ECPublicKey ecKey = (ECPublicKey) ec.getPublic();
+
+        String jwks = "{\"keys\":["
+            + "{\"kty\":\"RSA\",\"kid\":\"rsa\",\"n\":\"" + encode(rsaKey.getModulus()) + "\",\"e\":\"" + encode(rsaKey.getPublicExponent()) + "\"},"
+            + "{\"kty\":\"EC\",\"kid\":\"ec\",\"crv\":\"P-256\",\"x\":\"" + encode(ecKey.getW().getAffineX()) + "\",\"y\":\"" + encode(ecKey.getW().getAffineY()) + "\"},"
+            + "{\"kty\":\"RSA\",\"kid\":\"encryption\",\"use\":\"enc\",\"n\":\"AQAB\",\"e\":\"AQAB\"}"
+            + "]}";
+
+        new ContextMock(
+            Map.of(
+                "security.bearer.enabled", "true",
+                "security.bearer.secret", SECRET,
+                "security.bearer.jwks", jwks,
+                "security.bearer.issuer", "https://issuer.example",
+                "security.bearer.cacheSize", "2",
+                "security.realm", "test",
+                "security.urisRequiringAuthentication", "",
+                "security.urisNotRequiringAuthentication", ""
+            ),
+            BearerTokenAuthMechanism.class
+        );
+        bearerTokenAuthMechanism = Instance.of(BearerTokenAuthMechanism.class);
+        now = System.currentTimeMillis();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        bearerTokenAuthMechanism.destroy();
+    }
+
+    @Test
+    public void test_verify_hs256_token_and_build_identity() throws GeneralSecurityException {
+        // setup:
+        String token = hs256("{\"alg\":\"HS256\"}", claims(", \"groups\":[\"admins\",\"users\"], \"roles\":\"read write\""));
+        Identity identity;
+
+        when:
+        identity = bearerTokenAuthMechanism.verify(token, now);
+
+        then:
+        assertNotNull(identity);
+        assertEquals("john", identity.getUsername());
+        assertEquals("test", identity.getRealm());
+        assertEquals(List.of("admins", "users"), identity.getGroups());
+        assertEquals(List.of("read", "write"), identity.getRoles());
+        assertSame(identity, bearerTokenAuthMechanism.verify(token, now));
+        assertEquals(1, bearerTokenAuthMechanism.cached());
+    }
+
+    @Test
+    public void test_verify_rs256_and_es256_tokens_with_jwks_keys() throws GeneralSecurityException {
+        expect:
+        assertNotNull(bearerTokenAuthMechanism.verify(sign("SHA256withRSA", rsa.getPrivate(), "{\"alg\":\"RS256\",\"kid\":\"rsa\"}", claims("")), now));
+        assertNotNull(bearerTokenAuthMechanism.verify(sign("SHA256withECDSAinP1363Format", ec.getPrivate(), "{\"alg\":\"ES256\",\"kid\":\"ec\"}", claims("")), now));
+        assertNotNull(bearerTokenAuthMechanism.verify(sign("SHA256withECDSAinP1363Format", ec.getPrivate(), "{\"alg\":\"ES256\"}", claims("")), now));
+        assertNull(bearerTokenAuthMechanism.verify(sign("SHA256withRSA", rsa.getPrivate(), "{\"alg\":\"RS256\",\"kid\":\"encryption\"}", claims("")), now));
+    }
+
+    @Test
+    public void test_reject_tokens_with_invalid_signature() throws GeneralSecurityException {
+        // setup:
+        String token = hs256("{\"alg\":\"HS256\"}", claims(""));
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + base64(claims(", \"roles\":[\"admin\"]")) + "." + parts[2];
+        String unsigned = base64("{\"alg\":\"none\"}") + "." + parts[1] + ".";
+        String confused = hs256("{\"alg\":\"HS256\",\"kid\":\"rsa\"}", claims(""));
+
+        expect:
+        assertNull(bearerTokenAuthMechanism.verify(tampered, now));
+        assertNull(bearerTokenAuthMechanism.verify(unsigned, now));
+        assertNull(bearerTokenAuthMechanism.verify(confused, now));
+        assertNull(bearerTokenAuthMechanism.verify("not.a.token", now));
+        assertNull(bearerTokenAuthMechanism.verify(token + ".extra", now));
+        assertEquals(0, bearerTokenAuthMechanism.cached());
+    }
+
+    @Test
+    public void test_reject_expired_tokens_and_invalid_claims() throws GeneralSecurityException {
+        // setup:
+        String token = hs256("{\"alg\":\"HS256\"}", claims(""));
+        long expiry = TimeUnit.SECONDS.toMillis(now / 1000 + 60 + 30);
+
+        when:
+        bearerTokenAuthMechanism.verify(token, now);
+
+        then:
+        assertNotNull(bearerTokenAuthMechanism.verify(token, expiry - 1));
+        assertNull(bearerTokenAuthMechanism.verify(token, expiry));
+        assertEquals(0, bearerTokenAuthMechanism.cached());
+
+        expect:
+        assertNull(bearerTokenAuthMechanism.verify(hs256("{\"alg\":\"HS256\"}", "{\"sub\":\"john\",\"iss\":\"https://issuer.example\"}"), now));
+        assertNull(bearerTokenAuthMechanism.verify(hs256("{\"alg\":\"HS256\"}", claims(", \"nbf\":" + (now / 1000 + 600))), now));
+        assertNull(bearerTokenAuthMechanism.verify(hs256("{\"alg\":\"HS256\"}", claims("").replace("issuer", "other")), now));
+    }
+
+    private String claims(String additional) {
+        return "{\"sub\":\"john\",\"iss\":\"https://issuer.example\",\"exp\":" + (now / 1000 + 60) + additional + "}";
+    }
+
+    private static String hs256(String header, String claims) throws GeneralSecurityException {
+        String content = base64(header) + "." + base64(claims);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return content + "." + base64(mac.doFinal(content.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String sign(String algorithm, PrivateKey key, String header, String claims) throws GeneralSecurityException {
+        String content = base64(header) + "." + base64(claims);
+        Signature signature = Signature.getInstance(algorithm);
+        signature.initSign(key);
+        signature.update(content.getBytes(StandardCharsets.US_ASCII));
+        return content + "." + base64(signature.sign());
+    }
+
+    private static String base64(String value) {
+        return base64(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String base64(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return base64(bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes);
+    }
+
+}
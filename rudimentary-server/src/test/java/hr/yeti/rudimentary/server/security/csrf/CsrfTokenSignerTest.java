@@ -0,0 +1,102 @@
+package hr.yeti.rudimentary.server.security.csrf;
+
+import hr.yeti.rudimentary.context.spi.ContextException;
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CsrfTokenSignerTest {
+
+    CsrfTokenSigner csrfTokenSigner;
+
+    @BeforeEach
+    public void beforeEach() {
+        new ContextMock(
+            Map.of(
+                "security.csrf.enabled", "true",
+                "security.csrf.mode", "signed",
+                "security.csrf.tokenTtl", "60",
+                "security.csrf.secret", "csrf-secret"
+            ),
+            CsrfTokenStore.class,
+            CsrfTokenSigner.class
+        );
+        csrfTokenSigner = Instance.of(CsrfTokenSigner.class);
+    }
+
+    @Test
+    public void test_no_tokens_are_stored() {
+        expect:
+        assertNull(Instance.of(CsrfTokenStore.class));
+    }
+
+    @Test
+    public void test_verify_signed_token() {
+        // setup:
+        String csrfToken;
+
+        when:
+        csrfToken = csrfTokenSigner.create("rsid").getValue();
+
+        then:
+        assertTrue(csrfTokenSigner.verify(csrfToken, "rsid"));
+        assertFalse(csrfTokenSigner.verify(csrfToken + "x", "rsid"));
+        assertFalse(csrfTokenSigner.verify("1." + csrfToken.substring(csrfToken.indexOf('.') + 1), "rsid"));
+        assertFalse(csrfTokenSigner.verify("garbage", "rsid"));
+        assertFalse(csrfTokenSigner.verify(null, "rsid"));
+    }
+
+    @Test
+    public void test_reject_expired_token() {
+        // setup:
+        long now = System.currentTimeMillis();
+        String csrfToken;
+
+        when:
+        csrfToken = csrfTokenSigner.create("rsid", now - 61_000).getValue();
+
+        then:
+        assertFalse(csrfTokenSigner.verify(csrfToken, "rsid", now));
+        assertTrue(csrfTokenSigner.verify(csrfToken, "rsid", now - 2_000));
+    }
+
+    @Test
+    public void test_reject_token_issued_for_other_session() {
+        // setup:
+        String csrfToken;
+
+        when:
+        csrfToken = csrfTokenSigner.create("rsid").getValue();
+
+        then:
+        assertFalse(csrfTokenSigner.verify(csrfToken, "other"));
+        assertFalse(csrfTokenSigner.verify(csrfToken, null));
+        assertTrue(csrfTokenSigner.verify(csrfTokenSigner.create(null).getValue(), null));
+    }
+
+    @Test
+    public void test_fail_initialization_on_unknown_mode() {
+        // setup:
+        ContextException exception;
+
+        when:
+        exception = assertThrows(ContextException.class, () -> {
+            new ContextMock(
+                Map.of("security.csrf.enabled", "true", "security.csrf.mode", "sgined"),
+                CsrfTokenStore.class,
+                CsrfTokenSigner.class,
+                CsrfTokenValidationFilter.class
+            );
+        });
+
+        then:
+        assertTrue(exception.getCause().getMessage().contains("security.csrf.mode"));
+    }
+
+}
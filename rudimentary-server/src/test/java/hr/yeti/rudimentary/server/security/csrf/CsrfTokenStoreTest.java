@@ -0,0 +1,90 @@
+package hr.yeti.rudimentary.server.security.csrf;
+
+import hr.yeti.rudimentary.context.spi.Instance;
+import hr.yeti.rudimentary.test.ContextMock;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CsrfTokenStoreTest {
+
+    CsrfTokenStore csrfTokenStore;
+
+    @BeforeEach
+    public void beforeEach() {
+        new ContextMock(
+            Map.of(
+                "security.csrf.enabled", "true",
+                "security.csrf.tokenTtl", "60",
+                "security.csrf.maxTokens", "3"
+            ),
+            CsrfTokenStore.class,
+            CsrfTokenSigner.class
+        );
+        csrfTokenStore = Instance.of(CsrfTokenStore.class);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        csrfTokenStore.destroy();
+    }
+
+    @Test
+    public void test_store_mode_is_default() {
+        expect:
+        assertNull(Instance.of(CsrfTokenSigner.class));
+    }
+
+    @Test
+    public void test_contains_issued_token() {
+        // setup:
+        CsrfToken csrfToken;
+
+        when:
+        csrfToken = csrfTokenStore.create();
+
+        then:
+        assertTrue(csrfTokenStore.contains(csrfToken.getValue()));
+        assertFalse(csrfTokenStore.contains("unknown"));
+        assertFalse(csrfTokenStore.contains(null));
+    }
+
+    @Test
+    public void test_remove_expired_tokens() {
+        // setup:
+        CsrfToken csrfToken = csrfTokenStore.create();
+
+        when:
+        csrfTokenStore.removeExpired(System.currentTimeMillis() + 61_000);
+
+        then:
+        assertFalse(csrfTokenStore.contains(csrfToken.getValue()));
+        assertEquals(0, csrfTokenStore.size());
+    }
+
+    @Test
+    public void test_drop_least_recently_used_token() {
+        // setup:
+        CsrfToken first = csrfTokenStore.create();
+        CsrfToken second = csrfTokenStore.create();
+        CsrfToken third = csrfTokenStore.create();
+        CsrfToken fourth;
+
+        when:
+        csrfTokenStore.contains(first.getValue());
+        fourth = csrfTokenStore.create();
+
+        then:
+        assertEquals(3, csrfTokenStore.size());
+        assertTrue(csrfTokenStore.contains(first.getValue()));
+        assertFalse(csrfTokenStore.contains(second.getValue()));
+        assertTrue(csrfTokenStore.contains(third.getValue()));
+        assertTrue(csrfTokenStore.contains(fourth.getValue()));
+    }
+
+}
@@ -0,0 +1,3 @@
+function precompressed() {
+    return 'Served from precompressed sibling.';
+}